@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmarks;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * Canned requests and service responses shared by the benchmarks.
+ */
+public final class Fixtures {
+
+    public static final Charset UTF8 = Charset.forName("UTF-8");
+
+    public static final String TABLE_NAME = "benchmark-table";
+    public static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/benchmark-queue";
+    public static final String BUCKET_NAME = "benchmark-bucket";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Returns a small item similar to a typical DynamoDB application record.
+     */
+    public static Map<String, AttributeValue> item() {
+        Map<String, AttributeValue> item = new HashMap<String, AttributeValue>();
+        item.put("id", new AttributeValue().withS("6f1d6a3e-6d57-4b4c-9d3f-3e0b3f0f2a11"));
+        item.put("version", new AttributeValue().withN("42"));
+        item.put("name", new AttributeValue().withS("benchmark item"));
+        item.put("price", new AttributeValue().withN("129.99"));
+        item.put("tags", new AttributeValue().withSS("a", "b", "c"));
+        item.put("active", new AttributeValue().withBOOL(true));
+        return item;
+    }
+
+    public static Map<String, AttributeValue> key() {
+        Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+        key.put("id", new AttributeValue().withS("6f1d6a3e-6d57-4b4c-9d3f-3e0b3f0f2a11"));
+        return key;
+    }
+
+    public static byte[] dynamoDbGetItemResponse() {
+        return ("{\"Item\":{"
+                + "\"id\":{\"S\":\"6f1d6a3e-6d57-4b4c-9d3f-3e0b3f0f2a11\"},"
+                + "\"version\":{\"N\":\"42\"},"
+                + "\"name\":{\"S\":\"benchmark item\"},"
+                + "\"price\":{\"N\":\"129.99\"},"
+                + "\"tags\":{\"SS\":[\"a\",\"b\",\"c\"]},"
+                + "\"active\":{\"BOOL\":true}}}").getBytes(UTF8);
+    }
+
+    /**
+     * Returns a Query response page of the given number of items, each with a
+     * nested map and list. Each item is roughly 360 bytes of JSON, so 2800
+     * items give a page of about 1MB, the most a Query returns.
+     */
+    public static byte[] dynamoDbQueryResponse(int items) {
+        StringBuilder json = new StringBuilder("{\"Items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":{\"S\":\"6f1d6a3e-6d57-4b4c-9d3f-3e0b3f0f2a11\"},")
+                .append("\"sort\":{\"N\":\"").append(i).append("\"},")
+                .append("\"version\":{\"N\":\"42\"},")
+                .append("\"name\":{\"S\":\"benchmark item ").append(i).append("\"},")
+                .append("\"price\":{\"N\":\"129.99\"},")
+                .append("\"tags\":{\"SS\":[\"a\",\"b\",\"c\"]},")
+                .append("\"active\":{\"BOOL\":true},")
+                .append("\"address\":{\"M\":{\"street\":{\"S\":\"410 Terry Ave N\"},")
+                .append("\"city\":{\"S\":\"Seattle\"},\"zip\":{\"N\":\"98109\"}}},")
+                .append("\"history\":{\"L\":[{\"N\":\"119.99\"},{\"N\":\"124.99\"},{\"NULL\":true}]}}");
+        }
+        json.append("],\"Count\":").append(items).append(",\"ScannedCount\":").append(items)
+            .append(",\"LastEvaluatedKey\":{\"id\":{\"S\":\"6f1d6a3e-6d57-4b4c-9d3f-3e0b3f0f2a11\"},")
+            .append("\"sort\":{\"N\":\"").append(items - 1).append("\"}}}");
+        return json.toString().getBytes(UTF8);
+    }
+
+    public static byte[] sqsReceiveMessageResponse(int messages) {
+        StringBuilder xml = new StringBuilder(
+                "<ReceiveMessageResponse xmlns=\"http://queue.amazonaws.com/doc/2012-11-05/\">"
+                + "<ReceiveMessageResult>");
+        for (int i = 0; i < messages; i++) {
+            xml.append("<Message>")
+               .append("<MessageId>5fea7756-0ea4-451a-a703-a558b933e27").append(i).append("</MessageId>")
+               .append("<ReceiptHandle>MbZj6wDWli+JvwwJaBV+3dcjk2YW2vA3+STFFljTM8tJJg6HRG6PYSasuWXPJB+Cw")
+               .append("Lj1FjgXUv1uSj1gUPAWV66FU/WeR4mq2OKpEGYWbnLmpRCJVAyeMjeU5ZBdtcQ+QE</ReceiptHandle>")
+               .append("<MD5OfBody>fafb00f5732ab283681e124bf8747ed1</MD5OfBody>")
+               .append("<Body>This is a test message</Body>")
+               .append("<Attribute><Name>SenderId</Name><Value>195004372649</Value></Attribute>")
+               .append("<Attribute><Name>SentTimestamp</Name><Value>1238099229000</Value></Attribute>")
+               .append("</Message>");
+        }
+        xml.append("</ReceiveMessageResult>")
+           .append("<ResponseMetadata><RequestId>b6633655-283d-45b4-aee4-4e84e0ae6afa</RequestId></ResponseMetadata>")
+           .append("</ReceiveMessageResponse>");
+        return xml.toString().getBytes(UTF8);
+    }
+
+    public static byte[] sqsGetQueueUrlResponse() {
+        return ("<GetQueueUrlResponse xmlns=\"http://queue.amazonaws.com/doc/2012-11-05/\">"
+                + "<GetQueueUrlResult><QueueUrl>" + QUEUE_URL + "</QueueUrl></GetQueueUrlResult>"
+                + "<ResponseMetadata><RequestId>470a6f13-2ed9-4181-ad8a-2fdea142988e</RequestId></ResponseMetadata>"
+                + "</GetQueueUrlResponse>").getBytes(UTF8);
+    }
+
+    public static byte[] s3ListObjectsResponse(int keys) {
+        StringBuilder xml = new StringBuilder(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Name>" + BUCKET_NAME + "</Name><Prefix></Prefix><Marker></Marker>"
+                + "<MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>");
+        appendS3Contents(xml, keys, true);
+        xml.append("</ListBucketResult>");
+        return xml.toString().getBytes(UTF8);
+    }
+
+    /**
+     * Returns a ListObjectsV2 response with the given number of keys, without
+     * their owners, which ListObjectsV2 only returns when asked for.
+     */
+    public static byte[] s3ListObjectsV2Response(int keys) {
+        StringBuilder xml = new StringBuilder(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+                + "<Name>" + BUCKET_NAME + "</Name><Prefix></Prefix>"
+                + "<KeyCount>" + keys + "</KeyCount><MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>");
+        appendS3Contents(xml, keys, false);
+        xml.append("</ListBucketResult>");
+        return xml.toString().getBytes(UTF8);
+    }
+
+    private static void appendS3Contents(StringBuilder xml, int keys, boolean withOwner) {
+        for (int i = 0; i < keys; i++) {
+            xml.append("<Contents>")
+               .append("<Key>logs/2016/10/18/object-").append(i).append(".json</Key>")
+               .append("<LastModified>2016-10-18T17:50:30.000Z</LastModified>")
+               .append("<ETag>&quot;fba9dede5f27731c9771645a39863328&quot;</ETag>")
+               .append("<Size>434234</Size>");
+            if (withOwner) {
+                xml.append("<Owner><ID>75aa57f09aa0c8caeab4f8c24e99d10f8e7faeebf76c078efc7c6caea54ba06a</ID>")
+                   .append("<DisplayName>mtd@amazon.com</DisplayName></Owner>");
+            }
+            xml.append("<StorageClass>STANDARD</StorageClass>")
+               .append("</Contents>");
+        }
+    }
+
+    /**
+     * Returns a DescribeInstances response with one instance per reservation.
+     * Each instance is roughly 2KB of XML, so 1000 reservations give a
+     * response of about 2MB.
+     */
+    public static byte[] ec2DescribeInstancesResponse(int reservations) {
+        StringBuilder xml = new StringBuilder(
+                "<DescribeInstancesResponse xmlns=\"http://ec2.amazonaws.com/doc/2016-09-15/\">"
+                + "<requestId>8f7724cf-496f-496e-8fe3-example</requestId><reservationSet>");
+        for (int i = 0; i < reservations; i++) {
+            xml.append("<item><reservationId>r-1234567890abcdef").append(i).append("</reservationId>")
+               .append("<ownerId>123456789012</ownerId><groupSet/><instancesSet><item>")
+               .append("<instanceId>i-1234567890abcdef").append(i).append("</instanceId>")
+               .append("<imageId>ami-bff32ccc</imageId>")
+               .append("<instanceState><code>16</code><name>running</name></instanceState>")
+               .append("<privateDnsName>ip-192-168-1-88.eu-west-1.compute.internal</privateDnsName>")
+               .append("<dnsName>ec2-54-194-252-215.eu-west-1.compute.amazonaws.com</dnsName>")
+               .append("<reason/><keyName>my_keypair</keyName><amiLaunchIndex>0</amiLaunchIndex>")
+               .append("<productCodes/><instanceType>t2.micro</instanceType>")
+               .append("<launchTime>2016-10-18T17:50:30.000Z</launchTime>")
+               .append("<placement><availabilityZone>eu-west-1c</availabilityZone>")
+               .append("<groupName/><tenancy>default</tenancy></placement>")
+               .append("<monitoring><state>disabled</state></monitoring>")
+               .append("<subnetId>subnet-56f5f633</subnetId><vpcId>vpc-11112222</vpcId>")
+               .append("<privateIpAddress>192.168.1.88</privateIpAddress>")
+               .append("<ipAddress>54.194.252.215</ipAddress><sourceDestCheck>true</sourceDestCheck>")
+               .append("<groupSet><item><groupId>sg-e4076980</groupId>")
+               .append("<groupName>SecurityGroup1</groupName></item></groupSet>")
+               .append("<architecture>x86_64</architecture><rootDeviceType>ebs</rootDeviceType>")
+               .append("<rootDeviceName>/dev/xvda</rootDeviceName><blockDeviceMapping><item>")
+               .append("<deviceName>/dev/xvda</deviceName><ebs><volumeId>vol-1234567890abcdef0</volumeId>")
+               .append("<status>attached</status><attachTime>2016-10-18T17:50:31.000Z</attachTime>")
+               .append("<deleteOnTermination>true</deleteOnTermination></ebs></item></blockDeviceMapping>")
+               .append("<virtualizationType>hvm</virtualizationType><clientToken>xMcwG14507example</clientToken>")
+               .append("<tagSet><item><key>Name</key><value>Server_1</value></item></tagSet>")
+               .append("<hypervisor>xen</hypervisor><networkInterfaceSet><item>")
+               .append("<networkInterfaceId>eni-551ba033</networkInterfaceId>")
+               .append("<subnetId>subnet-56f5f633</subnetId><vpcId>vpc-11112222</vpcId>")
+               .append("<description>Primary network interface</description><ownerId>123456789012</ownerId>")
+               .append("<status>in-use</status><macAddress>02:dd:2c:5e:01:69</macAddress>")
+               .append("<privateIpAddress>192.168.1.88</privateIpAddress>")
+               .append("<privateDnsName>ip-192-168-1-88.eu-west-1.compute.internal</privateDnsName>")
+               .append("<sourceDestCheck>true</sourceDestCheck><groupSet><item><groupId>sg-e4076980</groupId>")
+               .append("<groupName>SecurityGroup1</groupName></item></groupSet><attachment>")
+               .append("<attachmentId>eni-attach-39697adc</attachmentId><deviceIndex>0</deviceIndex>")
+               .append("<status>attached</status><attachTime>2016-10-18T17:50:30.000Z</attachTime>")
+               .append("<deleteOnTermination>true</deleteOnTermination></attachment></item></networkInterfaceSet>")
+               .append("<ebsOptimized>false</ebsOptimized>")
+               .append("</item></instancesSet></item>");
+        }
+        xml.append("</reservationSet></DescribeInstancesResponse>");
+        return xml.toString().getBytes(UTF8);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmarks.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.benchmarks.Fixtures;
+import com.amazonaws.regions.Region;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.sqs.AmazonSQSClient;
+import com.amazonaws.services.sqs.model.GetQueueUrlResult;
+
+/**
+ * Measures complete client calls, covering marshalling, signing,
+ * {@code AmazonHttpClient.execute} and unmarshalling, against a
+ * {@link StubHttpServer} on the loopback interface. Run with JMH's
+ * {@code -t} option to measure contention between calling threads.
+ */
+@State(Scope.Benchmark)
+public class ClientExecutionBenchmark {
+
+    private StubHttpServer server;
+    private AmazonDynamoDBClient dynamoDb;
+    private AmazonSQSClient sqs;
+    private AmazonS3Client s3;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new StubHttpServer();
+        server.start();
+
+        AWSCredentials credentials =
+                new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+        ClientConfiguration config = new ClientConfiguration().withMaxErrorRetry(0);
+
+        dynamoDb = new AmazonDynamoDBClient(credentials, config);
+        dynamoDb.setEndpoint(server.getEndpoint());
+        dynamoDb.setSignerRegionOverride("us-east-1");
+
+        sqs = new AmazonSQSClient(credentials, config);
+        sqs.setEndpoint(server.getEndpoint());
+        sqs.setSignerRegionOverride("us-east-1");
+
+        s3 = new AmazonS3Client(credentials, config);
+        s3.setRegion(Region.getRegion(Regions.US_EAST_1));
+        s3.setEndpoint(server.getEndpoint());
+        s3.setS3ClientOptions(S3ClientOptions.builder().setPathStyleAccess(true).build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        dynamoDb.shutdown();
+        sqs.shutdown();
+        s3.shutdown();
+        server.stop();
+    }
+
+    @Benchmark
+    public GetItemResult dynamoDbGetItem() {
+        return dynamoDb.getItem(Fixtures.TABLE_NAME, Fixtures.key());
+    }
+
+    @Benchmark
+    public GetQueueUrlResult sqsGetQueueUrl() {
+        return sqs.getQueueUrl("benchmark-queue");
+    }
+
+    @Benchmark
+    public ObjectMetadata s3GetObjectMetadata() {
+        return s3.getObjectMetadata(Fixtures.BUCKET_NAME, "logs/2016/10/18/object-0.json");
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmarks.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.amazonaws.benchmarks.Fixtures;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal local HTTP server answering DynamoDB, SQS and S3 calls with canned
+ * responses, so the client pipeline can be measured without the network.
+ * Requests are routed on their shape: DynamoDB calls carry an
+ * {@code X-Amz-Target} header, S3 object metadata calls are {@code HEAD}
+ * requests and everything else is treated as an SQS query call.
+ */
+public class StubHttpServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    static {
+        // Without TCP_NODELAY delayed acknowledgements dominate the latency
+        // of every call made to the JDK server.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StubHttpServer() throws IOException {
+        final byte[] dynamoDbResponse = Fixtures.dynamoDbGetItemResponse();
+        final byte[] sqsResponse = Fixtures.sqsGetQueueUrlResponse();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                drain(exchange.getRequestBody());
+                exchange.getResponseHeaders().add("x-amzn-RequestId", "benchmark");
+                if (exchange.getRequestHeaders().containsKey("X-Amz-Target")) {
+                    exchange.getResponseHeaders().add("Content-Type", "application/x-amz-json-1.0");
+                    respond(exchange, dynamoDbResponse);
+                } else if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().add("ETag", "\"fba9dede5f27731c9771645a39863328\"");
+                    exchange.getResponseHeaders().add("Last-Modified", "Tue, 18 Oct 2016 17:50:30 GMT");
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                } else {
+                    exchange.getResponseHeaders().add("Content-Type", "text/xml");
+                    respond(exchange, sqsResponse);
+                }
+            }
+        });
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getEndpoint() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            out.write(body);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) != -1) {
+            // discard the request body
+        }
+        in.close();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmarks.mapper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.amazonaws.benchmarks.Fixtures;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.ConversionSchemas;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.AccessorStrategy;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.SaveBehavior;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+
+/**
+ * Measures the cost of a {@link DynamoDBMapper} save and load of a small item,
+ * with the properties accessed by reflection or by generated accessors. The
+ * client is a stub which returns canned results, so only the mapping and the
+ * building of the requests are measured.
+ */
+@State(Scope.Benchmark)
+public class DynamoDBMapperBenchmark {
+
+    @Param({"REFLECTION", "GENERATED"})
+    public AccessorStrategy accessorStrategy;
+
+    private DynamoDBMapper mapper;
+    private Item item;
+
+    @Setup
+    public void setup() {
+        final GetItemResult getItemResult = new GetItemResult().withItem(Fixtures.item());
+        AmazonDynamoDB dynamoDb = (AmazonDynamoDB) Proxy.newProxyInstance(
+                AmazonDynamoDB.class.getClassLoader(), new Class<?>[] {AmazonDynamoDB.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getItem")) {
+                            return getItemResult;
+                        } else if (method.getName().equals("putItem")) {
+                            return new PutItemResult();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        mapper = new DynamoDBMapper(dynamoDb, DynamoDBMapperConfig.builder()
+                .withSaveBehavior(SaveBehavior.CLOBBER)
+                .withConversionSchema(ConversionSchemas.V2)
+                .withAccessorStrategy(accessorStrategy)
+                .build());
+        item = mapper.load(Item.class, "6f1d6a3e-6d57-4b4c-9d3f-3e0b3f0f2a11");
+    }
+
+    @Benchmark
+    public Item load() {
+        return mapper.load(Item.class, item.getId());
+    }
+
+    @Benchmark
+    public Item save() {
+        mapper.save(item);
+        return item;
+    }
+
+    /**
+     * The domain class of {@link Fixtures#item()}.
+     */
+    @DynamoDBTable(tableName = Fixtures.TABLE_NAME)
+    public static class Item {
+        private String id;
+        private long version;
+        private String name;
+        private double price;
+        private Set<String> tags;
+        private boolean active;
+
+        @DynamoDBHashKey
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public long getVersion() { return version; }
+        public void setVersion(long version) { this.version = version; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public double getPrice() { return price; }
+        public void setPrice(double price) { this.price = price; }
+        public Set<String> getTags() { return tags; }
+        public void setTags(Set<String> tags) { this.tags = tags; }
+        public boolean isActive() { return active; }
+        public void setActive(boolean active) { this.active = active; }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmarks.marshalling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.amazonaws.Request;
+import com.amazonaws.benchmarks.Fixtures;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.transform.PutItemRequestMarshaller;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.transform.MultiObjectDeleteXmlFactory;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.services.sqs.model.transform.SendMessageRequestMarshaller;
+
+/**
+ * Measures request marshalling for the three wire protocols: JSON
+ * ({@code SdkJsonGenerator}) for DynamoDB, form encoded query parameters for
+ * SQS and XML for S3.
+ */
+@State(Scope.Benchmark)
+public class MarshallingBenchmark {
+
+    private SdkJsonProtocolFactory dynamoDbProtocolFactory;
+    private PutItemRequest putItemRequest;
+    private SendMessageRequest sendMessageRequest;
+    private DeleteObjectsRequest deleteObjectsRequest;
+
+    @Setup
+    public void setup() {
+        dynamoDbProtocolFactory = new SdkJsonProtocolFactory(new JsonClientMetadata()
+                .withProtocolVersion("1.0").withSupportsCbor(false).withSupportsIon(false));
+        putItemRequest = new PutItemRequest(Fixtures.TABLE_NAME, Fixtures.item());
+
+        sendMessageRequest = new SendMessageRequest(Fixtures.QUEUE_URL, "This is a test message")
+                .addMessageAttributesEntry("trace-id", new MessageAttributeValue()
+                        .withDataType("String").withStringValue("1-57f5498f-d91047849216d0f2ea3b6442"));
+
+        List<KeyVersion> keys = new ArrayList<KeyVersion>();
+        for (int i = 0; i < 100; i++) {
+            keys.add(new KeyVersion("logs/2016/10/18/object-" + i + ".json"));
+        }
+        deleteObjectsRequest = new DeleteObjectsRequest(Fixtures.BUCKET_NAME).withKeys(keys);
+    }
+
+    @Benchmark
+    public Request<PutItemRequest> dynamoDbPutItem() {
+        return new PutItemRequestMarshaller(dynamoDbProtocolFactory).marshall(putItemRequest);
+    }
+
+    @Benchmark
+    public Request<SendMessageRequest> sqsSendMessage() {
+        return new SendMessageRequestMarshaller().marshall(sendMessageRequest);
+    }
+
+    @Benchmark
+    public byte[] s3DeleteObjects() {
+        return new MultiObjectDeleteXmlFactory().convertToXmlByteArray(deleteObjectsRequest);
+    }
+}
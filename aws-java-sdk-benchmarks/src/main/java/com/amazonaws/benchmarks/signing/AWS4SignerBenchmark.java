@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmarks.signing;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.benchmarks.Fixtures;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.transform.GetItemRequestMarshaller;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.services.sqs.model.transform.SendMessageRequestMarshaller;
+import com.amazonaws.util.IOUtils;
+
+/**
+ * Measures {@link AWS4Signer#sign} for small DynamoDB (JSON payload) and SQS
+ * (form encoded query parameters) requests. Each invocation signs a fresh copy
+ * of an already marshalled request so that marshalling is not measured.
+ */
+@State(Scope.Benchmark)
+public class AWS4SignerBenchmark {
+
+    private final AWSCredentials credentials =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+    private AWS4Signer dynamoDbSigner;
+    private AWS4Signer sqsSigner;
+
+    private Request<?> dynamoDbTemplate;
+    private byte[] dynamoDbContent;
+    private Request<?> sqsTemplate;
+
+    @Setup
+    public void setup() throws Exception {
+        dynamoDbSigner = newSigner("dynamodb");
+        sqsSigner = newSigner("sqs");
+
+        SdkJsonProtocolFactory protocolFactory = new SdkJsonProtocolFactory(new JsonClientMetadata()
+                .withProtocolVersion("1.0").withSupportsCbor(false).withSupportsIon(false));
+        dynamoDbTemplate = new GetItemRequestMarshaller(protocolFactory).marshall(
+                new GetItemRequest().withTableName(Fixtures.TABLE_NAME).withKey(Fixtures.key()));
+        dynamoDbTemplate.setEndpoint(URI.create("https://dynamodb.us-east-1.amazonaws.com"));
+        dynamoDbContent = IOUtils.toByteArray(dynamoDbTemplate.getContent());
+
+        sqsTemplate = new SendMessageRequestMarshaller().marshall(
+                new SendMessageRequest(Fixtures.QUEUE_URL, "This is a test message"));
+        sqsTemplate.setEndpoint(URI.create("https://sqs.us-east-1.amazonaws.com"));
+    }
+
+    @Benchmark
+    public Request<?> signDynamoDbGetItem() {
+        Request<?> request = copyOf(dynamoDbTemplate);
+        request.setContent(new ByteArrayInputStream(dynamoDbContent));
+        dynamoDbSigner.sign(request, credentials);
+        return request;
+    }
+
+    @Benchmark
+    public Request<?> signSqsSendMessage() {
+        Request<?> request = copyOf(sqsTemplate);
+        sqsSigner.sign(request, credentials);
+        return request;
+    }
+
+    private static AWS4Signer newSigner(String serviceName) {
+        AWS4Signer signer = new AWS4Signer();
+        signer.setServiceName(serviceName);
+        signer.setRegionName("us-east-1");
+        return signer;
+    }
+
+    private static Request<?> copyOf(Request<?> template) {
+        Request<?> request = new DefaultRequest<Object>(template.getServiceName());
+        request.setEndpoint(template.getEndpoint());
+        request.setResourcePath(template.getResourcePath());
+        request.setHttpMethod(template.getHttpMethod());
+        request.setHeaders(template.getHeaders());
+        for (Map.Entry<String, List<String>> parameter : template.getParameters().entrySet()) {
+            for (String value : parameter.getValue()) {
+                request.addParameter(parameter.getKey(), value);
+            }
+        }
+        return request;
+    }
+}
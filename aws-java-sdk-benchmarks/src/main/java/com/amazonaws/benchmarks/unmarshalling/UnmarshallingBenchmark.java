@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmarks.unmarshalling;
+
+import java.io.ByteArrayInputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.benchmarks.Fixtures;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.http.HttpResponseHandler;
+import com.amazonaws.http.StaxResponseHandler;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.JsonOperationMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.transform.GetItemResultJsonUnmarshaller;
+import com.amazonaws.services.dynamodbv2.model.transform.QueryResultJsonUnmarshaller;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.transform.DescribeInstancesResultStaxUnmarshaller;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.transform.ListObjectsStaxParser;
+import com.amazonaws.services.s3.model.transform.ListObjectsStaxParser.ObjectSummaryCallback;
+import com.amazonaws.services.s3.model.transform.XmlResponsesSaxParser;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.transform.ReceiveMessageResultStaxUnmarshaller;
+
+/**
+ * Measures response unmarshalling through {@code JsonResponseHandler} for a
+ * DynamoDB GetItem and a full 1MB Query page, {@link StaxResponseHandler} for
+ * an SQS ReceiveMessage of ten messages and a 2MB EC2 DescribeInstances
+ * response, and the SAX and StAX based S3 parsers for full 1000 key
+ * ListObjects and ListObjectsV2 pages, the StAX one also handing recycled
+ * summaries to a callback.
+ */
+@State(Scope.Benchmark)
+public class UnmarshallingBenchmark {
+
+    private HttpResponseHandler<AmazonWebServiceResponse<GetItemResult>> getItemHandler;
+    private HttpResponseHandler<AmazonWebServiceResponse<QueryResult>> queryHandler;
+    private StaxResponseHandler<ReceiveMessageResult> receiveMessageHandler;
+    private StaxResponseHandler<DescribeInstancesResult> describeInstancesHandler;
+
+    private byte[] getItemResponse;
+    private byte[] queryResponse;
+    private byte[] receiveMessageResponse;
+    private byte[] describeInstancesResponse;
+    private byte[] listObjectsResponse;
+    private byte[] listObjectsV2Response;
+
+    @Setup
+    public void setup() {
+        SdkJsonProtocolFactory protocolFactory = new SdkJsonProtocolFactory(new JsonClientMetadata()
+                .withProtocolVersion("1.0").withSupportsCbor(false).withSupportsIon(false));
+        getItemHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false),
+                new GetItemResultJsonUnmarshaller());
+        queryHandler = protocolFactory.createResponseHandler(new JsonOperationMetadata()
+                .withPayloadJson(true).withHasStreamingSuccessResponse(false),
+                new QueryResultJsonUnmarshaller());
+        receiveMessageHandler = new StaxResponseHandler<ReceiveMessageResult>(
+                new ReceiveMessageResultStaxUnmarshaller());
+        describeInstancesHandler = new StaxResponseHandler<DescribeInstancesResult>(
+                new DescribeInstancesResultStaxUnmarshaller());
+
+        getItemResponse = Fixtures.dynamoDbGetItemResponse();
+        queryResponse = Fixtures.dynamoDbQueryResponse(2800);
+        receiveMessageResponse = Fixtures.sqsReceiveMessageResponse(10);
+        describeInstancesResponse = Fixtures.ec2DescribeInstancesResponse(1000);
+        listObjectsResponse = Fixtures.s3ListObjectsResponse(1000);
+        listObjectsV2Response = Fixtures.s3ListObjectsV2Response(1000);
+    }
+
+    @Benchmark
+    public GetItemResult dynamoDbGetItem() throws Exception {
+        return getItemHandler.handle(newResponse(getItemResponse)).getResult();
+    }
+
+    @Benchmark
+    public QueryResult dynamoDbQuery() throws Exception {
+        return queryHandler.handle(newResponse(queryResponse)).getResult();
+    }
+
+    @Benchmark
+    public ReceiveMessageResult sqsReceiveMessage() throws Exception {
+        return receiveMessageHandler.handle(newResponse(receiveMessageResponse)).getResult();
+    }
+
+    @Benchmark
+    public DescribeInstancesResult ec2DescribeInstances() throws Exception {
+        return describeInstancesHandler.handle(newResponse(describeInstancesResponse)).getResult();
+    }
+
+    @Benchmark
+    public ObjectListing s3ListObjects() throws Exception {
+        return new XmlResponsesSaxParser()
+                .parseListBucketObjectsResponse(new ByteArrayInputStream(listObjectsResponse), false)
+                .getObjectListing();
+    }
+
+    @Benchmark
+    public ListObjectsV2Result s3ListObjectsV2() throws Exception {
+        return new XmlResponsesSaxParser()
+                .parseListObjectsV2Response(new ByteArrayInputStream(listObjectsV2Response), false)
+                .getResult();
+    }
+
+    @Benchmark
+    public ObjectListing s3ListObjectsStax() throws Exception {
+        return new ListObjectsStaxParser(false)
+                .parseListObjectsResponse(new ByteArrayInputStream(listObjectsResponse));
+    }
+
+    @Benchmark
+    public long s3ListObjectsStaxCallback() throws Exception {
+        SizeSummingCallback callback = new SizeSummingCallback();
+        new ListObjectsStaxParser(false)
+                .parseListObjectsResponse(new ByteArrayInputStream(listObjectsResponse), callback);
+        return callback.size;
+    }
+
+    @Benchmark
+    public ListObjectsV2Result s3ListObjectsV2Stax() throws Exception {
+        return new ListObjectsStaxParser(false)
+                .parseListObjectsV2Response(new ByteArrayInputStream(listObjectsV2Response));
+    }
+
+    private static HttpResponse newResponse(byte[] content) {
+        HttpResponse response = new HttpResponse(null, null);
+        response.setStatusCode(200);
+        response.setContent(new ByteArrayInputStream(content));
+        return response;
+    }
+
+    private static final class SizeSummingCallback implements ObjectSummaryCallback {
+        private long size;
+
+        @Override
+        public void objectSummary(S3ObjectSummary summary) {
+            size += summary.getSize();
+        }
+    }
+}
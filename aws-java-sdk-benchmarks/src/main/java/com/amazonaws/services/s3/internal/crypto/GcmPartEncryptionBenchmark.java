@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the throughput of encrypting a 1MB part of an AES/GCM multipart
+ * upload: through the AES/GCM cipher of the JCE, as parts uploaded in series
+ * are, and through {@link GCMPartCipherLite}, as parts uploaded concurrently
+ * are, along with {@link GHash} on its own. Since each operation encrypts 1MB,
+ * the operations per second are MB per second.
+ * <p>
+ * This benchmark lives in the package of the classes it measures, so that it
+ * can reach them, and is therefore not run by default. Run it with
+ * {@code java -jar target/benchmarks.jar GcmPartEncryptionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GcmPartEncryptionBenchmark {
+
+    private static final int PART_SIZE = 1024 * 1024;
+
+    private final byte[] part = new byte[PART_SIZE];
+    private SecretKey key;
+    private CipherLite gcm;
+    private GHash emptyHash;
+    private byte[] tagMask;
+    private long ivCounter;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        random.nextBytes(part);
+        byte[] keyBytes = new byte[32];
+        random.nextBytes(keyBytes);
+        key = new SecretKeySpec(keyBytes, "AES");
+        byte[] iv = new byte[12];
+        random.nextBytes(iv);
+
+        // Through the JCE provider, as the Bouncy Castle one might not be available
+        gcm = new CipherLite(newJceGcm(iv), ContentCryptoScheme.AES_GCM, key, Cipher.ENCRYPT_MODE);
+        Cipher aes = Cipher.getInstance("AES/ECB/NoPadding");
+        aes.init(Cipher.ENCRYPT_MODE, key);
+        emptyHash = new GHash(aes.doFinal(new byte[16]));
+        byte[] j0 = new byte[16];
+        System.arraycopy(iv, 0, j0, 0, iv.length);
+        j0[15] = 1;
+        tagMask = aes.doFinal(j0);
+    }
+
+    @Benchmark
+    public byte[] jceGcm() throws Exception {
+        // The JCE refuses to encrypt twice with the same key and IV
+        byte[] iv = ByteBuffer.allocate(12).putLong(4, ++ivCounter).array();
+        return newJceGcm(iv).doFinal(part);
+    }
+
+    @Benchmark
+    public byte[] gcmPart() throws Exception {
+        GCMPartCipherLite cipherLite = new GCMPartCipherLite(gcm, PART_SIZE, emptyHash.copy(), null);
+        return cipherLite.doFinal(part);
+    }
+
+    @Benchmark
+    public byte[] gcmLastPart() throws Exception {
+        GCMPartCipherLite cipherLite = new GCMPartCipherLite(gcm, PART_SIZE, emptyHash.copy(), tagMask);
+        return cipherLite.doFinal(part);
+    }
+
+    @Benchmark
+    public byte[] ghash() {
+        GHash hash = emptyHash.copy();
+        hash.update(part, 0, part.length);
+        return hash.digest(PART_SIZE);
+    }
+
+    private Cipher newJceGcm(byte[] iv) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        return cipher;
+    }
+}
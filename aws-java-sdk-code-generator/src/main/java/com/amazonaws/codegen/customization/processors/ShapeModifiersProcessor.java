@@ -100,6 +100,10 @@ final class ShapeModifiersProcessor implements CodegenCustomizationProcessor {
                         key, key), e);
             }
 
+            if (modifier.getCustomJsonReader() != null) {
+                shapeModel.getCustomization().setCustomJsonReader(modifier.getCustomJsonReader());
+            }
+
             if (modifier.isExcludeShape()) {
                 shapeModel.getCustomization().setSkipGeneratingModelClass(true);
                 shapeModel.getCustomization().setSkipGeneratingMarshaller(true);
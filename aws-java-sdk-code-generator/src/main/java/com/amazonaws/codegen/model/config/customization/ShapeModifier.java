@@ -30,6 +30,7 @@ public class ShapeModifier {
     private List<String> exclude;
     private List<Map<String, ShapeModifier_ModifyModel>> modify;
     private List<Map<String, Member>> inject;
+    private String customJsonReader;
 
     /**
      * @return true if the whole shape should be excluded.
@@ -76,4 +77,19 @@ public class ShapeModifier {
     public void setInject(List<Map<String, Member>> inject) {
         this.inject = inject;
     }
+
+    /**
+     * @return The fully qualified name of a hand-written class that the JSON
+     *         unmarshaller of this shape defers to, through its static
+     *         <code>canRead(JsonUnmarshallerContext)</code> and
+     *         <code>read(JsonUnmarshallerContext)</code> methods, before
+     *         unmarshalling the shape token by token.
+     */
+    public String getCustomJsonReader() {
+        return customJsonReader;
+    }
+
+    public void setCustomJsonReader(String customJsonReader) {
+        this.customJsonReader = customJsonReader;
+    }
 }
@@ -21,6 +21,7 @@ public class ShapeCustomizationInfo {
     private boolean skipGeneratingModelClass;
     private boolean skipGeneratingMarshaller;
     private boolean skipGeneratingUnmarshaller;
+    private String customJsonReader;
 
     public ArtificialResultWrapper getArtificialResultWrapper() {
         return artificialResultWrapper;
@@ -55,4 +56,12 @@ public class ShapeCustomizationInfo {
         this.skipGeneratingUnmarshaller = skipGeneratingUnmarshaller;
     }
 
+    public String getCustomJsonReader() {
+        return customJsonReader;
+    }
+
+    public void setCustomJsonReader(String customJsonReader) {
+        this.customJsonReader = customJsonReader;
+    }
+
 }
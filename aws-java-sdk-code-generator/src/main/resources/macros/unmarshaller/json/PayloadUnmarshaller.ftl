@@ -6,6 +6,9 @@
     JsonToken token = context.getCurrentToken();
     if (token == null) token = context.nextToken();
     if (token == VALUE_NULL) return null;
+    <#if shape.customization.customJsonReader?has_content>
+    if (${shape.customization.customJsonReader}.canRead(context)) return ${shape.customization.customJsonReader}.read(context);
+    </#if>
 
     while (true) {
         if (token == null) break;
@@ -22,9 +22,12 @@ import org.apache.http.annotation.NotThreadSafe;
 
 import java.net.InetAddress;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Client configuration options such as proxy settings, user agent string, max retry attempts, etc.
@@ -103,6 +106,16 @@ public class ClientConfiguration {
      */
     public static final boolean DEFAULT_THROTTLE_RETRIES = true;
 
+    /**
+     * The default on whether to adapt the send rate to throttling errors.
+     */
+    public static final boolean DEFAULT_ADAPTIVE_RATE_LIMITING = false;
+
+    /**
+     * The default on whether to coalesce concurrent identical read requests.
+     */
+    public static final boolean DEFAULT_REQUEST_COALESCING = false;
+
     /**
      * The default on whether to cache response metadata.
      */
@@ -194,6 +207,13 @@ public class ClientConfiguration {
 
     private boolean throttleRetries = DEFAULT_THROTTLE_RETRIES;
 
+    private boolean adaptiveRateLimiting = DEFAULT_ADAPTIVE_RATE_LIMITING;
+
+    private boolean requestCoalescing = DEFAULT_REQUEST_COALESCING;
+
+    private Set<Class<? extends AmazonWebServiceRequest>> coalescedRequestTypes =
+            Collections.<Class<? extends AmazonWebServiceRequest>>emptySet();
+
     /**
      * Optional size hint (in bytes) for the low level TCP send buffer. This is an advanced option
      * for advanced users who want to tune low level TCP parameters to try and squeeze out more
@@ -313,6 +333,9 @@ public class ClientConfiguration {
         this.maxErrorRetry = other.maxErrorRetry;
         this.retryPolicy = other.retryPolicy;
         this.throttleRetries = other.throttleRetries;
+        this.adaptiveRateLimiting = other.adaptiveRateLimiting;
+        this.requestCoalescing = other.requestCoalescing;
+        this.coalescedRequestTypes = other.coalescedRequestTypes;
         this.localAddress = other.localAddress;
         this.protocol = other.protocol;
         this.proxyDomain = other.proxyDomain;
@@ -1332,6 +1355,137 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns whether adaptive rate limiting will be used.
+     * <p>
+     * Adaptive rate limiting paces all requests sent by the client, including first attempts,
+     * based on the throttling errors returned by the service. Requests are sent at full speed
+     * until the first throttling error. From then on the client limits its send rate, cutting it
+     * on every throttling error and growing it back while requests succeed, so that it converges
+     * on the throughput the service can sustain instead of every request backing off on its own.
+     * </p>
+     *
+     * @return true if adaptive rate limiting will be used
+     */
+    public boolean useAdaptiveRateLimiting() {
+        return adaptiveRateLimiting;
+    }
+
+    /**
+     * Sets whether adaptive rate limiting should be used. See
+     * {@link #useAdaptiveRateLimiting()}.
+     *
+     * @param use
+     *            true if adaptive rate limiting should be used
+     */
+    public void setUseAdaptiveRateLimiting(boolean use) {
+        this.adaptiveRateLimiting = use;
+    }
+
+    /**
+     * Sets whether adaptive rate limiting should be used. See
+     * {@link #useAdaptiveRateLimiting()}.
+     *
+     * @param use
+     *            true if adaptive rate limiting should be used
+     * @return The updated ClientConfiguration object.
+     */
+    public ClientConfiguration withAdaptiveRateLimiting(boolean use) {
+        setUseAdaptiveRateLimiting(use);
+        return this;
+    }
+
+    /**
+     * Returns whether concurrent identical read requests will be coalesced.
+     * <p>
+     * When enabled, a read request (an HTTP GET or HEAD, or a request of one of the
+     * {@link #getCoalescedRequestTypes() coalesced request types}) that is identical to a request
+     * the client is already sending is not sent; the caller waits for the request in flight and
+     * shares its result or exception. Requests that return a stream, such as GetObject, are never
+     * coalesced, and request handlers are only run for the request that is sent.
+     * </p>
+     * <p>
+     * <b>The result object is shared, not copied:</b> every caller gets the same instance, so
+     * callers must not modify it or any of its collections.
+     * </p>
+     * <p>
+     * A caller waits for the request in flight no longer than its own client execution timeout.
+     * If the request in flight is aborted or times out, the caller sends its own request in the
+     * time it has left.
+     * </p>
+     *
+     * @return true if request coalescing will be used
+     */
+    public boolean useRequestCoalescing() {
+        return requestCoalescing;
+    }
+
+    /**
+     * Sets whether concurrent identical read requests should be coalesced. See
+     * {@link #useRequestCoalescing()}.
+     *
+     * @param use
+     *            true if request coalescing should be used
+     */
+    public void setUseRequestCoalescing(boolean use) {
+        this.requestCoalescing = use;
+    }
+
+    /**
+     * Sets whether concurrent identical read requests should be coalesced. See
+     * {@link #useRequestCoalescing()}.
+     *
+     * @param use
+     *            true if request coalescing should be used
+     * @return The updated ClientConfiguration object.
+     */
+    public ClientConfiguration withRequestCoalescing(boolean use) {
+        setUseRequestCoalescing(use);
+        return this;
+    }
+
+    /**
+     * Returns the types of the requests, besides HTTP GET and HEAD requests, that may be coalesced
+     * when {@link #useRequestCoalescing() request coalescing} is enabled. Only list requests that
+     * have no side effects and whose response only depends on the request and the credentials
+     * they are sent with.
+     *
+     * @return The request types that may be coalesced; empty by default
+     */
+    public Set<Class<? extends AmazonWebServiceRequest>> getCoalescedRequestTypes() {
+        return coalescedRequestTypes;
+    }
+
+    /**
+     * Sets the types of the requests, besides HTTP GET and HEAD requests, that may be coalesced.
+     * See {@link #getCoalescedRequestTypes()}.
+     *
+     * @param coalescedRequestTypes
+     *            The request types that may be coalesced
+     */
+    public void setCoalescedRequestTypes(
+            Set<Class<? extends AmazonWebServiceRequest>> coalescedRequestTypes) {
+        this.coalescedRequestTypes = coalescedRequestTypes == null
+                ? Collections.<Class<? extends AmazonWebServiceRequest>>emptySet()
+                : Collections.unmodifiableSet(
+                        new LinkedHashSet<Class<? extends AmazonWebServiceRequest>>(coalescedRequestTypes));
+    }
+
+    /**
+     * Sets the types of the requests, besides HTTP GET and HEAD requests, that may be coalesced.
+     * See {@link #getCoalescedRequestTypes()}.
+     *
+     * @param coalescedRequestTypes
+     *            The request types that may be coalesced
+     * @return The updated ClientConfiguration object.
+     */
+    public ClientConfiguration withCoalescedRequestTypes(
+            Class<? extends AmazonWebServiceRequest>... coalescedRequestTypes) {
+        setCoalescedRequestTypes(new LinkedHashSet<Class<? extends AmazonWebServiceRequest>>(
+                Arrays.asList(coalescedRequestTypes)));
+        return this;
+    }
+
     /**
      * Checks if gzip compression is used
      *
@@ -223,6 +223,27 @@ public class SDKGlobalConfiguration {
      */
     public static final String AWS_ION_BINARY_DISABLE_SYSTEM_PROPERTY = "com.amazonaws.sdk.disableIonBinary";
 
+    /**
+     * System property to make async client builders default to the executor
+     * shared by all clients, instead of creating a thread pool per client. See
+     * {@link com.amazonaws.client.builder.SharedExecutorFactory}.
+     */
+    public static final String USE_SHARED_EXECUTOR_SYSTEM_PROPERTY = "com.amazonaws.sdk.useSharedExecutor";
+
+    /**
+     * System property to set the maximum number of threads of the shared
+     * executor when it is not backed by virtual threads.
+     */
+    public static final String SHARED_EXECUTOR_MAX_THREADS_SYSTEM_PROPERTY =
+            "com.amazonaws.sdk.sharedExecutorMaxThreads";
+
+    /**
+     * System property to stop the shared executor from running tasks on
+     * virtual threads, even when the runtime supports them.
+     */
+    public static final String DISABLE_VIRTUAL_THREADS_SYSTEM_PROPERTY =
+            "com.amazonaws.sdk.disableVirtualThreads";
+
     /**
      * @deprecated by {@link SDKGlobalTime#setGlobalTimeOffset(int)}
      */
@@ -257,6 +278,14 @@ public class SDKGlobalConfiguration {
                 isPropertyEnabled(System.getenv(AWS_ION_BINARY_DISABLE_ENV_VAR));
     }
 
+    public static boolean isSharedExecutorEnabled() {
+        return isPropertyEnabled(System.getProperty(USE_SHARED_EXECUTOR_SYSTEM_PROPERTY));
+    }
+
+    public static boolean isVirtualThreadsDisabled() {
+        return isPropertyEnabled(System.getProperty(DISABLE_VIRTUAL_THREADS_SYSTEM_PROPERTY));
+    }
+
     private static boolean isPropertyEnabled(final String property) {
         if (property == null || property.equalsIgnoreCase("false")) {
             return false;
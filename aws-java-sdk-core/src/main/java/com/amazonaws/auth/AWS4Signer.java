@@ -20,7 +20,7 @@ import com.amazonaws.SignableRequest;
 import com.amazonaws.auth.internal.AWS4SignerRequestParams;
 import com.amazonaws.auth.internal.AWS4SignerUtils;
 import com.amazonaws.auth.internal.SignerKey;
-import com.amazonaws.internal.FIFOCache;
+import com.amazonaws.auth.internal.SignerKeyCache;
 import com.amazonaws.log.InternalLogApi;
 import com.amazonaws.log.InternalLogFactory;
 import com.amazonaws.util.BinaryUtils;
@@ -32,10 +32,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -62,9 +62,14 @@ public class AWS4Signer extends AbstractAWSSigner implements
         ServiceAwareSigner, RegionAwareSigner, Presigner {
 
     protected static final InternalLogApi log = InternalLogFactory.getLog(AWS4Signer.class);
-    private static final int SIGNER_CACHE_MAX_SIZE = 300;
-    private static final FIFOCache<SignerKey> signerCache = new FIFOCache<SignerKey>(SIGNER_CACHE_MAX_SIZE);
+    private static final SignerKeyCache signerCache = SignerKeyCache.getInstance();
     private static final List<String> listOfHeadersToIgnoreInLowerCase = Arrays.asList("connection");
+    private static final int CANONICAL_REQUEST_INITIAL_CAPACITY = 512;
+    private static final Map<String, String> lowerCaseHeaderNames = lowerCaseHeaderNames(
+            HOST, X_AMZ_DATE, X_AMZ_SECURITY_TOKEN, X_AMZ_CONTENT_SHA256, "X-Amz-Target",
+            "Content-Type", "Content-Length", "Content-MD5", "Content-Encoding", "Date",
+            "User-Agent", "Expect", "Transfer-Encoding", "x-amz-decoded-content-length",
+            "amz-sdk-invocation-id", "amz-sdk-retry");
 
     /**
      * Service name override for use when the endpoint can't be used to
@@ -281,8 +286,9 @@ public class AWS4Signer extends AbstractAWSSigner implements
         final String path = SdkHttpUtils.appendUri(
                 request.getEndpoint().getPath(), request.getResourcePath());
 
-        final StringBuilder canonicalRequestBuilder = new StringBuilder(request
-                .getHttpMethod().toString());
+        final StringBuilder canonicalRequestBuilder = new StringBuilder(
+                CANONICAL_REQUEST_INITIAL_CAPACITY);
+        canonicalRequestBuilder.append(request.getHttpMethod().toString());
 
         canonicalRequestBuilder.append(LINE_SEPARATOR)
                 // This would optionally double url-encode the resource path
@@ -337,19 +343,18 @@ public class AWS4Signer extends AbstractAWSSigner implements
     private final byte[] deriveSigningKey(AWSCredentials credentials,
             AWS4SignerRequestParams signerRequestParams) {
 
-        final String cacheKey = computeSigningCacheKeyName(credentials,
-                signerRequestParams);
+        final String secretKey = credentials.getAWSSecretKey();
+        final String regionName = signerRequestParams.getRegionName();
+        final String serviceName = signerRequestParams.getServiceName();
         final long daysSinceEpochSigningDate = DateUtils
                 .numberOfDaysSinceEpoch(signerRequestParams
                         .getSigningDateTimeMilli());
 
-        SignerKey signerKey = signerCache.get(cacheKey);
+        SignerKey signerKey = signerCache.get(secretKey, regionName,
+                serviceName, daysSinceEpochSigningDate);
 
         if (signerKey != null) {
-            if (daysSinceEpochSigningDate == signerKey
-                    .getNumberOfDaysSinceEpoch()) {
-                return signerKey.getSigningKey();
-            }
+            return signerKey.getSigningKey();
         }
         if (log.isDebugEnabled()) {
             log.debug("Generating a new signing key as the signing key not available in the cache for the date "
@@ -357,27 +362,12 @@ public class AWS4Signer extends AbstractAWSSigner implements
         }
         byte[] signingKey = newSigningKey(credentials,
                 signerRequestParams.getFormattedSigningDate(),
-                signerRequestParams.getRegionName(),
-                signerRequestParams.getServiceName());
-        signerCache.add(cacheKey, new SignerKey(
+                regionName, serviceName);
+        signerCache.put(secretKey, regionName, serviceName, new SignerKey(
                 daysSinceEpochSigningDate, signingKey));
         return signingKey;
     }
 
-    /**
-     * Computes the name to be used to reference the signing key in the cache.
-     */
-    private final String computeSigningCacheKeyName(AWSCredentials credentials,
-            AWS4SignerRequestParams signerRequestParams) {
-        final StringBuilder hashKeyBuilder = new StringBuilder(
-                credentials.getAWSSecretKey());
-
-        return hashKeyBuilder.append("-")
-                .append(signerRequestParams.getRegionName())
-                .append("-")
-                .append(signerRequestParams.getServiceName()).toString();
-    }
-
     /**
      * Step 3 of the AWS Signature version 4 calculation. It involves deriving
      * the signing key and computing the signature. Refer to
@@ -445,17 +435,13 @@ public class AWS4Signer extends AbstractAWSSigner implements
     }
 
     protected String getCanonicalizedHeaderString(SignableRequest<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>(request.getHeaders()
-                .keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
-
         final Map<String, String> requestHeaders = request.getHeaders();
-        StringBuilder buffer = new StringBuilder();
-        for (String header : sortedHeaders) {
+        StringBuilder buffer = new StringBuilder(requestHeaders.size() * 32);
+        for (String header : getSortedHeaderNames(requestHeaders)) {
             if (shouldExcludeHeaderFromSigning(header)) {
                 continue;
             }
-            String key = StringUtils.lowerCase(header);
+            String key = lowerCaseHeaderName(header);
             String value = requestHeaders.get(header);
 
             StringUtils.appendCompactedString(buffer, key);
@@ -471,25 +457,55 @@ public class AWS4Signer extends AbstractAWSSigner implements
     }
 
     protected String getSignedHeadersString(SignableRequest<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>(request
-                .getHeaders().keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
-
-        StringBuilder buffer = new StringBuilder();
-        for (String header : sortedHeaders) {
+        final Map<String, String> requestHeaders = request.getHeaders();
+        StringBuilder buffer = new StringBuilder(requestHeaders.size() * 16);
+        for (String header : getSortedHeaderNames(requestHeaders)) {
             if (shouldExcludeHeaderFromSigning(header)) {
                 continue;
             }
             if (buffer.length() > 0)
                 buffer.append(";");
-            buffer.append(StringUtils.lowerCase(header));
+            buffer.append(lowerCaseHeaderName(header));
         }
 
         return buffer.toString();
     }
 
     protected boolean shouldExcludeHeaderFromSigning(String header) {
-        return listOfHeadersToIgnoreInLowerCase.contains(header.toLowerCase());
+        for (String ignored : listOfHeadersToIgnoreInLowerCase) {
+            if (ignored.equalsIgnoreCase(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the header names of the request sorted case-insensitively.
+     */
+    private static String[] getSortedHeaderNames(Map<String, String> headers) {
+        final String[] sortedHeaders = headers.keySet().toArray(
+                new String[headers.size()]);
+        Arrays.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
+        return sortedHeaders;
+    }
+
+    /**
+     * Returns the lower case form of the given header name. The forms of the
+     * headers sent with most requests are computed once; any other header,
+     * such as user metadata, is lower cased as it is signed.
+     */
+    private static String lowerCaseHeaderName(String header) {
+        String lowerCase = lowerCaseHeaderNames.get(header);
+        return lowerCase == null ? StringUtils.lowerCase(header) : lowerCase;
+    }
+
+    private static Map<String, String> lowerCaseHeaderNames(String... headers) {
+        final Map<String, String> lowerCaseHeaderNames = new HashMap<String, String>();
+        for (String header : headers) {
+            lowerCaseHeaderNames.put(header, StringUtils.lowerCase(header));
+        }
+        return Collections.unmodifiableMap(lowerCaseHeaderNames);
     }
 
     protected void addHostHeader(SignableRequest<?> request) {
@@ -50,6 +50,18 @@ public abstract class AbstractAWSSigner implements Signer {
     public static final String EMPTY_STRING_SHA256_HEX;
     private static final ThreadLocal<MessageDigest> SHA256_MESSAGE_DIGEST;
 
+    /**
+     * Size of the per-thread scratch buffer used to feed ASCII text to the
+     * message digest without encoding it into a new byte array first.
+     */
+    private static final int HASH_BUFFER_SIZE = 1024;
+    private static final ThreadLocal<byte[]> HASH_BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[HASH_BUFFER_SIZE];
+        }
+    };
+
     static {
         SHA256_MESSAGE_DIGEST = new ThreadLocal<MessageDigest>() {
             @Override
@@ -145,7 +157,10 @@ public abstract class AbstractAWSSigner implements Signer {
     private static byte[] doHash(String text) throws AmazonClientException {
         try {
             MessageDigest md = getMessageDigestInstance();
-            md.update(text.getBytes(UTF8));
+            if (!updateAscii(md, text)) {
+                md.reset();
+                md.update(text.getBytes(UTF8));
+            }
             return md.digest();
         } catch (Exception e) {
             throw new AmazonClientException(
@@ -154,6 +169,31 @@ public abstract class AbstractAWSSigner implements Signer {
         }
     }
 
+    /**
+     * Feeds the given text to the message digest through a reusable per-thread
+     * buffer, which is equivalent to UTF-8 encoding as long as the text is
+     * pure ASCII. Returns false, leaving the digest in an undefined state, as
+     * soon as a non-ASCII character is found.
+     */
+    private static boolean updateAscii(MessageDigest md, String text) {
+        final byte[] buffer = HASH_BUFFER.get();
+        final int length = text.length();
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch >= 0x80) {
+                return false;
+            }
+            buffer[position++] = (byte) ch;
+            if (position == buffer.length) {
+                md.update(buffer, 0, position);
+                position = 0;
+            }
+        }
+        md.update(buffer, 0, position);
+        return true;
+    }
+
     protected byte[] hash(InputStream input) throws AmazonClientException {
         try {
             MessageDigest md = getMessageDigestInstance();
@@ -207,6 +247,9 @@ public abstract class AbstractAWSSigner implements Signer {
      * @return A canonicalized form for the specified query string parameters.
      */
     protected String getCanonicalizedQueryString(Map<String, List<String>> parameters) {
+        if (parameters.isEmpty()) {
+            return "";
+        }
 
         final SortedMap<String, List<String>> sorted = new TreeMap<String, List<String>>();
 
@@ -218,6 +261,11 @@ public abstract class AbstractAWSSigner implements Signer {
             final String encodedParamName = SdkHttpUtils.urlEncode(
                     entry.getKey(), false);
             final List<String> paramValues = entry.getValue();
+            if (paramValues.size() == 1) {
+                sorted.put(encodedParamName, Collections.singletonList(
+                        SdkHttpUtils.urlEncode(paramValues.get(0), false)));
+                continue;
+            }
             final List<String> encodedValues = new ArrayList<String>(
                     paramValues.size());
             for (String value : paramValues) {
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.auth.internal;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free cache of AWS4 signing keys. Entries are keyed on the
+ * identity of the secret key together with the region and service name, so no
+ * intermediate string has to be built to look a key up. When the cache is
+ * full an arbitrary entry is evicted to make room for the new one.
+ */
+@ThreadSafe
+@SdkInternalApi
+public final class SignerKeyCache {
+
+    private static final int DEFAULT_MAX_SIZE = 300;
+
+    private static final SignerKeyCache INSTANCE = new SignerKeyCache(DEFAULT_MAX_SIZE);
+
+    private final ConcurrentMap<CacheKey, SignerKey> cache;
+    private final int maxSize;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param maxSize the maximum number of entries of the cache
+     */
+    public SignerKeyCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize " + maxSize
+                    + " must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.cache = new ConcurrentHashMap<CacheKey, SignerKey>(maxSize);
+    }
+
+    /**
+     * Returns the signing key cache shared by all AWS4 signers.
+     */
+    public static SignerKeyCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the signing key cached for the given secret key, region and
+     * service, provided it was derived for the given day; or null otherwise.
+     */
+    public SignerKey get(String secretKey, String regionName, String serviceName,
+            long daysSinceEpoch) {
+        SignerKey signerKey = cache.get(new CacheKey(secretKey, regionName, serviceName));
+        if (signerKey != null && signerKey.getNumberOfDaysSinceEpoch() == daysSinceEpoch) {
+            hitCount.incrementAndGet();
+            return signerKey;
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds a signing key to the cache, evicting an existing entry if the cache
+     * is full.
+     */
+    public void put(String secretKey, String regionName, String serviceName,
+            SignerKey signerKey) {
+        if (cache.put(new CacheKey(secretKey, regionName, serviceName), signerKey) == null
+                && size.incrementAndGet() > maxSize) {
+            evictOne();
+        }
+    }
+
+    private void evictOne() {
+        Iterator<CacheKey> iterator = cache.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (cache.remove(iterator.next()) != null) {
+                size.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of entries in the cache.
+     */
+    public int size() {
+        return Math.min(size.get(), maxSize);
+    }
+
+    /**
+     * Returns the maximum size of the cache.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of lookups that found a valid signing key.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of lookups that required a new signing key to be
+     * derived.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static final class CacheKey {
+        private final String secretKey;
+        private final String regionName;
+        private final String serviceName;
+        private final int hashCode;
+
+        private CacheKey(String secretKey, String regionName, String serviceName) {
+            this.secretKey = secretKey;
+            this.regionName = regionName;
+            this.serviceName = serviceName;
+            int result = hashOf(secretKey);
+            result = 31 * result + hashOf(regionName);
+            this.hashCode = 31 * result + hashOf(serviceName);
+        }
+
+        private static int hashOf(String value) {
+            return value == null ? 0 : value.hashCode();
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == b || (a != null && a.equals(b));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return hashCode == other.hashCode
+                    && equal(secretKey, other.secretKey)
+                    && equal(regionName, other.regionName)
+                    && equal(serviceName, other.serviceName);
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package com.amazonaws.client.builder;
 
 import com.amazonaws.ClientConfigurationFactory;
+import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.annotation.NotThreadSafe;
 import com.amazonaws.annotation.SdkProtectedApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
@@ -55,7 +56,8 @@ public abstract class AwsAsyncClientBuilder<Subclass extends AwsAsyncClientBuild
 
     /**
      * Sets a custom executor service factory to use for the async clients. The factory will be
-     * called for each async client created through the builder.
+     * called for each async client created through the builder. Use
+     * {@link SharedExecutorFactory#getInstance()} to run all clients on a single shared executor.
      *
      * @param executorFactory Factory supplying new instances of {@link ExecutorService}
      */
@@ -108,9 +110,15 @@ public abstract class AwsAsyncClientBuilder<Subclass extends AwsAsyncClientBuild
         }
 
         /**
-         * @return Default async Executor to use if none is explicitly provided by user.
+         * @return Default async Executor to use if none is explicitly provided by user. This is
+         * a view of the executor shared by all clients if
+         * {@link SDKGlobalConfiguration#USE_SHARED_EXECUTOR_SYSTEM_PROPERTY} is set, otherwise a
+         * new thread pool sized to the maximum number of connections.
          */
         private ExecutorService defaultExecutor() {
+            if (SDKGlobalConfiguration.isSharedExecutorEnabled()) {
+                return SharedExecutorFactory.getInstance().newExecutor();
+            }
             return Executors.newFixedThreadPool(getClientConfiguration().getMaxConnections());
         }
     }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.client.builder;
+
+import com.amazonaws.SDKGlobalConfiguration;
+import com.amazonaws.annotation.ThreadSafe;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link ExecutorFactory} whose executors all run their tasks on a single,
+ * process wide executor, so that creating many async clients does not create
+ * a thread pool per client.
+ * <p>
+ * When the runtime supports virtual threads, every task runs on its own
+ * virtual thread. Otherwise tasks run on a bounded pool of daemon threads
+ * which time out when idle. The bound defaults to {@value #DEFAULT_MAX_THREADS}
+ * and can be changed with the
+ * {@value SDKGlobalConfiguration#SHARED_EXECUTOR_MAX_THREADS_SYSTEM_PROPERTY}
+ * system property. Virtual threads can be disabled with the
+ * {@value SDKGlobalConfiguration#DISABLE_VIRTUAL_THREADS_SYSTEM_PROPERTY}
+ * system property.
+ * <p>
+ * Each executor returned by {@link #newExecutor()} can be shut down
+ * independently; doing so only affects the tasks submitted through it and
+ * leaves the shared executor running. This makes the factory safe to use with
+ * clients that shut their executor down when they are shut down, e.g.
+ *
+ * <pre class="brush: java">
+ * AmazonSQSAsync sqs = AmazonSQSAsyncClientBuilder.standard()
+ *         .withExecutorFactory(SharedExecutorFactory.getInstance())
+ *         .build();
+ * </pre>
+ *
+ * Async client builders use this factory by default when the
+ * {@value SDKGlobalConfiguration#USE_SHARED_EXECUTOR_SYSTEM_PROPERTY} system
+ * property is set.
+ */
+@ThreadSafe
+public final class SharedExecutorFactory implements ExecutorFactory {
+
+    /**
+     * Default maximum number of platform threads of the shared executor.
+     */
+    public static final int DEFAULT_MAX_THREADS = 100;
+
+    private static final Log log = LogFactory.getLog(SharedExecutorFactory.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final SharedExecutorFactory INSTANCE = new SharedExecutorFactory();
+
+    private SharedExecutorFactory() {
+    }
+
+    public static SharedExecutorFactory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a new executor that runs its tasks on the shared executor.
+     */
+    @Override
+    public ExecutorService newExecutor() {
+        return new SharedExecutorView(SharedExecutorHolder.EXECUTOR);
+    }
+
+    /**
+     * Returns true if the shared executor runs tasks on virtual threads.
+     */
+    public boolean isUsingVirtualThreads() {
+        return SharedExecutorHolder.VIRTUAL_THREADS;
+    }
+
+    /**
+     * Creates the shared executor the first time it is needed.
+     */
+    private static final class SharedExecutorHolder {
+        private static final ExecutorService EXECUTOR;
+        private static final boolean VIRTUAL_THREADS;
+
+        static {
+            ExecutorService executor = newVirtualThreadExecutor();
+            VIRTUAL_THREADS = executor != null;
+            EXECUTOR = VIRTUAL_THREADS ? executor : newBoundedExecutor(maxThreads());
+        }
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread per task, or null if
+     * the runtime does not support virtual threads.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (SDKGlobalConfiguration.isVirtualThreadsDisabled()) {
+            return null;
+        }
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (Exception e) {
+            // Virtual threads are a preview feature on some runtimes
+            log.debug("Unable to create a virtual thread executor", e);
+            return null;
+        }
+    }
+
+    private static ExecutorService newBoundedExecutor(int maxThreads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static int maxThreads() {
+        String value = System.getProperty(
+                SDKGlobalConfiguration.SHARED_EXECUTOR_MAX_THREADS_SYSTEM_PROPERTY);
+        if (value != null) {
+            try {
+                int maxThreads = Integer.parseInt(value.trim());
+                if (maxThreads > 0) {
+                    return maxThreads;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+            log.warn("Ignoring invalid value '" + value + "' of system property "
+                    + SDKGlobalConfiguration.SHARED_EXECUTOR_MAX_THREADS_SYSTEM_PROPERTY);
+        }
+        return DEFAULT_MAX_THREADS;
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "aws-java-sdk-shared-executor-"
+                    + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
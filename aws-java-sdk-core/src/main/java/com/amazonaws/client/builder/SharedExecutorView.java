@@ -0,0 +1,159 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.client.builder;
+
+import com.amazonaws.annotation.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor service that runs its tasks on a shared executor. Shutting the
+ * view down only affects the tasks submitted through it: {@link #shutdownNow()}
+ * drops the tasks that have not started yet and interrupts the ones that are
+ * running, but the shared executor is left untouched.
+ */
+@ThreadSafe
+class SharedExecutorView extends AbstractExecutorService {
+
+    private final Executor delegate;
+
+    private final Object lock = new Object();
+    /** Tasks submitted but not yet started; guarded by lock. */
+    private final Set<Task> queued = new LinkedHashSet<Task>();
+    /** Threads currently running a task of this view; guarded by lock. */
+    private final Set<Thread> running = new HashSet<Thread>();
+    private boolean shutdown;
+
+    SharedExecutorView(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        Task task = new Task(command);
+        synchronized (lock) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            queued.add(task);
+        }
+        try {
+            delegate.execute(task);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                queued.remove(task);
+                lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        synchronized (lock) {
+            shutdown = true;
+            List<Runnable> notStarted = new ArrayList<Runnable>(queued.size());
+            for (Task task : queued) {
+                notStarted.add(task.command);
+            }
+            queued.clear();
+            for (Thread thread : running) {
+                thread.interrupt();
+            }
+            lock.notifyAll();
+            return notStarted;
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        synchronized (lock) {
+            return shutdown;
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        synchronized (lock) {
+            return isTerminatedLocked();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!isTerminatedLocked()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    private boolean isTerminatedLocked() {
+        return shutdown && queued.isEmpty() && running.isEmpty();
+    }
+
+    private final class Task implements Runnable {
+        private final Runnable command;
+
+        private Task(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            Thread thread = Thread.currentThread();
+            synchronized (lock) {
+                if (!queued.remove(this)) {
+                    // Dropped by shutdownNow
+                    return;
+                }
+                running.add(thread);
+            }
+            try {
+                command.run();
+            } finally {
+                synchronized (lock) {
+                    running.remove(thread);
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+}
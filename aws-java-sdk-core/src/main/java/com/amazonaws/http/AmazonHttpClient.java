@@ -79,6 +79,7 @@ import com.amazonaws.util.NullResponseMetadataCache;
 import com.amazonaws.util.ResponseMetadataCache;
 import com.amazonaws.util.RuntimeHttpUtils;
 import com.amazonaws.util.SdkHttpUtils;
+import com.amazonaws.util.SendRateLimiter;
 import com.amazonaws.util.UnreliableFilterInputStream;
 
 import org.apache.commons.logging.Log;
@@ -205,6 +206,16 @@ public class AmazonHttpClient {
      */
     private final CapacityManager retryCapacity;
 
+    /**
+     * Paces requests based on throttling errors; null unless adaptive rate limiting is enabled.
+     */
+    private final SendRateLimiter sendRateLimiter;
+
+    /**
+     * Collapses concurrent identical read requests; null unless request coalescing is enabled.
+     */
+    private final RequestCoalescer requestCoalescer;
+
     /**
      * Timer to enforce timeouts on the whole execution of the request (request handlers, retries,
      * backoff strategy, unmarshalling, etc)
@@ -330,6 +341,9 @@ public class AmazonHttpClient {
         int throttledRetryMaxCapacity = clientConfig.useThrottledRetries()
                 ? THROTTLED_RETRY_COST * THROTTLED_RETRIES : -1;
         this.retryCapacity = new CapacityManager(throttledRetryMaxCapacity);
+        this.sendRateLimiter = clientConfig.useAdaptiveRateLimiting() ? new SendRateLimiter() : null;
+        this.requestCoalescer = clientConfig.useRequestCoalescing()
+                ? new RequestCoalescer(clientConfig.getCoalescedRequestTypes()) : null;
     }
 
     private static boolean isTemporaryRedirect(org.apache.http.HttpResponse response) {
@@ -564,13 +578,50 @@ public class AmazonHttpClient {
 
         @Override
         public <Output> Response<Output> execute(HttpResponseHandler<Output> responseHandler) {
-            return new RequestExecutor<Output>(request,
-                                               requestConfig,
-                                               getNonNullResponseHandler(errorResponseHandler),
-                                               getNonNullResponseHandler(responseHandler),
-                                               executionContext,
-                                               getRequestHandlers()
-            ).execute();
+            final RequestExecutor<Output> executor = new RequestExecutor<Output>(
+                    request,
+                    requestConfig,
+                    getNonNullResponseHandler(errorResponseHandler),
+                    getNonNullResponseHandler(responseHandler),
+                    executionContext,
+                    getRequestHandlers());
+            RequestCoalescer.Key key = requestCoalescer == null || executionContext == null
+                    ? null
+                    : requestCoalescer.keyOf(request, executionContext, executor.responseHandler);
+            if (key == null) {
+                return executor.execute();
+            }
+            return requestCoalescer.execute(key, new RequestCoalescer.Call<Output>() {
+                @Override
+                public Response<Output> call(int clientExecutionTimeout) {
+                    executor.isBufferingResponses = true;
+                    return executor.execute(clientExecutionTimeout);
+                }
+
+                @Override
+                public RequestCoalescer.BufferedResponse getBufferedResponse(Throwable failure) {
+                    return failure == executor.bufferedFailure ? executor.bufferedResponse : null;
+                }
+
+                @Override
+                public Response<Output> handle(RequestCoalescer.BufferedResponse response)
+                        throws Exception {
+                    HttpResponse httpResponse = response.toHttpResponse(request);
+                    return new Response<Output>(executor.responseHandler.handle(httpResponse),
+                                                httpResponse);
+                }
+
+                @Override
+                public AmazonServiceException handleError(RequestCoalescer.BufferedResponse response)
+                        throws Exception {
+                    HttpResponse httpResponse = response.toHttpResponse(request);
+                    AmazonServiceException exception = executor.errorResponseHandler.handle(httpResponse);
+                    exception.setStatusCode(httpResponse.getStatusCode());
+                    exception.setServiceName(request.getServiceName());
+                    exception.fillInStackTrace();
+                    return exception;
+                }
+            }, executor.getClientExecutionTimeout(requestConfig), executionContext.getAwsRequestMetrics());
         }
 
         private List<RequestHandler2> getRequestHandlers() {
@@ -592,6 +643,16 @@ public class AmazonHttpClient {
         private final List<RequestHandler2> requestHandler2s;
         private final AWSRequestMetrics awsRequestMetrics;
 
+        /**
+         * Whether the content of the responses is buffered, so that the callers coalesced with
+         * this request can unmarshall the last response again.
+         */
+        private boolean isBufferingResponses;
+        /** The last response handled, if buffering responses. */
+        private RequestCoalescer.BufferedResponse bufferedResponse;
+        /** The service exception unmarshalled from the last response, if it was an error. */
+        private AmazonServiceException bufferedFailure;
+
         private RequestExecutor(Request<?> request, RequestConfig requestConfig,
                                 HttpResponseHandler<AmazonServiceException> errorResponseHandler,
                                 HttpResponseHandler<Output> responseHandler,
@@ -610,12 +671,20 @@ public class AmazonHttpClient {
          * Executes the request and returns the result.
          */
         private Response<Output> execute() {
+            return execute(getClientExecutionTimeout(requestConfig));
+        }
+
+        /**
+         * Executes the request within the given client execution timeout, in milliseconds, and
+         * returns the result.
+         */
+        private Response<Output> execute(int clientExecutionTimeout) {
             if (executionContext == null) {
                 throw new AmazonClientException(
                         "Internal SDK Error: No execution context parameter specified.");
             }
             try {
-                return executeWithTimer();
+                return executeWithTimer(clientExecutionTimeout);
             } catch (InterruptedException ie) {
                 throw handleInterruptedException(ie);
             } catch (AbortedException ae) {
@@ -628,10 +697,10 @@ public class AmazonHttpClient {
          * that the client execution task is canceled before the InterruptedExecption is handled by
          * {@link #execute()} so * the interrupt status doesn't leak out to the callers code
          */
-        private Response<Output> executeWithTimer() throws InterruptedException {
+        private Response<Output> executeWithTimer(int clientExecutionTimeout) throws InterruptedException {
             try {
                 executionContext.setClientExecutionTrackerTask(
-                        clientExecutionTimer.startTimer(getClientExecutionTimeout(requestConfig)));
+                        clientExecutionTimer.startTimer(clientExecutionTimeout));
                 return doExecute();
             } finally {
                 executionContext.getClientExecutionTrackerTask().cancelTask();
@@ -1052,6 +1121,9 @@ public class AmazonHttpClient {
                 pauseBeforeRetry(execOneParams, listener);
             }
             updateRetryHeaderInfo(request, execOneParams);
+            if (sendRateLimiter != null) {
+                sendRateLimiter.acquire();
+            }
 
             // Sign the request if a signer was provided
             execOneParams.newSigner(request, executionContext);
@@ -1089,6 +1161,9 @@ public class AmazonHttpClient {
             publishProgress(listener, ProgressEventType.HTTP_REQUEST_STARTED_EVENT);
             awsRequestMetrics.startEvent(Field.HttpRequestTime);
             awsRequestMetrics.setCounter(Field.RetryCapacityConsumed, retryCapacity.consumedCapacity());
+            if (sendRateLimiter != null && sendRateLimiter.isEnabled()) {
+                awsRequestMetrics.setCounter(Field.SendRateLimit, (long) sendRateLimiter.getSendRate());
+            }
 
             /////////// Send HTTP request ////////////
             executionContext.getClientExecutionTrackerTask().setCurrentHttpRequest(execOneParams.apacheRequest);
@@ -1124,6 +1199,9 @@ public class AmazonHttpClient {
             final int statusCode = statusLine == null ? -1 : statusLine.getStatusCode();
             if (isRequestSuccessful(execOneParams.apacheResponse)) {
                 awsRequestMetrics.addProperty(Field.StatusCode, statusCode);
+                if (sendRateLimiter != null) {
+                    sendRateLimiter.update(false);
+                }
             /*
              * If we get back any 2xx status code, then we know we should treat the service call as
              * successful.
@@ -1170,6 +1248,9 @@ public class AmazonHttpClient {
             awsRequestMetrics.addPropertyWith(Field.AWSRequestID, ase.getRequestId())
                     .addPropertyWith(Field.AWSErrorCode, ase.getErrorCode())
                     .addPropertyWith(Field.StatusCode, ase.getStatusCode());
+            if (sendRateLimiter != null) {
+                sendRateLimiter.update(RetryUtils.isThrottlingException(ase));
+            }
             // Check whether we should internally retry the auth error
             execOneParams.authRetryParam = null;
             AuthErrorRetryStrategy authRetry = executionContext.getAuthErrorRetryStrategy();
@@ -1397,6 +1478,10 @@ public class AmazonHttpClient {
                                                                         InterruptedException {
             ProgressListener listener = requestConfig.getProgressListener();
             try {
+                if (isBufferingResponses) {
+                    bufferedResponse = new RequestCoalescer.BufferedResponse(httpResponse);
+                    bufferedFailure = null;
+                }
             /*
              * Apply the byte counting stream wrapper if the legacy runtime profiling is enabled.
              */
@@ -1490,6 +1575,10 @@ public class AmazonHttpClient {
                 reasonPhrase = statusLine.getReasonPhrase();
             }
             HttpResponse response = createResponse(method, apacheHttpResponse, context);
+            if (isBufferingResponses) {
+                bufferedResponse = new RequestCoalescer.BufferedResponse(response);
+                bufferedFailure = null;
+            }
             AmazonServiceException exception;
             try {
                 exception = errorResponseHandler.handle(response);
@@ -1527,6 +1616,9 @@ public class AmazonHttpClient {
             exception.setStatusCode(statusCode);
             exception.setServiceName(request.getServiceName());
             exception.fillInStackTrace();
+            if (isBufferingResponses) {
+                bufferedFailure = exception;
+            }
             return exception;
         }
 
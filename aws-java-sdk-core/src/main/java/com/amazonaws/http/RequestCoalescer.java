@@ -0,0 +1,472 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.http.exception.HttpRequestTimeoutException;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.IOUtils;
+
+/**
+ * Collapses concurrent identical read requests of a client into a single call: the first caller
+ * sends the request and every caller that arrives while it is in flight shares its HTTP response,
+ * or its failure.
+ * <p>
+ * A request is eligible if its response is fully consumed by its response handler, its content
+ * is small enough to be compared, and it is a read: either an HTTP GET or HEAD, or a request of
+ * one of the types the client was explicitly configured to coalesce. Requests are identical if
+ * they were made with the same credentials provider and are marshalled to the same HTTP request.
+ * Callers that share a response do not run the request handlers of the client.
+ * <p>
+ * The HTTP response is buffered, and unmarshalled again by the response handler of every caller
+ * that shares it, so that each caller gets its own result. Likewise, each caller gets its own
+ * exception: a service exception unmarshalled again from the error response, or else an exception
+ * caused by the one of the request in flight.
+ * <p>
+ * A caller never waits for the request in flight longer than its own client execution timeout. If
+ * the request in flight is aborted or times out, which says nothing about the request itself,
+ * each caller that waited for it sends its own request in the time it has left.
+ */
+@SdkInternalApi
+@ThreadSafe
+public final class RequestCoalescer {
+
+    /** Requests with more content than this are never coalesced. */
+    private static final int MAX_CONTENT_LENGTH = 64 * 1024;
+
+    private static final AtomicLong COALESCED_COUNT = new AtomicLong();
+
+    private final ConcurrentMap<Key, Flight> inFlight = new ConcurrentHashMap<Key, Flight>();
+    private final Set<Class<?>> coalescedRequestTypes;
+
+    /**
+     * @param coalescedRequestTypes
+     *            The types of the requests, besides HTTP GET and HEAD requests, to coalesce
+     */
+    RequestCoalescer(Collection<? extends Class<?>> coalescedRequestTypes) {
+        this.coalescedRequestTypes = new HashSet<Class<?>>(coalescedRequestTypes);
+    }
+
+    /**
+     * Sends a request within a client execution timeout, or handles the response to an identical
+     * request.
+     */
+    interface Call<T> {
+        /**
+         * @param clientExecutionTimeout
+         *            The client execution timeout of the request in milliseconds, or zero if it
+         *            has none
+         */
+        Response<T> call(int clientExecutionTimeout) throws Exception;
+
+        /**
+         * Returns the HTTP response that the given outcome of the call was unmarshalled from,
+         * buffered, or null if there is none: the last response the call received, if it was
+         * the response of a successful call or the error response the given service exception
+         * was unmarshalled from.
+         *
+         * @param failure
+         *            The exception the call threw, or null if it succeeded
+         */
+        BufferedResponse getBufferedResponse(Throwable failure);
+
+        /**
+         * Unmarshalls the given successful response to an identical request.
+         */
+        Response<T> handle(BufferedResponse response) throws Exception;
+
+        /**
+         * Unmarshalls the given error response to an identical request.
+         */
+        AmazonServiceException handleError(BufferedResponse response) throws Exception;
+    }
+
+    /**
+     * Returns the total number of requests, across all clients, that were not sent because they
+     * shared the response of an identical request in flight.
+     */
+    public static long getCoalescedCount() {
+        return COALESCED_COUNT.get();
+    }
+
+    /**
+     * Returns the key identifying the given request, or null if it must not be coalesced.
+     */
+    Key keyOf(Request<?> request, ExecutionContext executionContext,
+              HttpResponseHandler<?> responseHandler) {
+        if (responseHandler.needsConnectionLeftOpen() || !isRead(request)) {
+            return null;
+        }
+        byte[] content = readContent(request.getContent());
+        if (content == null) {
+            return null;
+        }
+        return new Key(request, executionContext.getCredentialsProvider(),
+                       responseHandler.getClass(), content);
+    }
+
+    /**
+     * Runs the call, unless an identical request is already in flight, in which case its outcome
+     * is returned instead.
+     *
+     * @param clientExecutionTimeout
+     *            The client execution timeout of the request in milliseconds, or zero if it has
+     *            none
+     */
+    <T> Response<T> execute(Key key, Call<T> call, int clientExecutionTimeout,
+                            AWSRequestMetrics awsRequestMetrics) {
+        final long startNanos = System.nanoTime();
+        Flight flight = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            try {
+                Response<T> response = invoke(call, clientExecutionTimeout);
+                flight.complete(call.getBufferedResponse(null), null);
+                return response;
+            } catch (RuntimeException e) {
+                flight.complete(call.getBufferedResponse(e), e);
+                throw e;
+            } catch (Error e) {
+                flight.complete(null, e);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        if (!leader.await(clientExecutionTimeout)) {
+            throw new ClientExecutionTimeoutException();
+        }
+        // The leader was interrupted or ran out of time; that says nothing about this request
+        if (isTimeout(leader.failure)) {
+            return invoke(call, remainingTimeout(clientExecutionTimeout, startNanos));
+        }
+        // The response of the leader can't be unmarshalled again; unlikely, but not shared either
+        if (leader.failure == null && leader.response == null) {
+            return invoke(call, remainingTimeout(clientExecutionTimeout, startNanos));
+        }
+        COALESCED_COUNT.incrementAndGet();
+        awsRequestMetrics.incrementCounter(Field.CoalescedRequestCount);
+        if (leader.failure != null) {
+            throw failure(call, leader);
+        }
+        try {
+            return call.handle(leader.response);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AmazonClientException(e);
+        }
+    }
+
+    /**
+     * Returns a new exception for a caller that shared the failed request in flight: the service
+     * exception unmarshalled again from its error response if possible, or else an exception
+     * caused by its failure.
+     */
+    private static RuntimeException failure(Call<?> call, Flight leader) {
+        if (leader.response != null) {
+            try {
+                return call.handleError(leader.response);
+            } catch (Exception e) {
+                // Fall back to the exception of the leader
+            }
+        }
+        if (leader.failure instanceof AmazonServiceException) {
+            AmazonServiceException failure = (AmazonServiceException) leader.failure;
+            AmazonServiceException copy = new AmazonServiceException(failure.getErrorMessage(), failure);
+            copy.setErrorCode(failure.getErrorCode());
+            copy.setErrorType(failure.getErrorType());
+            copy.setRequestId(failure.getRequestId());
+            copy.setServiceName(failure.getServiceName());
+            copy.setStatusCode(failure.getStatusCode());
+            copy.setRawResponse(failure.getRawResponse());
+            copy.setHttpHeaders(failure.getHttpHeaders());
+            return copy;
+        }
+        return new AmazonClientException(leader.failure.getMessage(), leader.failure);
+    }
+
+    /**
+     * Returns true if the failure was caused by the caller, or by one of its timeouts.
+     */
+    private static boolean isTimeout(Throwable failure) {
+        if (failure instanceof AbortedException
+            || failure instanceof ClientExecutionTimeoutException) {
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpRequestTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns what is left of the client execution timeout of a request that started at the
+     * given time, or throws if it has elapsed.
+     */
+    private static int remainingTimeout(int clientExecutionTimeout, long startNanos) {
+        if (clientExecutionTimeout <= 0) {
+            return clientExecutionTimeout;
+        }
+        long remaining = clientExecutionTimeout
+                - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (remaining <= 0) {
+            throw new ClientExecutionTimeoutException();
+        }
+        return (int) remaining;
+    }
+
+    private static <T> Response<T> invoke(Call<T> call, int clientExecutionTimeout) {
+        try {
+            return call.call(clientExecutionTimeout);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AmazonClientException(e);
+        }
+    }
+
+    private boolean isRead(Request<?> request) {
+        if (request.getHttpMethod() == HttpMethodName.GET
+            || request.getHttpMethod() == HttpMethodName.HEAD) {
+            return true;
+        }
+        AmazonWebServiceRequest originalRequest = request.getOriginalRequest();
+        return originalRequest != null && coalescedRequestTypes.contains(originalRequest.getClass());
+    }
+
+    /**
+     * Returns the content of the stream, leaving it unread, or null if it can't be read again or
+     * is too long.
+     */
+    private static byte[] readContent(InputStream content) {
+        if (content == null) {
+            return new byte[0];
+        }
+        if (!content.markSupported()) {
+            return null;
+        }
+        byte[] buffer = new byte[1024];
+        int length = 0;
+        content.mark(MAX_CONTENT_LENGTH + 1);
+        try {
+            try {
+                int read;
+                while ((read = content.read(buffer, length, buffer.length - length)) != -1) {
+                    length += read;
+                    if (length > MAX_CONTENT_LENGTH) {
+                        return null;
+                    }
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                }
+            } finally {
+                content.reset();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Identifies a marshalled request. Holds copies of the parts of the request that are compared,
+     * since the request itself is modified as it is sent.
+     */
+    static final class Key {
+        private final Object credentialsProvider;
+        private final Class<?> originalRequestType;
+        private final Class<?> responseHandlerType;
+        private final String serviceName;
+        private final HttpMethodName httpMethod;
+        private final String endpoint;
+        private final String resourcePath;
+        private final Map<String, String> headers;
+        private final Map<String, List<String>> parameters;
+        private final byte[] content;
+        private final int hashCode;
+
+        private Key(Request<?> request, Object credentialsProvider, Class<?> responseHandlerType,
+                    byte[] content) {
+            this.credentialsProvider = credentialsProvider;
+            this.originalRequestType = request.getOriginalRequest() == null
+                    ? null : request.getOriginalRequest().getClass();
+            this.responseHandlerType = responseHandlerType;
+            this.serviceName = request.getServiceName();
+            this.httpMethod = request.getHttpMethod();
+            this.endpoint = request.getEndpoint() == null ? null : request.getEndpoint().toString();
+            this.resourcePath = request.getResourcePath();
+            this.headers = new HashMap<String, String>(request.getHeaders());
+            this.parameters = new HashMap<String, List<String>>();
+            for (Map.Entry<String, List<String>> parameter : request.getParameters().entrySet()) {
+                parameters.put(parameter.getKey(), new ArrayList<String>(parameter.getValue()));
+            }
+            this.content = content;
+            this.hashCode = computeHashCode();
+        }
+
+        private int computeHashCode() {
+            int result = System.identityHashCode(credentialsProvider);
+            result = 31 * result + hashCode(originalRequestType);
+            result = 31 * result + hashCode(responseHandlerType);
+            result = 31 * result + hashCode(serviceName);
+            result = 31 * result + hashCode(httpMethod);
+            result = 31 * result + hashCode(endpoint);
+            result = 31 * result + hashCode(resourcePath);
+            result = 31 * result + headers.hashCode();
+            result = 31 * result + parameters.hashCode();
+            result = 31 * result + Arrays.hashCode(content);
+            return result;
+        }
+
+        private static int hashCode(Object o) {
+            return o == null ? 0 : o.hashCode();
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hashCode == other.hashCode
+                   && credentialsProvider == other.credentialsProvider
+                   && originalRequestType == other.originalRequestType
+                   && responseHandlerType == other.responseHandlerType
+                   && httpMethod == other.httpMethod
+                   && equal(serviceName, other.serviceName)
+                   && equal(endpoint, other.endpoint)
+                   && equal(resourcePath, other.resourcePath)
+                   && headers.equals(other.headers)
+                   && parameters.equals(other.parameters)
+                   && Arrays.equals(content, other.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * An HTTP response, with its content read into memory so that it can be unmarshalled again.
+     */
+    static final class BufferedResponse {
+        private final int statusCode;
+        private final String statusText;
+        private final Map<String, String> headers;
+        private final byte[] content;
+
+        /**
+         * Reads the content of the given response, which is replaced with the content read.
+         */
+        BufferedResponse(HttpResponse response) throws IOException {
+            this.statusCode = response.getStatusCode();
+            this.statusText = response.getStatusText();
+            this.headers = new HashMap<String, String>(response.getHeaders());
+            InputStream content = response.getContent();
+            this.content = content == null ? null : IOUtils.toByteArray(content);
+            if (this.content != null) {
+                response.setContent(new ByteArrayInputStream(this.content));
+            }
+        }
+
+        /**
+         * Returns a new HTTP response to the given request with the buffered content.
+         */
+        HttpResponse toHttpResponse(Request<?> request) {
+            HttpResponse response = new HttpResponse(request, null);
+            response.setStatusCode(statusCode);
+            response.setStatusText(statusText);
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                response.addHeader(header.getKey(), header.getValue());
+            }
+            if (content != null) {
+                response.setContent(new ByteArrayInputStream(content));
+            }
+            return response;
+        }
+    }
+
+    /**
+     * The outcome of a request in flight.
+     */
+    private static final class Flight {
+        private final CountDownLatch done = new CountDownLatch(1);
+        /** The response the outcome was unmarshalled from, if it can be unmarshalled again. */
+        private volatile BufferedResponse response;
+        private volatile Throwable failure;
+
+        private void complete(BufferedResponse response, Throwable failure) {
+            this.response = response;
+            this.failure = failure;
+            done.countDown();
+        }
+
+        /**
+         * Waits for the outcome for at most the given time in milliseconds, or for as long as it
+         * takes if zero, and returns false if it timed out.
+         */
+        private boolean await(int timeout) {
+            try {
+                if (timeout <= 0) {
+                    done.await();
+                    return true;
+                }
+                return done.await(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AbortedException(e);
+            }
+        }
+    }
+}
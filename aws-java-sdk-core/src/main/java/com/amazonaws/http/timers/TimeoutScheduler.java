@@ -0,0 +1,412 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.timers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * A hashed timing wheel used to schedule the abort tasks of the request timeout and client
+ * execution timeout features. Nearly every scheduled task is cancelled before it expires, so
+ * scheduling and cancelling are O(1): both only enqueue the timeout on a lock-free queue, and the
+ * single worker thread moves timeouts in and out of the wheel once per tick.
+ * <p>
+ * Timeouts expire at most one tick late, plus any delay in waking up the worker thread. Expired
+ * tasks are handed to a small pool of task threads, so that a task that blocks, such as an abort
+ * that waits on a socket, delays the other tasks of the pool at most, and never the expiry of other
+ * timeouts. The worker and task threads are started on demand and exit after they have been idle
+ * for a while.
+ */
+@SdkInternalApi
+@ThreadSafe
+public final class TimeoutScheduler {
+
+    private static final Log log = LogFactory.getLog(TimeoutScheduler.class);
+
+    private static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private static final long DEFAULT_IDLE_MILLIS = 5 * 1000;
+    private static final int DEFAULT_TASK_THREADS = 4;
+
+    private static final TimeoutScheduler INSTANCE =
+            new TimeoutScheduler(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, DEFAULT_IDLE_MILLIS);
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long idleMillis;
+    /** Origin of all deadlines, so that they can be compared without overflow. */
+    private final long startNanos = System.nanoTime();
+
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<Timeout>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<Timeout>();
+    private final AtomicBoolean workerRunning = new AtomicBoolean();
+    private final Worker worker = new Worker();
+    private final ThreadPoolExecutor taskExecutor;
+
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong retainedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong totalLatenessNanos = new AtomicLong();
+    private volatile long maxLatenessNanos;
+
+    /**
+     * @param tickMillis
+     *            Resolution of the wheel
+     * @param wheelSize
+     *            Number of buckets of the wheel, rounded up to a power of two
+     * @param idleMillis
+     *            How long the worker thread waits for new timeouts before exiting
+     */
+    @SdkTestInternalApi
+    TimeoutScheduler(long tickMillis, int wheelSize, long idleMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0 || idleMillis < 0) {
+            throw new IllegalArgumentException("Invalid timeout scheduler configuration");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.idleMillis = idleMillis;
+        this.taskExecutor = new ThreadPoolExecutor(DEFAULT_TASK_THREADS, DEFAULT_TASK_THREADS,
+                Math.max(idleMillis, 1), TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                new TaskThreadFactory());
+        this.taskExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the scheduler shared by all timers of the SDK.
+     */
+    public static TimeoutScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Schedules the task to run once the given delay has elapsed.
+     *
+     * @return The timeout, which can be used to cancel the task.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(this, task, now() + unit.toNanos(delay));
+        pendingCount.incrementAndGet();
+        retainedCount.incrementAndGet();
+        newTimeouts.add(timeout);
+        if (!workerRunning.get() && workerRunning.compareAndSet(false, true)) {
+            startWorker();
+        }
+        return timeout;
+    }
+
+    private void startWorker() {
+        Thread thread = new Thread(worker, "aws-java-sdk-timeout-scheduler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    private long now() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Returns the number of timeouts that have been scheduled but have neither expired nor been
+     * cancelled.
+     */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Returns the number of timeouts that have expired.
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * Returns the longest time by which a timeout expired after its deadline.
+     */
+    public long getMaxLatenessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatenessNanos);
+    }
+
+    /**
+     * Returns the average time by which timeouts expired after their deadline.
+     */
+    public double getAverageLatenessMillis() {
+        long expired = expiredCount.get();
+        return expired == 0 ? 0 : (double) totalLatenessNanos.get() / expired / 1000000;
+    }
+
+    /**
+     * Returns the number of timeouts, expired and cancelled ones included, that the worker thread
+     * has not yet discarded.
+     */
+    @SdkTestInternalApi
+    long getRetainedCount() {
+        return retainedCount.get();
+    }
+
+    /**
+     * Returns how long the worker thread waits for new timeouts before exiting.
+     */
+    @SdkTestInternalApi
+    public long getIdleMillis() {
+        return idleMillis;
+    }
+
+    /**
+     * Returns true if the worker thread of the scheduler is running.
+     */
+    @SdkTestInternalApi
+    public boolean isWorkerRunning() {
+        return workerRunning.get();
+    }
+
+    /**
+     * A task scheduled with {@link TimeoutScheduler#schedule(Runnable, long, TimeUnit)}.
+     */
+    public static final class Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimeoutScheduler scheduler;
+        private final Runnable task;
+        private final long deadline;
+        @SuppressWarnings("unused")
+        private volatile int state = ST_INIT;
+
+        // Only accessed by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(TimeoutScheduler scheduler, Runnable task, long deadline) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout. The task is not interrupted if it is already running.
+         *
+         * @return True if the timeout was cancelled before it expired.
+         */
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            scheduler.pendingCount.decrementAndGet();
+            scheduler.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private void expire(long now) {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            scheduler.pendingCount.decrementAndGet();
+            scheduler.recordExpiry(Math.max(0, now - deadline));
+            scheduler.taskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        log.warn("Timeout task threw an exception", t);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class TaskThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "aws-java-sdk-timeout-task-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            return thread;
+        }
+    }
+
+    private void recordExpiry(long latenessNanos) {
+        expiredCount.incrementAndGet();
+        totalLatenessNanos.addAndGet(latenessNanos);
+        // Only written by the worker thread
+        if (latenessNanos > maxLatenessNanos) {
+            maxLatenessNanos = latenessNanos;
+        }
+    }
+
+    /**
+     * A doubly linked list of timeouts. Only accessed by the worker thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            timeout.scheduler.retainedCount.decrementAndGet();
+            return next;
+        }
+
+        private void expireTimeouts(long now) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                if (timeout.isCancelled()) {
+                    timeout = remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    Timeout next = remove(timeout);
+                    timeout.expire(now);
+                    timeout = next;
+                } else {
+                    timeout.remainingRounds--;
+                    timeout = timeout.next;
+                }
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            long tick = now() / tickNanos;
+            long idleSince = -1;
+            while (true) {
+                long tickDeadline = (tick + 1) * tickNanos;
+                sleepUntil(tickDeadline);
+                removeCancelledTimeouts();
+                transferNewTimeouts(tick);
+                wheel[(int) (tick & mask)].expireTimeouts(now());
+                tick++;
+
+                if (pendingCount.get() > 0) {
+                    idleSince = -1;
+                } else if (idleSince < 0) {
+                    idleSince = tickDeadline;
+                } else if (tickDeadline - idleSince >= TimeUnit.MILLISECONDS.toNanos(idleMillis)) {
+                    removeCancelledTimeouts();
+                    workerRunning.set(false);
+                    // A timeout may have been scheduled after the pending count was checked; keep
+                    // running unless a new worker has been started for it.
+                    if (pendingCount.get() == 0 || !workerRunning.compareAndSet(false, true)) {
+                        return;
+                    }
+                    idleSince = -1;
+                }
+            }
+        }
+
+        private void sleepUntil(long deadline) {
+            long sleepNanos;
+            while ((sleepNanos = deadline - now()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException ignored) {
+                    // The worker thread is private to the scheduler and is never interrupted on
+                    // purpose
+                }
+            }
+        }
+
+        private void removeCancelledTimeouts() {
+            Timeout timeout;
+            while ((timeout = cancelledTimeouts.poll()) != null) {
+                if (timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+            }
+        }
+
+        private void transferNewTimeouts(long tick) {
+            Timeout timeout;
+            while ((timeout = newTimeouts.poll()) != null) {
+                if (timeout.isCancelled()) {
+                    retainedCount.decrementAndGet();
+                    continue;
+                }
+                long expiryTick = timeout.deadline / tickNanos;
+                timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+                wheel[(int) (Math.max(expiryTick, tick) & mask)].add(timeout);
+            }
+        }
+    }
+}
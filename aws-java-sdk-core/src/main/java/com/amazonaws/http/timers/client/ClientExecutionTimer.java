@@ -14,15 +14,15 @@
  */
 package com.amazonaws.http.timers.client;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.annotation.ThreadSafe;
 import com.amazonaws.http.AmazonHttpClient;
-import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
+import com.amazonaws.http.timers.TimeoutScheduler;
 
 /**
  * Represents a timer to enforce a timeout on the total client execution time. That is the time
@@ -33,7 +33,9 @@ import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
 @ThreadSafe
 public class ClientExecutionTimer {
 
-    private volatile ScheduledThreadPoolExecutor executor;
+    private volatile TimeoutScheduler scheduler;
+    private volatile boolean shutdown;
+    private final AtomicLong triggeredTaskCount = new AtomicLong();
 
     /**
      * Start the timer with the specified timeout and return a object that can be used to track the
@@ -48,46 +50,52 @@ public class ClientExecutionTimer {
     public ClientExecutionAbortTrackerTask startTimer(int clientExecutionTimeoutMillis) {
         if (isTimeoutDisabled(clientExecutionTimeoutMillis)) {
             return NoOpClientExecutionAbortTrackerTask.INSTANCE;
-        } else if (executor == null) {
-            initializeExecutor();
+        } else if (shutdown) {
+            throw new RejectedExecutionException("Client execution timer has been shut down");
+        } else if (scheduler == null) {
+            scheduler = TimeoutScheduler.getInstance();
         }
         return scheduleTimerTask(clientExecutionTimeoutMillis);
     }
 
     /**
-     * Executor is lazily initialized as it's not compatible with Java 6
+     * This method is current exposed for testing purposes
+     *
+     * @return The underlying {@link TimeoutScheduler}, or null if the timer was never started
      */
-    private synchronized void initializeExecutor() {
-        if (executor == null) {
-            executor = TimeoutThreadPoolBuilder.buildDefaultTimeoutThreadPool();
-        }
+    @SdkTestInternalApi
+    public TimeoutScheduler getScheduler() {
+        return this.scheduler;
     }
 
     /**
      * This method is current exposed for testing purposes
-     * 
-     * @return The underlying {@link ScheduledThreadPoolExecutor}
+     *
+     * @return The number of timer tasks that were triggered
      */
     @SdkTestInternalApi
-    public ScheduledThreadPoolExecutor getExecutor() {
-        return this.executor;
+    public long getTriggeredTaskCount() {
+        return triggeredTaskCount.get();
     }
 
     /**
-     * Shutdown the underlying {@link ScheduledThreadPoolExecutor}. Should be invoked when
-     * {@link AmazonHttpClient} is shutdown
+     * Stop accepting new timer tasks. Tasks already scheduled still run on the shared
+     * {@link TimeoutScheduler}. Should be invoked when {@link AmazonHttpClient} is shutdown
      */
-    public synchronized void shutdown() {
-        if (executor != null) {
-            executor.shutdown();
-        }
+    public void shutdown() {
+        shutdown = true;
     }
 
     private ClientExecutionAbortTrackerTask scheduleTimerTask(int clientExecutionTimeoutMillis) {
-        ClientExecutionAbortTask timerTask = new ClientExecutionAbortTaskImpl(Thread.currentThread());
-        ScheduledFuture<?> timerTaskFuture = executor.schedule(timerTask, clientExecutionTimeoutMillis,
-                TimeUnit.MILLISECONDS);
-        return new ClientExecutionAbortTrackerTaskImpl(timerTask, timerTaskFuture);
+        final ClientExecutionAbortTask timerTask = new ClientExecutionAbortTaskImpl(Thread.currentThread());
+        TimeoutScheduler.Timeout timeout = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                triggeredTaskCount.incrementAndGet();
+                timerTask.run();
+            }
+        }, clientExecutionTimeoutMillis, TimeUnit.MILLISECONDS);
+        return new ClientExecutionAbortTrackerTaskImpl(timerTask, timeout);
     }
 
     private boolean isTimeoutDisabled(int clientExecutionTimeoutMillis) {
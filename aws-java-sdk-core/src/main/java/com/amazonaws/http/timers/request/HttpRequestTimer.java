@@ -14,16 +14,17 @@
  */
 package com.amazonaws.http.timers.request;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.http.client.methods.HttpRequestBase;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.annotation.ThreadSafe;
-import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
+import com.amazonaws.http.AmazonHttpClient;
+import com.amazonaws.http.timers.TimeoutScheduler;
 
 /**
  * Represents a timer class to enforce HTTP request timeouts.
@@ -32,7 +33,9 @@ import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
 @SdkInternalApi
 public class HttpRequestTimer {
 
-    private volatile ScheduledThreadPoolExecutor executor;
+    private volatile TimeoutScheduler scheduler;
+    private volatile boolean shutdown;
+    private final AtomicLong triggeredTaskCount = new AtomicLong();
 
     /**
      * Start the timer with the specified timeout and return a object that can be used to track the
@@ -49,12 +52,20 @@ public class HttpRequestTimer {
     public HttpRequestAbortTaskTracker startTimer(final HttpRequestBase apacheRequest, final int requestTimeoutMillis) {
         if (isTimeoutDisabled(requestTimeoutMillis)) {
             return NoOpHttpRequestAbortTaskTracker.INSTANCE;
-        } else if (executor == null) {
-            initializeExecutor();
+        } else if (shutdown) {
+            throw new RejectedExecutionException("HTTP request timer has been shut down");
+        } else if (scheduler == null) {
+            scheduler = TimeoutScheduler.getInstance();
         }
-        HttpRequestAbortTaskImpl timerTask = new HttpRequestAbortTaskImpl(apacheRequest);
-        ScheduledFuture<?> timerTaskFuture = executor.schedule(timerTask, requestTimeoutMillis, TimeUnit.MILLISECONDS);
-        return new HttpRequestAbortTaskTrackerImpl(timerTask, timerTaskFuture);
+        final HttpRequestAbortTaskImpl timerTask = new HttpRequestAbortTaskImpl(apacheRequest);
+        TimeoutScheduler.Timeout timeout = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                triggeredTaskCount.incrementAndGet();
+                timerTask.run();
+            }
+        }, requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        return new HttpRequestAbortTaskTrackerImpl(timerTask, timeout);
     }
 
     private boolean isTimeoutDisabled(final int requestTimeoutMillis) {
@@ -62,32 +73,31 @@ public class HttpRequestTimer {
     }
 
     /**
-     * Executor is lazily initialized as it's not compatible with Java 6
+     * Stop accepting new timer tasks. Tasks already scheduled still run on the shared
+     * {@link TimeoutScheduler}. Should be invoked when {@link AmazonHttpClient} is shutdown
      */
-    private synchronized void initializeExecutor() {
-        if (executor == null) {
-            executor = TimeoutThreadPoolBuilder.buildDefaultTimeoutThreadPool();
-        }
+    public void shutdown() {
+        shutdown = true;
     }
 
     /**
-     * Shutdown the underlying {@link ScheduledThreadPoolExecutor}. Should be invoked when
-     * {@link AmazonHttpClient} is shutdown
+     * This method is current exposed for testing purposes
+     *
+     * @return The underlying {@link TimeoutScheduler}, or null if the timer was never started
      */
-    public synchronized void shutdown() {
-        if (executor != null) {
-            executor.shutdown();
-        }
+    @SdkTestInternalApi
+    public TimeoutScheduler getScheduler() {
+        return scheduler;
     }
 
     /**
      * This method is current exposed for testing purposes
-     * 
-     * @return The underlying {@link ScheduledThreadPoolExecutor}
+     *
+     * @return The number of timer tasks that were triggered
      */
     @SdkTestInternalApi
-    public ScheduledThreadPoolExecutor getExecutor() {
-        return executor;
+    public long getTriggeredTaskCount() {
+        return triggeredTaskCount.get();
     }
 
 }
@@ -35,6 +35,9 @@ import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.auth.PropertiesCredentials;
+import com.amazonaws.auth.internal.SignerKeyCache;
+import com.amazonaws.http.RequestCoalescer;
+import com.amazonaws.http.timers.TimeoutScheduler;
 import com.amazonaws.jmx.spi.SdkMBeanRegistry;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.util.AWSRequestMetrics;
@@ -877,6 +880,63 @@ public enum AwsSdkMetrics {
         AwsSdkMetrics.hostMetricName = hostMetricName;
     }
 
+    /**
+     * Returns the number of AWS4 signing key lookups that were served from the
+     * signing key cache shared by all AWS4 signers in this JVM.
+     */
+    public static long getSigningKeyCacheHitCount() {
+        return SignerKeyCache.getInstance().getHitCount();
+    }
+
+    /**
+     * Returns the number of AWS4 signing key lookups that missed the signing
+     * key cache and required a new signing key to be derived.
+     */
+    public static long getSigningKeyCacheMissCount() {
+        return SignerKeyCache.getInstance().getMissCount();
+    }
+
+    /**
+     * Returns the number of request and client execution timeouts currently
+     * scheduled in the timeout scheduler shared by all clients in this JVM.
+     */
+    public static long getTimeoutSchedulerQueueDepth() {
+        return TimeoutScheduler.getInstance().getPendingCount();
+    }
+
+    /**
+     * Returns the number of request and client execution timeouts that have
+     * expired, i.e. that were not cancelled before their deadline.
+     */
+    public static long getTimeoutSchedulerExpiredCount() {
+        return TimeoutScheduler.getInstance().getExpiredCount();
+    }
+
+    /**
+     * Returns the longest time, in milliseconds, by which an expired timeout
+     * fired after its deadline.
+     */
+    public static long getTimeoutSchedulerMaxLatenessMillis() {
+        return TimeoutScheduler.getInstance().getMaxLatenessMillis();
+    }
+
+    /**
+     * Returns the average time, in milliseconds, by which expired timeouts
+     * fired after their deadline.
+     */
+    public static double getTimeoutSchedulerAverageLatenessMillis() {
+        return TimeoutScheduler.getInstance().getAverageLatenessMillis();
+    }
+
+    /**
+     * Returns the number of requests, across all clients using request
+     * coalescing, that were not sent because they shared the response of an
+     * identical request in flight.
+     */
+    public static long getCoalescedRequestCount() {
+        return RequestCoalescer.getCoalescedCount();
+    }
+
     /**
      * Used as a registry for the predefined metrics to be captured by the
      * metric collector at the AWS SDK level.
@@ -897,6 +957,7 @@ public enum AwsSdkMetrics {
             metricTypes.add(Field.RetryCount);
             metricTypes.add(Field.RetryCapacityConsumed);
             metricTypes.add(Field.ThrottledRetryCount);
+            metricTypes.add(Field.SendRateLimit);
             metricTypes.add(Field.HttpClientSendRequestTime);
             metricTypes.add(Field.HttpClientReceiveResponseTime);
             metricTypes.add(Field.HttpSocketReadTime);
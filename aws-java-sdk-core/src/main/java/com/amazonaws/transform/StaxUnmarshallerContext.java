@@ -15,6 +15,7 @@
 package com.amazonaws.transform;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -41,7 +42,20 @@ public class StaxUnmarshallerContext {
     private final XMLEventReader eventReader;
 
     public final Stack<String> stack = new Stack<String>();
-    private String stackString = "";
+
+    /**
+     * The current document position as a path of the form "/a/b/c", or
+     * "/a/b/@attr" while an attribute is being read. It is maintained
+     * incrementally as elements are entered and left so that expressions can
+     * be tested against it without building new strings.
+     */
+    private final StringBuilder stackString = new StringBuilder(128);
+
+    /**
+     * The length of {@link #stackString} after each element on the stack was
+     * appended, indexed by depth - 1.
+     */
+    private int[] elementPathLengths = new int[16];
 
     private Map<String, String> metadata = new HashMap<String, String>();
     private List<MetadataExpression> metadataExpressions = new ArrayList<MetadataExpression>();
@@ -115,14 +129,28 @@ public class StaxUnmarshallerContext {
             return attribute.getValue();
         }
 
-        StringBuilder sb = new StringBuilder();
+        // Element text almost always arrives as a single characters event, so
+        // only fall back to accumulating when it has been split up.
+        String text = null;
+        StringBuilder sb = null;
         while (true) {
             XMLEvent event = eventReader.peek();
             if (event.getEventType() == XMLStreamConstants.CHARACTERS) {
                 eventReader.nextEvent();
-                sb.append(event.asCharacters().getData());
+                String data = event.asCharacters().getData();
+                if (text == null) {
+                    text = data;
+                } else {
+                    if (sb == null) {
+                        sb = new StringBuilder(text);
+                    }
+                    sb.append(data);
+                }
             } else if (event.getEventType() == XMLStreamConstants.END_ELEMENT) {
-                return sb.toString();
+                if (sb != null) {
+                    return sb.toString();
+                }
+                return text == null ? "" : text;
             } else {
                 throw new RuntimeException("Encountered unexpected event: " + event.toString());
             }
@@ -151,7 +179,7 @@ public class StaxUnmarshallerContext {
      */
     public boolean testExpression(String expression) {
         if (expression.equals(".")) return true;
-        return stackString.endsWith(expression);
+        return stackStringEndsWith(expression);
     }
 
     /**
@@ -180,8 +208,30 @@ public class StaxUnmarshallerContext {
         }
 
 
-        return (startingStackDepth == getCurrentDepth()
-                && stackString.endsWith("/" + expression));
+        if (startingStackDepth != getCurrentDepth()) {
+            return false;
+        }
+        int separatorIndex = stackString.length() - expression.length() - 1;
+        return separatorIndex >= 0
+                && stackString.charAt(separatorIndex) == '/'
+                && stackStringEndsWith(expression);
+    }
+
+    /**
+     * Equivalent to {@code stackString.toString().endsWith(suffix)} without
+     * materializing the current path as a string.
+     */
+    private boolean stackStringEndsWith(String suffix) {
+        int offset = stackString.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = suffix.length() - 1; i >= 0; i--) {
+            if (stackString.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -285,21 +335,32 @@ public class StaxUnmarshallerContext {
 
         if (event.isEndElement()) {
             stack.pop();
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
-            }
+            truncateToElementPath();
         } else if (event.isStartElement()) {
-            stack.push(event.asStartElement().getName().getLocalPart());
-            stackString += "/" + event.asStartElement().getName().getLocalPart();
+            String localPart = event.asStartElement().getName().getLocalPart();
+            truncateToElementPath();
+            stack.push(localPart);
+            stackString.append('/').append(localPart);
+
+            int depth = stack.size();
+            if (depth > elementPathLengths.length) {
+                elementPathLengths = Arrays.copyOf(elementPathLengths, depth * 2);
+            }
+            elementPathLengths[depth - 1] = stackString.length();
         } else if (event.isAttribute()) {
             Attribute attribute = (Attribute)event;
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
-            }
-            stackString += "/@" + attribute.getName().getLocalPart();
+            truncateToElementPath();
+            stackString.append("/@").append(attribute.getName().getLocalPart());
         }
     }
 
+    /**
+     * Drops any attribute suffix, or the path of an element that was just
+     * left, so that {@link #stackString} reflects the current element stack.
+     */
+    private void truncateToElementPath() {
+        int depth = stack.size();
+        stackString.setLength(depth == 0 ? 0 : elementPathLengths[depth - 1]);
+    }
+
 }
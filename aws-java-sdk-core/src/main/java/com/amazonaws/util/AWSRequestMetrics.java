@@ -95,6 +95,16 @@ public class AWSRequestMetrics {
          * Number of retries that were not attempted due to retry throttling.
          */
         ThrottledRetryCount,
+        /**
+         * Snapshot of the send rate limit, in requests per second, of a
+         * client using adaptive rate limiting.
+         */
+        SendRateLimit,
+        /**
+         * Number of requests that were not sent because they shared the
+         * response of an identical request in flight.
+         */
+        CoalescedRequestCount,
         /**
          * Number of retries of the underlying http client library in sending a
          * request to AWS.
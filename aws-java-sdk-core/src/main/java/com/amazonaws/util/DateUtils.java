@@ -90,6 +90,11 @@ public class DateUtils {
                     .concat("Z");
         }
 
+        final Date date = parseCanonicalISO8601Date(dateString);
+        if (date != null) {
+            return date;
+        }
+
         // https://github.com/aws/aws-sdk-java/issues/233
         String temp = tempDateStringForJodaTime(dateString);
         try {
@@ -121,6 +126,78 @@ public class DateUtils {
         }
     }
 
+    /**
+     * Parses the given date string without going through Joda-Time if it is of
+     * the form yyyy-MM-dd'T'HH:mm:ss.SSS'Z' or yyyy-MM-dd'T'HH:mm:ss'Z', as
+     * returned by the services, such as for every object of an Amazon S3
+     * listing; or returns null if the string is of any other form, or out of
+     * range, so that Joda-Time can parse it or report the error.
+     */
+    private static Date parseCanonicalISO8601Date(String s) {
+        final int length = s.length();
+        if ((length != 24 && length != 20)
+                || s.charAt(4) != '-' || s.charAt(7) != '-'
+                || s.charAt(10) != 'T' || s.charAt(13) != ':'
+                || s.charAt(16) != ':' || s.charAt(length - 1) != 'Z'
+                || (length == 24 && s.charAt(19) != '.')) {
+            return null;
+        }
+        final int year = parseDigits(s, 0, 4);
+        final int month = parseDigits(s, 5, 2);
+        final int day = parseDigits(s, 8, 2);
+        final int hour = parseDigits(s, 11, 2);
+        final int minute = parseDigits(s, 14, 2);
+        final int second = parseDigits(s, 17, 2);
+        final int milli = length == 24 ? parseDigits(s, 20, 3) : 0;
+        if (year < 0 || month < 1 || month > 12 || day < 1
+                || day > daysInMonth(year, month) || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59
+                || milli < 0) {
+            return null;
+        }
+        final long days = daysSinceEpoch(year, month, day);
+        return new Date((((days * 24 + hour) * 60 + minute) * 60 + second) * 1000 + milli);
+    }
+
+    /**
+     * Returns the value of the given number of decimal digits of the given
+     * string from the given index, or -1 if any of them is not a digit.
+     */
+    private static int parseDigits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            final char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            final boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Returns the number of days from the epoch to the given date of the
+     * proleptic Gregorian calendar, as used by ISO 8601.
+     */
+    private static long daysSinceEpoch(int year, int month, int day) {
+        // Count years from March, so that the leap day is the last of the year
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = (y >= 0 ? y : y - 399) / 400;
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        // 719468 days from 0000-03-01 to 1970-01-01
+        return era * 146097 + dayOfEra - 719468;
+    }
+
     /**
      * Returns a date string with the prefix temporarily substituted, if
      * applicable, so that JodaTime can handle it.  Otherwise, if not applicable,
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Lazily iterates over the pages of a paginated list or describe operation.
+ * Pages are fetched only as they are needed. When an executor is provided, the
+ * request for the next page is submitted as soon as a page is handed to the
+ * caller, so the round trip overlaps with the processing of the current page.
+ * At most one page is fetched ahead, which bounds the memory held by the
+ * iterator.
+ * <p>
+ * For example, to walk all EC2 instances:
+ *
+ * <pre class="brush: java">
+ * Iterable&lt;DescribeInstancesResult&gt; pages =
+ *         new PrefetchingPageIterable&lt;DescribeInstancesResult&gt;(executor) {
+ *     protected DescribeInstancesResult firstPage() {
+ *         return ec2.describeInstances(new DescribeInstancesRequest());
+ *     }
+ *     protected DescribeInstancesResult nextPage(DescribeInstancesResult previous) {
+ *         if (previous.getNextToken() == null) {
+ *             return null;
+ *         }
+ *         return ec2.describeInstances(
+ *                 new DescribeInstancesRequest().withNextToken(previous.getNextToken()));
+ *     }
+ * };
+ * </pre>
+ *
+ * Every call to {@link #iterator()} starts a new, independent walk from the
+ * first page. Iterators are not thread safe.
+ *
+ * @param <PageT> The type of a single page, usually the operation's result.
+ */
+public abstract class PrefetchingPageIterable<PageT> implements Iterable<PageT> {
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates an iterable that fetches every page on the calling thread.
+     */
+    protected PrefetchingPageIterable() {
+        this(null);
+    }
+
+    /**
+     * Creates an iterable that fetches the page after the current one on the
+     * given executor.
+     *
+     * @param executor
+     *            The executor used to prefetch pages, or null to fetch each
+     *            page on the calling thread when it is needed.
+     */
+    protected PrefetchingPageIterable(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Fetches the first page. Never returns null.
+     */
+    protected abstract PageT firstPage();
+
+    /**
+     * Fetches the page following the given one.
+     *
+     * @param previousPage
+     *            The last page handed out by the iterator.
+     * @return The next page, or null if the given page was the last one.
+     */
+    protected abstract PageT nextPage(PageT previousPage);
+
+    @Override
+    public Iterator<PageT> iterator() {
+        return new PageIterator();
+    }
+
+    private class PageIterator implements Iterator<PageT> {
+
+        private PageT lastReturned;
+        private Future<PageT> pending;
+        private PageT next;
+        private boolean nextFetched;
+        private boolean started;
+
+        @Override
+        public boolean hasNext() {
+            fetchNext();
+            return next != null;
+        }
+
+        @Override
+        public PageT next() {
+            fetchNext();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final PageT page = next;
+            next = null;
+            nextFetched = false;
+            lastReturned = page;
+            if (executor != null) {
+                pending = executor.submit(new Callable<PageT>() {
+                    @Override
+                    public PageT call() {
+                        return nextPage(page);
+                    }
+                });
+            }
+            return page;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void fetchNext() {
+            if (nextFetched) {
+                return;
+            }
+            if (!started) {
+                started = true;
+                next = firstPage();
+            } else if (pending != null) {
+                next = await(pending);
+                pending = null;
+            } else {
+                next = nextPage(lastReturned);
+            }
+            nextFetched = true;
+        }
+
+        private PageT await(Future<PageT> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new AbortedException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new AmazonClientException("Unable to fetch the next page", cause);
+            }
+        }
+    }
+}
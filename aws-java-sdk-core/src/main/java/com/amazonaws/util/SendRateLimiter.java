@@ -0,0 +1,176 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * Paces the requests sent by a client so that it converges on the throughput
+ * the service can sustain. Requests are sent at full speed until the first
+ * throttling error. From then on every request must take a token from a bucket
+ * whose fill rate follows the CUBIC congestion control algorithm: it is cut
+ * multiplicatively on each throttling error and grows back along a cubic curve
+ * while requests succeed, probing slowly around the last rate that was
+ * throttled.
+ */
+@ThreadSafe
+public class SendRateLimiter {
+
+    /** Multiplicative decrease applied to the rate on a throttling error. */
+    private static final double BETA = 0.7;
+    /** Scales how fast the rate grows back after a throttling error. */
+    private static final double SCALE_CONSTANT = 0.4;
+    /** Weight of the latest sample in the measured send rate. */
+    private static final double SMOOTH = 0.8;
+    private static final double MIN_FILL_RATE = 0.5;
+    private static final double MIN_CAPACITY = 1;
+    /** Width, in seconds, of the buckets the send rate is measured over. */
+    private static final double MEASUREMENT_INTERVAL = 0.5;
+
+    private static final long START_NANOS = System.nanoTime();
+
+    private final Object lock = new Object();
+
+    /** Set on the first throttling error; until then no token is required. */
+    private volatile boolean enabled;
+    private volatile double fillRate;
+
+    // Guarded by lock
+    private double maxCapacity;
+    private double currentCapacity;
+    private double lastRefillTime = -1;
+    private double lastMaxRate;
+    private double lastThrottleTime;
+    private double timeWindow;
+    private double measuredSendRate;
+    private double lastMeasurementBucket = -1;
+    private long requestCount;
+
+    /**
+     * Takes a token, waiting until one is available if the limiter is active.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        double waitSeconds;
+        synchronized (lock) {
+            refill(currentTimeSeconds());
+            // Reserve the token even if the bucket is empty, so that waiting
+            // callers are served in the order they arrived.
+            currentCapacity -= 1;
+            if (currentCapacity >= 0) {
+                return;
+            }
+            waitSeconds = -currentCapacity / fillRate;
+        }
+        sleep((long) Math.ceil(waitSeconds * 1000));
+    }
+
+    /**
+     * Adjusts the send rate from the outcome of a request.
+     *
+     * @param throttled
+     *            True if the service responded with a throttling error
+     */
+    public void update(boolean throttled) {
+        synchronized (lock) {
+            double now = currentTimeSeconds();
+            updateMeasuredRate(now);
+            double calculatedRate;
+            if (throttled) {
+                double rateToUse = enabled ? Math.min(measuredSendRate, fillRate) : measuredSendRate;
+                lastMaxRate = rateToUse;
+                updateTimeWindow();
+                lastThrottleTime = now;
+                calculatedRate = rateToUse * BETA;
+                enabled = true;
+            } else {
+                if (!enabled) {
+                    return;
+                }
+                updateTimeWindow();
+                calculatedRate = cubicSuccess(now);
+            }
+            setFillRate(now, Math.min(calculatedRate, 2 * measuredSendRate));
+        }
+    }
+
+    /**
+     * Returns true once a throttling error has activated the limiter.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current send rate limit, in requests per second, or zero if
+     * the limiter is not active.
+     */
+    public double getSendRate() {
+        return enabled ? fillRate : 0;
+    }
+
+    private double cubicSuccess(double now) {
+        double dt = now - lastThrottleTime - timeWindow;
+        return SCALE_CONSTANT * dt * dt * dt + lastMaxRate;
+    }
+
+    private void updateTimeWindow() {
+        timeWindow = Math.cbrt(lastMaxRate * (1 - BETA) / SCALE_CONSTANT);
+    }
+
+    private void updateMeasuredRate(double now) {
+        double bucket = Math.floor(now / MEASUREMENT_INTERVAL) * MEASUREMENT_INTERVAL;
+        requestCount++;
+        if (lastMeasurementBucket < 0) {
+            lastMeasurementBucket = bucket;
+        } else if (bucket > lastMeasurementBucket) {
+            double currentRate = requestCount / (bucket - lastMeasurementBucket);
+            measuredSendRate = currentRate * SMOOTH + measuredSendRate * (1 - SMOOTH);
+            requestCount = 0;
+            lastMeasurementBucket = bucket;
+        }
+    }
+
+    private void setFillRate(double now, double newRate) {
+        refill(now);
+        fillRate = Math.max(newRate, MIN_FILL_RATE);
+        maxCapacity = Math.max(newRate, MIN_CAPACITY);
+        currentCapacity = Math.min(currentCapacity, maxCapacity);
+    }
+
+    private void refill(double now) {
+        if (lastRefillTime >= 0) {
+            currentCapacity = Math.min(maxCapacity,
+                    currentCapacity + (now - lastRefillTime) * fillRate);
+        }
+        lastRefillTime = now;
+    }
+
+    /**
+     * Returns the current time in seconds. Only meaningful relative to other
+     * values returned by this method, which are never negative.
+     */
+    protected double currentTimeSeconds() {
+        return (System.nanoTime() - START_NANOS) / 1e9;
+    }
+
+    protected void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+}
@@ -277,6 +277,8 @@ public class ClientConfigurationTest {
                 field.set(customConfig, new SecureRandom());
             } else if (field.getName().equals("headers")) {
                 field.set(customConfig, ImmutableMapParameter.of("foo", "bar"));
+            } else if (field.getName().equals("coalescedRequestTypes")) {
+                customConfig.withCoalescedRequestTypes(AmazonWebServiceRequest.class);
             } else if (clzz.isAssignableFrom(ApacheHttpClientConfig.class)) {
                 customConfig.getApacheHttpClientConfig()
                         .setSslSocketFactory(Mockito.mock(ConnectionSocketFactory.class));
@@ -15,10 +15,15 @@
 
 package com.amazonaws.auth;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.security.MessageDigest;
+
 import org.junit.Test;
 
+import com.amazonaws.util.StringUtils;
+
 public class AbstractAWSSignerTest {
 
     @Test
@@ -28,4 +33,24 @@ public class AbstractAWSSignerTest {
             AbstractAWSSigner.EMPTY_STRING_SHA256_HEX);
     }
 
+    @Test
+    public void hashOfLongAsciiTextMatchesUtf8Digest() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        assertHashMatchesUtf8Digest(text.toString());
+    }
+
+    @Test
+    public void hashOfNonAsciiTextMatchesUtf8Digest() throws Exception {
+        assertHashMatchesUtf8Digest("x-amz-meta-name:caf\u00e9 \u65e5\u672c");
+    }
+
+    private static void assertHashMatchesUtf8Digest(String text) throws Exception {
+        byte[] expected = MessageDigest.getInstance("SHA-256")
+                .digest(text.getBytes(StringUtils.UTF8));
+        assertArrayEquals(expected, new AWS4Signer().hash(text));
+    }
+
 }
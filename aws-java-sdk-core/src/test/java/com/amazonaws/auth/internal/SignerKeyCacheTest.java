@@ -0,0 +1,78 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.auth.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class SignerKeyCacheTest {
+
+    private static final byte[] KEY = new byte[] {1, 2, 3};
+
+    @Test
+    public void cachedKeyIsReturnedForSameDay() {
+        SignerKeyCache cache = new SignerKeyCache(3);
+        cache.put("secret", "us-east-1", "dynamodb", new SignerKey(100, KEY));
+
+        SignerKey signerKey = cache.get("secret", "us-east-1", "dynamodb", 100);
+        assertNotNull(signerKey);
+        assertArrayEquals(KEY, signerKey.getSigningKey());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void keyFromPreviousDayIsAMiss() {
+        SignerKeyCache cache = new SignerKeyCache(3);
+        cache.put("secret", "us-east-1", "dynamodb", new SignerKey(100, KEY));
+
+        assertNull(cache.get("secret", "us-east-1", "dynamodb", 101));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void keysAreDistinguishedByRegionAndService() {
+        SignerKeyCache cache = new SignerKeyCache(3);
+        cache.put("secret", "us-east-1", "dynamodb", new SignerKey(100, KEY));
+
+        assertNull(cache.get("secret", "us-west-2", "dynamodb", 100));
+        assertNull(cache.get("secret", "us-east-1", "sqs", 100));
+        assertNull(cache.get("other", "us-east-1", "dynamodb", 100));
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        SignerKeyCache cache = new SignerKeyCache(2);
+        cache.put("secret", "us-east-1", "s3", new SignerKey(100, KEY));
+        cache.put("secret", "us-east-1", "s3", new SignerKey(100, KEY));
+        assertEquals(1, cache.size());
+
+        cache.put("secret", "us-east-1", "sqs", new SignerKey(100, KEY));
+        cache.put("secret", "us-east-1", "sns", new SignerKey(100, KEY));
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("secret", "us-east-1", "sns", 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSizeIsRejected() {
+        new SignerKeyCache(0);
+    }
+}
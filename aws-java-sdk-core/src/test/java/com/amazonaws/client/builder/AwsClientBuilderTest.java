@@ -19,6 +19,7 @@ import com.amazonaws.AmazonWebServiceClient;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.ClientConfigurationFactory;
 import com.amazonaws.PredefinedClientConfigurations;
+import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
@@ -265,6 +266,17 @@ public class AwsClientBuilderTest {
         assertEquals(maxConns, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
     }
 
+    @Test
+    public void sharedExecutorPropertySetAndNoExplicitExecutor_UsesSharedExecutor() {
+        System.setProperty(SDKGlobalConfiguration.USE_SHARED_EXECUTOR_SYSTEM_PROPERTY, "true");
+        try {
+            ExecutorService executor = builderWithRegion().build().getAsyncParams().getExecutor();
+            assertThat(executor, instanceOf(SharedExecutorView.class));
+        } finally {
+            System.clearProperty(SDKGlobalConfiguration.USE_SHARED_EXECUTOR_SYSTEM_PROPERTY);
+        }
+    }
+
     /**
      * If a custom executor is set then the Max Connections in Client Configuration should be
      * ignored and the executor should be used as is.
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.client.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SharedExecutorViewTest {
+
+    private final ExecutorService shared = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        shared.shutdownNow();
+    }
+
+    @Test
+    public void tasksRunOnTheSharedExecutor() throws Exception {
+        ExecutorService view = new SharedExecutorView(shared);
+        Thread thread = view.submit(new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        }).get();
+        Thread sharedThread = shared.submit(new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        }).get();
+        assertSame(sharedThread, thread);
+    }
+
+    @Test
+    public void shutdownLeavesSharedExecutorAndOtherViewsRunning() throws Exception {
+        ExecutorService first = new SharedExecutorView(shared);
+        ExecutorService second = new SharedExecutorView(shared);
+        first.shutdown();
+
+        assertTrue(first.isShutdown());
+        assertTrue(first.awaitTermination(1, TimeUnit.SECONDS));
+        assertFalse(shared.isShutdown());
+        assertFalse(second.isShutdown());
+        assertEquals("ok", second.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return "ok";
+            }
+        }).get());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void tasksAreRejectedAfterShutdown() {
+        ExecutorService view = new SharedExecutorView(shared);
+        view.shutdown();
+        view.execute(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+
+    @Test
+    public void shutdownNowInterruptsRunningAndDropsQueuedTasks() throws Exception {
+        ExecutorService view = new SharedExecutorView(shared);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        view.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        });
+        Runnable queued = new Runnable() {
+            @Override
+            public void run() {
+                throw new AssertionError("Dropped task must not run");
+            }
+        };
+        view.execute(queued);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<Runnable> notStarted = view.shutdownNow();
+        assertEquals(1, notStarted.size());
+        assertSame(queued, notStarted.get(0));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(view.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(view.isTerminated());
+
+        // The shared executor is still usable and the dropped task is skipped
+        assertTrue(shared.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return true;
+            }
+        }).get());
+    }
+
+    @Test
+    public void awaitTerminationTimesOutWhileTasksAreRunning() throws Exception {
+        ExecutorService view = new SharedExecutorView(shared);
+        final CountDownLatch release = new CountDownLatch(1);
+        view.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        view.shutdown();
+        assertFalse(view.awaitTermination(50, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(view.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void factoryReturnsIndependentViews() {
+        SharedExecutorFactory factory = SharedExecutorFactory.getInstance();
+        ExecutorService first = factory.newExecutor();
+        ExecutorService second = factory.newExecutor();
+        first.shutdownNow();
+        assertTrue(first.isShutdown());
+        assertFalse(second.isShutdown());
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.http.exception.HttpRequestTimeoutException;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.IOUtils;
+import com.amazonaws.util.StringInputStream;
+
+public class RequestCoalescerTest {
+
+    private static class GetThingRequest extends AmazonWebServiceRequest {
+    }
+
+    private static class PutThingRequest extends AmazonWebServiceRequest {
+    }
+
+    private static final HttpResponseHandler<String> HANDLER = new HttpResponseHandler<String>() {
+        @Override
+        public String handle(HttpResponse response) {
+            return null;
+        }
+
+        @Override
+        public boolean needsConnectionLeftOpen() {
+            return false;
+        }
+    };
+
+    private final RequestCoalescer coalescer = new RequestCoalescer(
+            Collections.<Class<?>>singleton(GetThingRequest.class));
+    private final ExecutionContext executionContext = new ExecutionContext();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Request<?> request(AmazonWebServiceRequest original, String content) throws Exception {
+        Request<?> request = new DefaultRequest<Object>(original, "Thing");
+        request.setHttpMethod(HttpMethodName.POST);
+        request.setEndpoint(URI.create("https://thing.us-east-1.amazonaws.com"));
+        request.addHeader("X-Amz-Target", "Thing_20160101." + original.getClass().getSimpleName());
+        request.setContent(new StringInputStream(content));
+        return request;
+    }
+
+    @Test
+    public void identicalReadsHaveEqualKeys() throws Exception {
+        RequestCoalescer.Key first = coalescer.keyOf(
+                request(new GetThingRequest(), "{\"Id\":1}"), executionContext, HANDLER);
+        RequestCoalescer.Key second = coalescer.keyOf(
+                request(new GetThingRequest(), "{\"Id\":1}"), executionContext, HANDLER);
+        RequestCoalescer.Key other = coalescer.keyOf(
+                request(new GetThingRequest(), "{\"Id\":2}"), executionContext, HANDLER);
+
+        assertNotNull(first);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertFalse(first.equals(other));
+    }
+
+    @Test
+    public void keyLeavesContentUnread() throws Exception {
+        Request<?> request = request(new GetThingRequest(), "{\"Id\":1}");
+        coalescer.keyOf(request, executionContext, HANDLER);
+        byte[] content = new byte[8];
+        assertEquals(8, request.getContent().read(content));
+        assertEquals("{\"Id\":1}", new String(content, "UTF-8"));
+    }
+
+    @Test
+    public void writesAreNotCoalesced() throws Exception {
+        assertNull(coalescer.keyOf(request(new PutThingRequest(), "{}"), executionContext, HANDLER));
+    }
+
+    @Test
+    public void streamingResponsesAreNotCoalesced() throws Exception {
+        HttpResponseHandler<String> streaming = new HttpResponseHandler<String>() {
+            @Override
+            public String handle(HttpResponse response) {
+                return null;
+            }
+
+            @Override
+            public boolean needsConnectionLeftOpen() {
+                return true;
+            }
+        };
+        Request<?> request = request(new GetThingRequest(), "");
+        request.setHttpMethod(HttpMethodName.GET);
+        assertNull(coalescer.keyOf(request, executionContext, streaming));
+    }
+
+    @Test
+    public void contentThatCannotBeReadTwiceIsNotCoalesced() throws Exception {
+        Request<?> request = request(new GetThingRequest(), "");
+        request.setContent(new ByteArrayInputStream(new byte[1]) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        });
+        assertNull(coalescer.keyOf(request, executionContext, HANDLER));
+    }
+
+    @Test
+    public void concurrentIdenticalRequestsShareOneCall() throws Exception {
+        final RequestCoalescer.Key key = coalescer.keyOf(
+                request(new GetThingRequest(), "{}"), executionContext, HANDLER);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final TestCall call = new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                calls.incrementAndGet();
+                release.await();
+                return ok("result");
+            }
+        };
+
+        long coalescedBefore = RequestCoalescer.getCoalescedCount();
+        List<Future<Response<String>>> futures = new ArrayList<Future<Response<String>>>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(executor.submit(new Callable<Response<String>>() {
+                @Override
+                public Response<String> call() {
+                    return coalescer.execute(key, call, 0, new AWSRequestMetrics());
+                }
+            }));
+        }
+        // Let all callers join the request in flight
+        Thread.sleep(200);
+        release.countDown();
+
+        // Every caller gets its own result, unmarshalled from the shared response
+        Set<String> results = Collections.newSetFromMap(new IdentityHashMap<String, Boolean>());
+        for (Future<Response<String>> future : futures) {
+            String result = future.get(5, TimeUnit.SECONDS).getAwsResponse();
+            assertEquals("result", result);
+            results.add(result);
+        }
+        assertEquals(5, results.size());
+        assertEquals(1, calls.get());
+        assertEquals(4, RequestCoalescer.getCoalescedCount() - coalescedBefore);
+
+        // Once completed, the next request is sent again
+        coalescer.execute(key, call, 0, new AWSRequestMetrics());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void followersGetTheirOwnServiceException() throws Exception {
+        Throwable[] causes = leaderAndFollowerFailures(new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                throw error("Throttling");
+            }
+        });
+
+        AmazonServiceException follower = (AmazonServiceException) causes[1];
+        assertNotSame(causes[0], follower);
+        assertEquals("Throttling", follower.getErrorCode());
+        assertEquals(400, follower.getStatusCode());
+    }
+
+    @Test
+    public void followersGetACopyOfServiceExceptionWithoutErrorResponse() throws Exception {
+        final AmazonServiceException exception = new AmazonServiceException("throttled");
+        exception.setErrorCode("Throttling");
+        exception.setStatusCode(400);
+        Throwable[] causes = leaderAndFollowerFailures(new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                throw exception;
+            }
+        });
+
+        assertSame(exception, causes[0]);
+        AmazonServiceException follower = (AmazonServiceException) causes[1];
+        assertSame(exception, follower.getCause());
+        assertEquals("Throttling", follower.getErrorCode());
+        assertEquals(400, follower.getStatusCode());
+    }
+
+    @Test
+    public void followersGetTheirOwnClientException() throws Exception {
+        final AmazonClientException exception = new AmazonClientException("Unable to unmarshall response");
+        Throwable[] causes = leaderAndFollowerFailures(new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                throw exception;
+            }
+        });
+
+        assertSame(exception, causes[0]);
+        assertNotSame(exception, causes[1]);
+        assertSame(exception, causes[1].getCause());
+    }
+
+    /**
+     * Runs the call in a leader and a follower that shares its outcome, and returns the
+     * exceptions they threw.
+     */
+    private Throwable[] leaderAndFollowerFailures(final TestCall failingCall) throws Exception {
+        final RequestCoalescer.Key key = coalescer.keyOf(
+                request(new GetThingRequest(), "{}"), executionContext, HANDLER);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final TestCall call = new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                calls.incrementAndGet();
+                release.await();
+                return failingCall.send(clientExecutionTimeout);
+            }
+
+            @Override
+            public RequestCoalescer.BufferedResponse getBufferedResponse(Throwable failure) {
+                return failingCall.getBufferedResponse(failure);
+            }
+        };
+        Future<?> leader = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                coalescer.execute(key, call, 0, new AWSRequestMetrics());
+            }
+        });
+        Thread.sleep(100);
+        Future<?> follower = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                coalescer.execute(key, call, 0, new AWSRequestMetrics());
+            }
+        });
+        Thread.sleep(100);
+        release.countDown();
+
+        Throwable[] causes = {causeOf(leader), causeOf(follower)};
+        assertEquals(1, calls.get());
+        return causes;
+    }
+
+    @Test
+    public void followersSendTheirOwnRequestWhenLeaderIsAborted() throws Exception {
+        final RequestCoalescer.Key key = coalescer.keyOf(
+                request(new GetThingRequest(), "{}"), executionContext, HANDLER);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Response<String> response = new Response<String>("result", null);
+        final TestCall call = new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                if (calls.incrementAndGet() == 1) {
+                    release.await();
+                    throw new AbortedException();
+                }
+                return response;
+            }
+        };
+        Future<?> leader = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                coalescer.execute(key, call, 0, new AWSRequestMetrics());
+            }
+        });
+        Thread.sleep(100);
+        Future<Response<String>> follower = executor.submit(new Callable<Response<String>>() {
+            @Override
+            public Response<String> call() {
+                return coalescer.execute(key, call, 0, new AWSRequestMetrics());
+            }
+        });
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(AbortedException.class, causeOf(leader).getClass());
+        assertSame(response, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void readsAreOnlyCoalescedByMethodOrConfiguredType() throws Exception {
+        RequestCoalescer unconfigured = new RequestCoalescer(Collections.<Class<?>>emptySet());
+        assertNull(unconfigured.keyOf(request(new GetThingRequest(), "{}"), executionContext, HANDLER));
+
+        Request<?> request = request(new PutThingRequest(), "");
+        request.setHttpMethod(HttpMethodName.GET);
+        assertNotNull(unconfigured.keyOf(request, executionContext, HANDLER));
+    }
+
+    @Test
+    public void followerWaitsNoLongerThanItsClientExecutionTimeout() throws Exception {
+        final RequestCoalescer.Key key = coalescer.keyOf(
+                request(new GetThingRequest(), "{}"), executionContext, HANDLER);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TestCall call = new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                release.await();
+                return new Response<String>("result", null);
+            }
+        };
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                coalescer.execute(key, call, 0, new AWSRequestMetrics());
+            }
+        });
+        Thread.sleep(100);
+        try {
+            long start = System.nanoTime();
+            try {
+                coalescer.execute(key, call, 100, new AWSRequestMetrics());
+                fail("Expected a client execution timeout");
+            } catch (ClientExecutionTimeoutException expected) {
+            }
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void followersSendTheirOwnRequestWhenLeaderRequestTimesOut() throws Exception {
+        final RequestCoalescer.Key key = coalescer.keyOf(
+                request(new GetThingRequest(), "{}"), executionContext, HANDLER);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger followerTimeout = new AtomicInteger();
+        final Response<String> response = new Response<String>("result", null);
+        final TestCall call = new TestCall() {
+            @Override
+            Response<String> send(int clientExecutionTimeout) throws Exception {
+                if (calls.incrementAndGet() == 1) {
+                    release.await();
+                    throw new AmazonClientException(new HttpRequestTimeoutException("timed out"));
+                }
+                followerTimeout.set(clientExecutionTimeout);
+                return response;
+            }
+        };
+        Future<?> leader = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                coalescer.execute(key, call, 0, new AWSRequestMetrics());
+            }
+        });
+        Thread.sleep(100);
+        Future<Response<String>> follower = executor.submit(new Callable<Response<String>>() {
+            @Override
+            public Response<String> call() {
+                return coalescer.execute(key, call, 10000, new AWSRequestMetrics());
+            }
+        });
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(AmazonClientException.class, causeOf(leader).getClass());
+        assertSame(response, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+        assertTrue(followerTimeout.get() > 0 && followerTimeout.get() < 10000);
+    }
+
+    /**
+     * Sends a request as the test says, with responses that are unmarshalled into new objects
+     * every time.
+     */
+    private abstract static class TestCall implements RequestCoalescer.Call<String> {
+        private volatile RequestCoalescer.BufferedResponse lastResponse;
+        private volatile Throwable lastFailure;
+
+        abstract Response<String> send(int clientExecutionTimeout) throws Exception;
+
+        @Override
+        public Response<String> call(int clientExecutionTimeout) throws Exception {
+            return send(clientExecutionTimeout);
+        }
+
+        /**
+         * Receives a successful response with the given content.
+         */
+        Response<String> ok(String content) throws Exception {
+            lastResponse = new RequestCoalescer.BufferedResponse(httpResponse(200, content));
+            lastFailure = null;
+            return handle(lastResponse);
+        }
+
+        /**
+         * Receives an error response with the given error code.
+         */
+        AmazonServiceException error(String errorCode) throws Exception {
+            lastResponse = new RequestCoalescer.BufferedResponse(httpResponse(400, errorCode));
+            AmazonServiceException failure = handleError(lastResponse);
+            lastFailure = failure;
+            return failure;
+        }
+
+        @Override
+        public RequestCoalescer.BufferedResponse getBufferedResponse(Throwable failure) {
+            return failure == lastFailure ? lastResponse : null;
+        }
+
+        @Override
+        public Response<String> handle(RequestCoalescer.BufferedResponse response) throws Exception {
+            HttpResponse httpResponse = response.toHttpResponse(null);
+            return new Response<String>(IOUtils.toString(httpResponse.getContent()), httpResponse);
+        }
+
+        @Override
+        public AmazonServiceException handleError(RequestCoalescer.BufferedResponse response)
+                throws Exception {
+            HttpResponse httpResponse = response.toHttpResponse(null);
+            String errorCode = IOUtils.toString(httpResponse.getContent());
+            AmazonServiceException failure = new AmazonServiceException(errorCode);
+            failure.setErrorCode(errorCode);
+            failure.setStatusCode(httpResponse.getStatusCode());
+            return failure;
+        }
+
+        private static HttpResponse httpResponse(int statusCode, String content) throws Exception {
+            HttpResponse httpResponse = new HttpResponse(null, null);
+            httpResponse.setStatusCode(statusCode);
+            httpResponse.setContent(new StringInputStream(content));
+            return httpResponse;
+        }
+    }
+
+    private static Throwable causeOf(Future<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("Expected an exception");
+        return null;
+    }
+}
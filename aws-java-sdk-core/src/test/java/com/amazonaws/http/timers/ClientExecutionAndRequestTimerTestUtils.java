@@ -19,6 +19,7 @@
 package com.amazonaws.http.timers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
@@ -28,8 +29,6 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.http.apache.client.impl.ApacheHttpClientFactory;
 import com.amazonaws.http.apache.client.impl.ConnectionManagerAwareHttpClient;
@@ -64,26 +63,26 @@ import com.amazonaws.http.timers.request.HttpRequestTimer;
 public class ClientExecutionAndRequestTimerTestUtils {
 
     /**
-     * Can take a little bit for ScheduledThreadPoolExecutor to update it's internal state
+     * Can take a little bit for the {@link TimeoutScheduler} to update it's internal state
      */
     private static final int WAIT_BEFORE_ASSERT_ON_EXECUTOR = 500;
 
     /**
-     * Assert that the executor backing {@link ClientExecutionTimer} was never created or used
+     * Assert that the scheduler backing {@link HttpRequestTimer} was never used
      * 
      * @param requestTimer
      */
     public static void assertRequestTimerExecutorNotCreated(HttpRequestTimer requestTimer) {
-        assertNull(requestTimer.getExecutor());
+        assertNull(requestTimer.getScheduler());
     }
 
     /**
-     * Assert that the executor backing {@link ClientExecutionTimer} was never created or used
+     * Assert that the scheduler backing {@link ClientExecutionTimer} was never used
      * 
      * @param clientExecutionTimer
      */
     public static void assertClientExecutionTimerExecutorNotCreated(ClientExecutionTimer clientExecutionTimer) {
-        assertNull(clientExecutionTimer.getExecutor());
+        assertNull(clientExecutionTimer.getScheduler());
     }
 
     /**
@@ -109,56 +108,57 @@ public class ClientExecutionAndRequestTimerTestUtils {
     }
 
     /**
-     * Waits until a little after the thread pools keep alive time and then asserts that all thre
+     * Waits until a little after the scheduler's idle time and then asserts that its worker
+     * thread has exited
      * 
-     * @param timerExecutor
-     *            Executor used by timer implementation
-     * @throws InterruptedException
+     * @param scheduler
+     *            Scheduler used by timer implementation
      */
-    public static void assertCoreThreadsShutDownAfterBeingIdle(ScheduledThreadPoolExecutor timerExecutor) {
+    public static void assertCoreThreadsShutDownAfterBeingIdle(TimeoutScheduler scheduler) {
         try {
-            Thread.sleep(timerExecutor.getKeepAliveTime(TimeUnit.MILLISECONDS) + 1000);
+            Thread.sleep(scheduler.getIdleMillis() + 1000);
         } catch (InterruptedException ignored) {
         }
-        assertEquals(0, timerExecutor.getPoolSize());
+        assertFalse(scheduler.isWorkerRunning());
     }
 
     /**
-     * If the request completes successfully then the timer task should be canceled and should be
-     * removed from the thread pool to prevent build up of canceled tasks
+     * If the request completes successfully then the timer task should be canceled and should no
+     * longer be pending in the scheduler
      * 
-     * @param timerExecutor
-     *            Executor used by timer implementation
+     * @param scheduler
+     *            Scheduler used by timer implementation
      */
-    public static void assertCanceledTasksRemoved(ScheduledThreadPoolExecutor timerExecutor) {
+    public static void assertCanceledTasksRemoved(TimeoutScheduler scheduler) {
         waitBeforeAssertOnExecutor();
-        assertEquals(0, timerExecutor.getQueue().size());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    /**
+     * Asserts the timer never went off (I.E. no timeout was exceeded and no timer task was
+     * executed)
+     */
+    public static void assertTimerNeverTriggered(ClientExecutionTimer clientExecutionTimer) {
+        assertNumberOfTasksTriggered(clientExecutionTimer, 0);
     }
 
     /**
      * Asserts the timer never went off (I.E. no timeout was exceeded and no timer task was
      * executed)
-     * 
-     * @param timerExecutor
-     *            Executor used by timer implementation
      */
-    public static void assertTimerNeverTriggered(ScheduledThreadPoolExecutor timerExecutor) {
-        assertNumberOfTasksTriggered(timerExecutor, 0);
+    public static void assertTimerNeverTriggered(HttpRequestTimer requestTimer) {
+        assertNumberOfTasksTriggered(requestTimer, 0);
     }
 
     public static void assertNumberOfTasksTriggered(ClientExecutionTimer clientExecutionTimer,
                                                     int expectedNumberOfTasks) {
-        assertNumberOfTasksTriggered(clientExecutionTimer.getExecutor(), expectedNumberOfTasks);
+        waitBeforeAssertOnExecutor();
+        assertEquals(expectedNumberOfTasks, clientExecutionTimer.getTriggeredTaskCount());
     }
 
     public static void assertNumberOfTasksTriggered(HttpRequestTimer requestTimer, int expectedNumberOfTasks) {
-        assertNumberOfTasksTriggered(requestTimer.getExecutor(), expectedNumberOfTasks);
-    }
-
-    private static void assertNumberOfTasksTriggered(ScheduledThreadPoolExecutor timerExecutor,
-                                                     int expectedNumberOfTasks) {
         waitBeforeAssertOnExecutor();
-        assertEquals(expectedNumberOfTasks, timerExecutor.getCompletedTaskCount());
+        assertEquals(expectedNumberOfTasks, requestTimer.getTriggeredTaskCount());
     }
 
     /**
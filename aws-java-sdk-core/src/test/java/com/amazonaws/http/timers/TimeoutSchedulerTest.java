@@ -0,0 +1,199 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.timers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TimeoutSchedulerTest {
+
+    private static final long TICK_MILLIS = 5;
+    private static final int WHEEL_SIZE = 8;
+    private static final long IDLE_MILLIS = 200;
+
+    private final TimeoutScheduler scheduler = new TimeoutScheduler(TICK_MILLIS, WHEEL_SIZE, IDLE_MILLIS);
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void taskRunsAfterItsDelay() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        TimeoutScheduler.Timeout timeout = scheduler.schedule(countDown(latch), 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(1, scheduler.getExpiredCount());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    /**
+     * The delay spans several rotations of the wheel, so the timeout must wait for its remaining
+     * rounds rather than fire the first time its bucket comes around.
+     */
+    @Test
+    public void delayLongerThanOneRotationIsHonored() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        long delayMillis = TICK_MILLIS * WHEEL_SIZE * 3 + 7;
+        long start = System.nanoTime();
+        scheduler.schedule(countDown(latch), delayMillis, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= delayMillis);
+    }
+
+    @Test
+    public void cancelledTaskNeverRuns() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        TimeoutScheduler.Timeout timeout = scheduler.schedule(countDown(latch), 30, TimeUnit.MILLISECONDS);
+        assertEquals(1, scheduler.getPendingCount());
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, scheduler.getPendingCount());
+        assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, scheduler.getExpiredCount());
+    }
+
+    /**
+     * The pending count drops as soon as a timeout is cancelled, so check that the worker thread
+     * also drops its own references to cancelled timeouts, well before they would have expired.
+     */
+    @Test
+    public void cancelledTasksAreDiscarded() throws Exception {
+        List<TimeoutScheduler.Timeout> timeouts = new ArrayList<TimeoutScheduler.Timeout>();
+        for (int i = 0; i < 100; i++) {
+            timeouts.add(scheduler.schedule(countDown(new CountDownLatch(1)), 60, TimeUnit.SECONDS));
+        }
+        // Let the worker thread move some of the timeouts into the wheel before they are cancelled
+        Thread.sleep(TICK_MILLIS * 4);
+        for (int i = 0; i < 50; i++) {
+            timeouts.get(i).cancel();
+        }
+        assertEquals(100, scheduler.getRetainedCount());
+        timeouts.add(scheduler.schedule(countDown(new CountDownLatch(1)), 60, TimeUnit.SECONDS));
+        for (int i = 50; i < timeouts.size(); i++) {
+            timeouts.get(i).cancel();
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getRetainedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(TICK_MILLIS);
+        }
+        assertEquals(0, scheduler.getRetainedCount());
+        assertTrue(scheduler.isWorkerRunning());
+    }
+
+    @Test
+    public void blockingTaskDoesNotDelayOtherTasks() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, 1, TimeUnit.MILLISECONDS);
+            CountDownLatch latch = new CountDownLatch(1);
+            scheduler.schedule(countDown(latch), 20, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void onlyUncancelledTasksRun() throws Exception {
+        final AtomicInteger ran = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                ran.incrementAndGet();
+            }
+        };
+        List<TimeoutScheduler.Timeout> timeouts = new ArrayList<TimeoutScheduler.Timeout>();
+        for (int i = 0; i < 1000; i++) {
+            timeouts.add(scheduler.schedule(task, 200 + i % 100, TimeUnit.MILLISECONDS));
+        }
+        int cancelled = 0;
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            if (timeouts.get(i).cancel()) {
+                cancelled++;
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ran.get() < 1000 - cancelled && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Give cancelled tasks a chance to run if cancellation were broken
+        Thread.sleep(100);
+        assertEquals(0, scheduler.getPendingCount());
+        assertEquals(1000 - cancelled, ran.get());
+        assertEquals(1000 - cancelled, scheduler.getExpiredCount());
+        assertTrue(scheduler.getMaxLatenessMillis() >= 0);
+    }
+
+    @Test
+    public void exceptionInTaskDoesNotStopTheScheduler() throws Exception {
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("boom");
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.schedule(countDown(latch), 20, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void workerExitsWhenIdleAndRestartsOnDemand() throws Exception {
+        CountDownLatch first = new CountDownLatch(1);
+        scheduler.schedule(countDown(first), 1, TimeUnit.MILLISECONDS);
+        assertTrue(scheduler.isWorkerRunning());
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(IDLE_MILLIS + 500);
+        assertFalse(scheduler.isWorkerRunning());
+
+        CountDownLatch second = new CountDownLatch(1);
+        scheduler.schedule(countDown(second), 1, TimeUnit.MILLISECONDS);
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -25,13 +25,12 @@ import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.
 import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.createMockHeadRequest;
 import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.createRawHttpClientSpy;
 import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.execute;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import com.amazonaws.http.apache.client.impl.ConnectionManagerAwareHttpClient;
 import org.apache.http.client.HttpClient;
@@ -47,6 +46,7 @@ import com.amazonaws.ClientConfiguration;
 import com.amazonaws.TestPreConditions;
 import com.amazonaws.http.AmazonHttpClient;
 import com.amazonaws.http.ExecutionContext;
+import com.amazonaws.http.timers.TimeoutScheduler;
 import com.amazonaws.http.response.HttpResponseProxy;
 import com.amazonaws.http.response.NullErrorResponseHandler;
 import com.amazonaws.http.response.NullResponseHandler;
@@ -82,13 +82,12 @@ public class MockedClientTests {
         }
 
         assertResponseIsBuffered(responseProxy);
-        ScheduledThreadPoolExecutor requestTimerExecutor = httpClient.getHttpRequestTimer().getExecutor();
-        assertTimerNeverTriggered(requestTimerExecutor);
-        assertCanceledTasksRemoved(requestTimerExecutor);
-        // Core threads should be spun up on demand. Since only one task was submitted only one
-        // thread should exist
-        assertEquals(1, requestTimerExecutor.getPoolSize());
-        assertCoreThreadsShutDownAfterBeingIdle(requestTimerExecutor);
+        assertTimerNeverTriggered(httpClient.getHttpRequestTimer());
+        TimeoutScheduler scheduler = httpClient.getHttpRequestTimer().getScheduler();
+        assertCanceledTasksRemoved(scheduler);
+        // The worker thread should be spun up on demand
+        assertTrue(scheduler.isWorkerRunning());
+        assertCoreThreadsShutDownAfterBeingIdle(scheduler);
     }
 
     /**
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.XMLEvent;
+
+import org.junit.Test;
+
+public class StaxUnmarshallerContextTest {
+
+    private static final String XML =
+            "<Response>"
+            + "<Result>"
+            + "<Item id=\"i-1\"><Name>first</Name></Item>"
+            + "<Item id=\"i-2\"><Name>sec&amp;ond</Name><Empty></Empty></Item>"
+            + "</Result>"
+            + "<ResponseMetadata><RequestId>request-id</RequestId></ResponseMetadata>"
+            + "</Response>";
+
+    private static StaxUnmarshallerContext newContext(String xml) throws Exception {
+        return new StaxUnmarshallerContext(
+                XMLInputFactory.newInstance().createXMLEventReader(new StringReader(xml)));
+    }
+
+    /** Advances the context to the next start element or attribute with the given name. */
+    private static void advanceTo(StaxUnmarshallerContext context, String name) throws Exception {
+        while (true) {
+            XMLEvent event = context.nextEvent();
+            if (event.isStartElement()
+                    && event.asStartElement().getName().getLocalPart().equals(name)) {
+                return;
+            }
+            if (event.isAttribute()
+                    && ("@" + ((Attribute) event).getName().getLocalPart()).equals(name)) {
+                return;
+            }
+            if (event.isEndDocument()) {
+                throw new AssertionError(name + " not found");
+            }
+        }
+    }
+
+    @Test
+    public void expressionsMatchTheCurrentElementPath() throws Exception {
+        StaxUnmarshallerContext context = newContext(XML);
+        advanceTo(context, "Name");
+
+        assertEquals(4, context.getCurrentDepth());
+        assertTrue(context.testExpression("Name"));
+        assertTrue(context.testExpression("Item/Name"));
+        assertTrue(context.testExpression("Name", 4));
+        assertTrue(context.testExpression("Item/Name", 3));
+        assertFalse(context.testExpression("Name", 3));
+        assertFalse(context.testExpression("ame", 4));
+        assertFalse(context.testExpression("Result/Name", 3));
+        assertTrue(context.testExpression("."));
+        assertEquals("first", context.readText());
+    }
+
+    @Test
+    public void attributesAreMatchedAndDoNotLeakIntoChildPaths() throws Exception {
+        StaxUnmarshallerContext context = newContext(XML);
+        advanceTo(context, "Item");
+        advanceTo(context, "@id");
+
+        assertTrue(context.testExpression("Item/@id", 3));
+        assertEquals("i-1", context.readText());
+
+        advanceTo(context, "Name");
+        assertTrue(context.testExpression("Item/Name", 3));
+        assertFalse(context.testExpression("@id/Name"));
+    }
+
+    @Test
+    public void pathIsRestoredWhenElementsAreLeft() throws Exception {
+        StaxUnmarshallerContext context = newContext(XML);
+        advanceTo(context, "Item");
+        advanceTo(context, "Item");
+        advanceTo(context, "Name");
+        assertEquals("sec&ond", context.readText());
+
+        advanceTo(context, "Empty");
+        assertTrue(context.testExpression("Result/Item/Empty", 2));
+        assertEquals("", context.readText());
+
+        advanceTo(context, "RequestId");
+        assertTrue(context.testExpression("ResponseMetadata/RequestId", 2));
+        assertFalse(context.testExpression("Item/RequestId"));
+    }
+
+    @Test
+    public void metadataExpressionsAreCollected() throws Exception {
+        StaxUnmarshallerContext context = newContext(XML);
+        context.registerMetadataExpression("ResponseMetadata/RequestId", 2, "REQUEST_ID");
+        while (!context.nextEvent().isEndDocument()) {
+        }
+        assertEquals("request-id", context.getMetadata().get("REQUEST_ID"));
+    }
+}
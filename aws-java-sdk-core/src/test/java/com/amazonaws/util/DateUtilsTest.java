@@ -28,6 +28,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Random;
 import java.util.SimpleTimeZone;
 
 import com.amazonaws.protocol.json.SdkJsonGenerator;
@@ -152,6 +153,47 @@ public class DateUtilsTest {
         final String input = "2014-03-06T14:28:58.000Z.000Z";
         DateUtils.parseISO8601Date(input);
     }
+
+    @Test
+    public void parseIso8601Date_agreesWithJodaTime() {
+        // From year 0000 to 9999, which are the years with 4 digits
+        final long min = DateUtils.iso8601DateFormat.parseMillis("0000-01-01T00:00:00.000Z");
+        final long max = DateUtils.iso8601DateFormat.parseMillis("9999-12-31T23:59:59.999Z");
+        Random random = new Random(233);
+        for (int i = 0; i < 100000; i++) {
+            long millis = min + (long) (random.nextDouble() * (max - min));
+            if (i % 2 == 0) {
+                millis -= millis % 1000;
+            }
+            String formatted = DateUtils.iso8601DateFormat.print(millis);
+            assertEquals(formatted, millis, DateUtils.parseISO8601Date(formatted).getTime());
+            formatted = DateUtils.alternateIso8601DateFormat.print(millis);
+            assertEquals(formatted, millis - (millis % 1000 + 1000) % 1000,
+                    DateUtils.parseISO8601Date(formatted).getTime());
+        }
+        assertEquals(951782400000L, DateUtils.parseISO8601Date("2000-02-29T00:00:00.000Z").getTime());
+    }
+
+    @Test
+    public void parseIso8601Date_invalidFields() {
+        String[] cases = {
+                "2015-02-29T00:00:00.000Z",
+                "1900-02-29T00:00:00Z",
+                "2016-04-31T00:00:00.000Z",
+                "2016-13-01T00:00:00.000Z",
+                "2016-00-01T00:00:00.000Z",
+                "2016-01-01T24:00:00.000Z",
+                "2016-01-01T00:60:00.000Z",
+                "2016-01-01T00:00:60Z",
+                "2016-01-01T00:00:0a.000Z", };
+        for (String invalid : cases) {
+            try {
+                Date parsed = DateUtils.parseISO8601Date(invalid);
+                fail("Unexpected success: " + invalid + " parsed as " + parsed);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
     @Test
     public void test() throws ParseException {
         Date date = new Date();
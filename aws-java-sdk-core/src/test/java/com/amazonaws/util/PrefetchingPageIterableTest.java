@@ -0,0 +1,139 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+
+public class PrefetchingPageIterableTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /** Pages are the integers 1 to lastPage; fetches are counted. */
+    private static class CountingPages extends PrefetchingPageIterable<Integer> {
+        private final int lastPage;
+        private final AtomicInteger fetches = new AtomicInteger();
+
+        CountingPages(ExecutorService executor, int lastPage) {
+            super(executor);
+            this.lastPage = lastPage;
+        }
+
+        @Override
+        protected Integer firstPage() {
+            fetches.incrementAndGet();
+            return 1;
+        }
+
+        @Override
+        protected Integer nextPage(Integer previousPage) {
+            fetches.incrementAndGet();
+            if (previousPage == lastPage) {
+                return null;
+            }
+            return previousPage + 1;
+        }
+    }
+
+    private static List<Integer> drain(Iterable<Integer> pages) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (Integer page : pages) {
+            result.add(page);
+        }
+        return result;
+    }
+
+    @Test
+    public void synchronousIterationReturnsAllPagesLazily() {
+        CountingPages pages = new CountingPages(null, 3);
+        Iterator<Integer> iterator = pages.iterator();
+        assertEquals(0, pages.fetches.get());
+
+        assertEquals(Integer.valueOf(1), iterator.next());
+        assertEquals(1, pages.fetches.get());
+
+        List<Integer> rest = new ArrayList<Integer>();
+        while (iterator.hasNext()) {
+            rest.add(iterator.next());
+        }
+        assertEquals(Arrays.asList(2, 3), rest);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void prefetchingIterationReturnsAllPagesInOrder() {
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 1; i <= 50; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, drain(new CountingPages(executor, 50)));
+    }
+
+    @Test
+    public void eachIteratorStartsFromTheFirstPage() {
+        CountingPages pages = new CountingPages(executor, 2);
+        assertEquals(drain(pages), drain(pages));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void nextPastTheLastPageThrows() {
+        Iterator<Integer> iterator = new CountingPages(executor, 1).iterator();
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test
+    public void prefetchFailureIsRethrownToTheCaller() {
+        PrefetchingPageIterable<Integer> pages = new PrefetchingPageIterable<Integer>(executor) {
+            @Override
+            protected Integer firstPage() {
+                return -1;
+            }
+
+            @Override
+            protected Integer nextPage(Integer previousPage) {
+                throw new AmazonClientException("boom");
+            }
+        };
+        Iterator<Integer> iterator = pages.iterator();
+        iterator.next();
+        try {
+            iterator.hasNext();
+            fail("Expected AmazonClientException");
+        } catch (AmazonClientException expected) {
+            assertEquals("boom", expected.getMessage());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SendRateLimiterTest {
+
+    /**
+     * Limiter driven by a fake clock; sleeping advances the clock instead of
+     * blocking.
+     */
+    private static class TestLimiter extends SendRateLimiter {
+        private double now;
+        private final List<Long> sleeps = new ArrayList<Long>();
+
+        @Override
+        protected double currentTimeSeconds() {
+            return now;
+        }
+
+        @Override
+        protected void sleep(long millis) {
+            sleeps.add(millis);
+            now += millis / 1000.0;
+        }
+    }
+
+    /**
+     * Sends requests at the given rate for the given duration, all of them
+     * succeeding.
+     */
+    private static void sendAtRate(TestLimiter limiter, double rate, double seconds)
+            throws InterruptedException {
+        double end = limiter.now + seconds;
+        while (limiter.now < end) {
+            limiter.acquire();
+            limiter.update(false);
+            limiter.now += 1 / rate;
+        }
+    }
+
+    @Test
+    public void doesNotPaceBeforeFirstThrottle() throws Exception {
+        TestLimiter limiter = new TestLimiter();
+        sendAtRate(limiter, 100, 5);
+        assertFalse(limiter.isEnabled());
+        assertEquals(0, limiter.getSendRate(), 0);
+        assertTrue(limiter.sleeps.isEmpty());
+    }
+
+    @Test
+    public void throttleCutsRateBelowMeasuredRate() throws Exception {
+        TestLimiter limiter = new TestLimiter();
+        sendAtRate(limiter, 100, 5);
+        limiter.update(true);
+
+        assertTrue(limiter.isEnabled());
+        double rate = limiter.getSendRate();
+        assertTrue("rate " + rate, rate > 50 && rate < 100);
+
+        limiter.update(true);
+        assertTrue(limiter.getSendRate() < rate);
+    }
+
+    @Test
+    public void rateGrowsBackWhileRequestsSucceed() throws Exception {
+        TestLimiter limiter = new TestLimiter();
+        sendAtRate(limiter, 100, 5);
+        limiter.update(true);
+        double throttledRate = limiter.getSendRate();
+
+        sendAtRate(limiter, 1000, 10);
+        assertTrue(limiter.getSendRate() > throttledRate);
+    }
+
+    @Test
+    public void acquireWaitsWhenBucketIsEmpty() throws Exception {
+        TestLimiter limiter = new TestLimiter();
+        // Throttled before any rate was measured, so the limiter starts at its
+        // minimum rate
+        limiter.update(true);
+        double rate = limiter.getSendRate();
+
+        limiter.acquire();
+        assertEquals(1, limiter.sleeps.size());
+        assertEquals((long) Math.ceil(1000 / rate), (long) limiter.sleeps.get(0));
+    }
+}
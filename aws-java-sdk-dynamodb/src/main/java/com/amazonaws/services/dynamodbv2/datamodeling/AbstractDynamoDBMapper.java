@@ -18,6 +18,7 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
 import com.amazonaws.services.dynamodbv2.model.DeleteTableRequest;
+import com.amazonaws.services.dynamodbv2.util.ParallelScanIterator;
 import com.amazonaws.services.s3.model.Region;
 
 import java.util.Arrays;
@@ -228,6 +229,21 @@ public class AbstractDynamoDBMapper implements IDynamoDBMapper {
         throw new UnsupportedOperationException("operation not supported in " + getClass());
     }
 
+    @Override
+    public <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+                                                            DynamoDBScanExpression scanExpression,
+                                                            int totalSegments) {
+        return parallelScanIterator(clazz, scanExpression, totalSegments, config);
+    }
+
+    @Override
+    public <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+                                                            DynamoDBScanExpression scanExpression,
+                                                            int totalSegments,
+                                                            DynamoDBMapperConfig config) {
+        throw new UnsupportedOperationException("operation not supported in " + getClass());
+    }
+
     @Override
     public <T> ScanResultPage<T> scanPage(Class<T> clazz, DynamoDBScanExpression scanExpression) {
         return scanPage(clazz, scanExpression, config);
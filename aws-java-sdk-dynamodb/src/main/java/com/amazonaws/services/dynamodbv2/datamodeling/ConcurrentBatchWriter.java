@@ -0,0 +1,298 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.MAX_ITEMS_PER_BATCH;
+import static com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.applyBatchOperationUserAgent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.StringListMap;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.BatchWriteRetryStrategy;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernor;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
+
+/**
+ * Writes the requests of a batch write with several BatchWriteItem requests
+ * in flight.
+ * <p>
+ * The requests are taken in turn from each partition key, so that the
+ * requests in flight spread their writes over the partitions of the tables
+ * rather than writing to one partition at a time. The unprocessed items of a
+ * request are retried by a later request, once the delay of the
+ * {@link BatchWriteRetryStrategy} has elapsed, while the other requests keep
+ * going. A request that fails is reported as a {@link FailedBatch}, as with
+ * sequential batch writes; a request that is too large is split in two, and a
+ * throttled request holds up new requests for the delay of the strategy.
+ */
+final class ConcurrentBatchWriter {
+
+    private final AmazonDynamoDB db;
+    private final BatchWriteRetryStrategy retryStrategy;
+    private final CapacityGovernor capacityGovernor;
+    private final int concurrency;
+
+    /** The writes not yet sent, in turn from each partition key. */
+    private final LinkedList<Write> writes = new LinkedList<Write>();
+    /** The unprocessed writes, by the time they may be retried. */
+    private final PriorityQueue<Write> retries = new PriorityQueue<Write>(11, new Comparator<Write>() {
+        @Override
+        public int compare(Write w1, Write w2) {
+            return w1.notBefore < w2.notBefore ? -1 : (w1.notBefore == w2.notBefore ? 0 : 1);
+        }
+    });
+    /** The halves of the requests that were too large. */
+    private final LinkedList<Batch> splitBatches = new LinkedList<Batch>();
+    private final List<FailedBatch> failedBatches = new LinkedList<FailedBatch>();
+    /** No request is sent before this time, after a request was throttled. */
+    private long notBefore;
+
+    /**
+     * @param requestItems
+     *            the write requests, by table name
+     * @param hashKeyNames
+     *            the name of the hash key attribute, by table name
+     */
+    ConcurrentBatchWriter(AmazonDynamoDB db, BatchWriteRetryStrategy retryStrategy,
+            CapacityGovernor capacityGovernor, int concurrency,
+            StringListMap<WriteRequest> requestItems, Map<String, String> hashKeyNames) {
+        this.db = db;
+        this.retryStrategy = retryStrategy;
+        this.capacityGovernor = capacityGovernor;
+        this.concurrency = concurrency;
+
+        Map<List<Object>, LinkedList<Write>> writesByPartition = new LinkedHashMap<List<Object>, LinkedList<Write>>();
+        for (Map.Entry<String, List<WriteRequest>> entry : requestItems.entrySet()) {
+            String tableName = entry.getKey();
+            String hashKeyName = hashKeyNames.get(tableName);
+            for (WriteRequest request : entry.getValue()) {
+                Map<String, AttributeValue> key = request.getPutRequest() != null
+                        ? request.getPutRequest().getItem() : request.getDeleteRequest().getKey();
+                List<Object> partition = Arrays.<Object>asList(tableName, key.get(hashKeyName));
+                LinkedList<Write> partitionWrites = writesByPartition.get(partition);
+                if (partitionWrites == null) {
+                    writesByPartition.put(partition, partitionWrites = new LinkedList<Write>());
+                }
+                partitionWrites.add(new Write(tableName, request, 0, 0));
+            }
+        }
+        while (!writesByPartition.isEmpty()) {
+            for (Iterator<LinkedList<Write>> it = writesByPartition.values().iterator(); it.hasNext();) {
+                LinkedList<Write> partitionWrites = it.next();
+                writes.add(partitionWrites.removeFirst());
+                if (partitionWrites.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends all the writes, and returns the batches that failed.
+     */
+    List<FailedBatch> write() {
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+        CompletionService<Batch> completionService = new ExecutorCompletionService<Batch>(executorService);
+        int batchesInFlight = 0;
+        try {
+            for (;;) {
+                long now = System.currentTimeMillis();
+                while (batchesInFlight < concurrency && now >= notBefore) {
+                    Batch batch = nextBatch(now);
+                    if (batch == null) {
+                        break;
+                    }
+                    completionService.submit(batch);
+                    batchesInFlight++;
+                }
+                long wakeUp = Math.max(notBefore, retries.isEmpty() ? 0 : retries.peek().notBefore);
+                if (batchesInFlight == 0) {
+                    if (writes.isEmpty() && retries.isEmpty() && splitBatches.isEmpty()) {
+                        return failedBatches;
+                    }
+                    Thread.sleep(Math.max(1, wakeUp - now));
+                    continue;
+                }
+                Future<Batch> completed = wakeUp > now
+                        ? completionService.poll(wakeUp - now, TimeUnit.MILLISECONDS)
+                        : completionService.take();
+                if (completed != null) {
+                    batchesInFlight--;
+                    batchCompleted(completed.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            throw new AmazonClientException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the next batch to send: a half of a batch that was too large,
+     * or else the retries that are due followed by the writes not yet sent.
+     */
+    private Batch nextBatch(long now) {
+        if (!splitBatches.isEmpty()) {
+            return splitBatches.removeFirst();
+        }
+        StringListMap<WriteRequest> items = new StringListMap<WriteRequest>();
+        int size = 0;
+        int retryCount = 0;
+        while (size < MAX_ITEMS_PER_BATCH && !retries.isEmpty() && retries.peek().notBefore <= now) {
+            Write write = retries.poll();
+            items.add(write.tableName, write.request);
+            retryCount = Math.max(retryCount, write.retryCount);
+            size++;
+        }
+        while (size < MAX_ITEMS_PER_BATCH && !writes.isEmpty()) {
+            Write write = writes.removeFirst();
+            items.add(write.tableName, write.request);
+            size++;
+        }
+        return size == 0 ? null : new Batch(items, retryCount);
+    }
+
+    private void batchCompleted(Batch batch) {
+        long now = System.currentTimeMillis();
+        if (batch.exception != null) {
+            if (isRequestEntityTooLarge(batch.exception) && batch.size() > 1) {
+                for (StringListMap<WriteRequest> half : batch.items.subMaps(2, false)) {
+                    splitBatches.add(new Batch(half, batch.retryCount));
+                }
+                return;
+            }
+            FailedBatch failedBatch = new FailedBatch();
+            failedBatch.setUnprocessedItems(batch.items);
+            failedBatch.setException(batch.exception);
+            failedBatches.add(failedBatch);
+            if (isThrottling(batch.exception)) {
+                notBefore = Math.max(notBefore, now + retryStrategy.getDelayBeforeRetryUnprocessedItems(
+                        Collections.unmodifiableMap(batch.items), 0));
+            }
+            return;
+        }
+
+        Map<String, List<WriteRequest>> unprocessedItems = batch.result.getUnprocessedItems();
+        if (unprocessedItems == null || unprocessedItems.isEmpty()) {
+            return;
+        }
+        int maxRetries = retryStrategy.getMaxRetryOnUnprocessedItems(Collections.unmodifiableMap(batch.items));
+        if (maxRetries >= 0 && batch.retryCount >= maxRetries) {
+            FailedBatch failedBatch = new FailedBatch();
+            failedBatch.setUnprocessedItems(unprocessedItems);
+            failedBatch.setException(null);
+            failedBatches.add(failedBatch);
+            return;
+        }
+        long retryTime = now + retryStrategy.getDelayBeforeRetryUnprocessedItems(
+                Collections.unmodifiableMap(unprocessedItems), batch.retryCount);
+        for (Map.Entry<String, List<WriteRequest>> entry : unprocessedItems.entrySet()) {
+            for (WriteRequest request : entry.getValue()) {
+                retries.add(new Write(entry.getKey(), request, batch.retryCount + 1, retryTime));
+            }
+        }
+    }
+
+    private static boolean isRequestEntityTooLarge(Exception e) {
+        return e instanceof AmazonServiceException
+                && RetryUtils.isRequestEntityTooLargeException((AmazonServiceException) e);
+    }
+
+    private static boolean isThrottling(Exception e) {
+        return e instanceof AmazonServiceException
+                && RetryUtils.isThrottlingException((AmazonServiceException) e);
+    }
+
+    /**
+     * A write request, and the number of times it was left unprocessed.
+     */
+    private static final class Write {
+        private final String tableName;
+        private final WriteRequest request;
+        private final int retryCount;
+        private final long notBefore;
+
+        private Write(String tableName, WriteRequest request, int retryCount, long notBefore) {
+            this.tableName = tableName;
+            this.request = request;
+            this.retryCount = retryCount;
+            this.notBefore = notBefore;
+        }
+    }
+
+    /**
+     * A BatchWriteItem request, which records its outcome.
+     */
+    private final class Batch implements Callable<Batch> {
+        private final StringListMap<WriteRequest> items;
+        /** The most times any of the items was left unprocessed. */
+        private final int retryCount;
+        private BatchWriteItemResult result;
+        private Exception exception;
+
+        private Batch(StringListMap<WriteRequest> items, int retryCount) {
+            this.items = items;
+            this.retryCount = retryCount;
+        }
+
+        @Override
+        public Batch call() {
+            try {
+                result = CapacityGovernors.batchWriteItem(db, applyBatchOperationUserAgent(
+                        new BatchWriteItemRequest().withRequestItems(items)), capacityGovernor);
+            } catch (Exception e) {
+                exception = e;
+            }
+            return this;
+        }
+
+        private int size() {
+            int size = 0;
+            for (List<WriteRequest> values : items.values()) {
+                size += values.size();
+            }
+            return size;
+        }
+    }
+}
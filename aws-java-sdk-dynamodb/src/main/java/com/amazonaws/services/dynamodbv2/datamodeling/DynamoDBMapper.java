@@ -77,6 +77,9 @@ import com.amazonaws.services.dynamodbv2.model.Select;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernor;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
+import com.amazonaws.services.dynamodbv2.util.ParallelScanIterator;
 import com.amazonaws.services.s3.model.Region;
 import com.amazonaws.util.VersionInfoUtils;
 
@@ -1087,6 +1090,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
         List<FailedBatch> totalFailedBatches = new LinkedList<FailedBatch>();
 
         StringListMap<WriteRequest> requestItems = new StringListMap<WriteRequest>();
+        Map<String, String> hashKeyNames = new HashMap<String, String>();
 
         List<ValueUpdate> inMemoryUpdates = new LinkedList<ValueUpdate>();
         for ( Object toWrite : objectsToWrite ) {
@@ -1112,6 +1116,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
             if ( !requestItems.containsKey(tableName) ) {
                 requestItems.put(tableName, new LinkedList<WriteRequest>());
+                hashKeyNames.put(tableName, model.hashKey().name());
             }
 
             AttributeTransformer.Parameters<?> parameters =
@@ -1129,18 +1134,26 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
             Map<String, AttributeValue> key = model.convertKey(toDelete);
 
             requestItems.add(tableName, new WriteRequest(new DeleteRequest(key)));
+            hashKeyNames.put(tableName, model.hashKey().name());
         }
 
-        // Break into chunks of 25 items and make service requests to DynamoDB
-        for (final StringListMap<WriteRequest> batch : requestItems.subMaps(MAX_ITEMS_PER_BATCH, true)) {
-            List<FailedBatch> failedBatches = writeOneBatch(batch, config.getBatchWriteRetryStrategy());
-            if (failedBatches != null) {
-                totalFailedBatches.addAll(failedBatches);
-
-                // If contains throttling exception, we do a backoff
-                if (containsThrottlingException(failedBatches)) {
-                    pause(config.getBatchWriteRetryStrategy().getDelayBeforeRetryUnprocessedItems(
-                            Collections.unmodifiableMap(batch), 0));
+        Integer concurrency = config.getBatchWriteConcurrency();
+        if (concurrency != null && concurrency > 1) {
+            totalFailedBatches.addAll(new ConcurrentBatchWriter(db, config.getBatchWriteRetryStrategy(),
+                    config.getCapacityGovernor(), concurrency, requestItems, hashKeyNames).write());
+        } else {
+            // Break into chunks of 25 items and make service requests to DynamoDB
+            for (final StringListMap<WriteRequest> batch : requestItems.subMaps(MAX_ITEMS_PER_BATCH, true)) {
+                List<FailedBatch> failedBatches = writeOneBatch(batch, config.getBatchWriteRetryStrategy(),
+                        config.getCapacityGovernor());
+                if (failedBatches != null) {
+                    totalFailedBatches.addAll(failedBatches);
+
+                    // If contains throttling exception, we do a backoff
+                    if (containsThrottlingException(failedBatches)) {
+                        pause(config.getBatchWriteRetryStrategy().getDelayBeforeRetryUnprocessedItems(
+                                Collections.unmodifiableMap(batch), 0));
+                    }
                 }
             }
         }
@@ -1159,10 +1172,11 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
      */
     private List<FailedBatch> writeOneBatch(
             StringListMap<WriteRequest> batch,
-            BatchWriteRetryStrategy batchWriteRetryStrategy) {
+            BatchWriteRetryStrategy batchWriteRetryStrategy,
+            CapacityGovernor capacityGovernor) {
 
         List<FailedBatch> failedBatches = new LinkedList<FailedBatch>();
-        FailedBatch failedBatch = doBatchWriteItemWithRetry(batch, batchWriteRetryStrategy);
+        FailedBatch failedBatch = doBatchWriteItemWithRetry(batch, batchWriteRetryStrategy, capacityGovernor);
 
         if (failedBatch != null) {
             // If the exception is request entity too large, we divide the batch
@@ -1177,7 +1191,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
                     failedBatches.add(failedBatch);
                 } else {
                     for (final StringListMap<WriteRequest> subBatch : batch.subMaps(2, false)) {
-                        failedBatches.addAll(writeOneBatch(subBatch, batchWriteRetryStrategy));
+                        failedBatches.addAll(writeOneBatch(subBatch, batchWriteRetryStrategy, capacityGovernor));
                     }
                 }
 
@@ -1207,7 +1221,8 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
      */
     private FailedBatch doBatchWriteItemWithRetry(
             Map<String, List<WriteRequest>> batch,
-            BatchWriteRetryStrategy batchWriteRetryStrategy) {
+            BatchWriteRetryStrategy batchWriteRetryStrategy,
+            CapacityGovernor capacityGovernor) {
 
         BatchWriteItemResult result = null;
         int retries = 0;
@@ -1220,8 +1235,8 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
         while (true) {
             try {
-                result = db.batchWriteItem(applyBatchOperationUserAgent(
-                        new BatchWriteItemRequest().withRequestItems(pendingItems)));
+                result = CapacityGovernors.batchWriteItem(db, applyBatchOperationUserAgent(
+                        new BatchWriteItemRequest().withRequestItems(pendingItems)), capacityGovernor);
             } catch (Exception e) {
                 failedBatch = new FailedBatch();
                 failedBatch.setUnprocessedItems(pendingItems);
@@ -1344,8 +1359,8 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
                 }
             }
 
-            batchGetItemResult = db.batchGetItem(
-                    applyBatchOperationUserAgent(batchGetItemRequest));
+            batchGetItemResult = CapacityGovernors.batchGetItem(db,
+                    applyBatchOperationUserAgent(batchGetItemRequest), config.getCapacityGovernor());
 
             Map<String, List<Map<String, AttributeValue>>> responses = batchGetItemResult.getResponses();
             for ( String tableName : responses.keySet() ) {
@@ -1450,7 +1465,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
         ScanRequest scanRequest = createScanRequestFromExpression(clazz, scanExpression, config);
 
-        ScanResult scanResult = db.scan(applyUserAgent(scanRequest));
+        ScanResult scanResult = CapacityGovernors.scan(db, applyUserAgent(scanRequest), config.getCapacityGovernor());
         return new PaginatedScanList<T>(this, clazz, db, scanRequest, scanResult, config.getPaginationLoadingStrategy(), config);
     }
 
@@ -1463,11 +1478,29 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
         // Create hard copies of the original scan request with difference segment number.
         List<ScanRequest> parallelScanRequests = createParallelScanRequestsFromExpression(clazz, scanExpression, totalSegments, config);
-        ParallelScanTask parallelScanTask = new ParallelScanTask(db, parallelScanRequests);
+        ParallelScanTask parallelScanTask = new ParallelScanTask(db, parallelScanRequests, config.getCapacityGovernor());
 
         return new PaginatedParallelScanList<T>(this, clazz, db, parallelScanTask, config.getPaginationLoadingStrategy(), config);
     }
 
+    @Override
+    public <T> ParallelScanIterator<T> parallelScanIterator(final Class<T> clazz,
+                                                            DynamoDBScanExpression scanExpression,
+                                                            int totalSegments,
+                                                            DynamoDBMapperConfig config) {
+        final DynamoDBMapperConfig finalConfig = mergeConfig(config);
+
+        checkParallelScanExpression(scanExpression, totalSegments);
+        final ScanRequest scanRequest = createScanRequestFromExpression(clazz, scanExpression, finalConfig);
+
+        return new ParallelScanIterator<T>(db, applyUserAgent(scanRequest), totalSegments) {
+            @Override
+            protected List<T> convert(List<Map<String, AttributeValue>> items) {
+                return marshallIntoObjects(toParameters(items, clazz, scanRequest.getTableName(), finalConfig));
+            }
+        }.withCapacityGovernor(finalConfig.getCapacityGovernor());
+    }
+
     @Override
     public <T> ScanResultPage<T> scanPage(Class<T> clazz,
                                           DynamoDBScanExpression scanExpression,
@@ -1476,7 +1509,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
         ScanRequest scanRequest = createScanRequestFromExpression(clazz, scanExpression, config);
 
-        ScanResult scanResult = db.scan(applyUserAgent(scanRequest));
+        ScanResult scanResult = CapacityGovernors.scan(db, applyUserAgent(scanRequest), config.getCapacityGovernor());
         ScanResultPage<T> result = new ScanResultPage<T>();
         List<AttributeTransformer.Parameters<T>> parameters =
             toParameters(scanResult.getItems(), clazz, scanRequest.getTableName(), config);
@@ -1498,7 +1531,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
         QueryRequest queryRequest = createQueryRequestFromExpression(clazz, queryExpression, config);
 
-        QueryResult queryResult = db.query(applyUserAgent(queryRequest));
+        QueryResult queryResult = CapacityGovernors.query(db, applyUserAgent(queryRequest), config.getCapacityGovernor());
         return new PaginatedQueryList<T>(this, clazz, db, queryRequest, queryResult, config.getPaginationLoadingStrategy(), config);
     }
 
@@ -1510,7 +1543,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
         QueryRequest queryRequest = createQueryRequestFromExpression(clazz, queryExpression, config);
 
-        QueryResult queryResult = db.query(applyUserAgent(queryRequest));
+        QueryResult queryResult = CapacityGovernors.query(db, applyUserAgent(queryRequest), config.getCapacityGovernor());
         QueryResultPage<T> result = new QueryResultPage<T>();
         List<AttributeTransformer.Parameters<T>> parameters =
             toParameters(queryResult.getItems(), clazz, queryRequest.getTableName(), config);
@@ -1535,7 +1568,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
         int count = 0;
         ScanResult scanResult = null;
         do {
-            scanResult = db.scan(applyUserAgent(scanRequest));
+            scanResult = CapacityGovernors.scan(db, applyUserAgent(scanRequest), config.getCapacityGovernor());
             count += scanResult.getCount();
             scanRequest.setExclusiveStartKey(scanResult.getLastEvaluatedKey());
         } while (scanResult.getLastEvaluatedKey() != null);
@@ -1554,7 +1587,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
         int count = 0;
         QueryResult queryResult = null;
         do {
-            queryResult = db.query(applyUserAgent(queryRequest));
+            queryResult = CapacityGovernors.query(db, applyUserAgent(queryRequest), config.getCapacityGovernor());
             count += queryResult.getCount();
             queryRequest.setExclusiveStartKey(queryResult.getLastEvaluatedKey());
         } while (queryResult.getLastEvaluatedKey() != null);
@@ -1594,6 +1627,19 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
      * @param config never null
      */
     private List<ScanRequest> createParallelScanRequestsFromExpression(Class<?> clazz, DynamoDBScanExpression scanExpression, int totalSegments, DynamoDBMapperConfig config) {
+        checkParallelScanExpression(scanExpression, totalSegments);
+
+        List<ScanRequest> parallelScanRequests= new LinkedList<ScanRequest>();
+        for (int segment = 0; segment < totalSegments; segment++) {
+            ScanRequest scanRequest = createScanRequestFromExpression(clazz, scanExpression, config);
+            parallelScanRequests.add(scanRequest
+                    .withSegment(segment).withTotalSegments(totalSegments)
+                    .withExclusiveStartKey(null));
+        }
+        return parallelScanRequests;
+    }
+
+    private void checkParallelScanExpression(DynamoDBScanExpression scanExpression, int totalSegments) {
         if (totalSegments < 1) {
             throw new IllegalArgumentException("Parallel scan should have at least one scan segment.");
         }
@@ -1604,15 +1650,6 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
         if (scanExpression.getSegment() != null || scanExpression.getTotalSegments() != null) {
             log.info("The Segment and TotalSegments parameters specified in the DynamoDBScanExpression are ignored.");
         }
-
-        List<ScanRequest> parallelScanRequests= new LinkedList<ScanRequest>();
-        for (int segment = 0; segment < totalSegments; segment++) {
-            ScanRequest scanRequest = createScanRequestFromExpression(clazz, scanExpression, config);
-            parallelScanRequests.add(scanRequest
-                    .withSegment(segment).withTotalSegments(totalSegments)
-                    .withExclusiveStartKey(null));
-        }
-        return parallelScanRequests;
     }
 
     private <T> QueryRequest createQueryRequestFromExpression(Class<T> clazz,
@@ -17,6 +17,7 @@ package com.amazonaws.services.dynamodbv2.datamodeling;
 import com.amazonaws.metrics.RequestMetricCollector;
 import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernor;
 
 import java.util.List;
 import java.util.Map;
@@ -55,6 +56,7 @@ public class DynamoDBMapperConfig {
      * @see DefaultBatchLoadRetryStrategy#INSTANCE
      * @see DynamoDBTypeConverterFactory#standard
      * @see ConversionSchemas#DEFAULT
+     * @see AccessorStrategy#REFLECTION
      */
     public static final DynamoDBMapperConfig DEFAULT = builder()
         .withSaveBehavior(SaveBehavior.UPDATE)
@@ -65,6 +67,7 @@ public class DynamoDBMapperConfig {
         .withBatchLoadRetryStrategy(DefaultBatchLoadRetryStrategy.INSTANCE)
         .withTypeConverterFactory(DynamoDBTypeConverterFactory.standard())
         .withConversionSchema(ConversionSchemas.DEFAULT)
+        .withAccessorStrategy(AccessorStrategy.REFLECTION)
         .build();
 
     /**
@@ -90,6 +93,9 @@ public class DynamoDBMapperConfig {
         private BatchWriteRetryStrategy batchWriteRetryStrategy;
         private BatchLoadRetryStrategy batchLoadRetryStrategy;
         private DynamoDBTypeConverterFactory typeConverterFactory;
+        private Integer batchWriteConcurrency;
+        private AccessorStrategy accessorStrategy;
+        private CapacityGovernor capacityGovernor;
 
         /**
          * Creates a new builder initialized with the {@link #DEFAULT} values.
@@ -128,6 +134,9 @@ public class DynamoDBMapperConfig {
             if (o.batchWriteRetryStrategy != null) batchWriteRetryStrategy = o.batchWriteRetryStrategy;
             if (o.batchLoadRetryStrategy != null) batchLoadRetryStrategy = o.batchLoadRetryStrategy;
             if (o.typeConverterFactory != null) typeConverterFactory = o.typeConverterFactory;
+            if (o.batchWriteConcurrency != null) batchWriteConcurrency = o.batchWriteConcurrency;
+            if (o.accessorStrategy != null) accessorStrategy = o.accessorStrategy;
+            if (o.capacityGovernor != null) capacityGovernor = o.capacityGovernor;
             return this;
         }
 
@@ -386,6 +395,91 @@ public class DynamoDBMapperConfig {
             return this;
         }
 
+        /**
+         * @return the current number of BatchWriteItem requests in flight
+         */
+        public Integer getBatchWriteConcurrency() {
+            return batchWriteConcurrency;
+        }
+
+        /**
+         * @param value the new number of BatchWriteItem requests in flight
+         */
+        public void setBatchWriteConcurrency(Integer value) {
+            this.batchWriteConcurrency = value;
+        }
+
+        /**
+         * The number of BatchWriteItem requests that batch writes, saves and
+         * deletes keep in flight. If greater than one, the items are spread
+         * over the requests by partition key, and the unprocessed items of a
+         * request are retried by later requests instead of holding up the
+         * others; the writes to the same item within a call may then be
+         * applied in any order. By default, the requests are sent one at a
+         * time.
+         * @param value the new number of BatchWriteItem requests in flight
+         * @return this builder
+         */
+        public Builder withBatchWriteConcurrency(Integer value) {
+            setBatchWriteConcurrency(value);
+            return this;
+        }
+
+        /**
+         * @return the current accessor strategy
+         */
+        public AccessorStrategy getAccessorStrategy() {
+            return accessorStrategy;
+        }
+
+        /**
+         * @param value the new accessor strategy
+         */
+        public void setAccessorStrategy(AccessorStrategy value) {
+            this.accessorStrategy = value;
+        }
+
+        /**
+         * The strategy by which the mapper gets and sets the properties of
+         * the domain objects.
+         * @param value the new accessor strategy
+         * @return this builder
+         * @see AccessorStrategy
+         */
+        public Builder withAccessorStrategy(AccessorStrategy value) {
+            setAccessorStrategy(value);
+            return this;
+        }
+
+        /**
+         * @return the current capacity governor
+         */
+        public CapacityGovernor getCapacityGovernor() {
+            return capacityGovernor;
+        }
+
+        /**
+         * @param value the new capacity governor
+         */
+        public void setCapacityGovernor(CapacityGovernor value) {
+            this.capacityGovernor = value;
+        }
+
+        /**
+         * The governor which paces the scans, queries, batch loads and batch
+         * writes of the mapper by the capacity they consume, such as a
+         * {@link com.amazonaws.services.dynamodbv2.util.CapacityRateLimiter}.
+         * The requests then ask for their consumed capacity. By default, the
+         * requests are not paced.
+         * @param value the new capacity governor
+         * @return this builder
+         * @see CapacityGovernor
+         */
+        public Builder withCapacityGovernor(CapacityGovernor value) {
+            setCapacityGovernor(value);
+            return this;
+        }
+
         /**
          * @return the current type-converter factory
          */
@@ -501,6 +595,34 @@ public class DynamoDBMapperConfig {
         }
     };
 
+    /**
+     * Enumeration of the strategies by which the mapper gets and sets the
+     * properties of the domain objects.
+     * <p>
+     * By default, the mapper uses REFLECTION.
+     */
+    public static enum AccessorStrategy {
+        /**
+         * Invokes the getters and setters by reflection.
+         */
+        REFLECTION,
+
+        /**
+         * Invokes the getters and setters from accessor classes generated the
+         * first time each domain class is mapped, which avoids the overhead of
+         * reflective invocation when marshalling and unmarshalling many
+         * objects. The properties whose getter or setter is not accessible to
+         * a generated class, such as those of non-public classes, are still
+         * accessed by reflection.
+         */
+        GENERATED;
+
+        private final DynamoDBMapperConfig config = builder().withAccessorStrategy(this).build();
+        public final DynamoDBMapperConfig config() {
+            return this.config;
+        }
+    }
+
     /**
      * Enumeration of pagination loading strategy.
      */
@@ -895,6 +1017,9 @@ public class DynamoDBMapperConfig {
     private final BatchWriteRetryStrategy batchWriteRetryStrategy;
     private final BatchLoadRetryStrategy batchLoadRetryStrategy;
     private final DynamoDBTypeConverterFactory typeConverterFactory;
+    private final Integer batchWriteConcurrency;
+    private final AccessorStrategy accessorStrategy;
+    private final CapacityGovernor capacityGovernor;
 
     /**
      * Internal constructor; builds from the builder.
@@ -911,6 +1036,9 @@ public class DynamoDBMapperConfig {
         this.batchWriteRetryStrategy = builder.batchWriteRetryStrategy;
         this.batchLoadRetryStrategy = builder.batchLoadRetryStrategy;
         this.typeConverterFactory = builder.typeConverterFactory;
+        this.batchWriteConcurrency = builder.batchWriteConcurrency;
+        this.accessorStrategy = builder.accessorStrategy;
+        this.capacityGovernor = builder.capacityGovernor;
     }
 
     /**
@@ -1022,6 +1150,9 @@ public class DynamoDBMapperConfig {
         this.batchWriteRetryStrategy = batchWriteRetryStrategy;
         this.batchLoadRetryStrategy = batchLoadRetryStrategy;
         this.typeConverterFactory = null;
+        this.batchWriteConcurrency = null;
+        this.accessorStrategy = null;
+        this.capacityGovernor = null;
     }
 
     /**
@@ -1213,6 +1344,33 @@ public class DynamoDBMapperConfig {
         return batchWriteRetryStrategy;
     }
 
+    /**
+     * @return the number of BatchWriteItem requests in flight for this config
+     *         object, or null if they are sent one at a time
+     * @see Builder#withBatchWriteConcurrency
+     */
+    public Integer getBatchWriteConcurrency() {
+        return batchWriteConcurrency;
+    }
+
+    /**
+     * @return the accessor strategy for this config object, or null if the
+     *         properties are accessed by reflection
+     * @see AccessorStrategy
+     */
+    public AccessorStrategy getAccessorStrategy() {
+        return accessorStrategy;
+    }
+
+    /**
+     * @return the capacity governor for this config object, or null if the
+     *         requests are not paced
+     * @see Builder#withCapacityGovernor
+     */
+    public CapacityGovernor getCapacityGovernor() {
+        return capacityGovernor;
+    }
+
     /**
      * @return the current type-converter factory
      */
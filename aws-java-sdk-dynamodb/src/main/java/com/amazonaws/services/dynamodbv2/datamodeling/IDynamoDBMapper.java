@@ -25,6 +25,7 @@ import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
 import com.amazonaws.services.dynamodbv2.model.DeleteTableRequest;
 import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.util.ParallelScanIterator;
 import com.amazonaws.services.s3.model.Region;
 
 import java.util.List;
@@ -470,6 +471,48 @@ public interface IDynamoDBMapper {
                                                   int totalSegments,
                                                   DynamoDBMapperConfig config);
 
+    /**
+     * Scans through an Amazon DynamoDB table on logically partitioned segments in parallel and
+     * iterates over the matching results as they arrive, using the default configuration.
+     *
+     * @see DynamoDBMapper#parallelScanIterator(Class, DynamoDBScanExpression, int, DynamoDBMapperConfig)
+     */
+    <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+                                                     DynamoDBScanExpression scanExpression,
+                                                     int totalSegments);
+
+    /**
+     * Scans through an Amazon DynamoDB table on logically partitioned segments in parallel and
+     * iterates over the matching results as they arrive. Unlike
+     * {@link #parallelScan(Class, DynamoDBScanExpression, int, DynamoDBMapperConfig)}, the results
+     * are never accumulated: each segment holds a bounded number of pages, and stops scanning
+     * until they are iterated over, so a table of any size may be scanned. The scan may be resumed
+     * from the checkpoint of a previous iterator, and its consumed read capacity may be capped;
+     * see {@link ParallelScanIterator}.
+     * <p>
+     * The scan starts once the iteration does, and the iterator should be closed if it isn't
+     * iterated to its end.
+     *
+     * @param <T>
+     *            The type of the objects being returned.
+     * @param clazz
+     *            The class annotated with DynamoDB annotations describing how to store the object
+     *            data in Amazon DynamoDB.
+     * @param scanExpression
+     *            Details on how to run the scan, including any filters to apply to limit results.
+     * @param totalSegments
+     *            Number of total parallel scan segments. <b>Range: </b>1 - 4096
+     * @param config
+     *            The configuration to use for this scan, which overrides the default provided at
+     *            object construction.
+     * @return An iterator over the objects constructed from the results of the scan operation.
+     * @see ParallelScanIterator
+     */
+    <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+                                                     DynamoDBScanExpression scanExpression,
+                                                     int totalSegments,
+                                                     DynamoDBMapperConfig config);
+
     /**
      * Scans through an Amazon DynamoDB table and returns a single page of matching results. The
      * table to scan is determined by looking at the annotations on the specified class, which
@@ -20,6 +20,7 @@ import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
 
 /**
  * Implementation of the List interface that represents the results from a query
@@ -83,7 +84,8 @@ public class PaginatedQueryList<T> extends PaginatedList<T> {
     @Override
     protected synchronized List<T> fetchNextPage() {
         queryRequest.setExclusiveStartKey(queryResult.getLastEvaluatedKey());
-        queryResult = dynamo.query(DynamoDBMapper.applyUserAgent(queryRequest));
+        queryResult = CapacityGovernors.query(dynamo, DynamoDBMapper.applyUserAgent(queryRequest),
+                config.getCapacityGovernor());
         return mapper.marshallIntoObjects(mapper.toParameters(
                 queryResult.getItems(),
                 clazz,
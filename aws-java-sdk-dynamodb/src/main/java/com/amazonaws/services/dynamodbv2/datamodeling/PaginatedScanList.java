@@ -20,6 +20,7 @@ import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
 
 /**
  * Implementation of the List interface that represents the results from a scan
@@ -82,7 +83,8 @@ public class PaginatedScanList<T> extends PaginatedList<T> {
     @Override
     protected synchronized List<T> fetchNextPage() {
         scanRequest.setExclusiveStartKey(scanResult.getLastEvaluatedKey());
-        scanResult = dynamo.scan(DynamoDBMapper.applyUserAgent(scanRequest));
+        scanResult = CapacityGovernors.scan(dynamo, DynamoDBMapper.applyUserAgent(scanRequest),
+                config.getCapacityGovernor());
         return mapper.marshallIntoObjects(mapper.toParameters(
             scanResult.getItems(),
             clazz,
@@ -19,6 +19,8 @@ import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernor;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -60,6 +62,8 @@ public class ParallelScanTask {
 
     private final AmazonDynamoDB dynamo;
 
+    private CapacityGovernor capacityGovernor;
+
     @Deprecated
     public ParallelScanTask(DynamoDBMapper mapper, AmazonDynamoDB dynamo, List<ScanRequest> parallelScanRequests) {
         this(dynamo, parallelScanRequests);
@@ -69,6 +73,12 @@ public class ParallelScanTask {
         this(dynamo, parallelScanRequests, Executors.newCachedThreadPool());
     }
 
+    ParallelScanTask(AmazonDynamoDB dynamo, List<ScanRequest> parallelScanRequests,
+                     CapacityGovernor capacityGovernor) {
+        this(dynamo, parallelScanRequests);
+        this.capacityGovernor = capacityGovernor;
+    }
+
     @SdkTestInternalApi
     ParallelScanTask(AmazonDynamoDB dynamo, List<ScanRequest> parallelScanRequests,
                      ExecutorService executorService) {
@@ -230,7 +240,8 @@ public class ParallelScanTask {
         } else {
             segmentScanRequest.setExclusiveStartKey(null);
         }
-        ScanResult scanResult = dynamo.scan(DynamoDBMapper.applyUserAgent(segmentScanRequest));
+        ScanResult scanResult = CapacityGovernors.scan(dynamo, DynamoDBMapper.applyUserAgent(segmentScanRequest),
+                capacityGovernor);
 
         /**
          * Cache the scan result in segmentScanResults.
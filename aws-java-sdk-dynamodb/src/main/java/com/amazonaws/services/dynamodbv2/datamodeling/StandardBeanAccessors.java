@@ -0,0 +1,434 @@
+/*
+ * Copyright 2016-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import com.amazonaws.annotation.SdkInternalApi;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generated accessors for {@link DynamoDBMapperConfig.AccessorStrategy#GENERATED}.
+ * <p>
+ * Each accessor is a class, defined at runtime, whose methods invoke the
+ * getter and setter of a property directly, so that they are compiled and
+ * inlined like any other call instead of going through reflection. The class
+ * files are written out by hand since the SDK targets Java 6, which has
+ * neither method handles nor a lambda metafactory, and has no bytecode
+ * library to depend on.
+ */
+@SdkInternalApi
+final class StandardBeanAccessors {
+
+    private static final Log LOG = LogFactory.getLog(StandardBeanAccessors.class);
+
+    /**
+     * Returns the generated accessor for the given getter and its setter, if
+     * any (caches the results), or null if the property can't be accessed
+     * from a generated class, in which case it is accessed by reflection.
+     */
+    static final Accessor of(Method getter, Method setter) {
+        return CachedAccessors.CACHE.getAccessor(getter, setter);
+    }
+
+    /**
+     * The base class of the generated accessors; it must be public for the
+     * generated classes, which are defined by another class loader, to
+     * extend it.
+     */
+    public static abstract class Accessor {
+        protected Accessor() {
+        }
+
+        /**
+         * Invokes the getter on the given object.
+         */
+        public abstract Object get(Object object);
+
+        /**
+         * Invokes the setter on the given object.
+         */
+        public void set(Object object, Object value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Cache of {@link Accessor} by getter.
+     * <p>
+     * Neither the domain classes nor their class loaders are strongly
+     * referenced from the cache, so that they may be unloaded, for instance
+     * when an application is redeployed. The accessors are weakly referenced,
+     * and keyed by the class declaring the getter, and the signatures of the
+     * getter and setter; while an accessor is in use, its class, and so its
+     * {@link AccessorLoader}, are strongly reachable from it anyway.
+     */
+    private static final class CachedAccessors {
+        private static final CachedAccessors CACHE = new CachedAccessors();
+        private static final Accessor NONE = new Accessor() {
+            @Override
+            public Object get(Object object) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        private static final AtomicInteger COUNT = new AtomicInteger();
+        private final Map<Class<?>,Map<String,Reference<Accessor>>> cache = new WeakHashMap<Class<?>,Map<String,Reference<Accessor>>>();
+        private final Map<ClassLoader,Reference<AccessorLoader>> loaders = new WeakHashMap<ClassLoader,Reference<AccessorLoader>>();
+
+        private final Accessor getAccessor(Method getter, Method setter) {
+            final String key = getter + "|" + setter;
+            Accessor accessor = cached(getter.getDeclaringClass(), key);
+            if (accessor == null) {
+                accessor = generate(getter, setter);
+                if (accessor == null) {
+                    accessor = NONE;
+                }
+                synchronized (cache) {
+                    final Accessor cached = cached(getter.getDeclaringClass(), key);
+                    if (cached != null) {
+                        accessor = cached;
+                    } else {
+                        Map<String,Reference<Accessor>> accessors = cache.get(getter.getDeclaringClass());
+                        if (accessors == null) {
+                            cache.put(getter.getDeclaringClass(), (accessors = new HashMap<String,Reference<Accessor>>()));
+                        }
+                        accessors.put(key, new WeakReference<Accessor>(accessor));
+                    }
+                }
+            }
+            return accessor == NONE ? null : accessor;
+        }
+
+        private Accessor cached(Class<?> owner, String key) {
+            synchronized (cache) {
+                final Map<String,Reference<Accessor>> accessors = cache.get(owner);
+                final Reference<Accessor> accessor = accessors == null ? null : accessors.get(key);
+                return accessor == null ? null : accessor.get();
+            }
+        }
+
+        private Accessor generate(Method getter, Method setter) {
+            final Class<?> owner = getter.getDeclaringClass();
+            final ClassLoader loader = owner.getClassLoader();
+            if (getter.getReturnType() == void.class) {
+                return null;
+            } else if (!accessible(getter) || (setter != null && !accessible(setter))) {
+                return null;
+            } else if (!visible(loader, Accessor.class) || (setter != null && !visible(loader, setter.getDeclaringClass()))) {
+                return null;
+            }
+            final String name = owner.getName() + "$$DynamoDBAccessor$" + COUNT.incrementAndGet();
+            try {
+                final byte[] bytes = new ClassFile(name, getter, setter).toByteArray();
+                return (Accessor)loaderOf(loader).define(name, bytes).newInstance();
+            } catch (final Exception e) {
+                LOG.debug("could not generate accessor for " + getter + ", using reflection", e);
+            } catch (final LinkageError e) {
+                LOG.debug("could not generate accessor for " + getter + ", using reflection", e);
+            }
+            return null;
+        }
+
+        private AccessorLoader loaderOf(ClassLoader parent) {
+            synchronized (loaders) {
+                final Reference<AccessorLoader> reference = loaders.get(parent);
+                AccessorLoader loader = reference == null ? null : reference.get();
+                if (loader == null) {
+                    loaders.put(parent, new WeakReference<AccessorLoader>(loader = new AccessorLoader(parent)));
+                }
+                return loader;
+            }
+        }
+    }
+
+    /**
+     * Class loader of the generated accessors of the domain classes of a
+     * given class loader.
+     */
+    private static final class AccessorLoader extends ClassLoader {
+        private AccessorLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Returns true if the method may be invoked from a class of another
+     * package, and the types of its signature may be referred to from it.
+     */
+    private static boolean accessible(Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+            return false;
+        } else if (method.getDeclaringClass().isInterface() || !accessible(method.getDeclaringClass())) {
+            return false;
+        } else if (!accessible(method.getReturnType())) {
+            return false;
+        }
+        for (final Class<?> type : method.getParameterTypes()) {
+            if (!accessible(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean accessible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+    /**
+     * Returns true if the class loader resolves the given class to itself.
+     */
+    private static boolean visible(ClassLoader loader, Class<?> type) {
+        try {
+            return loader != null && Class.forName(type.getName(), false, loader) == type;
+        } catch (final ClassNotFoundException no) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the class file of an accessor which extends {@link Accessor}.
+     * <p>
+     * The class file is of version 49 (Java 5), which is verified without
+     * stack map frames; the methods have no branches anyway.
+     */
+    private static final class ClassFile {
+        private static final int ACC_PUBLIC = 0x0001, ACC_FINAL = 0x0010, ACC_SUPER = 0x0020;
+        private static final int ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c;
+        private static final int POP = 0x57, POP2 = 0x58, ARETURN = 0xb0, RETURN = 0xb1;
+        private static final int INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8, CHECKCAST = 0xc0;
+        private static final String OBJECT = "java/lang/Object";
+
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        private final Map<String,Integer> indexes = new HashMap<String,Integer>();
+        private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        private final DataOutputStream methods = new DataOutputStream(methodBytes);
+        private int methodCount;
+        private final int thisClass, superClass;
+
+        private ClassFile(String name, Method getter, Method setter) throws IOException {
+            final String superName = internalNameOf(Accessor.class);
+            this.thisClass = classRef(name.replace('.', '/'));
+            this.superClass = classRef(superName);
+
+            final ByteArrayOutputStream code = new ByteArrayOutputStream();
+            code.write(ALOAD_0);
+            code(code, INVOKESPECIAL, methodRef(superName, "<init>", "()V"));
+            code.write(RETURN);
+            method("<init>", "()V", 1, 1, code);
+
+            code.reset();
+            code.write(ALOAD_1);
+            code(code, CHECKCAST, classRef(internalNameOf(getter.getDeclaringClass())));
+            code(code, INVOKEVIRTUAL, methodRef(getter));
+            final Class<?> type = getter.getReturnType();
+            if (type.isPrimitive()) {
+                final String box = internalNameOf(Primitive.of(type).box);
+                code(code, INVOKESTATIC, methodRef(box, "valueOf", "(" + descriptorOf(type) + ")L" + box + ";"));
+            }
+            code.write(ARETURN);
+            method("get", "(L" + OBJECT + ";)L" + OBJECT + ";", Math.max(1, sizeOf(type)), 2, code);
+
+            if (setter != null) {
+                code.reset();
+                final Class<?> param = setter.getParameterTypes()[0];
+                code.write(ALOAD_1);
+                code(code, CHECKCAST, classRef(internalNameOf(setter.getDeclaringClass())));
+                code.write(ALOAD_2);
+                if (param.isPrimitive()) {
+                    final Primitive primitive = Primitive.of(param);
+                    final String box = internalNameOf(primitive.box);
+                    code(code, CHECKCAST, classRef(box));
+                    code(code, INVOKEVIRTUAL, methodRef(box, primitive.unbox, "()" + descriptorOf(param)));
+                } else if (param != Object.class) {
+                    code(code, CHECKCAST, classRef(internalNameOf(param)));
+                }
+                code(code, INVOKEVIRTUAL, methodRef(setter));
+                if (setter.getReturnType() != void.class) {
+                    code.write(sizeOf(setter.getReturnType()) == 2 ? POP2 : POP);
+                }
+                code.write(RETURN);
+                method("set", "(L" + OBJECT + ";L" + OBJECT + ";)V", 1 + Math.max(sizeOf(param), sizeOf(setter.getReturnType())), 3, code);
+            }
+        }
+
+        private byte[] toByteArray() throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(indexes.size() + 1);
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(methodCount);
+            methodBytes.writeTo(out);
+            out.writeShort(0); // attributes
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private void method(String name, String descriptor, int maxStack, int maxLocals, ByteArrayOutputStream code) throws IOException {
+            methods.writeShort(ACC_PUBLIC);
+            methods.writeShort(utf8(name));
+            methods.writeShort(utf8(descriptor));
+            methods.writeShort(1);
+            methods.writeShort(utf8("Code"));
+            methods.writeInt(12 + code.size());
+            methods.writeShort(maxStack);
+            methods.writeShort(maxLocals);
+            methods.writeInt(code.size());
+            code.writeTo(methods);
+            methods.writeShort(0); // exception table
+            methods.writeShort(0); // attributes
+            methodCount++;
+        }
+
+        private static void code(ByteArrayOutputStream code, int opcode, int index) {
+            code.write(opcode);
+            code.write(index >>> 8);
+            code.write(index);
+        }
+
+        private int utf8(String value) throws IOException {
+            Integer index = indexes.get("Utf8:" + value);
+            if (index == null) {
+                pool.writeByte(1);
+                pool.writeUTF(value);
+                index = newIndex("Utf8:" + value);
+            }
+            return index;
+        }
+
+        private int classRef(String internalName) throws IOException {
+            Integer index = indexes.get("Class:" + internalName);
+            if (index == null) {
+                final int name = utf8(internalName);
+                pool.writeByte(7);
+                pool.writeShort(name);
+                index = newIndex("Class:" + internalName);
+            }
+            return index;
+        }
+
+        private int methodRef(Method method) throws IOException {
+            final StringBuilder descriptor = new StringBuilder("(");
+            for (final Class<?> param : method.getParameterTypes()) {
+                descriptor.append(descriptorOf(param));
+            }
+            descriptor.append(")").append(descriptorOf(method.getReturnType()));
+            return methodRef(internalNameOf(method.getDeclaringClass()), method.getName(), descriptor.toString());
+        }
+
+        private int methodRef(String owner, String name, String descriptor) throws IOException {
+            final String key = "Methodref:" + owner + "." + name + descriptor;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                final int ownerIndex = classRef(owner);
+                final int nameIndex = utf8(name), descriptorIndex = utf8(descriptor);
+                pool.writeByte(12);
+                pool.writeShort(nameIndex);
+                pool.writeShort(descriptorIndex);
+                final int nameAndType = newIndex("NameAndType:" + key);
+                pool.writeByte(10);
+                pool.writeShort(ownerIndex);
+                pool.writeShort(nameAndType);
+                index = newIndex(key);
+            }
+            return index;
+        }
+
+        private int newIndex(String key) {
+            final int index = indexes.size() + 1;
+            indexes.put(key, index);
+            return index;
+        }
+
+        private static String internalNameOf(Class<?> type) {
+            return type.getName().replace('.', '/');
+        }
+
+        private static String descriptorOf(Class<?> type) {
+            if (type.isPrimitive()) {
+                return type == void.class ? "V" : Primitive.of(type).descriptor;
+            } else if (type.isArray()) {
+                return internalNameOf(type);
+            }
+            return "L" + internalNameOf(type) + ";";
+        }
+
+        private static int sizeOf(Class<?> type) {
+            return type == void.class ? 0 : (type == long.class || type == double.class) ? 2 : 1;
+        }
+    }
+
+    /**
+     * The boxing of the primitive types.
+     */
+    private static enum Primitive {
+        BOOLEAN(boolean.class, Boolean.class, "booleanValue", "Z"),
+        BYTE(byte.class, Byte.class, "byteValue", "B"),
+        CHAR(char.class, Character.class, "charValue", "C"),
+        SHORT(short.class, Short.class, "shortValue", "S"),
+        INT(int.class, Integer.class, "intValue", "I"),
+        LONG(long.class, Long.class, "longValue", "J"),
+        FLOAT(float.class, Float.class, "floatValue", "F"),
+        DOUBLE(double.class, Double.class, "doubleValue", "D");
+
+        private final Class<?> type, box;
+        private final String unbox, descriptor;
+
+        private Primitive(Class<?> type, Class<?> box, String unbox, String descriptor) {
+            this.type = type;
+            this.box = box;
+            this.unbox = unbox;
+            this.descriptor = descriptor;
+        }
+
+        private static Primitive of(Class<?> type) {
+            for (final Primitive primitive : values()) {
+                if (primitive.type == type) {
+                    return primitive;
+                }
+            }
+            throw new IllegalArgumentException("not a primitive: " + type);
+        }
+    }
+
+}
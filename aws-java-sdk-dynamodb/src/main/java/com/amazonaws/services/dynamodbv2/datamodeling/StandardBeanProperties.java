@@ -87,6 +87,7 @@ final class StandardBeanProperties {
         private final DynamoDBMapperFieldModel.Properties<V> properties;
         private final ConvertibleType<V> type;
         private final Reflect<T,V> reflect;
+        private volatile Reflect<T,V> generatedReflect;
 
         private Bean(FieldMap<V> annotations, Reflect<T,V> reflect, Method getter) {
             this.properties = new DynamoDBMapperFieldModel.Properties.Immutable<V>(annotations);
@@ -105,6 +106,18 @@ final class StandardBeanProperties {
         final Reflect<T,V> reflect() {
             return this.reflect;
         }
+
+        /**
+         * Returns the get/set operations by generated accessors, where
+         * possible (caches the results).
+         * @see DynamoDBMapperConfig.AccessorStrategy#GENERATED
+         */
+        final Reflect<T,V> generatedReflect() {
+            if (this.generatedReflect == null) {
+                this.generatedReflect = generated(this.reflect);
+            }
+            return this.generatedReflect;
+        }
     }
 
     /**
@@ -146,6 +159,42 @@ final class StandardBeanProperties {
         }
     }
 
+    /**
+     * Get/set operations by a generated accessor.
+     */
+    static final class GeneratedReflect<T,V> implements Reflect<T,V> {
+        private final MethodReflect<T,V> reflect;
+        private final StandardBeanAccessors.Accessor accessor;
+
+        private GeneratedReflect(MethodReflect<T,V> reflect, StandardBeanAccessors.Accessor accessor) {
+            this.reflect = reflect;
+            this.accessor = accessor;
+        }
+
+        @Override
+        public V get(T object) {
+            try {
+                return (V)accessor.get(object);
+            } catch (final Exception e) {
+                throw new DynamoDBMappingException("could not invoke " + reflect.getter + " on " + object.getClass(), e);
+            }
+        }
+
+        @Override
+        public void set(T object, V value) {
+            if (reflect.setter == null) {
+                reflect.set(object, value);
+                return;
+            }
+            try {
+                accessor.set(object, value);
+            } catch (final Exception e) {
+                throw new DynamoDBMappingException("could not invoke " + reflect.setter + " on " + object.getClass() +
+                    " with value " + value + " of type " + (value == null ? null : value.getClass()), e);
+            }
+        }
+    }
+
     /**
      * Get/set reflection operations with a declaring property.
      */
@@ -155,7 +204,11 @@ final class StandardBeanProperties {
         private final Class<T> targetType;
 
         private DeclaringReflect(Method getter, Reflect<T,T> declaring, Class<T> targetType) {
-            this.reflect = new MethodReflect<T,V>(getter);
+            this(new MethodReflect<T,V>(getter), declaring, targetType);
+        }
+
+        private DeclaringReflect(Reflect<T,V> reflect, Reflect<T,T> declaring, Class<T> targetType) {
+            this.reflect = reflect;
             this.declaring = declaring;
             this.targetType = targetType;
         }
@@ -258,6 +311,22 @@ final class StandardBeanProperties {
         }
     }
 
+    /**
+     * Replaces the reflection operations by generated accessors, where
+     * possible.
+     */
+    static final <T,V> Reflect<T,V> generated(Reflect<T,V> reflect) {
+        if (reflect instanceof MethodReflect) {
+            final MethodReflect<T,V> method = (MethodReflect<T,V>)reflect;
+            final StandardBeanAccessors.Accessor accessor = StandardBeanAccessors.of(method.getter, method.setter);
+            return accessor == null ? reflect : new GeneratedReflect<T,V>(method, accessor);
+        } else if (reflect instanceof DeclaringReflect) {
+            final DeclaringReflect<T,V> declaring = (DeclaringReflect<T,V>)reflect;
+            return new DeclaringReflect<T,V>(generated(declaring.reflect), generated(declaring.declaring), declaring.targetType);
+        }
+        return reflect;
+    }
+
     /**
      * Gets the field name given the getter method.
      */
@@ -15,6 +15,7 @@
 package com.amazonaws.services.dynamodbv2.datamodeling;
 
 import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.AccessorStrategy;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperFieldModel.DynamoDBAttributeType;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperFieldModel.Reflect;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperModelFactory.TableFactory;
@@ -28,6 +29,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -62,26 +64,29 @@ final class StandardModelFactories {
     }
 
     /**
-     * {@link TableFactory} mapped by {@link ConversionSchema}.
+     * {@link TableFactory} mapped by {@link ConversionSchema} and
+     * {@link AccessorStrategy}.
      */
     private static final class StandardModelFactory implements DynamoDBMapperModelFactory {
-        private final ConcurrentMap<ConversionSchema,TableFactory> cache;
+        private final ConcurrentMap<List<Object>,TableFactory> cache;
         private final S3Link.Factory s3Links;
 
         private StandardModelFactory(S3Link.Factory s3Links) {
-            this.cache = new ConcurrentHashMap<ConversionSchema,TableFactory>();
+            this.cache = new ConcurrentHashMap<List<Object>,TableFactory>();
             this.s3Links = s3Links;
         }
 
         @Override
         public TableFactory getTableFactory(DynamoDBMapperConfig config) {
             final ConversionSchema schema = config.getConversionSchema();
-            if (!cache.containsKey(schema)) {
+            final boolean generated = (config.getAccessorStrategy() == AccessorStrategy.GENERATED);
+            final List<Object> key = Arrays.<Object>asList(schema, generated);
+            if (!cache.containsKey(key)) {
                 RuleFactory<Object> rules = rulesOf(config, s3Links, this);
                 rules = new ConversionSchemas.ItemConverterRuleFactory<Object>(config, s3Links, rules);
-                cache.putIfAbsent(schema, new StandardTableFactory(rules));
+                cache.putIfAbsent(key, new StandardTableFactory(rules, generated));
             }
-            return cache.get(schema);
+            return cache.get(key);
         }
     }
 
@@ -91,17 +96,19 @@ final class StandardModelFactories {
     private static final class StandardTableFactory implements TableFactory {
         private final ConcurrentMap<Class<?>,DynamoDBMapperTableModel<?>> cache;
         private final RuleFactory<Object> rules;
+        private final boolean generated;
 
-        private StandardTableFactory(RuleFactory<Object> rules) {
+        private StandardTableFactory(RuleFactory<Object> rules, boolean generated) {
             this.cache = new ConcurrentHashMap<Class<?>,DynamoDBMapperTableModel<?>>();
             this.rules = rules;
+            this.generated = generated;
         }
 
         @Override
         @SuppressWarnings("unchecked")
         public <T> DynamoDBMapperTableModel<T> getTable(Class<T> clazz) {
             if (!this.cache.containsKey(clazz)) {
-                this.cache.putIfAbsent(clazz, new TableBuilder<T>(clazz, rules).build());
+                this.cache.putIfAbsent(clazz, new TableBuilder<T>(clazz, rules, generated).build());
             }
             return (DynamoDBMapperTableModel<T>)this.cache.get(clazz);
         }
@@ -111,11 +118,11 @@ final class StandardModelFactories {
      * {@link DynamoDBMapperTableModel} builder.
      */
     private static final class TableBuilder<T> extends DynamoDBMapperTableModel.Builder<T> {
-        private TableBuilder(Class<T> clazz, Beans<T> beans, RuleFactory<Object> rules) {
+        private TableBuilder(Class<T> clazz, Beans<T> beans, RuleFactory<Object> rules, boolean generated) {
             super(clazz, beans.properties());
             for (final Bean<T,Object> bean : beans.map().values()) {
                 try {
-                    with(new FieldBuilder<T,Object>(clazz, bean, rules.getRule(bean.type())).build());
+                    with(new FieldBuilder<T,Object>(clazz, bean, rules.getRule(bean.type()), generated).build());
                 } catch (final RuntimeException e) {
                     throw new DynamoDBMappingException(String.format(
                         "%s[%s] could not be mapped for type %s",
@@ -125,8 +132,8 @@ final class StandardModelFactories {
             }
         }
 
-        private TableBuilder(Class<T> clazz, RuleFactory<Object> rules) {
-            this(clazz, StandardBeanProperties.<T>of(clazz), rules);
+        private TableBuilder(Class<T> clazz, RuleFactory<Object> rules, boolean generated) {
+            this(clazz, StandardBeanProperties.<T>of(clazz), rules, generated);
         }
     }
 
@@ -134,7 +141,7 @@ final class StandardModelFactories {
      * {@link DynamoDBMapperFieldModel} builder.
      */
     private static final class FieldBuilder<T,V> extends DynamoDBMapperFieldModel.Builder<T,V> {
-        private FieldBuilder(Class<T> clazz, Bean<T,V> bean, Rule<V> rule) {
+        private FieldBuilder(Class<T> clazz, Bean<T,V> bean, Rule<V> rule, boolean generated) {
             super(clazz, bean.properties());
             if (bean.type().attributeType() != null) {
                 with(bean.type().attributeType());
@@ -142,7 +149,7 @@ final class StandardModelFactories {
                 with(rule.getAttributeType());
             }
             with(rule.newConverter(bean.type()));
-            with(bean.reflect());
+            with(generated ? bean.generatedReflect() : bean.reflect());
         }
     }
 
@@ -37,6 +37,7 @@ import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
 import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
 import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.UpdateGlobalSecondaryIndexAction;
+import com.amazonaws.services.dynamodbv2.util.ParallelScanIterator;
 import com.amazonaws.services.dynamodbv2.xspec.QueryExpressionSpec;
 import com.amazonaws.services.dynamodbv2.xspec.ScanExpressionSpec;
 
@@ -374,4 +375,21 @@ public class Index implements QueryApi, ScanApi {
     public ItemCollection<ScanOutcome> scan(ScanSpec params) {
         return scanDelegate.scan(params);
     }
+
+    /**
+     * Scans the index on the given number of segments in parallel, and iterates
+     * over the matching items as they arrive. Each segment holds a bounded
+     * number of pages, and stops scanning until they are iterated over; the
+     * scan may be resumed from the checkpoint of a previous iterator, and its
+     * consumed read capacity may be capped. The exclusive start key and the
+     * maximum result size of the spec are ignored.
+     * <p>
+     * The scan starts once the iteration does, and the iterator should be
+     * closed if it isn't iterated to its end.
+     *
+     * @see ParallelScanIterator
+     */
+    public ParallelScanIterator<Item> parallelScan(ScanSpec spec, int totalSegments) {
+        return scanDelegate.parallelScan(spec, totalSegments);
+    }
 }
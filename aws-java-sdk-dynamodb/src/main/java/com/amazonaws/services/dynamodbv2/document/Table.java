@@ -56,6 +56,7 @@ import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
 import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
 import com.amazonaws.services.dynamodbv2.model.UpdateTableResult;
+import com.amazonaws.services.dynamodbv2.util.ParallelScanIterator;
 import com.amazonaws.services.dynamodbv2.xspec.DeleteItemExpressionSpec;
 import com.amazonaws.services.dynamodbv2.xspec.GetItemExpressionSpec;
 import com.amazonaws.services.dynamodbv2.xspec.QueryExpressionSpec;
@@ -285,6 +286,23 @@ public class Table implements PutItemApi, GetItemApi, QueryApi, ScanApi,
         return scanDelegate.scan(params);
     }
 
+    /**
+     * Scans the table on the given number of segments in parallel, and iterates
+     * over the matching items as they arrive. Each segment holds a bounded
+     * number of pages, and stops scanning until they are iterated over; the
+     * scan may be resumed from the checkpoint of a previous iterator, and its
+     * consumed read capacity may be capped. The exclusive start key and the
+     * maximum result size of the spec are ignored.
+     * <p>
+     * The scan starts once the iteration does, and the iterator should be
+     * closed if it isn't iterated to its end.
+     *
+     * @see ParallelScanIterator
+     */
+    public ParallelScanIterator<Item> parallelScan(ScanSpec spec, int totalSegments) {
+        return scanDelegate.parallelScan(spec, totalSegments);
+    }
+
     @Beta
     public ItemCollection<ScanOutcome> scan(ScanExpressionSpec scanExpressions) {
         return scanDelegate.scan(new ScanSpec()
@@ -16,10 +16,12 @@ package com.amazonaws.services.dynamodbv2.document.internal;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Index;
+import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.ItemCollection;
 import com.amazonaws.services.dynamodbv2.document.ScanOutcome;
 import com.amazonaws.services.dynamodbv2.document.api.ScanApi;
 import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
+import com.amazonaws.services.dynamodbv2.util.ParallelScanIterator;
 
 /**
  * The implementation for <code>ScanApi</code> for an index.
@@ -37,4 +39,10 @@ public class IndexScanImpl extends ScanImpl implements ScanApi {
         spec.getRequest().setIndexName(index.getIndexName());
         return super.doScan(spec);
     }
+
+    @Override
+    protected ParallelScanIterator<Item> doParallelScan(ScanSpec spec, int totalSegments) {
+        spec.getRequest().setIndexName(index.getIndexName());
+        return super.doParallelScan(spec, totalSegments);
+    }
 }
@@ -26,6 +26,7 @@ import com.amazonaws.services.dynamodbv2.document.spec.QuerySpec;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
 
 class QueryCollection extends ItemCollection<QueryOutcome>
 {
@@ -50,7 +51,7 @@ class QueryCollection extends ItemCollection<QueryOutcome>
         request.setLimit(InternalUtils.minimum(
                 spec.getMaxResultSize(),
                 spec.getMaxPageSize()));
-        QueryResult result = client.query(request);
+        QueryResult result = CapacityGovernors.query(client, request, spec.getCapacityGovernor());
         QueryOutcome outcome = new QueryOutcome(result);
         setLastLowLevelResult(outcome);
         return new QueryPage(client, spec, request, 0, outcome);
@@ -28,6 +28,7 @@ import com.amazonaws.services.dynamodbv2.document.spec.QuerySpec;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
 
 class QueryPage extends Page<Item, QueryOutcome> {
     private final AmazonDynamoDB client;
@@ -91,7 +92,7 @@ class QueryPage extends Page<Item, QueryOutcome> {
             request.setLimit(nextLimit);
         }
         request.setExclusiveStartKey(lastEvaluatedKey);
-        QueryResult result = client.query(request);
+        QueryResult result = CapacityGovernors.query(client, request, spec.getCapacityGovernor());
         final int nextIndex = index + this.size();
         return new QueryPage(client, spec, request, nextIndex,
                 new QueryOutcome(result));
@@ -26,6 +26,7 @@ import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
 
 class ScanCollection extends ItemCollection<ScanOutcome> {
 
@@ -50,7 +51,7 @@ class ScanCollection extends ItemCollection<ScanOutcome> {
                 spec.getMaxResultSize(),
                 spec.getMaxPageSize()));
 
-        ScanResult result = client.scan(request);
+        ScanResult result = CapacityGovernors.scan(client, request, spec.getCapacityGovernor());
         ScanOutcome outcome = new ScanOutcome(result);
         setLastLowLevelResult(outcome);
         return new ScanPage(client, spec, request, 0, outcome);
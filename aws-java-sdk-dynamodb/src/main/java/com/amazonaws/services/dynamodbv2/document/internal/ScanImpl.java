@@ -15,9 +15,11 @@
 package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.ItemCollection;
 import com.amazonaws.services.dynamodbv2.document.KeyAttribute;
 import com.amazonaws.services.dynamodbv2.document.ScanFilter;
@@ -27,6 +29,7 @@ import com.amazonaws.services.dynamodbv2.document.api.ScanApi;
 import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.util.ParallelScanIterator;
 
 /**
  * The implementation for <code>ScanApi</code>.
@@ -69,7 +72,34 @@ public class ScanImpl extends AbstractImpl implements ScanApi {
         return doScan(spec);
     }
 
+    /**
+     * Scans the table on the given number of segments in parallel, and
+     * iterates over the items as they arrive.
+     *
+     * @see ParallelScanIterator
+     */
+    public ParallelScanIterator<Item> parallelScan(ScanSpec spec, int totalSegments) {
+        return doParallelScan(spec, totalSegments);
+    }
+
     protected ItemCollection<ScanOutcome> doScan(ScanSpec spec) {
+        applySpec(spec);
+        return new ScanCollection(getClient(), spec);
+    }
+
+    protected ParallelScanIterator<Item> doParallelScan(ScanSpec spec, int totalSegments) {
+        ScanRequest req = applySpec(spec);
+        if (spec.getMaxPageSize() != null)
+            req.setLimit(spec.getMaxPageSize());
+        return new ParallelScanIterator<Item>(getClient(), req, totalSegments) {
+            @Override
+            protected List<Item> convert(List<Map<String, AttributeValue>> items) {
+                return InternalUtils.toItemList(items);
+            }
+        }.withCapacityGovernor(spec.getCapacityGovernor());
+    }
+
+    private ScanRequest applySpec(ScanSpec spec) {
         // set the table name
         String tableName = getTable().getTableName();
         ScanRequest req = spec.getRequest().withTableName(tableName);
@@ -91,6 +121,6 @@ public class ScanImpl extends AbstractImpl implements ScanApi {
         req.withExpressionAttributeNames(spec.getNameMap())
            .withExpressionAttributeValues(attrValMap)
            ;
-        return new ScanCollection(getClient(), spec);
+        return req;
     }
 }
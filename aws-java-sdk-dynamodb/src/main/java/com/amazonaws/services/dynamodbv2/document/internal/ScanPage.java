@@ -28,6 +28,7 @@ import com.amazonaws.services.dynamodbv2.document.spec.ScanSpec;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernors;
 
 class ScanPage extends Page<Item, ScanOutcome> {
 
@@ -93,7 +94,7 @@ class ScanPage extends Page<Item, ScanOutcome> {
         }
         request.setExclusiveStartKey(lastEvaluatedKey);
         // fire off request to the server side
-        ScanResult result = client.scan(request);
+        ScanResult result = CapacityGovernors.scan(client, request, spec.getCapacityGovernor());
         final int nextIndex = index + this.size();
         return new ScanPage(client, spec, request, nextIndex, 
                 new ScanOutcome(result));
@@ -34,6 +34,8 @@ import com.amazonaws.services.dynamodbv2.model.ConditionalOperator;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
 import com.amazonaws.services.dynamodbv2.model.Select;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernor;
+import com.amazonaws.services.dynamodbv2.util.CapacityRateLimiter;
 import com.amazonaws.services.dynamodbv2.xspec.QueryExpressionSpec;
 
 /**
@@ -45,6 +47,7 @@ public class QuerySpec extends AbstractCollectionSpec<QueryRequest> {
     private Collection<QueryFilter> queryFilters;
     private Map<String, String> nameMap;
     private Map<String, Object> valueMap;
+    private CapacityGovernor capacityGovernor;
 
     private Collection<KeyAttribute> exclusiveStartKey;
 
@@ -291,6 +294,28 @@ public class QuerySpec extends AbstractCollectionSpec<QueryRequest> {
         return this;
     }
 
+    /**
+     * Returns the governor which paces the requests of the query by the
+     * capacity they consume, or null if they are not paced.
+     */
+    public CapacityGovernor getCapacityGovernor() {
+        return capacityGovernor;
+    }
+
+    public void setCapacityGovernor(CapacityGovernor capacityGovernor) {
+        this.capacityGovernor = capacityGovernor;
+    }
+
+    /**
+     * Sets the governor which paces the requests of the query by the capacity
+     * they consume, such as a {@link CapacityRateLimiter}; the requests then
+     * ask for their consumed capacity.
+     */
+    public QuerySpec withCapacityGovernor(CapacityGovernor capacityGovernor) {
+        setCapacityGovernor(capacityGovernor);
+        return this;
+    }
+
     @Override
     public QuerySpec withProgressListener(ProgressListener progressListener) {
         setProgressListener(progressListener);
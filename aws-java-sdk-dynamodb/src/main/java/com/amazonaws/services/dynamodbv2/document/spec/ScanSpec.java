@@ -33,6 +33,8 @@ import com.amazonaws.services.dynamodbv2.model.ConditionalOperator;
 import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.Select;
+import com.amazonaws.services.dynamodbv2.util.CapacityGovernor;
+import com.amazonaws.services.dynamodbv2.util.CapacityRateLimiter;
 import com.amazonaws.services.dynamodbv2.xspec.ScanExpressionSpec;
 
 /**
@@ -42,6 +44,7 @@ public class ScanSpec extends AbstractCollectionSpec<ScanRequest> {
     private Collection<ScanFilter> scanFilters;
     private Map<String, String> nameMap;
     private Map<String, Object> valueMap;
+    private CapacityGovernor capacityGovernor;
 
     private Collection<KeyAttribute> exclusiveStartKey;
 
@@ -344,6 +347,28 @@ public class ScanSpec extends AbstractCollectionSpec<ScanRequest> {
         return this;
     }
 
+    /**
+     * Returns the governor which paces the requests of the scan by the
+     * capacity they consume, or null if they are not paced.
+     */
+    public CapacityGovernor getCapacityGovernor() {
+        return capacityGovernor;
+    }
+
+    public void setCapacityGovernor(CapacityGovernor capacityGovernor) {
+        this.capacityGovernor = capacityGovernor;
+    }
+
+    /**
+     * Sets the governor which paces the requests of the scan by the capacity
+     * they consume, such as a {@link CapacityRateLimiter}; the requests then
+     * ask for their consumed capacity.
+     */
+    public ScanSpec withCapacityGovernor(CapacityGovernor capacityGovernor) {
+        setCapacityGovernor(capacityGovernor);
+        return this;
+    }
+
     @Override
     public ScanSpec withProgressListener(ProgressListener progressListener) {
         setProgressListener(progressListener);
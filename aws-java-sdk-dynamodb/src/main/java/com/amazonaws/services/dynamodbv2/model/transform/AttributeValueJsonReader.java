@@ -0,0 +1,229 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.model.transform;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.transform.JsonUnmarshallerContext;
+import com.amazonaws.util.Base64;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads attribute values straight from the JSON parser.
+ * <p>
+ * An item is mostly attribute values, and unmarshalling each of their tokens
+ * through the {@link JsonUnmarshallerContext} means tracking the path of the
+ * token, and testing it against every member of {@link AttributeValue}. This
+ * reader instead switches on the member name once per value, and reads the
+ * members of nested lists and maps in place. Only the tokens of the top level
+ * value's own object go through the context, so that the context is left in
+ * the same state as if it had read the whole value.
+ * <p>
+ * Numbers are kept as the strings they are sent as, and only parsed once
+ * converted to their Java type.
+ * <p>
+ * The generated {@link AttributeValueJsonUnmarshaller} defers to this reader
+ * by the <code>customJsonReader</code> of the <code>AttributeValue</code>
+ * shape modifier in the code generator's customization config.
+ */
+final class AttributeValueJsonReader {
+
+    private AttributeValueJsonReader() {
+    }
+
+    /**
+     * Returns true if the value at the current token of the context can be
+     * read by this reader, i.e. the context is reading from a parser, which
+     * is positioned at the start of the value's object.
+     */
+    static boolean canRead(JsonUnmarshallerContext context) {
+        final JsonParser parser = context.getJsonParser();
+        return context.getCurrentToken() == START_OBJECT && parser != null
+                && parser.getCurrentToken() == START_OBJECT;
+    }
+
+    /**
+     * Reads the attribute value at the current token of the context, up to
+     * and including the end of its object.
+     */
+    static AttributeValue read(JsonUnmarshallerContext context) throws IOException {
+        final JsonParser parser = context.getJsonParser();
+        final AttributeValue attributeValue = new AttributeValue();
+        while (context.nextToken() == FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            readMember(parser, name, attributeValue);
+        }
+        return attributeValue;
+    }
+
+    /**
+     * Reads the attribute value at the current token of the parser, up to
+     * and including the end of its object.
+     */
+    private static AttributeValue read(JsonParser parser) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if (token == VALUE_NULL) {
+            return null;
+        } else if (token != START_OBJECT) {
+            throw new IOException("Expected an attribute value but got: " + token);
+        }
+        final AttributeValue attributeValue = new AttributeValue();
+        while (parser.nextToken() == FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            readMember(parser, name, attributeValue);
+        }
+        return attributeValue;
+    }
+
+    /**
+     * Reads the given member of an attribute value, whose value is at the
+     * current token of the parser.
+     */
+    private static void readMember(JsonParser parser, String name, AttributeValue attributeValue) throws IOException {
+        if ("S".equals(name)) {
+            attributeValue.setS(readText(parser));
+        } else if ("N".equals(name)) {
+            attributeValue.setN(readText(parser));
+        } else if ("B".equals(name)) {
+            attributeValue.setB(readBinary(parser));
+        } else if ("BOOL".equals(name)) {
+            attributeValue.setBOOL(readBoolean(parser));
+        } else if ("NULL".equals(name)) {
+            attributeValue.setNULL(readBoolean(parser));
+        } else if ("M".equals(name)) {
+            attributeValue.setM(readMap(parser));
+        } else if ("L".equals(name)) {
+            attributeValue.setL(readList(parser));
+        } else if ("SS".equals(name)) {
+            attributeValue.setSS(readTextList(parser));
+        } else if ("NS".equals(name)) {
+            attributeValue.setNS(readTextList(parser));
+        } else if ("BS".equals(name)) {
+            attributeValue.setBS(readBinaryList(parser));
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private static Map<String, AttributeValue> readMap(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() != START_OBJECT) {
+            skip(parser);
+            return null;
+        }
+        final Map<String, AttributeValue> map = new HashMap<String, AttributeValue>();
+        while (parser.nextToken() == FIELD_NAME) {
+            final String key = parser.getCurrentName();
+            parser.nextToken();
+            map.put(key, read(parser));
+        }
+        return map;
+    }
+
+    private static List<AttributeValue> readList(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() != START_ARRAY) {
+            skip(parser);
+            return null;
+        }
+        final List<AttributeValue> list = new ArrayList<AttributeValue>();
+        while (parser.nextToken() != END_ARRAY) {
+            list.add(read(parser));
+        }
+        return list;
+    }
+
+    private static List<String> readTextList(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() != START_ARRAY) {
+            skip(parser);
+            return null;
+        }
+        final List<String> list = new ArrayList<String>();
+        while (parser.nextToken() != END_ARRAY) {
+            list.add(readText(parser));
+        }
+        return list;
+    }
+
+    private static List<ByteBuffer> readBinaryList(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() != START_ARRAY) {
+            skip(parser);
+            return null;
+        }
+        final List<ByteBuffer> list = new ArrayList<ByteBuffer>();
+        while (parser.nextToken() != END_ARRAY) {
+            list.add(readBinary(parser));
+        }
+        return list;
+    }
+
+    /**
+     * Reads the scalar at the current token of the parser as text, the same
+     * way as {@link JsonUnmarshallerContext#readText()}.
+     */
+    private static String readText(JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+        case VALUE_STRING:
+            return parser.getText();
+        case VALUE_FALSE:
+            return "false";
+        case VALUE_TRUE:
+            return "true";
+        case VALUE_NULL:
+            return null;
+        case VALUE_NUMBER_FLOAT:
+        case VALUE_NUMBER_INT:
+            return parser.getNumberValue().toString();
+        default:
+            throw new IOException("Expected a value but got: " + parser.getCurrentToken());
+        }
+    }
+
+    private static Boolean readBoolean(JsonParser parser) throws IOException {
+        final String text = readText(parser);
+        return text == null ? null : Boolean.parseBoolean(text);
+    }
+
+    private static ByteBuffer readBinary(JsonParser parser) throws IOException {
+        final String text = readText(parser);
+        return text == null ? null : ByteBuffer.wrap(Base64.decode(text));
+    }
+
+    /**
+     * Skips the list or map at the current token of the parser, which is
+     * read as null.
+     */
+    private static void skip(JsonParser parser) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if (token == START_OBJECT || token == START_ARRAY) {
+            parser.skipChildren();
+        } else if (token != VALUE_NULL) {
+            throw new IOException("Expected a list or map but got: " + token);
+        }
+    }
+}
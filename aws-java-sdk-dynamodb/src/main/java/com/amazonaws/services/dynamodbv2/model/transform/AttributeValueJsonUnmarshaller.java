@@ -41,6 +41,8 @@ public class AttributeValueJsonUnmarshaller implements Unmarshaller<AttributeVal
             token = context.nextToken();
         if (token == VALUE_NULL)
             return null;
+        if (com.amazonaws.services.dynamodbv2.model.transform.AttributeValueJsonReader.canRead(context))
+            return com.amazonaws.services.dynamodbv2.model.transform.AttributeValueJsonReader.read(context);
 
         while (true) {
             if (token == null)
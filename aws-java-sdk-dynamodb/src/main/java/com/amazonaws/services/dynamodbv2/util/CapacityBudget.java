@@ -0,0 +1,59 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * A budget of capacity units per second. The capacity consumed by a request
+ * is only known once it has completed, so each request defers the next ones
+ * by the time the capacity it consumed takes to replenish.
+ */
+final class CapacityBudget {
+    private final double nanosPerCapacityUnit;
+    private long availableAtNanos = System.nanoTime();
+
+    CapacityBudget(double capacityUnitsPerSecond) {
+        this.nanosPerCapacityUnit = TimeUnit.SECONDS.toNanos(1) / capacityUnitsPerSecond;
+    }
+
+    /**
+     * Waits until the capacity consumed so far has replenished.
+     */
+    void acquire() {
+        long waitNanos;
+        synchronized (this) {
+            waitNanos = availableAtNanos - System.nanoTime();
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AmazonClientException("Interrupted while waiting for capacity.", e);
+            }
+        }
+    }
+
+    /**
+     * Records the given capacity units as consumed.
+     */
+    synchronized void consume(double capacityUnits) {
+        long now = System.nanoTime();
+        availableAtNanos = Math.max(availableAtNanos, now) + (long) (capacityUnits * nanosPerCapacityUnit);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+
+/**
+ * Paces the requests made to DynamoDB by the capacity they consume.
+ * <p>
+ * Before each read or write, the governor is given the chance to hold the
+ * calling thread until the table or index is within its budget; after it,
+ * the governor is told the capacity the request consumed. The requests made
+ * through {@link CapacityGovernors} ask for the consumed capacity, unless
+ * they ask for it already.
+ * <p>
+ * Implementations must be thread-safe, as a governor may be shared by
+ * concurrent requests.
+ *
+ * @see CapacityRateLimiter
+ */
+public interface CapacityGovernor {
+
+    /**
+     * Called before a read of the given table or index; returns once the read
+     * may be made.
+     *
+     * @param tableName
+     *            the name of the table
+     * @param indexName
+     *            the name of the index, or null if the table itself is read
+     */
+    void acquireRead(String tableName, String indexName);
+
+    /**
+     * Called after a read of the given table or index, with the capacity it
+     * consumed.
+     *
+     * @param tableName
+     *            the name of the table
+     * @param indexName
+     *            the name of the index, or null if the table itself was read
+     * @param consumedCapacity
+     *            the capacity consumed, or null if it wasn't returned
+     */
+    void consumedRead(String tableName, String indexName, ConsumedCapacity consumedCapacity);
+
+    /**
+     * Called before a write to the given table; returns once the write may be
+     * made.
+     *
+     * @param tableName
+     *            the name of the table
+     */
+    void acquireWrite(String tableName);
+
+    /**
+     * Called after a write to the given table, with the capacity it consumed.
+     *
+     * @param tableName
+     *            the name of the table
+     * @param consumedCapacity
+     *            the capacity consumed, or null if it wasn't returned
+     */
+    void consumedWrite(String tableName, ConsumedCapacity consumedCapacity);
+}
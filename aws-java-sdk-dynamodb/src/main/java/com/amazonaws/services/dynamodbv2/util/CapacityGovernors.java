@@ -0,0 +1,113 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+
+/**
+ * Makes requests to DynamoDB paced by a {@link CapacityGovernor}. Each method
+ * asks for the total consumed capacity unless the request asks for it
+ * already, has the governor acquire the capacity of every table the request
+ * reads or writes, makes the request, and tells the governor the capacity
+ * consumed. A null governor makes the request as is.
+ */
+public final class CapacityGovernors {
+
+    private CapacityGovernors() {
+    }
+
+    public static ScanResult scan(AmazonDynamoDB dynamo, ScanRequest request, CapacityGovernor governor) {
+        if (governor == null) {
+            return dynamo.scan(request);
+        }
+        request.setReturnConsumedCapacity(returnConsumedCapacity(request.getReturnConsumedCapacity()));
+        governor.acquireRead(request.getTableName(), request.getIndexName());
+        ScanResult result = dynamo.scan(request);
+        governor.consumedRead(request.getTableName(), request.getIndexName(), result.getConsumedCapacity());
+        return result;
+    }
+
+    public static QueryResult query(AmazonDynamoDB dynamo, QueryRequest request, CapacityGovernor governor) {
+        if (governor == null) {
+            return dynamo.query(request);
+        }
+        request.setReturnConsumedCapacity(returnConsumedCapacity(request.getReturnConsumedCapacity()));
+        governor.acquireRead(request.getTableName(), request.getIndexName());
+        QueryResult result = dynamo.query(request);
+        governor.consumedRead(request.getTableName(), request.getIndexName(), result.getConsumedCapacity());
+        return result;
+    }
+
+    public static BatchGetItemResult batchGetItem(AmazonDynamoDB dynamo, BatchGetItemRequest request,
+            CapacityGovernor governor) {
+        if (governor == null) {
+            return dynamo.batchGetItem(request);
+        }
+        request.setReturnConsumedCapacity(returnConsumedCapacity(request.getReturnConsumedCapacity()));
+        for (String tableName : request.getRequestItems().keySet()) {
+            governor.acquireRead(tableName, null);
+        }
+        BatchGetItemResult result = dynamo.batchGetItem(request);
+        for (ConsumedCapacity consumedCapacity : consumedCapacities(result.getConsumedCapacity())) {
+            governor.consumedRead(consumedCapacity.getTableName(), null, consumedCapacity);
+        }
+        return result;
+    }
+
+    public static BatchWriteItemResult batchWriteItem(AmazonDynamoDB dynamo, BatchWriteItemRequest request,
+            CapacityGovernor governor) {
+        if (governor == null) {
+            return dynamo.batchWriteItem(request);
+        }
+        request.setReturnConsumedCapacity(returnConsumedCapacity(request.getReturnConsumedCapacity()));
+        for (String tableName : request.getRequestItems().keySet()) {
+            governor.acquireWrite(tableName);
+        }
+        BatchWriteItemResult result = dynamo.batchWriteItem(request);
+        for (ConsumedCapacity consumedCapacity : consumedCapacities(result.getConsumedCapacity())) {
+            governor.consumedWrite(consumedCapacity.getTableName(), consumedCapacity);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the given setting, unless it doesn't ask for the consumed
+     * capacity, in which case the total is asked for.
+     */
+    private static String returnConsumedCapacity(String returnConsumedCapacity) {
+        if (returnConsumedCapacity == null
+                || ReturnConsumedCapacity.NONE.toString().equals(returnConsumedCapacity)) {
+            return ReturnConsumedCapacity.TOTAL.toString();
+        }
+        return returnConsumedCapacity;
+    }
+
+    private static List<ConsumedCapacity> consumedCapacities(List<ConsumedCapacity> consumedCapacities) {
+        return consumedCapacities == null ? Collections.<ConsumedCapacity>emptyList() : consumedCapacities;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+
+/**
+ * A {@link CapacityGovernor} that holds the reads and writes of each table to
+ * a budget of capacity units per second, and keeps the totals of the
+ * capacity consumed by each table and index.
+ * <p>
+ * The budgets may be set for all tables, for a table, or for an index of a
+ * table; the reads of an index without a budget of its own count against the
+ * budget of its table. The capacity a request consumes is only known once it
+ * has completed, so the requests are paced by the capacity consumed before
+ * them: the budget is kept on average, but concurrent requests may exceed it
+ * for a short while.
+ * <p>
+ * The budgets should be set before the limiter is used.
+ *
+ * <pre class="brush: java">
+ * CapacityRateLimiter limiter = new CapacityRateLimiter()
+ *     .withReadCapacityPerSecond("Orders", 100)
+ *     .withWriteCapacityPerSecond("Orders", 50);
+ * DynamoDBMapperConfig config = DynamoDBMapperConfig.builder()
+ *     .withCapacityGovernor(limiter)
+ *     .build();
+ * </pre>
+ */
+public class CapacityRateLimiter implements CapacityGovernor {
+
+    private static final String READ = "read:";
+    private static final String WRITE = "write:";
+
+    private volatile double readCapacityPerSecond;
+    private volatile double writeCapacityPerSecond;
+    private final ConcurrentMap<String, Double> capacitiesPerSecond = new ConcurrentHashMap<String, Double>();
+
+    private final ConcurrentMap<String, CapacityBudget> budgets = new ConcurrentHashMap<String, CapacityBudget>();
+    private final ConcurrentMap<String, Tally> consumed = new ConcurrentHashMap<String, Tally>();
+
+    /**
+     * Sets the budget of read capacity units per second of each table, unless
+     * it has a budget of its own; zero for no budget.
+     */
+    public CapacityRateLimiter withReadCapacityPerSecond(double readCapacityPerSecond) {
+        this.readCapacityPerSecond = checkCapacity(readCapacityPerSecond);
+        return this;
+    }
+
+    /**
+     * Sets the budget of read capacity units per second of the given table,
+     * which includes the reads of its indexes without a budget of their own.
+     */
+    public CapacityRateLimiter withReadCapacityPerSecond(String tableName, double readCapacityPerSecond) {
+        return withReadCapacityPerSecond(tableName, null, readCapacityPerSecond);
+    }
+
+    /**
+     * Sets the budget of read capacity units per second of the given index of
+     * the given table.
+     */
+    public CapacityRateLimiter withReadCapacityPerSecond(String tableName, String indexName,
+            double readCapacityPerSecond) {
+        capacitiesPerSecond.put(READ + key(tableName, indexName), checkCapacity(readCapacityPerSecond));
+        return this;
+    }
+
+    /**
+     * Sets the budget of write capacity units per second of each table,
+     * unless it has a budget of its own; zero for no budget.
+     */
+    public CapacityRateLimiter withWriteCapacityPerSecond(double writeCapacityPerSecond) {
+        this.writeCapacityPerSecond = checkCapacity(writeCapacityPerSecond);
+        return this;
+    }
+
+    /**
+     * Sets the budget of write capacity units per second of the given table.
+     */
+    public CapacityRateLimiter withWriteCapacityPerSecond(String tableName, double writeCapacityPerSecond) {
+        capacitiesPerSecond.put(WRITE + key(tableName, null), checkCapacity(writeCapacityPerSecond));
+        return this;
+    }
+
+    /**
+     * Returns the read capacity units consumed so far by the reads of the
+     * given table itself, not counting its indexes.
+     */
+    public double getConsumedReadCapacity(String tableName) {
+        return getConsumedReadCapacity(tableName, null);
+    }
+
+    /**
+     * Returns the read capacity units consumed so far by the reads of the
+     * given index of the given table.
+     */
+    public double getConsumedReadCapacity(String tableName, String indexName) {
+        Tally tally = consumed.get(READ + key(tableName, indexName));
+        return tally == null ? 0 : tally.get();
+    }
+
+    /**
+     * Returns the write capacity units consumed so far by the writes to the
+     * given table.
+     */
+    public double getConsumedWriteCapacity(String tableName) {
+        Tally tally = consumed.get(WRITE + key(tableName, null));
+        return tally == null ? 0 : tally.get();
+    }
+
+    @Override
+    public void acquireRead(String tableName, String indexName) {
+        CapacityBudget budget = readBudget(tableName, indexName);
+        if (budget != null) {
+            budget.acquire();
+        }
+    }
+
+    @Override
+    public void consumedRead(String tableName, String indexName, ConsumedCapacity consumedCapacity) {
+        double capacityUnits = capacityUnits(consumedCapacity);
+        tally(READ + key(tableName, indexName)).add(capacityUnits);
+        CapacityBudget budget = readBudget(tableName, indexName);
+        if (budget != null) {
+            budget.consume(capacityUnits);
+        }
+    }
+
+    @Override
+    public void acquireWrite(String tableName) {
+        CapacityBudget budget = budget(WRITE + key(tableName, null), writeCapacityPerSecond);
+        if (budget != null) {
+            budget.acquire();
+        }
+    }
+
+    @Override
+    public void consumedWrite(String tableName, ConsumedCapacity consumedCapacity) {
+        double capacityUnits = capacityUnits(consumedCapacity);
+        tally(WRITE + key(tableName, null)).add(capacityUnits);
+        CapacityBudget budget = budget(WRITE + key(tableName, null), writeCapacityPerSecond);
+        if (budget != null) {
+            budget.consume(capacityUnits);
+        }
+    }
+
+    /**
+     * Returns the budget the reads of the given table or index count
+     * against, or null if there is none.
+     */
+    private CapacityBudget readBudget(String tableName, String indexName) {
+        if (indexName != null && capacitiesPerSecond.containsKey(READ + key(tableName, indexName))) {
+            return budget(READ + key(tableName, indexName), 0);
+        }
+        return budget(READ + key(tableName, null), readCapacityPerSecond);
+    }
+
+    /**
+     * Returns the budget of the given key, at its own capacity or else the
+     * given default one, or null if neither is set.
+     */
+    private CapacityBudget budget(String key, double defaultCapacityPerSecond) {
+        CapacityBudget budget = budgets.get(key);
+        if (budget == null) {
+            Double capacityPerSecond = capacitiesPerSecond.get(key);
+            if (capacityPerSecond == null) {
+                capacityPerSecond = defaultCapacityPerSecond;
+            }
+            if (capacityPerSecond <= 0) {
+                return null;
+            }
+            budgets.putIfAbsent(key, new CapacityBudget(capacityPerSecond));
+            budget = budgets.get(key);
+        }
+        return budget;
+    }
+
+    private Tally tally(String key) {
+        Tally tally = consumed.get(key);
+        if (tally == null) {
+            consumed.putIfAbsent(key, new Tally());
+            tally = consumed.get(key);
+        }
+        return tally;
+    }
+
+    private static String key(String tableName, String indexName) {
+        return indexName == null ? tableName : tableName + "/" + indexName;
+    }
+
+    private static double capacityUnits(ConsumedCapacity consumedCapacity) {
+        if (consumedCapacity == null || consumedCapacity.getCapacityUnits() == null) {
+            return 0;
+        }
+        return consumedCapacity.getCapacityUnits();
+    }
+
+    private static double checkCapacity(double capacityPerSecond) {
+        if (capacityPerSecond < 0) {
+            throw new IllegalArgumentException("The capacity per second should not be negative.");
+        }
+        return capacityPerSecond;
+    }
+
+    /**
+     * A running total of capacity units.
+     */
+    private static final class Tally {
+        private double capacityUnits;
+
+        private synchronized void add(double capacityUnits) {
+            this.capacityUnits += capacityUnits;
+        }
+
+        private synchronized double get() {
+            return capacityUnits;
+        }
+    }
+}
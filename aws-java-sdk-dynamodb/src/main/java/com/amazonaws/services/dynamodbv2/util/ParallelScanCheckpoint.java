@@ -0,0 +1,133 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * The progress of a parallel scan, as the <code>LastEvaluatedKey</code> of
+ * the last page returned from each segment, and whether each segment has been
+ * scanned to its end.
+ * <p>
+ * A checkpoint taken from a {@link ParallelScanIterator} only covers the
+ * items that the iterator has returned, so a scan resumed from it with
+ * {@link ParallelScanIterator#withCheckpoint(ParallelScanCheckpoint)} returns
+ * the items of the pages that weren't completely returned again, and never
+ * misses any.
+ */
+public class ParallelScanCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Map<String, AttributeValue>> exclusiveStartKeys;
+    private final boolean[] completed;
+
+    /**
+     * Constructs a checkpoint at the start of a parallel scan.
+     *
+     * @param totalSegments
+     *            the number of segments of the scan
+     */
+    public ParallelScanCheckpoint(int totalSegments) {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("Parallel scan should have at least one scan segment.");
+        }
+        this.exclusiveStartKeys = new ArrayList<Map<String, AttributeValue>>(totalSegments);
+        for (int segment = 0; segment < totalSegments; segment++) {
+            exclusiveStartKeys.add(null);
+        }
+        this.completed = new boolean[totalSegments];
+    }
+
+    /**
+     * Constructs a copy of the given checkpoint.
+     */
+    public ParallelScanCheckpoint(ParallelScanCheckpoint checkpoint) {
+        this(checkpoint.getTotalSegments());
+        synchronized (checkpoint) {
+            for (int segment = 0; segment < completed.length; segment++) {
+                setExclusiveStartKey(segment, checkpoint.getExclusiveStartKey(segment));
+                setCompleted(segment, checkpoint.isCompleted(segment));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of segments of the scan.
+     */
+    public int getTotalSegments() {
+        return completed.length;
+    }
+
+    /**
+     * Returns the key the given segment resumes from, or null if the segment
+     * starts from its beginning.
+     */
+    public synchronized Map<String, AttributeValue> getExclusiveStartKey(int segment) {
+        return exclusiveStartKeys.get(segment);
+    }
+
+    /**
+     * Sets the key the given segment resumes from, which is the
+     * <code>LastEvaluatedKey</code> of the last page returned from it.
+     */
+    public synchronized void setExclusiveStartKey(int segment, Map<String, AttributeValue> exclusiveStartKey) {
+        exclusiveStartKeys.set(segment, exclusiveStartKey == null
+                ? null : new LinkedHashMap<String, AttributeValue>(exclusiveStartKey));
+    }
+
+    /**
+     * Returns true if the given segment has been scanned to its end.
+     */
+    public synchronized boolean isCompleted(int segment) {
+        return completed[segment];
+    }
+
+    /**
+     * Sets whether the given segment has been scanned to its end.
+     */
+    public synchronized void setCompleted(int segment, boolean completed) {
+        this.completed[segment] = completed;
+    }
+
+    /**
+     * Returns true if every segment has been scanned to its end.
+     */
+    public synchronized boolean isCompleted() {
+        for (boolean segmentCompleted : completed) {
+            if (!segmentCompleted) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int segment = 0; segment < completed.length; segment++) {
+            if (segment > 0) sb.append(", ");
+            sb.append(segment).append(": ").append(completed[segment]
+                    ? "Completed" : String.valueOf(exclusiveStartKeys.get(segment)));
+        }
+        return sb.append("}").toString();
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+
+/**
+ * Iterates over the items of a parallel scan as the pages of its segments
+ * arrive, with a bounded number of pages held in memory.
+ * <p>
+ * Each segment has at most one scan request in flight, and stops requesting
+ * pages once {@link #withMaxBufferedPagesPerSegment(int) the maximum number of
+ * pages} it has returned aren't completely iterated over yet; it resumes as
+ * they are. So a scan over a table of any size holds at most that many pages,
+ * of up to 1 MB each, per segment. The requests are made on a thread pool of
+ * at most {@link #withMaxThreads(int) the maximum number of threads}, which is
+ * started by the first call to {@link #hasNext()} or {@link #next()}, and is
+ * shut down once the scan completes, fails or is {@link #close() closed}. Once
+ * a segment fails, the iterator rethrows its exception.
+ * <p>
+ * The items of a segment are returned in order, but the items of different
+ * segments are interleaved in the order their pages arrive.
+ * {@link #getCheckpoint()} returns the <code>LastEvaluatedKey</code> of the
+ * last page completely iterated over from each segment, from which another
+ * iterator may resume the scan with {@link #withCheckpoint(ParallelScanCheckpoint)}.
+ * <p>
+ * The read capacity consumed by the scan may be capped with
+ * {@link #withMaxReadCapacityPerSecond(double)}, in which case the requests
+ * are paced by the capacity their segments have consumed so far, or paced by
+ * any {@link CapacityGovernor} with {@link #withCapacityGovernor(CapacityGovernor)}.
+ * <p>
+ * The options must be set before the iteration starts. An iterator is meant
+ * to be iterated over by a single thread, but its checkpoint may be taken from
+ * any thread.
+ *
+ * @param <T>
+ *            the type of the items returned
+ */
+public abstract class ParallelScanIterator<T> implements Iterator<T>, Closeable {
+
+    /** The default maximum number of pages buffered per segment. */
+    public static final int DEFAULT_MAX_BUFFERED_PAGES_PER_SEGMENT = 2;
+
+    /** The default maximum number of threads that make the scan requests. */
+    public static final int DEFAULT_MAX_THREADS = 10;
+
+    /**
+     * The scan threads are daemons, so that an iterator abandoned without
+     * being closed doesn't keep the JVM alive.
+     */
+    private static final ThreadFactory threadFactory = new ThreadFactory() {
+        private final AtomicInteger threadCount = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            thread.setName("dynamodb-parallel-scan-" + threadCount.incrementAndGet());
+            return thread;
+        }
+    };
+
+    private final AmazonDynamoDB dynamo;
+    private final ScanRequest scanRequest;
+    private final int totalSegments;
+
+    private int maxBufferedPagesPerSegment = DEFAULT_MAX_BUFFERED_PAGES_PER_SEGMENT;
+    private int maxThreads = DEFAULT_MAX_THREADS;
+    private CapacityGovernor capacityGovernor;
+
+    /** The progress of the scan, which covers only the pages iterated over. */
+    private final ParallelScanCheckpoint checkpoint;
+
+    /** The scan of each segment; guarded by this iterator. */
+    private List<Segment> segments;
+    /** The pages returned and not yet iterated over, in the order they arrived. */
+    private final LinkedList<Page> pages = new LinkedList<Page>();
+    private Throwable failure;
+    private boolean closed;
+
+    private ThreadPoolExecutor executor;
+
+    /** The page being iterated over, which is no longer in {@link #pages}. */
+    private Page page;
+    private Iterator<T> items = Collections.<T>emptyList().iterator();
+
+    /**
+     * @param dynamo
+     *            the client to scan with
+     * @param scanRequest
+     *            the request each segment is scanned with; its segment, total
+     *            segments and exclusive start key are ignored
+     * @param totalSegments
+     *            the number of segments to scan in parallel
+     */
+    protected ParallelScanIterator(AmazonDynamoDB dynamo, ScanRequest scanRequest, int totalSegments) {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("Parallel scan should have at least one scan segment.");
+        }
+        this.dynamo = dynamo;
+        this.scanRequest = scanRequest;
+        this.totalSegments = totalSegments;
+        this.checkpoint = new ParallelScanCheckpoint(totalSegments);
+    }
+
+    /**
+     * Converts the items of a page to the items returned.
+     */
+    protected abstract List<T> convert(List<Map<String, AttributeValue>> items);
+
+    /**
+     * Sets the maximum number of pages each segment holds in memory, counting
+     * the page being iterated over, and the page being requested.
+     */
+    public ParallelScanIterator<T> withMaxBufferedPagesPerSegment(int maxBufferedPagesPerSegment) {
+        if (maxBufferedPagesPerSegment < 1) {
+            throw new IllegalArgumentException("Each segment should buffer at least one page.");
+        }
+        checkNotStarted();
+        this.maxBufferedPagesPerSegment = maxBufferedPagesPerSegment;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of threads that make the scan requests, which
+     * is also the maximum number of requests in flight.
+     */
+    public ParallelScanIterator<T> withMaxThreads(int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("Parallel scan should have at least one thread.");
+        }
+        checkNotStarted();
+        this.maxThreads = maxThreads;
+        return this;
+    }
+
+    /**
+     * Caps the read capacity units consumed by the scan per second, averaged
+     * over the scan; zero for no cap. Unless the scan request asks for the
+     * consumed capacity already, it asks for the total consumed capacity.
+     * This replaces any capacity governor of the scan.
+     */
+    public ParallelScanIterator<T> withMaxReadCapacityPerSecond(double maxReadCapacityPerSecond) {
+        return withCapacityGovernor(maxReadCapacityPerSecond == 0 ? null
+                : new CapacityRateLimiter().withReadCapacityPerSecond(maxReadCapacityPerSecond));
+    }
+
+    /**
+     * Sets the governor which paces the scan requests of every segment; null
+     * for none.
+     */
+    public ParallelScanIterator<T> withCapacityGovernor(CapacityGovernor capacityGovernor) {
+        checkNotStarted();
+        this.capacityGovernor = capacityGovernor;
+        return this;
+    }
+
+    /**
+     * Resumes the scan from the given checkpoint: the completed segments are
+     * skipped, and the others start after their last page returned.
+     */
+    public ParallelScanIterator<T> withCheckpoint(ParallelScanCheckpoint checkpoint) {
+        if (checkpoint.getTotalSegments() != totalSegments) {
+            throw new IllegalArgumentException("The checkpoint has " + checkpoint.getTotalSegments()
+                    + " segments, but the scan has " + totalSegments + ".");
+        }
+        checkNotStarted();
+        synchronized (checkpoint) {
+            for (int segment = 0; segment < totalSegments; segment++) {
+                this.checkpoint.setExclusiveStartKey(segment, checkpoint.getExclusiveStartKey(segment));
+                this.checkpoint.setCompleted(segment, checkpoint.isCompleted(segment));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns a copy of the progress of the scan, which covers the pages
+     * completely iterated over.
+     */
+    public ParallelScanCheckpoint getCheckpoint() {
+        return new ParallelScanCheckpoint(checkpoint);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!items.hasNext()) {
+            Page next = takePage();
+            if (next == null) {
+                return false;
+            }
+            page = next;
+            items = convert(next.result.getItems()).iterator();
+            if (!items.hasNext()) {
+                pageIterated();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T item = items.next();
+        if (!items.hasNext()) {
+            pageIterated();
+        }
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops the scan; the pages not yet iterated over are discarded.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        pages.clear();
+        items = Collections.<T>emptyList().iterator();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        notifyAll();
+    }
+
+    private synchronized void checkNotStarted() {
+        if (segments != null || closed) {
+            throw new IllegalStateException("The parallel scan has already started.");
+        }
+    }
+
+    /**
+     * Returns the next page to iterate over, waiting for one to arrive, or
+     * null if the scan has completed or is closed.
+     */
+    private synchronized Page takePage() {
+        if (segments == null && !closed) {
+            start();
+        }
+        try {
+            for (;;) {
+                if (failure != null) {
+                    close();
+                    throw toClientException(failure);
+                } else if (!pages.isEmpty()) {
+                    return pages.removeFirst();
+                } else if (closed || isScanned()) {
+                    close();
+                    return null;
+                }
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new AmazonClientException("Parallel scan interrupted by other thread.", e);
+        }
+    }
+
+    /**
+     * Records the page being iterated over as iterated over, and resumes its
+     * segment if it was held back by the page.
+     */
+    private synchronized void pageIterated() {
+        if (page == null) {
+            return;
+        }
+        Map<String, AttributeValue> lastEvaluatedKey = page.result.getLastEvaluatedKey();
+        checkpoint.setExclusiveStartKey(page.segment.segment, lastEvaluatedKey);
+        checkpoint.setCompleted(page.segment.segment, lastEvaluatedKey == null);
+        page.segment.bufferedPages--;
+        if (!closed) {
+            page.segment.scanNextPage();
+        }
+        page = null;
+    }
+
+    private void start() {
+        executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+        // Threads of an iterator that is neither iterated to its end nor closed
+        executor.allowCoreThreadTimeOut(true);
+        segments = new ArrayList<Segment>(totalSegments);
+        for (int i = 0; i < totalSegments; i++) {
+            Segment segment = new Segment(i);
+            segment.scanned = checkpoint.isCompleted(i);
+            segment.exclusiveStartKey = checkpoint.getExclusiveStartKey(i);
+            segments.add(segment);
+            segment.scanNextPage();
+        }
+    }
+
+    private boolean isScanned() {
+        for (Segment segment : segments) {
+            if (!segment.scanned || segment.inFlight) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static AmazonClientException toClientException(Throwable failure) {
+        if (failure instanceof AmazonClientException) {
+            return (AmazonClientException) failure;
+        }
+        return new AmazonClientException("Error during the parallel scan.", failure);
+    }
+
+    /**
+     * The scan of a segment, which requests its next page as long as it
+     * holds fewer pages than allowed. Guarded by the iterator.
+     */
+    private final class Segment implements Runnable {
+        private final int segment;
+        private Map<String, AttributeValue> exclusiveStartKey;
+        private boolean scanned;
+        private boolean inFlight;
+        /** The pages returned and not completely iterated over. */
+        private int bufferedPages;
+
+        private Segment(int segment) {
+            this.segment = segment;
+        }
+
+        /**
+         * Requests the next page of the segment, unless it is scanned, or
+         * holds as many pages as allowed.
+         */
+        private void scanNextPage() {
+            if (!scanned && !inFlight && bufferedPages < maxBufferedPagesPerSegment) {
+                inFlight = true;
+                bufferedPages++;
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                pageScanned(CapacityGovernors.scan(dynamo, newScanRequest(), capacityGovernor));
+            } catch (Throwable t) {
+                failed(t);
+            }
+        }
+
+        private ScanRequest newScanRequest() {
+            ScanRequest request = scanRequest.clone()
+                    .withSegment(segment)
+                    .withTotalSegments(totalSegments);
+            synchronized (ParallelScanIterator.this) {
+                request.setExclusiveStartKey(exclusiveStartKey);
+            }
+            return request;
+        }
+
+        private void pageScanned(ScanResult result) {
+            synchronized (ParallelScanIterator.this) {
+                inFlight = false;
+                exclusiveStartKey = result.getLastEvaluatedKey();
+                scanned = exclusiveStartKey == null;
+                if (!closed) {
+                    pages.addLast(new Page(this, result));
+                    scanNextPage();
+                }
+                ParallelScanIterator.this.notifyAll();
+            }
+        }
+
+        private void failed(Throwable t) {
+            synchronized (ParallelScanIterator.this) {
+                inFlight = false;
+                if (failure == null && !closed) {
+                    failure = t;
+                }
+                ParallelScanIterator.this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A page returned from a segment.
+     */
+    private final class Page {
+        private final Segment segment;
+        private final ScanResult result;
+
+        private Page(Segment segment, ScanResult result) {
+            this.segment = segment;
+            this.result = result;
+        }
+    }
+}
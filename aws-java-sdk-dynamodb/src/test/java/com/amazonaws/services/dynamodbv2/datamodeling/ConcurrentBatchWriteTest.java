@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.BatchWriteRetryStrategy;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+public class ConcurrentBatchWriteTest {
+
+    private static final int CONCURRENCY = 4;
+    private static final String TABLE_NAME = "tableName";
+    private static final String HASH_ATTR = "hash";
+
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final AtomicInteger maxRequestsInFlight = new AtomicInteger();
+    private final Map<String, Integer> writeCounts = new HashMap<String, Integer>();
+    private final List<Integer> batchSizes = new ArrayList<Integer>();
+
+    private AmazonDynamoDB ddbMock;
+
+    @Before
+    public void setup() {
+        ddbMock = createMock(AmazonDynamoDB.class);
+        // Thread-safe mocks serialize the calls
+        EasyMock.makeThreadSafe(ddbMock, false);
+    }
+
+    @Test
+    public void testBatchesWrittenConcurrently() {
+        expectBatchWriteItem(Collections.<String>emptySet());
+        replay(ddbMock);
+
+        List<FailedBatch> failedBatches = newMapper(10).batchSave(items(100));
+
+        Assert.assertEquals(0, failedBatches.size());
+        Assert.assertEquals(100, writeCounts.size());
+        Assert.assertEquals(Collections.singleton(1), new HashSet<Integer>(writeCounts.values()));
+        Assert.assertEquals(4, batchSizes.size());
+        Assert.assertTrue("max in flight: " + maxRequestsInFlight, maxRequestsInFlight.get() > 1);
+        Assert.assertTrue("max in flight: " + maxRequestsInFlight, maxRequestsInFlight.get() <= CONCURRENCY);
+    }
+
+    @Test
+    public void testUnprocessedItemsRetriedByLaterBatches() {
+        expectBatchWriteItem(new HashSet<String>(Arrays.asList("3", "42", "77")));
+        replay(ddbMock);
+
+        List<FailedBatch> failedBatches = newMapper(10).batchSave(items(100));
+
+        Assert.assertEquals(0, failedBatches.size());
+        Assert.assertEquals(100, writeCounts.size());
+        Assert.assertEquals(Integer.valueOf(2), writeCounts.get("42"));
+        Assert.assertEquals(Integer.valueOf(1), writeCounts.get("43"));
+        int written = 0;
+        for (int size : batchSizes) {
+            written += size;
+        }
+        Assert.assertEquals(103, written);
+    }
+
+    @Test
+    public void testUnprocessedItemsFailAfterMaxRetries() {
+        expectBatchWriteItem(Collections.singleton("42"));
+        replay(ddbMock);
+
+        List<FailedBatch> failedBatches = newMapper(0).batchSave(items(100));
+
+        Assert.assertEquals(1, failedBatches.size());
+        Assert.assertNull(failedBatches.get(0).getException());
+        List<WriteRequest> unprocessed = failedBatches.get(0).getUnprocessedItems().get(TABLE_NAME);
+        Assert.assertEquals(1, unprocessed.size());
+        Assert.assertEquals("42", unprocessed.get(0).getPutRequest().getItem().get(HASH_ATTR).getS());
+        Assert.assertEquals(100, writeCounts.size());
+    }
+
+    /**
+     * Expects any number of BatchWriteItem requests, each leaving the items
+     * with the given hash keys unprocessed the first time they are written.
+     */
+    private void expectBatchWriteItem(final Set<String> unprocessedOnce) {
+        expect(ddbMock.batchWriteItem(isA(BatchWriteItemRequest.class))).andAnswer(
+                new IAnswer<BatchWriteItemResult>() {
+                    @Override
+                    public BatchWriteItemResult answer() throws Throwable {
+                        BatchWriteItemRequest request = (BatchWriteItemRequest) EasyMock.getCurrentArguments()[0];
+                        int inFlight = requestsInFlight.incrementAndGet();
+                        synchronized (maxRequestsInFlight) {
+                            maxRequestsInFlight.set(Math.max(maxRequestsInFlight.get(), inFlight));
+                        }
+                        Thread.sleep(50);
+                        requestsInFlight.decrementAndGet();
+
+                        List<WriteRequest> unprocessed = new ArrayList<WriteRequest>();
+                        synchronized (writeCounts) {
+                            List<WriteRequest> writes = request.getRequestItems().get(TABLE_NAME);
+                            batchSizes.add(writes.size());
+                            for (WriteRequest write : writes) {
+                                String hash = write.getPutRequest().getItem().get(HASH_ATTR).getS();
+                                Integer count = writeCounts.get(hash);
+                                writeCounts.put(hash, count == null ? 1 : count + 1);
+                                if (count == null && unprocessedOnce.contains(hash)) {
+                                    unprocessed.add(write);
+                                }
+                            }
+                        }
+                        return new BatchWriteItemResult().withUnprocessedItems(unprocessed.isEmpty()
+                                ? Collections.<String, List<WriteRequest>>emptyMap()
+                                : Collections.singletonMap(TABLE_NAME, unprocessed));
+                    }
+                }).anyTimes();
+    }
+
+    private DynamoDBMapper newMapper(final int maxRetry) {
+        return new DynamoDBMapper(ddbMock, new DynamoDBMapperConfig.Builder()
+                .withBatchWriteConcurrency(CONCURRENCY)
+                .withBatchWriteRetryStrategy(new BatchWriteRetryStrategy() {
+                    @Override
+                    public int getMaxRetryOnUnprocessedItems(Map<String, List<WriteRequest>> batchWriteItemInput) {
+                        return maxRetry;
+                    }
+
+                    @Override
+                    public long getDelayBeforeRetryUnprocessedItems(
+                            Map<String, List<WriteRequest>> unprocessedItems, int retriesAttempted) {
+                        return 0;
+                    }
+                })
+                .build());
+    }
+
+    private static List<Item> items(int count) {
+        List<Item> items = new ArrayList<Item>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(String.valueOf(i)));
+        }
+        return items;
+    }
+
+    @DynamoDBTable(tableName = TABLE_NAME)
+    public static class Item {
+
+        private String hash;
+
+        public Item(String hash) {
+            this.hash = hash;
+        }
+
+        @DynamoDBHashKey
+        @DynamoDBAttribute(attributeName = HASH_ATTR)
+        public String getHash() {
+            return hash;
+        }
+        public void setHash(String hash) {
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2016-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.AccessorStrategy;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.util.IOUtils;
+
+/**
+ * Tests that the generated accessors get and set the properties the same way
+ * as reflection does.
+ */
+public class StandardBeanAccessorsTest {
+
+    private static final DynamoDBMapperModelFactory factory = StandardModelFactories.of(S3Link.Factory.of(null));
+
+    private static <T> DynamoDBMapperTableModel<T> model(Class<T> clazz, AccessorStrategy strategy) {
+        final DynamoDBMapperConfig config = new DynamoDBMapperConfig.Builder()
+            .withTypeConverterFactory(DynamoDBMapperConfig.DEFAULT.getTypeConverterFactory())
+            .withAccessorStrategy(strategy)
+            .build();
+        return factory.getTableFactory(config).getTable(clazz);
+    }
+
+    private static Item newItem() {
+        final Item item = new Item();
+        item.setId("id");
+        item.setFlag(true);
+        item.setSmall((byte)7);
+        item.setLetter('x');
+        item.setShortNumber((short)300);
+        item.setNumber(42);
+        item.setBig(1L << 40);
+        item.setRatio(0.5f);
+        item.setAmount(12.25d);
+        item.setBoxed(17L);
+        item.setData(new byte[] {1, 2});
+        item.setFluent("fluent");
+        final Range range = new Range();
+        range.setStart(1);
+        range.setEnd(2);
+        item.setRange(range);
+        return item;
+    }
+
+    @Test
+    public void testConvert() {
+        final Item item = newItem();
+        final Map<String,AttributeValue> reflected = model(Item.class, AccessorStrategy.REFLECTION).convert(item);
+        final Map<String,AttributeValue> generated = model(Item.class, AccessorStrategy.GENERATED).convert(item);
+        assertEquals(reflected, generated);
+        assertEquals("42", generated.get("number").getN());
+        assertEquals("1", generated.get("rangeStart").getN());
+        assertEquals(null, generated.get("readOnly"));
+    }
+
+    @Test
+    public void testUnconvert() {
+        final Map<String,AttributeValue> values = model(Item.class, AccessorStrategy.REFLECTION).convert(newItem());
+        final Item reflected = model(Item.class, AccessorStrategy.REFLECTION).unconvert(values);
+        final Item generated = model(Item.class, AccessorStrategy.GENERATED).unconvert(values);
+        assertEquals(reflected.toString(), generated.toString());
+        assertEquals(newItem().toString(), generated.toString());
+    }
+
+    @Test
+    public void testNullValues() {
+        final Item item = new Item();
+        item.setId("id");
+        final DynamoDBMapperTableModel<Item> model = model(Item.class, AccessorStrategy.GENERATED);
+        assertEquals(model(Item.class, AccessorStrategy.REFLECTION).convert(item), model.convert(item));
+        assertNull(model.field("boxed").get(item));
+        assertNull(model.field("rangeStart").get(item));
+
+        model.field("boxed").set(item, null);
+        assertNull(item.getBoxed());
+        try {
+            model.field("number").set(item, null);
+            fail("expected DynamoDBMappingException");
+        } catch (final DynamoDBMappingException expected) {
+        }
+    }
+
+    @Test
+    public void testGeneratedOnlyWhereAccessible() throws Exception {
+        assertNotNull(StandardBeanAccessors.of(Item.class.getMethod("getNumber"), Item.class.getMethod("setNumber", int.class)));
+        assertNotNull(StandardBeanAccessors.of(Item.class.getMethod("getBig"), Item.class.getMethod("setBig", long.class)));
+        assertNotNull(StandardBeanAccessors.of(Item.class.getMethod("getFluent"), Item.class.getMethod("setFluent", String.class)));
+        assertNotNull(StandardBeanAccessors.of(Item.class.getMethod("getReadOnly"), null));
+        assertNull(StandardBeanAccessors.of(HiddenItem.class.getMethod("getId"), HiddenItem.class.getMethod("setId", String.class)));
+
+        final HiddenItem item = new HiddenItem();
+        item.setId("id");
+        final DynamoDBMapperTableModel<HiddenItem> model = model(HiddenItem.class, AccessorStrategy.GENERATED);
+        assertEquals("id", model.convert(item).get("id").getS());
+    }
+
+    @Test
+    public void testClassLoaderNotRetained() throws Exception {
+        ClassLoader loader = new RedefiningLoader(Range.class);
+        Class<?> clazz = loader.loadClass(Range.class.getName());
+        assertNotSame(Range.class, clazz);
+        Object accessor = StandardBeanAccessors.of(clazz.getMethod("getStart"), clazz.getMethod("setStart", Integer.class));
+        assertNotNull(accessor);
+
+        final WeakReference<ClassLoader> reference = new WeakReference<ClassLoader>(loader);
+        loader = null;
+        clazz = null;
+        accessor = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull("class loader should not be retained by the accessor cache", reference.get());
+    }
+
+    /**
+     * Defines its own copy of a class, loading every other class from its
+     * parent, as a redeployed application would.
+     */
+    private static final class RedefiningLoader extends ClassLoader {
+        private final Class<?> clazz;
+
+        private RedefiningLoader(Class<?> clazz) {
+            super(clazz.getClassLoader());
+            this.clazz = clazz;
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(clazz.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                try {
+                    final byte[] bytes = IOUtils.toByteArray(getParent().getResourceAsStream(name.replace('.', '/') + ".class"));
+                    loaded = defineClass(name, bytes, 0, bytes.length);
+                } catch (final IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+            return loaded;
+        }
+    }
+
+    @DynamoDBTable(tableName="test")
+    public static class Item {
+        private String id;
+        private boolean flag;
+        private byte small;
+        private char letter;
+        private short shortNumber;
+        private int number;
+        private long big;
+        private float ratio;
+        private double amount;
+        private Long boxed;
+        private byte[] data;
+        private String fluent;
+        private Range range;
+
+        @DynamoDBHashKey
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public boolean isFlag() { return flag; }
+        public void setFlag(boolean flag) { this.flag = flag; }
+        public byte getSmall() { return small; }
+        public void setSmall(byte small) { this.small = small; }
+        public char getLetter() { return letter; }
+        public void setLetter(char letter) { this.letter = letter; }
+        public short getShortNumber() { return shortNumber; }
+        public void setShortNumber(short shortNumber) { this.shortNumber = shortNumber; }
+        public int getNumber() { return number; }
+        public void setNumber(int number) { this.number = number; }
+        public long getBig() { return big; }
+        public void setBig(long big) { this.big = big; }
+        public float getRatio() { return ratio; }
+        public void setRatio(float ratio) { this.ratio = ratio; }
+        public double getAmount() { return amount; }
+        public void setAmount(double amount) { this.amount = amount; }
+        public Long getBoxed() { return boxed; }
+        public void setBoxed(Long boxed) { this.boxed = boxed; }
+        public byte[] getData() { return data; }
+        public void setData(byte[] data) { this.data = data; }
+        public String getFluent() { return fluent; }
+        public Item setFluent(String fluent) { this.fluent = fluent; return this; }
+        @DynamoDBIgnore
+        public String getReadOnly() { return "read-only"; }
+        @DynamoDBFlattened(attributes={
+            @DynamoDBAttribute(mappedBy="start", attributeName="rangeStart"),
+            @DynamoDBAttribute(mappedBy="end", attributeName="rangeEnd")})
+        public Range getRange() { return range; }
+        public void setRange(Range range) { this.range = range; }
+
+        @Override
+        public String toString() {
+            return Arrays.asList(id, flag, small, letter, shortNumber, number, big, ratio, amount, boxed,
+                Arrays.toString(data), fluent, range).toString();
+        }
+    }
+
+    public static class Range {
+        private Integer start;
+        private Integer end;
+
+        public Integer getStart() { return start; }
+        public void setStart(Integer start) { this.start = start; }
+        public Integer getEnd() { return end; }
+        public void setEnd(Integer end) { this.end = end; }
+
+        @Override
+        public String toString() {
+            return start + ".." + end;
+        }
+    }
+
+    @DynamoDBTable(tableName="test")
+    static class HiddenItem {
+        private String id;
+
+        @DynamoDBHashKey
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+    }
+
+}
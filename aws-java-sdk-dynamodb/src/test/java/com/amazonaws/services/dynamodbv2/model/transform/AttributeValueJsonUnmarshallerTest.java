@@ -0,0 +1,112 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.model.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.protocol.json.SdkStructuredPlainJsonFactory;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.transform.JsonUnmarshallerContext;
+import com.amazonaws.transform.JsonUnmarshallerContextImpl;
+import com.amazonaws.util.StringUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Tests that the attribute values read straight from the parser are the same
+ * as those read through the unmarshaller context.
+ */
+public class AttributeValueJsonUnmarshallerTest {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String QUERY_RESULT = "{\"Items\":["
+            + "{\"id\":{\"S\":\"a\"},\"count\":{\"N\":\"42\"},\"data\":{\"B\":\"AQI=\"},"
+            + "\"active\":{\"BOOL\":true},\"none\":{\"NULL\":true},"
+            + "\"tags\":{\"SS\":[\"x\",\"y\"]},\"scores\":{\"NS\":[\"1\",\"2.5\"]},\"blobs\":{\"BS\":[\"AQI=\"]},"
+            + "\"nested\":{\"M\":{\"inner\":{\"L\":[{\"S\":\"b\"},{\"M\":{}},{\"L\":[]},{\"N\":\"-1E+3\"}]},"
+            + "\"empty\":{\"SS\":[]}}},\"unknown\":{\"X\":{\"S\":\"skipped\"}}},"
+            + "{\"id\":{\"S\":\"c\"}}],"
+            + "\"Count\":2,\"ScannedCount\":3,"
+            + "\"LastEvaluatedKey\":{\"id\":{\"S\":\"c\"}},"
+            + "\"ConsumedCapacity\":{\"TableName\":\"table\",\"CapacityUnits\":1.5}}";
+
+    private static QueryResult unmarshall(String json, final boolean streaming) throws Exception {
+        final JsonParser parser = JSON_FACTORY.createParser(StringUtils.UTF8.encode(json).array());
+        JsonUnmarshallerContext context = new JsonUnmarshallerContextImpl(parser,
+                SdkStructuredPlainJsonFactory.JSON_SCALAR_UNMARSHALLERS, null) {
+            @Override
+            public JsonParser getJsonParser() {
+                return streaming ? super.getJsonParser() : null;
+            }
+        };
+        return QueryResultJsonUnmarshaller.getInstance().unmarshall(context);
+    }
+
+    @Test
+    public void testStreamingMatchesContext() throws Exception {
+        final QueryResult expected = unmarshall(QUERY_RESULT, false);
+        final QueryResult actual = unmarshall(QUERY_RESULT, true);
+        assertEquals(expected, actual);
+        assertEquals(2, actual.getItems().size());
+        assertEquals(Integer.valueOf(2), actual.getCount());
+        assertEquals(Integer.valueOf(3), actual.getScannedCount());
+        assertEquals(Double.valueOf(1.5), actual.getConsumedCapacity().getCapacityUnits());
+        assertEquals(Collections.singletonMap("id", new AttributeValue("c")), actual.getLastEvaluatedKey());
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        final Map<String, AttributeValue> item = unmarshall(QUERY_RESULT, true).getItems().get(0);
+        assertEquals("a", item.get("id").getS());
+        assertEquals("42", item.get("count").getN());
+        assertEquals(ByteBuffer.wrap(new byte[] {1, 2}), item.get("data").getB());
+        assertEquals(Boolean.TRUE, item.get("active").getBOOL());
+        assertEquals(Boolean.TRUE, item.get("none").getNULL());
+        assertEquals(Arrays.asList("x", "y"), item.get("tags").getSS());
+        assertEquals(Arrays.asList("1", "2.5"), item.get("scores").getNS());
+        assertEquals(Arrays.asList(ByteBuffer.wrap(new byte[] {1, 2})), item.get("blobs").getBS());
+
+        final Map<String, AttributeValue> nested = item.get("nested").getM();
+        assertEquals(Arrays.asList(new AttributeValue("b"),
+                new AttributeValue().withM(Collections.<String, AttributeValue>emptyMap()),
+                new AttributeValue().withL(Collections.<AttributeValue>emptyList()),
+                new AttributeValue().withN("-1E+3")), nested.get("inner").getL());
+        assertEquals(Collections.emptyList(), nested.get("empty").getSS());
+        assertEquals(new AttributeValue(), item.get("unknown"));
+    }
+
+    @Test
+    public void testNulls() throws Exception {
+        final String json = "{\"Items\":[{\"a\":null,\"b\":{\"S\":null},\"c\":{\"L\":[null]},\"d\":{\"M\":null}}],\"Count\":1}";
+        final QueryResult result = unmarshall(json, true);
+        assertEquals(unmarshall(json, false), result);
+        final Map<String, AttributeValue> item = result.getItems().get(0);
+        assertNull(item.get("a"));
+        assertEquals(new AttributeValue(), item.get("b"));
+        assertEquals(Arrays.asList((AttributeValue) null), item.get("c").getL());
+        assertNull(item.get("d").getM());
+        assertEquals(Integer.valueOf(1), result.getCount());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CapacityRateLimiterTest {
+
+    @Test
+    public void readsArePacedPerTable() {
+        CapacityRateLimiter limiter = new CapacityRateLimiter()
+                .withReadCapacityPerSecond("A", 1000);
+
+        limiter.acquireRead("A", null);
+        limiter.consumedRead("A", null, capacity("A", 200));
+        assertTrue(elapsedMillisToAcquireRead(limiter, "A", null) >= 150);
+        // Other tables have no budget
+        limiter.consumedRead("B", null, capacity("B", 200));
+        assertTrue(elapsedMillisToAcquireRead(limiter, "B", null) < 100);
+    }
+
+    @Test
+    public void indexReadsCountAgainstTheirTableUnlessBudgeted() {
+        CapacityRateLimiter limiter = new CapacityRateLimiter()
+                .withReadCapacityPerSecond(1000)
+                .withReadCapacityPerSecond("A", "budgeted", 10000);
+
+        limiter.consumedRead("A", "unbudgeted", capacity("A", 200));
+        assertTrue(elapsedMillisToAcquireRead(limiter, "A", null) >= 150);
+
+        limiter.consumedRead("A", "budgeted", capacity("A", 200));
+        assertTrue(elapsedMillisToAcquireRead(limiter, "A", "budgeted") < 100);
+    }
+
+    @Test
+    public void writesArePacedSeparatelyFromReads() {
+        CapacityRateLimiter limiter = new CapacityRateLimiter()
+                .withReadCapacityPerSecond(1000)
+                .withWriteCapacityPerSecond("A", 1000);
+
+        limiter.consumedWrite("A", capacity("A", 200));
+        assertTrue(elapsedMillisToAcquireRead(limiter, "A", null) < 100);
+        long start = System.nanoTime();
+        limiter.acquireWrite("A");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+    }
+
+    @Test
+    public void consumedCapacityIsTrackedPerTableAndIndex() {
+        CapacityRateLimiter limiter = new CapacityRateLimiter();
+        limiter.consumedRead("A", null, capacity("A", 1.5));
+        limiter.consumedRead("A", null, capacity("A", 2));
+        limiter.consumedRead("A", "index", capacity("A", 4));
+        limiter.consumedRead("A", null, null);
+        limiter.consumedWrite("A", capacity("A", 8));
+
+        assertEquals(3.5, limiter.getConsumedReadCapacity("A"), 0);
+        assertEquals(4, limiter.getConsumedReadCapacity("A", "index"), 0);
+        assertEquals(8, limiter.getConsumedWriteCapacity("A"), 0);
+        assertEquals(0, limiter.getConsumedReadCapacity("B"), 0);
+    }
+
+    @Test
+    public void requestsAskForConsumedCapacity() {
+        AmazonDynamoDB dynamoDB = mock(AmazonDynamoDB.class);
+        when(dynamoDB.scan(any(ScanRequest.class))).thenReturn(
+                new ScanResult().withConsumedCapacity(capacity("A", 3)));
+        when(dynamoDB.query(any(QueryRequest.class))).thenReturn(
+                new QueryResult().withConsumedCapacity(capacity("A", 5)));
+        when(dynamoDB.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(
+                new BatchWriteItemResult().withConsumedCapacity(Arrays.asList(capacity("A", 7), capacity("B", 9))));
+        CapacityRateLimiter limiter = new CapacityRateLimiter();
+
+        ScanRequest scanRequest = new ScanRequest("A");
+        CapacityGovernors.scan(dynamoDB, scanRequest, limiter);
+        assertEquals(ReturnConsumedCapacity.TOTAL.toString(), scanRequest.getReturnConsumedCapacity());
+
+        QueryRequest queryRequest = new QueryRequest("A").withIndexName("index")
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+        CapacityGovernors.query(dynamoDB, queryRequest, limiter);
+        assertEquals(ReturnConsumedCapacity.INDEXES.toString(), queryRequest.getReturnConsumedCapacity());
+
+        CapacityGovernors.batchWriteItem(dynamoDB, new BatchWriteItemRequest()
+                .addRequestItemsEntry("A", Collections.<WriteRequest>emptyList())
+                .addRequestItemsEntry("B", Collections.<WriteRequest>emptyList()), limiter);
+
+        assertEquals(3, limiter.getConsumedReadCapacity("A"), 0);
+        assertEquals(5, limiter.getConsumedReadCapacity("A", "index"), 0);
+        assertEquals(7, limiter.getConsumedWriteCapacity("A"), 0);
+        assertEquals(9, limiter.getConsumedWriteCapacity("B"), 0);
+
+        ScanRequest ungoverned = new ScanRequest("A");
+        CapacityGovernors.scan(dynamoDB, ungoverned, null);
+        assertEquals(null, ungoverned.getReturnConsumedCapacity());
+    }
+
+    private static long elapsedMillisToAcquireRead(CapacityGovernor governor, String tableName, String indexName) {
+        long start = System.nanoTime();
+        governor.acquireRead(tableName, indexName);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static ConsumedCapacity capacity(String tableName, double capacityUnits) {
+        return new ConsumedCapacity().withTableName(tableName).withCapacityUnits(capacityUnits);
+    }
+}
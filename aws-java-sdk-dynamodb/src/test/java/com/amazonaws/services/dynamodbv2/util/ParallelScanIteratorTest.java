@@ -0,0 +1,212 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelScanIteratorTest {
+
+    private static final int TOTAL_SEGMENTS = 4;
+    private static final int PAGES_PER_SEGMENT = 5;
+    private static final int ITEMS_PER_PAGE = 3;
+
+    private AmazonDynamoDB dynamoDB;
+    private Table table;
+
+    @Before
+    public void setup() {
+        dynamoDB = mock(AmazonDynamoDB.class);
+        table = new Table();
+        when(dynamoDB.scan(any(ScanRequest.class))).thenAnswer(table);
+    }
+
+    @Test
+    public void iteratesOverEveryItemOnce() {
+        ParallelScanIterator<String> iterator = newIterator();
+        List<String> items = drain(iterator, Integer.MAX_VALUE);
+
+        assertEquals(allItems().size(), items.size());
+        assertEquals(allItems(), new HashSet<String>(items));
+        assertTrue(iterator.getCheckpoint().isCompleted());
+        // An abandoned iterator must not keep the JVM alive
+        assertTrue(table.scannedOnDaemonThreads);
+    }
+
+    @Test
+    public void segmentsStopAtMaxBufferedPages() throws InterruptedException {
+        ParallelScanIterator<String> iterator = newIterator().withMaxBufferedPagesPerSegment(2);
+        assertTrue(iterator.hasNext());
+        // Give the segments the time to request more pages than allowed
+        Thread.sleep(200);
+        for (int segment = 0; segment < TOTAL_SEGMENTS; segment++) {
+            assertTrue(table.requestedPages.get(segment) <= 2);
+        }
+
+        assertEquals(allItems().size(), drain(iterator, Integer.MAX_VALUE).size());
+        for (int segment = 0; segment < TOTAL_SEGMENTS; segment++) {
+            assertEquals(PAGES_PER_SEGMENT, table.requestedPages.get(segment));
+        }
+    }
+
+    @Test
+    public void resumesFromCheckpoint() {
+        ParallelScanIterator<String> iterator = newIterator().withMaxBufferedPagesPerSegment(1);
+        Set<String> items = new HashSet<String>(drain(iterator, 20));
+        iterator.close();
+        assertFalse(iterator.hasNext());
+
+        ParallelScanCheckpoint checkpoint = iterator.getCheckpoint();
+        assertFalse(checkpoint.isCompleted());
+        List<String> resumed = drain(newIterator().withCheckpoint(checkpoint), Integer.MAX_VALUE);
+        items.addAll(resumed);
+
+        assertEquals(allItems(), items);
+        // Only the pages not completely iterated over are scanned again
+        assertTrue(resumed.size() <= allItems().size() - 20 + TOTAL_SEGMENTS * ITEMS_PER_PAGE);
+    }
+
+    @Test
+    public void failedSegmentFailsTheIteration() {
+        table.failingSegment = 2;
+        ParallelScanIterator<String> iterator = newIterator();
+        try {
+            drain(iterator, Integer.MAX_VALUE);
+            fail("Expected ProvisionedThroughputExceededException");
+        } catch (ProvisionedThroughputExceededException expected) {
+        }
+        // The scan stays failed
+        try {
+            iterator.hasNext();
+            fail("Expected ProvisionedThroughputExceededException");
+        } catch (ProvisionedThroughputExceededException expected) {
+        }
+    }
+
+    @Test
+    public void readCapacityIsCapped() {
+        table.consumedCapacity = 50.0;
+        ParallelScanIterator<String> iterator = newIterator().withMaxReadCapacityPerSecond(2000);
+
+        long start = System.nanoTime();
+        assertEquals(allItems().size(), drain(iterator, Integer.MAX_VALUE).size());
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        // 20 pages of 50 units at 2000 units per second, less the first request of each segment
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis >= 400);
+        assertEquals(ReturnConsumedCapacity.TOTAL.toString(), table.returnConsumedCapacity);
+    }
+
+    private ParallelScanIterator<String> newIterator() {
+        return new ParallelScanIterator<String>(dynamoDB, new ScanRequest("table"), TOTAL_SEGMENTS) {
+            @Override
+            protected List<String> convert(List<Map<String, AttributeValue>> items) {
+                List<String> converted = new ArrayList<String>();
+                for (Map<String, AttributeValue> item : items) {
+                    converted.add(item.get("id").getS());
+                }
+                return converted;
+            }
+        };
+    }
+
+    private static List<String> drain(ParallelScanIterator<String> iterator, int maxItems) {
+        List<String> items = new ArrayList<String>();
+        while (items.size() < maxItems && iterator.hasNext()) {
+            items.add(iterator.next());
+        }
+        return items;
+    }
+
+    private static Set<String> allItems() {
+        Set<String> items = new HashSet<String>();
+        for (int segment = 0; segment < TOTAL_SEGMENTS; segment++) {
+            for (int page = 0; page < PAGES_PER_SEGMENT; page++) {
+                for (int item = 0; item < ITEMS_PER_PAGE; item++) {
+                    items.add(segment + "-" + page + "-" + item);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * A table of {@link #PAGES_PER_SEGMENT} pages per segment, whose last
+     * evaluated keys are the numbers of the pages.
+     */
+    private static class Table implements Answer<ScanResult> {
+        private final AtomicIntegerArray requestedPages = new AtomicIntegerArray(TOTAL_SEGMENTS);
+        private volatile int failingSegment = -1;
+        private volatile Double consumedCapacity;
+        private volatile String returnConsumedCapacity;
+        private volatile boolean scannedOnDaemonThreads = true;
+
+        @Override
+        public ScanResult answer(InvocationOnMock invocation) {
+            ScanRequest request = (ScanRequest) invocation.getArguments()[0];
+            assertEquals(TOTAL_SEGMENTS, request.getTotalSegments().intValue());
+            int segment = request.getSegment();
+            if (segment == failingSegment) {
+                throw new ProvisionedThroughputExceededException("Slow Down!");
+            }
+            requestedPages.incrementAndGet(segment);
+            scannedOnDaemonThreads &= Thread.currentThread().isDaemon();
+            returnConsumedCapacity = request.getReturnConsumedCapacity();
+
+            Map<String, AttributeValue> startKey = request.getExclusiveStartKey();
+            int page = startKey == null ? 0 : Integer.parseInt(startKey.get("page").getN()) + 1;
+            List<Map<String, AttributeValue>> items = new ArrayList<Map<String, AttributeValue>>();
+            for (int item = 0; item < ITEMS_PER_PAGE; item++) {
+                items.add(Collections.singletonMap("id",
+                        new AttributeValue(segment + "-" + page + "-" + item)));
+            }
+            ScanResult result = new ScanResult().withItems(items);
+            if (page + 1 < PAGES_PER_SEGMENT) {
+                result.setLastEvaluatedKey(Collections.singletonMap("page",
+                        new AttributeValue().withN(String.valueOf(page))));
+            }
+            if (consumedCapacity != null) {
+                result.setConsumedCapacity(new ConsumedCapacity().withCapacityUnits(consumedCapacity));
+            }
+            return result;
+        }
+    }
+}
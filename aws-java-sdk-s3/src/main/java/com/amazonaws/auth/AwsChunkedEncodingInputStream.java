@@ -20,7 +20,6 @@ import java.io.InputStream;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -45,7 +44,6 @@ public final class AwsChunkedEncodingInputStream extends SdkInputStream {
     private static final String CHUNK_STRING_TO_SIGN_PREFIX = "AWS4-HMAC-SHA256-PAYLOAD";
     private static final String CHUNK_SIGNATURE_HEADER = ";chunk-signature=";
     private static final int SIGNATURE_LENGTH = 64;
-    private static final byte[] FINAL_CHUNK = new byte[0];
 
     private InputStream is = null;
     private final int maxBufferSize;
@@ -61,6 +59,14 @@ public final class AwsChunkedEncodingInputStream extends SdkInputStream {
     /** Iterator on the current chunk that has been signed */
     private ChunkContentIterator currentChunkIterator;
 
+    /**
+     * The data of the current chunk and the signed chunk, which are reused for
+     * every chunk since a chunk is only set up once the previous one has been
+     * entirely read.
+     */
+    private final byte[] chunkData = new byte[DEFAULT_CHUNK_SIZE];
+    private final byte[] signedChunk = new byte[(int) calculateSignedChunkLength(DEFAULT_CHUNK_SIZE)];
+
     /**
      * Iterator on the buffer of the decoded stream,
      * Null if the wrapped stream is marksupported,
@@ -292,13 +298,13 @@ public final class AwsChunkedEncodingInputStream extends SdkInputStream {
      *         Returns true if next chunk is the last empty chunk.
      */
     private boolean setUpNextChunk() throws IOException {
-        byte[] chunkData = new byte[DEFAULT_CHUNK_SIZE];
         int chunkSizeInBytes = 0;
         while (chunkSizeInBytes < DEFAULT_CHUNK_SIZE) {
             /** Read from the buffer of the decoded stream */
             if (null != decodedStreamBuffer
                     && decodedStreamBuffer.hasNext()) {
-                chunkData[chunkSizeInBytes++] = decodedStreamBuffer.next();
+                chunkSizeInBytes += decodedStreamBuffer.next(chunkData,
+                        chunkSizeInBytes, DEFAULT_CHUNK_SIZE - chunkSizeInBytes);
             }
             /** Read from the wrapped stream */
             else {
@@ -313,25 +319,22 @@ public final class AwsChunkedEncodingInputStream extends SdkInputStream {
                     break;
             }
         }
-        if (chunkSizeInBytes == 0){
-            byte[] signedFinalChunk = createSignedChunk(FINAL_CHUNK);
-            currentChunkIterator = new ChunkContentIterator(signedFinalChunk);
-            return true;
-        }
-        else {
-            if (chunkSizeInBytes < chunkData.length) {
-                chunkData = Arrays.copyOf(chunkData, chunkSizeInBytes);
-            }
-            byte[] signedChunkContent = createSignedChunk(chunkData);
-            currentChunkIterator = new ChunkContentIterator(signedChunkContent);
-            return false;
-        }
+        int signedChunkLength = createSignedChunk(chunkSizeInBytes);
+        currentChunkIterator = new ChunkContentIterator(signedChunk, signedChunkLength);
+        // The last chunk is the empty one
+        return chunkSizeInBytes == 0;
     }
 
-    private byte[] createSignedChunk(byte[] chunkData) {
+    /**
+     * Signs the given number of bytes of the chunk data into the signed chunk
+     * buffer.
+     *
+     * @return the length of the signed chunk
+     */
+    private int createSignedChunk(int chunkSizeInBytes) {
         StringBuilder chunkHeader = new StringBuilder();
         // chunk-size
-        chunkHeader.append(Integer.toHexString(chunkData.length));
+        chunkHeader.append(Integer.toHexString(chunkSizeInBytes));
         // sig-extension
         final String chunkStringToSign =
                 CHUNK_STRING_TO_SIGN_PREFIX + "\n" +
@@ -339,7 +342,7 @@ public final class AwsChunkedEncodingInputStream extends SdkInputStream {
                 keyPath + "\n" +
                 priorChunkSignature + "\n" +
                 AbstractAWSSigner.EMPTY_STRING_SHA256_HEX + "\n" +
-                BinaryUtils.toHex(sha256.digest(chunkData));
+                BinaryUtils.toHex(digest(chunkSizeInBytes));
         final String chunkSignature =
             BinaryUtils.toHex(aws4Signer.signWithMac(chunkStringToSign, hmacSha256));
         priorChunkSignature = chunkSignature;
@@ -350,18 +353,22 @@ public final class AwsChunkedEncodingInputStream extends SdkInputStream {
         try {
             byte[] header = chunkHeader.toString().getBytes(UTF8);
             byte[] trailer = CRLF.getBytes(UTF8);
-            byte[] signedChunk = new byte[header.length + chunkData.length + trailer.length];
             System.arraycopy(header, 0, signedChunk, 0, header.length);
-            System.arraycopy(chunkData, 0, signedChunk, header.length, chunkData.length);
+            System.arraycopy(chunkData, 0, signedChunk, header.length, chunkSizeInBytes);
             System.arraycopy(trailer, 0,
-                    signedChunk, header.length + chunkData.length,
+                    signedChunk, header.length + chunkSizeInBytes,
                     trailer.length);
-            return signedChunk;
+            return header.length + chunkSizeInBytes + trailer.length;
         } catch (Exception e) {
             throw new AmazonClientException("Unable to sign the chunked data. " + e.getMessage(), e);
         }
     }
 
+    private byte[] digest(int chunkSizeInBytes) {
+        sha256.update(chunkData, 0, chunkSizeInBytes);
+        return sha256.digest();
+    }
+
     @Override
     protected InputStream getWrappedInputStream() {
         return is;
@@ -17,14 +17,24 @@ package com.amazonaws.auth;
 class ChunkContentIterator {
 
     private final byte[] signedChunk;
+    private final int signedChunkLength;
     private int pos;
 
     public ChunkContentIterator(byte[] signedChunk) {
+        this(signedChunk, signedChunk.length);
+    }
+
+    /**
+     * Iterates over the first length bytes of the given array, which may be a
+     * buffer reused for every chunk.
+     */
+    public ChunkContentIterator(byte[] signedChunk, int length) {
         this.signedChunk = signedChunk;
+        this.signedChunkLength = length;
     }
 
     public boolean hasNext() {
-        return pos < signedChunk.length;
+        return pos < signedChunkLength;
     }
 
     public int read(byte[] output, int offset, int length) {
@@ -32,7 +42,7 @@ class ChunkContentIterator {
             return 0;
         if ( !hasNext() )
             return -1;
-        int remaingBytesNum = signedChunk.length - pos;
+        int remaingBytesNum = signedChunkLength - pos;
         int bytesToRead = Math.min(remaingBytesNum, length);
         System.arraycopy(signedChunk, pos, output, offset, bytesToRead);
         pos += bytesToRead;
@@ -71,6 +71,19 @@ class DecodedStreamBuffer {
         return bufferArray[pos++];
     }
 
+    /**
+     * Copies up to length of the buffered bytes that have not been read yet to
+     * the given array.
+     *
+     * @return the number of bytes copied
+     */
+    public int next(byte[] dest, int destPos, int length) {
+        int count = Math.min(length, byteBuffered - pos);
+        System.arraycopy(bufferArray, pos, dest, destPos, count);
+        pos += count;
+        return count;
+    }
+
     public void startReadBuffer() {
         if (bufferSizeOverflow) {
             throw new AmazonClientException(
@@ -66,6 +66,7 @@ import com.amazonaws.services.s3.internal.InitiateMultipartUploadHeaderHandler;
 import com.amazonaws.services.s3.internal.InputSubstream;
 import com.amazonaws.services.s3.internal.ListPartsHeaderHandler;
 import com.amazonaws.services.s3.internal.MD5DigestCalculatingInputStream;
+import com.amazonaws.services.s3.internal.MappedFileInputStream;
 import com.amazonaws.services.s3.internal.Mimetypes;
 import com.amazonaws.services.s3.internal.MultiFileOutputStream;
 import com.amazonaws.services.s3.internal.ObjectExpirationHeaderHandler;
@@ -258,7 +259,6 @@ import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
-import static com.amazonaws.internal.ResettableInputStream.newResettableInputStream;
 import static com.amazonaws.services.s3.model.S3DataSource.Utils.cleanupDataSource;
 import static com.amazonaws.util.LengthCheckInputStream.EXCLUDE_SKIPPED_BYTES;
 import static com.amazonaws.util.LengthCheckInputStream.INCLUDE_SKIPPED_BYTES;
@@ -1470,13 +1470,34 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
         } else {
             // Always set the content length, even if it's already set
             metadata.setContentLength(file.length());
-            final boolean calculateMD5 = metadata.getContentMD5() == null;
             // Only set the content type if it hasn't already been set
             if (metadata.getContentType() == null) {
                 metadata.setContentType(Mimetypes.getInstance().getMimetype(file));
             }
-
-            if (calculateMD5 && !skipMd5CheckStrategy.skipServerSideValidation(putObjectRequest)) {
+            try {
+                input = newFileInputStream(file);
+            } catch (IOException e) {
+                throw new AmazonClientException("Unable to find file to upload", e);
+            }
+        }
+        final ProgressListener listener;
+        final ObjectMetadata returnedMetadata;
+        MD5DigestCalculatingInputStream md5DigestStream = null;
+        try {
+            Request<PutObjectRequest> request = createRequest(bucketName, key, putObjectRequest, HttpMethodName.PUT);
+            if (file != null && metadata.getContentMD5() == null
+                    && !skipMd5CheckStrategy.skipServerSideValidation(putObjectRequest)
+                    && (skipMd5CheckStrategy.skipClientSideValidationPerRequest(putObjectRequest)
+                        || !isPayloadChunkSigned(request, bucketName, key))) {
+                /*
+                 * Have Amazon S3 verify the integrity of the file via its
+                 * Content-MD5, at the cost of an extra pass over the file.
+                 * Signed chunks are verified by Amazon S3 as they are
+                 * received, so the MD5 is then calculated on the fly instead,
+                 * in the same pass as the chunk signatures, and validated
+                 * against the returned ETag; unless the ETag of the object
+                 * isn't its MD5, as with SSE-C and SSE-KMS.
+                 */
                 try {
                     String contentMd5_b64 = Md5Utils.md5AsBase64(file);
                     metadata.setContentMD5(contentMd5_b64);
@@ -1485,13 +1506,6 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                             "Unable to calculate MD5 hash: " + e.getMessage(), e);
                 }
             }
-            input = newResettableInputStream(file, "Unable to find file to upload");
-        }
-        final ProgressListener listener;
-        final ObjectMetadata returnedMetadata;
-        MD5DigestCalculatingInputStream md5DigestStream = null;
-        try {
-            Request<PutObjectRequest> request = createRequest(bucketName, key, putObjectRequest, HttpMethodName.PUT);
             // Make backward compatible with buffer size via system property
             final Integer bufsize = Constants.getS3StreamBufferSize();
             if (bufsize != null) {
@@ -1618,6 +1632,17 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
         return result;
     }
 
+    /**
+     * Opens a mark-and-resettable input stream over the given file to upload,
+     * which reads the file via memory mapping if enabled; skipping to the
+     * offset of a part of the file then doesn't read the bytes before it.
+     */
+    private InputStream newFileInputStream(File file) throws IOException {
+        return clientOptions.isMemoryMappedFileUploadsEnabled()
+             ? new MappedFileInputStream(file)
+             : new ResettableInputStream(file);
+    }
+
     private static PutObjectResult createPutObjectResult(ObjectMetadata metadata) {
         final PutObjectResult result = new PutObjectResult();
         result.setVersionId(metadata.getVersionId());
@@ -3000,7 +3025,7 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                 }
             } else {
                 try {
-                    isCurr = new ResettableInputStream(fileOrig);
+                    isCurr = newFileInputStream(fileOrig);
                 } catch(IOException e) {
                     throw new IllegalArgumentException("Failed to open file "
                             + fileOrig, e);
@@ -3282,6 +3307,18 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
     protected Signer createSigner(final Request<?> request,
                                   final String bucketName,
                                   final String key) {
+        return createSigner(request, bucketName, key, true);
+    }
+
+    /**
+     * Returns the signer for the given request; which, unless
+     * isRequestUpdated, is only chosen: neither the request nor the signer
+     * are then updated for the region of the bucket.
+     */
+    private Signer createSigner(final Request<?> request,
+                                final String bucketName,
+                                final String key,
+                                final boolean isRequestUpdated) {
         // Instead of using request.getEndpoint() for this parameter, we use endpoint which is because
         // in accelerate mode, the endpoint in request is regionless. We need the client-wide endpoint
         // to fetch the region information and pick the correct signer.
@@ -3294,6 +3331,9 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
 
                 String region = bucketRegionCache.get(bucketName);
                 if (region != null) {
+                     if (!isRequestUpdated) {
+                         return signer;
+                     }
                      // If cache contains the region for the bucket, create an endpoint for the region and
                      // update the request with that endpoint.
                      resolveRequestEndpoint(request, bucketName, key, RuntimeHttpUtils.toUri(RegionUtils.getRegion(region).getServiceEndpoint(S3_SERVICE_NAME), clientConfiguration));
@@ -3328,6 +3368,20 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
         return signer;
     }
 
+    /**
+     * Returns true if the payload of the given request will be signed chunk by
+     * chunk by the signer chosen for it, ie via SigV4 with payload signing
+     * enabled (as it always is over HTTP) and chunked encoding not disabled;
+     * so that Amazon S3 verifies the integrity of every chunk of the payload.
+     */
+    private boolean isPayloadChunkSigned(final Request<?> request,
+                                         final String bucketName,
+                                         final String key) {
+        final Signer signer = createSigner(request, bucketName, key, false);
+        return signer instanceof AWSS3V4Signer
+            && ((AWSS3V4Signer) signer).useChunkEncoding(request);
+    }
+
     private S3Signer createSigV2Signer(final Request<?> request,
                                        final String bucketName,
                                        final String key) {
@@ -45,6 +45,7 @@ public final class AmazonS3ClientBuilder extends
     private Boolean accelerateModeEnabled;
     private Boolean payloadSigningEnabled;
     private Boolean dualstackEnabled;
+    private Boolean memoryMappedFileUploadsEnabled;
 
     /**
      * @return Create new instance of builder with all defaults set.
@@ -351,6 +352,47 @@ public final class AmazonS3ClientBuilder extends
         return this;
     }
 
+    /**
+     * @return The current setting for memory mapped file uploads configured in the builder.
+     */
+    public Boolean isMemoryMappedFileUploadsEnabled() {
+        return memoryMappedFileUploadsEnabled;
+    }
+
+    /**
+     * <p>Configures the client to read the files of PutObjectRequest and UploadPartRequest via
+     * memory mapping.</p>
+     *
+     * @param memoryMappedFileUploadsEnabled True to upload files via memory mapping.
+     * @see S3ClientOptions.Builder#enableMemoryMappedFileUploads()
+     */
+    public void setMemoryMappedFileUploadsEnabled(Boolean memoryMappedFileUploadsEnabled) {
+        this.memoryMappedFileUploadsEnabled = memoryMappedFileUploadsEnabled;
+    }
+
+    /**
+     * <p>Configures the client to read the files of PutObjectRequest and UploadPartRequest via
+     * memory mapping.</p>
+     *
+     * @param memoryMappedFileUploadsEnabled True to upload files via memory mapping.
+     * @return This object for method chaining.
+     * @see S3ClientOptions.Builder#enableMemoryMappedFileUploads()
+     */
+    public AmazonS3ClientBuilder withMemoryMappedFileUploadsEnabled(Boolean memoryMappedFileUploadsEnabled) {
+        setMemoryMappedFileUploadsEnabled(memoryMappedFileUploadsEnabled);
+        return this;
+    }
+
+    /**
+     * <p>Enables memory mapped file uploads on clients built with the builder.</p>
+     *
+     * @return This object for method chaining.
+     */
+    public AmazonS3ClientBuilder enableMemoryMappedFileUploads() {
+        setMemoryMappedFileUploadsEnabled(Boolean.TRUE);
+        return this;
+    }
+
     /**
      * Construct a synchronous implementation of AmazonS3 using the current builder configuration.
      *
@@ -379,6 +421,9 @@ public final class AmazonS3ClientBuilder extends
         if(this.dualstackEnabled != null && this.dualstackEnabled) {
             builder.enableDualstack();
         }
+        if (this.memoryMappedFileUploadsEnabled != null && this.memoryMappedFileUploadsEnabled) {
+            builder.enableMemoryMappedFileUploads();
+        }
         return builder.build();
     }
 }
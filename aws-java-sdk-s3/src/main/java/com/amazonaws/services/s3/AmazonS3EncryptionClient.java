@@ -543,7 +543,13 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
      * N-1 in order to encrypt block N, parts uploaded with the
      * AmazonS3EncryptionClient (as opposed to the normal AmazonS3Client) must
      * be uploaded serially, and in order. Otherwise, the previous encryption
-     * context isn't available to use when encrypting the current part.
+     * context isn't available to use when encrypting the current part. The
+     * exception is an upload initiated with
+     * {@link EncryptedInitiateMultipartUploadRequest#setConcurrentPartUploads(boolean)}
+     * in the authenticated encryption modes, whose parts can be uploaded
+     * concurrently and in any order, except for the last part, which must be
+     * uploaded after all the other parts; see
+     * {@link #isConcurrentPartUploadSupported()}.
      */
     @Override
     public UploadPartResult uploadPart(UploadPartRequest uploadPartRequest)
@@ -551,6 +557,19 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
         return crypto.uploadPartSecurely(uploadPartRequest);
     }
 
+    /**
+     * Returns true if the parts of the multipart uploads made with this client
+     * can be uploaded concurrently and in any order, once requested with
+     * {@link EncryptedInitiateMultipartUploadRequest#setConcurrentPartUploads(boolean)},
+     * which is the case in the authenticated encryption modes. The last part must still be uploaded
+     * after all the other parts, since it carries the authentication tag of the
+     * whole object. Returns false if the parts must be uploaded serially, in
+     * order.
+     */
+    public boolean isConcurrentPartUploadSupported() {
+        return crypto.isConcurrentPartUploadSupported();
+    }
+
     @Override
     public CopyPartResult copyPart(CopyPartRequest copyPartRequest) {
         return crypto.copyPartSecurely(copyPartRequest);
@@ -29,6 +29,8 @@ public class S3ClientOptions {
     public static final boolean DEFAULT_ACCELERATE_MODE_ENABLED = false;
     /** S3 dualstack endpoint is by default not enabled */
     public static final boolean DEFAULT_DUALSTACK_ENABLED = false;
+    /** Files are by default not uploaded via memory mapping */
+    public static final boolean DEFAULT_MEMORY_MAPPED_FILE_UPLOADS_ENABLED = false;
 
     /*
      * TODO: make it final after we remove the deprecated setters.
@@ -38,6 +40,7 @@ public class S3ClientOptions {
     private final boolean accelerateModeEnabled;
     private final boolean payloadSigningEnabled;
     private final boolean dualstackEnabled;
+    private final boolean memoryMappedFileUploadsEnabled;
 
     /**
      * @return a new S3ClientOptions builder.
@@ -54,12 +57,14 @@ public class S3ClientOptions {
         private boolean accelerateModeEnabled = DEFAULT_ACCELERATE_MODE_ENABLED;
         private boolean payloadSigningEnabled = DEFAULT_PAYLOAD_SIGNING_ENABLED;
         private boolean dualstackEnabled = DEFAULT_DUALSTACK_ENABLED;
+        private boolean memoryMappedFileUploadsEnabled = DEFAULT_MEMORY_MAPPED_FILE_UPLOADS_ENABLED;
 
         private Builder() {}
 
         public S3ClientOptions build() {
             return new S3ClientOptions(pathStyleAccess, chunkedEncodingDisabled,
-                    accelerateModeEnabled, payloadSigningEnabled, dualstackEnabled);
+                    accelerateModeEnabled, payloadSigningEnabled, dualstackEnabled,
+                    memoryMappedFileUploadsEnabled);
         }
         /**
          * <p>
@@ -163,6 +168,31 @@ public class S3ClientOptions {
             this.dualstackEnabled = true;
             return this;
         }
+
+        /**
+         * <p>
+         * Configures the client to read the files of PutObjectRequest and
+         * UploadPartRequest via memory mapping.
+         * </p>
+         * <p>
+         * The file, or the part of the file, being uploaded is then read
+         * straight from its pages instead of through system calls, the part is
+         * reached without reading the bytes before it, and retries do not
+         * re-read the file.
+         * </p>
+         * <p>
+         * <b>Note:</b> Mapped files are only unmapped once garbage collected,
+         * which on some platforms, such as Windows, prevents them from being
+         * deleted until then. Files must not be truncated while being
+         * uploaded.
+         * </p>
+         *
+         * @return this Builder instance that can be used for method chaining
+         */
+        public Builder enableMemoryMappedFileUploads() {
+            this.memoryMappedFileUploadsEnabled = true;
+            return this;
+        }
     }
 
     /**
@@ -176,6 +206,7 @@ public class S3ClientOptions {
         this.accelerateModeEnabled = DEFAULT_ACCELERATE_MODE_ENABLED;
         this.payloadSigningEnabled = DEFAULT_PAYLOAD_SIGNING_ENABLED;
         this.dualstackEnabled = DEFAULT_DUALSTACK_ENABLED;
+        this.memoryMappedFileUploadsEnabled = DEFAULT_MEMORY_MAPPED_FILE_UPLOADS_ENABLED;
     }
 
     /**
@@ -189,15 +220,18 @@ public class S3ClientOptions {
         this.accelerateModeEnabled = other.accelerateModeEnabled;
         this.payloadSigningEnabled = other.payloadSigningEnabled;
         this.dualstackEnabled = other.dualstackEnabled;
+        this.memoryMappedFileUploadsEnabled = other.memoryMappedFileUploadsEnabled;
     }
 
     private S3ClientOptions(boolean pathStyleAccess, boolean chunkedEncodingDisabled, boolean accelerateModeEnabled,
-                            boolean payloadSigningEnabled, boolean dualstackEnabled) {
+                            boolean payloadSigningEnabled, boolean dualstackEnabled,
+                            boolean memoryMappedFileUploadsEnabled) {
         this.pathStyleAccess = pathStyleAccess;
         this.chunkedEncodingDisabled = chunkedEncodingDisabled;
         this.accelerateModeEnabled = accelerateModeEnabled;
         this.payloadSigningEnabled = payloadSigningEnabled;
         this.dualstackEnabled = dualstackEnabled;
+        this.memoryMappedFileUploadsEnabled = memoryMappedFileUploadsEnabled;
     }
 
     /**
@@ -294,6 +328,19 @@ public class S3ClientOptions {
         return dualstackEnabled;
     }
 
+    /**
+     * <p>
+     * Returns whether the client reads the files of PutObjectRequest and
+     * UploadPartRequest via memory mapping.
+     * </p>
+     *
+     * @return True if files are uploaded via memory mapping
+     * @see Builder#enableMemoryMappedFileUploads()
+     */
+    public boolean isMemoryMappedFileUploadsEnabled() {
+        return memoryMappedFileUploadsEnabled;
+    }
+
     /**
      * @deprecated Use {@link S3ClientOptions#builder()} to build new
      *             S3ClientOptions instead.
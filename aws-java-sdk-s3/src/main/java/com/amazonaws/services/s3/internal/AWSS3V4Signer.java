@@ -123,9 +123,11 @@ public class AWSS3V4Signer extends AWS4Signer {
     }
 
     /**
-     * Determine whether to use aws-chunked for signing
+     * Determine whether to use aws-chunked for signing; ie whether the payload
+     * of the given request is signed chunk by chunk, so that Amazon S3
+     * verifies the integrity of every chunk.
      */
-    private boolean useChunkEncoding(SignableRequest<?> request) {
+    public boolean useChunkEncoding(SignableRequest<?> request) {
         // If chunked encoding is explicitly disabled through client options return right here.
         // Chunked encoding only makes sense to do when the payload is signed
         if (!isPayloadSigningEnabled(request) || isChunkedEncodingDisabled(request)) {
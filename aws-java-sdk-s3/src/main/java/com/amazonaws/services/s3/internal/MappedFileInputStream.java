@@ -0,0 +1,250 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.annotation.NotThreadSafe;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.internal.SdkInputStream;
+import com.amazonaws.util.IOUtils;
+
+/**
+ * A mark-and-resettable input stream over a region of a file, such as the part
+ * of a multipart upload, which reads the file via memory mapping.
+ * <p>
+ * Reads copy the bytes straight from the pages of the file instead of through
+ * a system call, the start of the region is reached without reading the bytes
+ * before it, and resetting the stream only repositions it, so the file is not
+ * re-read or re-opened when a request is retried. The region is mapped in
+ * windows of at most {@link #MAX_WINDOW_SIZE} bytes as it is read.
+ * <p>
+ * Note the mapped windows are only unmapped once garbage collected, which on
+ * some platforms prevents the file from being deleted until then. A file
+ * truncated while being read fails the read with an
+ * {@link AmazonClientException}.
+ */
+@NotThreadSafe
+public class MappedFileInputStream extends SdkInputStream {
+    private static final Log log = LogFactory.getLog(MappedFileInputStream.class);
+    /** The maximum number of bytes mapped at a time. */
+    static final int MAX_WINDOW_SIZE = 64 << 20;
+
+    private final File file;
+    private final FileChannel fileChannel;
+    /** The maximum number of bytes mapped at a time by this stream. */
+    private final int maxWindowSize;
+    /** The offset of the region in the file. */
+    private final long offset;
+    /** The length of the region. */
+    private final long length;
+    /** The current window, if any, and its position in the region. */
+    private MappedByteBuffer window;
+    private long windowPosition;
+    /** The current and the marked positions in the region. */
+    private long position;
+    private long markPosition;
+
+    /**
+     * Opens a stream over the whole of the given file.
+     */
+    public MappedFileInputStream(File file) throws IOException {
+        this(file, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens a stream over the given region of the given file.
+     *
+     * @param offset
+     *            the offset, in bytes, of the region in the file
+     * @param length
+     *            the length, in bytes, of the region, which ends at the end of
+     *            the file if longer
+     */
+    public MappedFileInputStream(File file, long offset, long length) throws IOException {
+        this(file, offset, length, MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens a stream over the given region of the given file, which maps at
+     * most the given number of bytes at a time.
+     */
+    MappedFileInputStream(File file, long offset, long length, int maxWindowSize) throws IOException {
+        if (offset < 0 || length < 0 || maxWindowSize <= 0) {
+            throw new IllegalArgumentException("offset: " + offset + ", length: " + length
+                    + ", maxWindowSize: " + maxWindowSize);
+        }
+        FileInputStream fis = new FileInputStream(file);
+        boolean isOpened = false;
+        try {
+            this.fileChannel = fis.getChannel();
+            this.length = Math.max(0, Math.min(length, fileChannel.size() - offset));
+            isOpened = true;
+        } finally {
+            if (!isOpened) {
+                IOUtils.closeQuietly(fis, log);
+            }
+        }
+        this.file = file;
+        this.offset = offset;
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    @Override
+    public final boolean markSupported() {
+        return true;
+    }
+
+    /**
+     * Marks the current position in this input stream; the read limit is
+     * ignored, since a reset only repositions the stream.
+     */
+    @Override
+    public void mark(int readlimit) {
+        abortIfNeeded();
+        markPosition = position;
+        if (log.isTraceEnabled())
+            log.trace("Mapped file input stream marked at position " + markPosition);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        abortIfNeeded();
+        position = markPosition;
+        if (log.isTraceEnabled())
+            log.trace("Reset to position " + markPosition);
+    }
+
+    @Override
+    public int available() throws IOException {
+        abortIfNeeded();
+        return (int) Math.min(Integer.MAX_VALUE, length - position);
+    }
+
+    @Override
+    public int read() throws IOException {
+        abortIfNeeded();
+        if (position >= length)
+            return -1;
+        MappedByteBuffer buffer = windowAtPosition();
+        int b;
+        try {
+            b = buffer.get() & 0xFF;
+        } catch (InternalError e) {
+            throw newTruncatedFileException(e);
+        }
+        position++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        abortIfNeeded();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return 0;
+        } else if (position >= length) {
+            return -1;
+        }
+        MappedByteBuffer buffer = windowAtPosition();
+        int count = Math.min(len, buffer.remaining());
+        try {
+            buffer.get(b, off, count);
+        } catch (InternalError e) {
+            throw newTruncatedFileException(e);
+        }
+        position += count;
+        return count;
+    }
+
+    /**
+     * Skips the given number of bytes without reading them.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        abortIfNeeded();
+        if (n <= 0)
+            return 0;
+        long skipped = Math.min(n, length - position);
+        position += skipped;
+        return skipped;
+    }
+
+    /**
+     * Returns the mapped window positioned at the current position, which must
+     * be within the region.
+     */
+    private MappedByteBuffer windowAtPosition() throws IOException {
+        if (window == null || position < windowPosition
+                || position >= windowPosition + window.capacity()) {
+            long size = Math.min(maxWindowSize, length - position);
+            try {
+                // A window past the end of the file would fail its first read
+                if (fileChannel.size() < offset + position + size) {
+                    throw newTruncatedFileException(null);
+                }
+                window = fileChannel.map(MapMode.READ_ONLY, offset + position, size);
+            } catch (IOException e) {
+                throw new AmazonClientException("Unable to map the file " + file
+                        + " at offset " + (offset + position), e);
+            }
+            windowPosition = position;
+        }
+        window.position((int) (position - windowPosition));
+        return window;
+    }
+
+    /**
+     * Returns the exception to fail a read with once the file turned out to be
+     * truncated. A read from a mapped page that is past the end of the file is
+     * reported by the JVM as an {@link InternalError}.
+     */
+    private AmazonClientException newTruncatedFileException(Throwable cause) {
+        return new AmazonClientException("The file " + file + " was truncated while being read, at offset "
+                + (offset + position) + " of a region ending at offset " + (offset + length), cause);
+    }
+
+    /**
+     * Closes the file; the windows that are already mapped stay valid until
+     * garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+        abortIfNeeded();
+    }
+
+    /**
+     * Returns the underlying file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    protected InputStream getWrappedInputStream() {
+        return null;
+    }
+}
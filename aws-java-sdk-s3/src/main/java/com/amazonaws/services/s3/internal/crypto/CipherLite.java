@@ -323,6 +323,13 @@ class CipherLite {
         return secreteKey.getAlgorithm();
     }
 
+    /**
+     * Returns the secret key of the underlying cipher.
+     */
+    final SecretKey getSecretKey() {
+        return secreteKey;
+    }
+
     /**
      * This method is provided only for testing purposes. The {@link CipherLite}
      * is intended to be used in lieu of the underlying Cipher.
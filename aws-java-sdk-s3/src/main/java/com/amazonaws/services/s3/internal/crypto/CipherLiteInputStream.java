@@ -247,4 +247,8 @@ public class CipherLiteInputStream extends SdkFilterInputStream {
     void renewCipherLite() {
         cipherLite = cipherLite.recreate();
     }
+
+    final CipherLite getCipherLite() {
+        return cipherLite;
+    }
 }
@@ -155,11 +155,14 @@ public class CryptoModuleDispatcher extends S3CryptoModule<MultipartUploadContex
      * {@inheritDoc}
      *
      * <p>
-     * <b>NOTE:</b> Because the encryption process requires context from block
-     * N-1 in order to encrypt block N, parts uploaded with the
-     * AmazonS3EncryptionClient (as opposed to the normal AmazonS3Client) must
-     * be uploaded serially, and in order. Otherwise, the previous encryption
-     * context isn't available to use when encrypting the current part.
+     * <b>NOTE:</b> In encryption only mode, because the encryption process
+     * requires context from block N-1 in order to encrypt block N, parts
+     * uploaded with the AmazonS3EncryptionClient (as opposed to the normal
+     * AmazonS3Client) must be uploaded serially, and in order. Otherwise, the
+     * previous encryption context isn't available to use when encrypting the
+     * current part. In the authenticated encryption modes, parts can be
+     * uploaded concurrently and in any order, except for the last part, which
+     * must be uploaded after all the other parts.
      */
     @Override
     public UploadPartResult uploadPartSecurely(UploadPartRequest req)
@@ -195,4 +198,12 @@ public class CryptoModuleDispatcher extends S3CryptoModule<MultipartUploadContex
         else
             ae.putLocalObjectSecurely(req, uploadId, os);
     }
+
+    @Override
+    public boolean isConcurrentPartUploadSupported() {
+        return defaultCryptoMode == EncryptionOnly
+             ? eo.isConcurrentPartUploadSupported()
+             : ae.isConcurrentPartUploadSupported()
+             ;
+    }
 }
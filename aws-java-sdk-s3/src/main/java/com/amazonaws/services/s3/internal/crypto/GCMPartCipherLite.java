@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import java.util.Arrays;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+
+/**
+ * A {@link CipherLite} that encrypts a single part of an AES/GCM multipart
+ * upload, independently of the other parts, so that parts can be encrypted
+ * and uploaded concurrently.
+ * <p>
+ * The part is encrypted via AES/CTR starting from the counter block of the
+ * byte offset of the part, which produces the same ciphertext as AES/GCM
+ * would, while the GHASH of the ciphertext of the part is computed along the
+ * way. The last part is hashed on top of the combined hash of all the other
+ * parts, and is followed by the tag of the whole ciphertext.
+ *
+ * @see MultipartUploadGcmContext
+ */
+final class GCMPartCipherLite extends CipherLite {
+    /** The content encrypting AES/GCM cipher lite of the upload. */
+    private final CipherLite gcm;
+    /** The byte offset of this part in the ciphertext. */
+    private final long offset;
+    /**
+     * Applicable only to the last part: the encryption of the pre-counter
+     * block, which masks the tag; null otherwise.
+     */
+    private final byte[] tagMask;
+    /** The AES/CTR cipher lite positioned at the current byte. */
+    private CipherLite ctr;
+    private GHash hash;
+    /** The number of bytes of this part that have been output so far. */
+    private long outputByteCount;
+    private long markedCount;
+    private GHash markedHash;
+
+    /**
+     * @param hash
+     *            the hash to update with the ciphertext of this part
+     */
+    GCMPartCipherLite(CipherLite gcm, long offset, GHash hash, byte[] tagMask) {
+        this(gcm, offset, hash, tagMask, createAuxiliary(gcm, offset));
+    }
+
+    private GCMPartCipherLite(CipherLite gcm, long offset, GHash hash,
+            byte[] tagMask, CipherLite ctr) {
+        super(ctr.getCipher(), ContentCryptoScheme.AES_CTR, gcm.getSecretKey(),
+                Cipher.ENCRYPT_MODE);
+        this.gcm = gcm;
+        this.offset = offset;
+        this.tagMask = tagMask;
+        this.ctr = ctr;
+        this.hash = hash;
+        this.markedHash = hash.copy();
+    }
+
+    private static CipherLite createAuxiliary(CipherLite gcm, long byteOffset) {
+        try {
+            return gcm.createAuxiliary(byteOffset);
+        } catch (Exception e) {
+            throw ((e instanceof RuntimeException)
+                ? (RuntimeException)e
+                : new IllegalStateException(e))
+                ;
+        }
+    }
+
+    @Override
+    byte[] update(byte[] input, int inputOffset, int inputLen) {
+        byte[] out = ctr.update(input, inputOffset, inputLen);
+        if (out != null) {
+            hash.update(out, 0, out.length);
+            outputByteCount += out.length;
+        }
+        return out;
+    }
+
+    @Override
+    byte[] doFinal() throws IllegalBlockSizeException, BadPaddingException {
+        byte[] out = ctr.doFinal();
+        if (out == null)
+            out = new byte[0];
+        hash.update(out, 0, out.length);
+        outputByteCount += out.length;
+        if (tagMask == null)
+            return out;
+        byte[] tag = hash.digest(offset + outputByteCount);
+        for (int i = 0; i < tag.length; i++)
+            tag[i] ^= tagMask[i];
+        byte[] finalBytes = Arrays.copyOf(out, out.length + tag.length);
+        System.arraycopy(tag, 0, finalBytes, out.length, tag.length);
+        return finalBytes;
+    }
+
+    @Override
+    byte[] doFinal(byte[] input) throws IllegalBlockSizeException,
+            BadPaddingException {
+        return doFinal(input, 0, input.length);
+    }
+
+    @Override
+    byte[] doFinal(byte[] input, int inputOffset, int inputLen)
+            throws IllegalBlockSizeException, BadPaddingException {
+        byte[] out = update(input, inputOffset, inputLen);
+        byte[] finalBytes = doFinal();
+        if (out == null || out.length == 0)
+            return finalBytes;
+        byte[] result = Arrays.copyOf(out, out.length + finalBytes.length);
+        System.arraycopy(finalBytes, 0, result, out.length, finalBytes.length);
+        return result;
+    }
+
+    @Override long mark() {
+        markedHash = hash.copy();
+        return markedCount = outputByteCount;
+    }
+
+    @Override boolean markSupported() { return true; }
+
+    /**
+     * Repositions the AES/CTR cipher at the marked position, which must be a
+     * multiple of the block size.
+     */
+    @Override void reset() {
+        ctr = createAuxiliary(gcm, offset + markedCount);
+        hash = markedHash.copy();
+        outputByteCount = markedCount;
+    }
+
+    @Override
+    int getOutputSize(int inputLen) {
+        return ctr.getOutputSize(inputLen)
+             + (tagMask == null ? 0 : tagMask.length);
+    }
+
+    /**
+     * Returns the hash of the ciphertext of this part output so far.
+     */
+    GHash getHash() {
+        return hash.copy();
+    }
+
+    /**
+     * Returns the number of bytes of this part that have been output so far.
+     */
+    long getOutputByteCount() {
+        return outputByteCount;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2013-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+/**
+ * The GHASH function of AES/GCM over the ciphertext, with no additional
+ * authenticated data, as is the case for the S3 encryption client.
+ * <p>
+ * The hash of a ciphertext can be computed piecewise, with each piece hashed
+ * from the start, and the pieces combined in order via
+ * {@link #append(GHash, long)}; so the parts of a multipart upload can be
+ * hashed concurrently.
+ * <p>
+ * See <a href=
+ * "http://csrc.nist.gov/publications/nistpubs/800-38D/SP-800-38D.pdf">
+ * NIST Special Publication 800-38D.</a> for the definition of GHASH. The
+ * multiplications are done in constant time, with integer multiplications
+ * rather than tables: they neither branch on nor index memory by the bits of
+ * the hash subkey or of the hash value, so that the cache and branch
+ * predictor shared with other processes don't leak the hash subkey, from
+ * which tags could be forged.
+ */
+final class GHash {
+    private static final int BLOCK_SIZE = 16;
+
+    /** The hash subkey H. */
+    private final long hHigh;
+    private final long hLow;
+    /** The current hash value. */
+    private long xHigh;
+    private long xLow;
+    /** The bytes of the last incomplete block, which are not yet hashed. */
+    private final byte[] pending = new byte[BLOCK_SIZE];
+    private int pendingLength;
+
+    /**
+     * @param hashSubkey
+     *            the hash subkey H, which is the encryption of the zero block
+     */
+    GHash(byte[] hashSubkey) {
+        if (hashSubkey.length != BLOCK_SIZE)
+            throw new IllegalArgumentException();
+        hHigh = toLong(hashSubkey, 0);
+        hLow = toLong(hashSubkey, 8);
+    }
+
+    private GHash(GHash from) {
+        hHigh = from.hHigh;
+        hLow = from.hLow;
+        xHigh = from.xHigh;
+        xLow = from.xLow;
+        System.arraycopy(from.pending, 0, pending, 0, from.pendingLength);
+        pendingLength = from.pendingLength;
+    }
+
+    /**
+     * Returns a copy of this hash, which can be updated independently.
+     */
+    GHash copy() {
+        return new GHash(this);
+    }
+
+    /**
+     * Hashes the given ciphertext.
+     */
+    void update(byte[] input, int offset, int length) {
+        if (pendingLength > 0) {
+            int n = Math.min(BLOCK_SIZE - pendingLength, length);
+            System.arraycopy(input, offset, pending, pendingLength, n);
+            pendingLength += n;
+            offset += n;
+            length -= n;
+            if (pendingLength < BLOCK_SIZE)
+                return;
+            hashBlock(pending, 0);
+            pendingLength = 0;
+        }
+        while (length >= BLOCK_SIZE) {
+            hashBlock(input, offset);
+            offset += BLOCK_SIZE;
+            length -= BLOCK_SIZE;
+        }
+        if (length > 0) {
+            System.arraycopy(input, offset, pending, 0, length);
+            pendingLength = length;
+        }
+    }
+
+    /**
+     * Appends the hash of the ciphertext that follows the one hashed so far,
+     * as if it had been hashed by this instance.
+     *
+     * @param next
+     *            the hash of the following ciphertext, hashed from the start
+     * @param blocks
+     *            the number of blocks of the following ciphertext
+     * @throws IllegalStateException
+     *             if the ciphertext hashed so far is not made of whole blocks
+     */
+    void append(GHash next, long blocks) {
+        if (pendingLength > 0 || next.pendingLength > 0)
+            throw new IllegalStateException("Only whole blocks can be appended");
+        long[] hn = power(hHigh, hLow, blocks);
+        long[] x = multiply(xHigh, xLow, hn[0], hn[1]);
+        xHigh = x[0] ^ next.xHigh;
+        xLow = x[1] ^ next.xLow;
+    }
+
+    /**
+     * Returns the final value of GHASH, given the total length of the
+     * ciphertext, without changing the state of this hash.
+     */
+    byte[] digest(long ciphertextLength) {
+        GHash h = copy();
+        if (h.pendingLength > 0) {
+            for (int i = h.pendingLength; i < BLOCK_SIZE; i++)
+                h.pending[i] = 0;
+            h.hashBlock(h.pending, 0);
+        }
+        // the lengths of the additional authenticated data (none) and of the
+        // ciphertext, in bits
+        h.xLow ^= ciphertextLength << 3;
+        h.multiplyByH();
+        byte[] out = new byte[BLOCK_SIZE];
+        toBytes(h.xHigh, out, 0);
+        toBytes(h.xLow, out, 8);
+        return out;
+    }
+
+    private void hashBlock(byte[] block, int offset) {
+        xHigh ^= toLong(block, offset);
+        xLow ^= toLong(block, offset + 8);
+        multiplyByH();
+    }
+
+    /**
+     * Multiplies the hash value by H; see {@link #multiply(long, long, long, long)}.
+     */
+    private void multiplyByH() {
+        long[] x = multiply(xHigh, xLow, hHigh, hLow);
+        xHigh = x[0];
+        xLow = x[1];
+    }
+
+    /**
+     * Returns the product of two elements of GF(2^128), in constant time.
+     * <p>
+     * The carry-less product of the operands is computed with Karatsuba from
+     * three 64-bit carry-less products, for both halves of which see
+     * {@link #clmul(long, long)}; in the bit order of GCM, the high half of a
+     * product is the low half of the product of the bit-reversed operands.
+     * The product is then shifted by one bit, since the bits are reflected,
+     * and reduced modulo x^128 + x^7 + x^2 + x + 1.
+     */
+    private static long[] multiply(long ah, long al, long bh, long bl) {
+        long ahr = Long.reverse(ah);
+        long alr = Long.reverse(al);
+        long bhr = Long.reverse(bh);
+        long blr = Long.reverse(bl);
+
+        long z0 = clmul(al, bl);
+        long z1 = clmul(ah, bh);
+        long z2 = clmul(al ^ ah, bl ^ bh) ^ z0 ^ z1;
+        long z0h = clmul(alr, blr);
+        long z1h = clmul(ahr, bhr);
+        long z2h = clmul(alr ^ ahr, blr ^ bhr) ^ z0h ^ z1h;
+        z0h = Long.reverse(z0h) >>> 1;
+        z1h = Long.reverse(z1h) >>> 1;
+        z2h = Long.reverse(z2h) >>> 1;
+
+        long v0 = z0;
+        long v1 = z0h ^ z2;
+        long v2 = z1 ^ z2h;
+        long v3 = z1h;
+
+        v3 = (v3 << 1) | (v2 >>> 63);
+        v2 = (v2 << 1) | (v1 >>> 63);
+        v1 = (v1 << 1) | (v0 >>> 63);
+        v0 = v0 << 1;
+
+        v2 ^= v0 ^ (v0 >>> 1) ^ (v0 >>> 2) ^ (v0 >>> 7);
+        v1 ^= (v0 << 63) ^ (v0 << 62) ^ (v0 << 57);
+        v3 ^= v1 ^ (v1 >>> 1) ^ (v1 >>> 2) ^ (v1 >>> 7);
+        v2 ^= (v1 << 63) ^ (v1 << 62) ^ (v1 << 57);
+        return new long[] {v3, v2};
+    }
+
+    /**
+     * Returns the low 64 bits of the carry-less product of x and y. Integer
+     * multiplications, whose timing doesn't depend on their operands, do the
+     * work on operands with holes of three zero bits between their bits, so
+     * that the carries fall into the holes and are masked out.
+     */
+    private static long clmul(long x, long y) {
+        long x0 = x & 0x1111111111111111L;
+        long x1 = x & 0x2222222222222222L;
+        long x2 = x & 0x4444444444444444L;
+        long x3 = x & 0x8888888888888888L;
+        long y0 = y & 0x1111111111111111L;
+        long y1 = y & 0x2222222222222222L;
+        long y2 = y & 0x4444444444444444L;
+        long y3 = y & 0x8888888888888888L;
+        long z0 = (x0 * y0) ^ (x1 * y3) ^ (x2 * y2) ^ (x3 * y1);
+        long z1 = (x0 * y1) ^ (x1 * y0) ^ (x2 * y3) ^ (x3 * y2);
+        long z2 = (x0 * y2) ^ (x1 * y1) ^ (x2 * y0) ^ (x3 * y3);
+        long z3 = (x0 * y3) ^ (x1 * y2) ^ (x2 * y1) ^ (x3 * y0);
+        return (z0 & 0x1111111111111111L) | (z1 & 0x2222222222222222L)
+             | (z2 & 0x4444444444444444L) | (z3 & 0x8888888888888888L);
+    }
+
+    /**
+     * Returns the given element of GF(2^128) raised to the given power.
+     */
+    private static long[] power(long h, long l, long n) {
+        // the multiplicative identity, in the bit order of GCM
+        long[] result = {Long.MIN_VALUE, 0};
+        long[] base = {h, l};
+        while (n > 0) {
+            if ((n & 1) != 0)
+                result = multiply(result[0], result[1], base[0], base[1]);
+            base = multiply(base[0], base[1], base[0], base[1]);
+            n >>>= 1;
+        }
+        return result;
+    }
+
+    private static long toLong(byte[] b, int offset) {
+        long v = 0;
+        for (int i = 0; i < 8; i++)
+            v = (v << 8) | (b[offset + i] & 0xff);
+        return v;
+    }
+
+    private static void toBytes(long v, byte[] b, int offset) {
+        for (int i = 7; i >= 0; i--) {
+            b[offset + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2013-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+
+import org.apache.http.annotation.GuardedBy;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * The context of an AES/GCM multipart upload, whose parts are encrypted
+ * independently of each other, and can therefore be uploaded concurrently and
+ * in any order. The exception is the last part, which is followed by the tag
+ * of the whole ciphertext, and so can only be uploaded once all the other
+ * parts have been.
+ * <p>
+ * Each part is encrypted from its byte offset in the plaintext. The offset is
+ * the total size of the preceding parts if they have all been started, or
+ * else assumes the preceding parts have the same size as the current part.
+ * Parts of a different size are therefore rejected before being encrypted,
+ * unless all the parts before them have been started and none after them.
+ * The offsets are verified again once the last part is started.
+ *
+ * @see GCMPartCipherLite
+ */
+final class MultipartUploadGcmContext extends MultipartUploadCryptoContext {
+    private static final int BLOCK_SIZE = ContentCryptoScheme.AES_GCM
+            .getBlockSizeInBytes();
+    /** The hash of no ciphertext, from which the hash of each part starts. */
+    private final GHash emptyHash;
+    /** The encryption of the pre-counter block J0, which masks the tag. */
+    private final byte[] tagMask;
+    /** The parts other than the last, by part number. */
+    @GuardedBy("this")
+    private final Map<Integer, Part> parts = new HashMap<Integer, Part>();
+    @GuardedBy("this")
+    private boolean lastPartStarted;
+
+    MultipartUploadGcmContext(String bucketName, String key,
+            ContentCryptoMaterial cekMaterial) {
+        super(bucketName, key, cekMaterial);
+        CipherLite gcm = cekMaterial.getCipherLite();
+        byte[] iv = gcm.getIV();
+        if (iv.length != 12) {
+            throw new AmazonClientException(
+                "The parts of an AES/GCM multipart upload can only be encrypted concurrently with a 12-byte IV, but the IV has "
+              + iv.length + " bytes; upload the parts in series instead");
+        }
+        byte[] J0 = new byte[BLOCK_SIZE];
+        System.arraycopy(iv, 0, J0, 0, iv.length);
+        J0[BLOCK_SIZE - 1] = 0x01;
+        try {
+            Cipher aes = Cipher.getInstance("AES/ECB/NoPadding",
+                    gcm.getCipherProvider());
+            aes.init(Cipher.ENCRYPT_MODE, gcm.getSecretKey());
+            // the hash subkey H is the encryption of the zero block
+            this.emptyHash = new GHash(aes.doFinal(new byte[BLOCK_SIZE]));
+            this.tagMask = aes.doFinal(J0);
+        } catch (Exception e) {
+            throw new AmazonClientException("Unable to build cipher: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parts may be uploaded concurrently and in any order.
+     */
+    @Override
+    void beginPartUpload(final int nextPartNumber) {
+        if (nextPartNumber < 1)
+            throw new IllegalArgumentException("part number must be at least 1");
+    }
+
+    @Override
+    void endPartUpload() {
+    }
+
+    /**
+     * Returns the cipher lite to encrypt the given part with.
+     *
+     * @throws AmazonClientException
+     *             if the file of the part is shorter than the part size; if
+     *             this is the last part, but not all the other parts have
+     *             been uploaded, or if parts of different sizes have been
+     *             uploaded out of order; or if this is not the last part, but
+     *             the last part has already been started.
+     */
+    synchronized GCMPartCipherLite newPartCipherLite(UploadPartRequest req) {
+        final int partNumber = req.getPartNumber();
+        final long partSize = req.getPartSize();
+        if (req.getFile() != null
+        &&  req.getFile().length() - req.getFileOffset() < partSize) {
+            throw new AmazonClientException("Part " + partNumber
+                    + " is expected to have " + partSize + " bytes, but only "
+                    + (req.getFile().length() - req.getFileOffset())
+                    + " bytes of the file are left from offset " + req.getFileOffset());
+        }
+        if (!req.isLastPart()) {
+            if (lastPartStarted) {
+                throw new AmazonClientException(
+                    "Part " + partNumber + " can't be uploaded after the last part of an encrypted multipart upload");
+            }
+            long offset = 0;
+            boolean offsetAssumed = false;
+            for (int i = 1; i < partNumber; i++) {
+                Part part = parts.get(i);
+                if (part == null) {
+                    offset = (partNumber - 1) * partSize;
+                    offsetAssumed = true;
+                    break;
+                }
+                offset += part.size;
+            }
+            for (Map.Entry<Integer, Part> e : parts.entrySet()) {
+                int i = e.getKey();
+                // Parts started after this one may have assumed its size
+                if (i != partNumber && (offsetAssumed || i > partNumber)
+                &&  e.getValue().size != partSize) {
+                    throw new AmazonClientException(
+                        "Parts of different sizes must be uploaded in series in an encrypted multipart upload (partNumber="
+                      + partNumber + ", partSize=" + partSize + ", otherPartNumber="
+                      + i + ", otherPartSize=" + e.getValue().size + ")");
+                }
+            }
+            parts.put(partNumber, new Part(offset, partSize));
+            return new GCMPartCipherLite(getCipherLite(), offset,
+                    emptyHash.copy(), null);
+        }
+        // The tag covers the ciphertext of all the parts
+        GHash hash = emptyHash.copy();
+        long offset = 0;
+        for (int i = 1; i < partNumber; i++) {
+            Part part = parts.get(i);
+            if (part == null || part.hash == null) {
+                throw new AmazonClientException(
+                    "The last part of an encrypted multipart upload can only be uploaded after all the other parts, but part "
+                  + i + " has not been uploaded");
+            }
+            if (part.offset != offset) {
+                throw new AmazonClientException(
+                    "Parts of different sizes must be uploaded in series in an encrypted multipart upload (partNumber="
+                  + i + ", offset=" + part.offset + ", expectedOffset=" + offset + ")");
+            }
+            hash.append(part.hash, part.size / BLOCK_SIZE);
+            offset += part.size;
+        }
+        if (offset + partSize > ContentCryptoScheme.MAX_GCM_BYTES) {
+            throw new SecurityException(
+                "Number of bytes processed has exceeded the maximum allowed by AES/GCM; [offset="
+                + offset + ", partSize=" + partSize + "]");
+        }
+        lastPartStarted = true;
+        return new GCMPartCipherLite(getCipherLite(), offset, hash, tagMask);
+    }
+
+    /**
+     * Records the hash of the ciphertext of the given part once uploaded.
+     */
+    synchronized void partUploaded(int partNumber, GCMPartCipherLite cipherLite) {
+        Part part = parts.get(partNumber);
+        if (part == null)
+            return; // the last part
+        if (cipherLite.getOutputByteCount() != part.size) {
+            throw new AmazonClientException("Expected " + part.size
+                    + " bytes to be encrypted for part " + partNumber
+                    + " but got " + cipherLite.getOutputByteCount());
+        }
+        part.hash = cipherLite.getHash();
+    }
+
+    private static final class Part {
+        /** The byte offset the part was encrypted from. */
+        private final long offset;
+        private final long size;
+        /** The hash of the ciphertext of the part, once uploaded. */
+        private GHash hash;
+
+        private Part(long offset, long size) {
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+}
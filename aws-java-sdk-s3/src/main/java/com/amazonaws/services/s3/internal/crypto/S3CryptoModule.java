@@ -25,6 +25,7 @@ import com.amazonaws.services.s3.model.CopyPartRequest;
 import com.amazonaws.services.s3.model.CopyPartResult;
 import com.amazonaws.services.s3.model.CryptoMode;
 import com.amazonaws.services.s3.model.EncryptedGetObjectRequest;
+import com.amazonaws.services.s3.model.EncryptedInitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
@@ -90,4 +91,12 @@ public abstract class S3CryptoModule<T extends MultipartUploadContext> {
      */
     public abstract void putLocalObjectSecurely(UploadObjectRequest req,
             String uploadId, OutputStream os) throws IOException;
+
+    /**
+     * Returns true if the parts of a multipart upload initiated with
+     * {@link EncryptedInitiateMultipartUploadRequest#setConcurrentPartUploads(boolean)}
+     * can be uploaded concurrently, with the exception of the last part; false
+     * if they must be uploaded serially, in order.
+     */
+    public abstract boolean isConcurrentPartUploadSupported();
 }
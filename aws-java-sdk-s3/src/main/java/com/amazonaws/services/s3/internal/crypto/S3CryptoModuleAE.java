@@ -39,6 +39,7 @@ import com.amazonaws.services.s3.internal.S3Direct;
 import com.amazonaws.services.s3.model.CryptoConfiguration;
 import com.amazonaws.services.s3.model.CryptoMode;
 import com.amazonaws.services.s3.model.EncryptedGetObjectRequest;
+import com.amazonaws.services.s3.model.EncryptedInitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.EncryptionMaterialsProvider;
 import com.amazonaws.services.s3.model.ExtraMaterialsDescription;
 import com.amazonaws.services.s3.model.GetObjectRequest;
@@ -359,9 +360,18 @@ class S3CryptoModuleAE extends S3CryptoModuleBase<MultipartUploadCryptoContext>
         return s3Object.getObjectMetadata();
     }
 
+    /**
+     * Returns a context whose parts may be uploaded concurrently if the
+     * request asks for it; or else one whose parts must be uploaded in series.
+     */
     @Override
     final MultipartUploadCryptoContext newUploadContext(
             InitiateMultipartUploadRequest req, ContentCryptoMaterial cekMaterial) {
+        if (req instanceof EncryptedInitiateMultipartUploadRequest
+        &&  ((EncryptedInitiateMultipartUploadRequest) req).isConcurrentPartUploads()) {
+            return new MultipartUploadGcmContext(
+                    req.getBucketName(), req.getKey(), cekMaterial);
+        }
         return new MultipartUploadCryptoContext(
                 req.getBucketName(), req.getKey(), cekMaterial);
     }
@@ -369,7 +379,9 @@ class S3CryptoModuleAE extends S3CryptoModuleBase<MultipartUploadCryptoContext>
     //// specific overrides for uploading parts.
     @Override
     final CipherLite cipherLiteForNextPart(
-            MultipartUploadCryptoContext uploadContext) {
+            MultipartUploadCryptoContext uploadContext, UploadPartRequest req) {
+        if (uploadContext instanceof MultipartUploadGcmContext)
+            return ((MultipartUploadGcmContext) uploadContext).newPartCipherLite(req);
         return uploadContext.getCipherLite();
     }
     @Override
@@ -384,7 +396,16 @@ class S3CryptoModuleAE extends S3CryptoModuleBase<MultipartUploadCryptoContext>
     }
     @Override
     final void updateUploadContext(MultipartUploadCryptoContext uploadContext,
-            SdkFilterInputStream is) {
+            UploadPartRequest req, SdkFilterInputStream is) {
+        if (uploadContext instanceof MultipartUploadGcmContext) {
+            CipherLiteInputStream clis = (CipherLiteInputStream) is;
+            ((MultipartUploadGcmContext) uploadContext).partUploaded(
+                    req.getPartNumber(), (GCMPartCipherLite) clis.getCipherLite());
+        }
+    }
+    @Override
+    public final boolean isConcurrentPartUploadSupported() {
+        return true;
     }
 
     /*
@@ -67,6 +67,7 @@ import com.amazonaws.services.s3.model.CopyPartRequest;
 import com.amazonaws.services.s3.model.CopyPartResult;
 import com.amazonaws.services.s3.model.CryptoConfiguration;
 import com.amazonaws.services.s3.model.CryptoMode;
+import com.amazonaws.services.s3.model.EncryptedInitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.EncryptionMaterials;
 import com.amazonaws.services.s3.model.EncryptionMaterialsFactory;
 import com.amazonaws.services.s3.model.EncryptionMaterialsProvider;
@@ -253,31 +254,38 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
             req.setObjectMetadata(updateMetadataWithContentCryptoMaterial(
                     metadata, null, cekMaterial));
         }
-        InitiateMultipartUploadResult result = s3.initiateMultipartUpload(req);
+        // Before initiating, so that an upload that can't be encrypted isn't left behind
         T uploadContext = newUploadContext(req, cekMaterial);
         if (req instanceof MaterialsDescriptionProvider) {
             MaterialsDescriptionProvider p = (MaterialsDescriptionProvider) req;
             uploadContext.setMaterialsDescription(p.getMaterialsDescription());
         }
+        InitiateMultipartUploadResult result = s3.initiateMultipartUpload(req);
         multipartUploadContexts.put(result.getUploadId(), uploadContext);
         return result;
     }
 
     //// specific crypto module behavior for uploading parts.
-    abstract CipherLite cipherLiteForNextPart(T uploadContext);
+    abstract CipherLite cipherLiteForNextPart(T uploadContext,
+            UploadPartRequest req);
     abstract long computeLastPartSize(UploadPartRequest req);
     abstract <I extends CipherLiteInputStream> SdkFilterInputStream wrapForMultipart(
             I is, long partSize);
-    abstract void updateUploadContext(T uploadContext, SdkFilterInputStream is);
+    abstract void updateUploadContext(T uploadContext, UploadPartRequest req,
+            SdkFilterInputStream is);
     /**
      * {@inheritDoc}
      *
      * <p>
-     * <b>NOTE:</b> Because the encryption process requires context from
-     * previous blocks, parts uploaded with the AmazonS3EncryptionClient (as
-     * opposed to the normal AmazonS3Client) must be uploaded serially, and in
-     * order. Otherwise, the previous encryption context isn't available to use
-     * when encrypting the current part.
+     * <b>NOTE:</b> In encryption only mode, because the encryption process
+     * requires context from previous blocks, parts uploaded with the
+     * AmazonS3EncryptionClient (as opposed to the normal AmazonS3Client) must
+     * be uploaded serially, and in order. Otherwise, the previous encryption
+     * context isn't available to use when encrypting the current part. In the
+     * authenticated encryption modes, the parts of an upload initiated with
+     * {@link EncryptedInitiateMultipartUploadRequest#setConcurrentPartUploads(boolean)}
+     * can be uploaded concurrently and in any order, except for the last part,
+     * which must be uploaded after all the other parts.
      */
     @Override
     public UploadPartResult uploadPartSecurely(UploadPartRequest req) {
@@ -302,7 +310,7 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         final UploadPartResult result;
         // Checks the parts are uploaded in series
         uploadContext.beginPartUpload(req.getPartNumber());
-        CipherLite cipherLite = cipherLiteForNextPart(uploadContext);
+        CipherLite cipherLite = cipherLiteForNextPart(uploadContext, req);
         final File fileOrig = req.getFile();
         final InputStream isOrig = req.getInputStream();
         SdkFilterInputStream isCurr = null;
@@ -337,7 +345,7 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         }
         if (isLastPart)
             uploadContext.setHasFinalPartBeenSeen(true);
-        updateUploadContext(uploadContext, isCurr);
+        updateUploadContext(uploadContext, req, isCurr);
         return result;
     }
 
@@ -97,7 +97,7 @@ class S3CryptoModuleEO extends S3CryptoModuleBase<MultipartUploadCbcContext> {
 
     @Override
     final void updateUploadContext(MultipartUploadCbcContext uploadContext,
-            SdkFilterInputStream is) {
+            UploadPartRequest req, SdkFilterInputStream is) {
         ByteRangeCapturingInputStream bis = (ByteRangeCapturingInputStream)is;
         uploadContext.setNextInitializationVector(bis.getBlock());
         return;
@@ -132,12 +132,17 @@ class S3CryptoModuleEO extends S3CryptoModuleBase<MultipartUploadCbcContext> {
 
     @Override
     final CipherLite cipherLiteForNextPart(
-            MultipartUploadCbcContext uploadContext) {
+            MultipartUploadCbcContext uploadContext, UploadPartRequest req) {
         CipherLite cipherLite = uploadContext.getCipherLite();
         byte[] nextIV = uploadContext.getNextInitializationVector();
         return cipherLite.createUsingIV(nextIV);
     }
 
+    @Override
+    public final boolean isConcurrentPartUploadSupported() {
+        return false;
+    }
+
     /*
      * Private helper methods
      */
@@ -14,12 +14,15 @@
  */
 package com.amazonaws.services.s3.iterable;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.PrefetchingPageIterable;
 
 /**
  * Provides an easy way to iterate Amazon S3 objects in a "foreach" statement.
@@ -33,7 +36,10 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
  * <p>
  * The list of {@link S3ObjectSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
- * {@link S3Objects#withBatchSize(int)} method.
+ * {@link S3Objects#withBatchSize(int)} method. To hide the latency of each
+ * page request when walking large buckets, the next page can be fetched in the
+ * background while the current one is consumed; see
+ * {@link S3Objects#withPrefetching(ExecutorService)}.
  */
 public class S3Objects implements Iterable<S3ObjectSummary> {
 
@@ -41,6 +47,7 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
     private String prefix = null;
     private String bucketName;
     private Integer batchSize = null;
+    private ExecutorService prefetchExecutor = null;
 
     private S3Objects(AmazonS3 s3, String bucketName) {
         this.s3 = s3;
@@ -95,6 +102,24 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
         return batchSize;
     }
 
+    /**
+     * Fetches the next page of {@link S3ObjectSummary}s on the given executor
+     * while the current page is being consumed. At most one page is fetched
+     * ahead.
+     *
+     * @param executor
+     *            The executor to fetch pages on, or null to fetch each page on
+     *            the iterating thread when it is needed.
+     */
+    public S3Objects withPrefetching(ExecutorService executor) {
+        this.prefetchExecutor = executor;
+        return this;
+    }
+
+    public ExecutorService getPrefetchExecutor() {
+        return prefetchExecutor;
+    }
+
     public String getPrefix() {
         return prefix;
     }
@@ -107,9 +132,33 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
         return s3;
     }
 
+    private class ObjectListings extends PrefetchingPageIterable<ObjectListing> {
+
+        private ObjectListings() {
+            super(getPrefetchExecutor());
+        }
+
+        @Override
+        protected ObjectListing firstPage() {
+            ListObjectsRequest req = new ListObjectsRequest();
+            req.setBucketName(getBucketName());
+            req.setPrefix(getPrefix());
+            req.setMaxKeys(getBatchSize());
+            return getS3().listObjects(req);
+        }
+
+        @Override
+        protected ObjectListing nextPage(ObjectListing previousPage) {
+            if (!previousPage.isTruncated()) {
+                return null;
+            }
+            return getS3().listNextBatchOfObjects(previousPage);
+        }
+    }
+
     private class S3ObjectIterator implements Iterator<S3ObjectSummary> {
 
-        private ObjectListing currentListing = null;
+        private final Iterator<ObjectListing> listings = new ObjectListings().iterator();
 
         private Iterator<S3ObjectSummary> currentIterator = null;
 
@@ -131,19 +180,11 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
         }
 
         private void prepareCurrentListing() {
-            while ( currentListing == null || (!currentIterator.hasNext() && currentListing.isTruncated()) ) {
-
-                if ( currentListing == null ) {
-                    ListObjectsRequest req = new ListObjectsRequest();
-                    req.setBucketName(getBucketName());
-                    req.setPrefix(getPrefix());
-                    req.setMaxKeys(getBatchSize());
-                    currentListing = getS3().listObjects(req);
-                } else {
-                    currentListing = getS3().listNextBatchOfObjects(currentListing);
-                }
-
-                currentIterator = currentListing.getObjectSummaries().iterator();
+            while ( (currentIterator == null || !currentIterator.hasNext()) && listings.hasNext() ) {
+                currentIterator = listings.next().getObjectSummaries().iterator();
+            }
+            if ( currentIterator == null ) {
+                currentIterator = Collections.<S3ObjectSummary>emptyList().iterator();
             }
         }
 
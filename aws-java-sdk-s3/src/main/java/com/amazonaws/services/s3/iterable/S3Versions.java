@@ -14,12 +14,15 @@
  */
 package com.amazonaws.services.s3.iterable;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ListVersionsRequest;
 import com.amazonaws.services.s3.model.S3VersionSummary;
 import com.amazonaws.services.s3.model.VersionListing;
+import com.amazonaws.util.PrefetchingPageIterable;
 
 /**
  * Provides an easy way to iterate Amazon S3 object versions in a "foreach"
@@ -42,6 +45,7 @@ public class S3Versions implements Iterable<S3VersionSummary> {
     private String prefix;
     private String key;
     private Integer batchSize;
+    private ExecutorService prefetchExecutor;
 
     private S3Versions(AmazonS3 s3, String bucketName) {
         this.s3 = s3;
@@ -115,6 +119,24 @@ public class S3Versions implements Iterable<S3VersionSummary> {
         return batchSize;
     }
 
+    /**
+     * Fetches the next page of {@link S3VersionSummary}s on the given executor
+     * while the current page is being consumed. At most one page is fetched
+     * ahead.
+     *
+     * @param executor
+     *            The executor to fetch pages on, or null to fetch each page on
+     *            the iterating thread when it is needed.
+     */
+    public S3Versions withPrefetching(ExecutorService executor) {
+        this.prefetchExecutor = executor;
+        return this;
+    }
+
+    public ExecutorService getPrefetchExecutor() {
+        return prefetchExecutor;
+    }
+
     public String getPrefix() {
         return prefix;
     }
@@ -131,9 +153,39 @@ public class S3Versions implements Iterable<S3VersionSummary> {
         return bucketName;
     }
 
+    private class VersionListings extends PrefetchingPageIterable<VersionListing> {
+
+        private VersionListings() {
+            super(getPrefetchExecutor());
+        }
+
+        @Override
+        protected VersionListing firstPage() {
+            ListVersionsRequest req = new ListVersionsRequest();
+            req.setBucketName(getBucketName());
+
+            if (getKey() != null) {
+                req.setPrefix(getKey());
+            } else {
+                req.setPrefix(getPrefix());
+            }
+
+            req.setMaxResults(getBatchSize());
+            return getS3().listVersions(req);
+        }
+
+        @Override
+        protected VersionListing nextPage(VersionListing previousPage) {
+            if (!previousPage.isTruncated()) {
+                return null;
+            }
+            return getS3().listNextBatchOfVersions(previousPage);
+        }
+    }
+
     private class VersionIterator implements Iterator<S3VersionSummary> {
 
-        private VersionListing currentListing = null;
+        private final Iterator<VersionListing> listings = new VersionListings().iterator();
         private Iterator<S3VersionSummary> currentIterator = null;
         private S3VersionSummary nextSummary = null;
 
@@ -167,26 +219,13 @@ public class S3Versions implements Iterable<S3VersionSummary> {
         }
 
         private void prepareCurrentListing() {
-            while (currentListing == null
-                    || (!currentIterator.hasNext() && currentListing
-                            .isTruncated())) {
-                if (currentListing == null) {
-                    ListVersionsRequest req = new ListVersionsRequest();
-                    req.setBucketName(getBucketName());
-
-                    if (getKey() != null) {
-                        req.setPrefix(getKey());
-                    } else {
-                        req.setPrefix(getPrefix());
-                    }
-
-                    req.setMaxResults(getBatchSize());
-                    currentListing = getS3().listVersions(req);
-                } else {
-                    currentListing = getS3().listNextBatchOfVersions(
-                            currentListing);
-                }
-                currentIterator = currentListing.getVersionSummaries()
+            while ((currentIterator == null || !currentIterator.hasNext())
+                    && listings.hasNext()) {
+                currentIterator = listings.next().getVersionSummaries()
+                        .iterator();
+            }
+            if (currentIterator == null) {
+                currentIterator = Collections.<S3VersionSummary>emptyList()
                         .iterator();
             }
 
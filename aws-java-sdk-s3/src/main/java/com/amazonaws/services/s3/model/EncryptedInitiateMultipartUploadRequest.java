@@ -31,6 +31,8 @@ import com.amazonaws.services.s3.AmazonS3EncryptionClient;
  * <li>specify encryption material description on a per-request basis;</li>
  * <li>specify whether a new set of encryption material is to be created for the
  * upload or not;</li>
+ * <li>specify whether the parts of the upload are to be uploaded concurrently
+ * or not;</li>
  * </ul>
  * In particular, {@link EncryptedInitiateMultipartUploadRequest} is only
  * recognized by {@link AmazonS3EncryptionClient}.
@@ -51,6 +53,11 @@ public class EncryptedInitiateMultipartUploadRequest extends
      * otherwise. Default is true.
      */
     private boolean createEncryptionMaterial = true;
+    /**
+     * True if the parts of the upload are to be uploaded concurrently; false
+     * otherwise. Default is false.
+     */
+    private boolean concurrentPartUploads;
 
     public EncryptedInitiateMultipartUploadRequest(String bucketName, String key) {
         super(bucketName, key);
@@ -112,4 +119,41 @@ public class EncryptedInitiateMultipartUploadRequest extends
         this.createEncryptionMaterial = createEncryptionMaterial;
         return this;
     }
+
+    /**
+     * Returns true if the parts of the upload are to be uploaded concurrently;
+     * false otherwise. Default is false.
+     */
+    public boolean isConcurrentPartUploads() {
+        return concurrentPartUploads;
+    }
+
+    /**
+     * In the authenticated encryption modes, specifies whether the parts of
+     * the upload are to be uploaded concurrently, and in any order, except
+     * for the last part, which must be uploaded after all the other parts.
+     * Each part is then encrypted from its byte offset in the object, which
+     * assumes the parts that haven't been started yet have the same size as
+     * the current part. Ignored in {@link CryptoMode#EncryptionOnly} mode,
+     * in which the parts must always be uploaded in series.
+     *
+     * @param concurrentPartUploads
+     *            true if the parts of the upload are to be uploaded
+     *            concurrently; false otherwise.
+     */
+    public void setConcurrentPartUploads(boolean concurrentPartUploads) {
+        this.concurrentPartUploads = concurrentPartUploads;
+    }
+
+    /**
+     * @param concurrentPartUploads
+     *            true if the parts of the upload are to be uploaded
+     *            concurrently; false otherwise.
+     * @see #setConcurrentPartUploads(boolean)
+     */
+    public EncryptedInitiateMultipartUploadRequest withConcurrentPartUploads(
+            boolean concurrentPartUploads) {
+        this.concurrentPartUploads = concurrentPartUploads;
+        return this;
+    }
 }
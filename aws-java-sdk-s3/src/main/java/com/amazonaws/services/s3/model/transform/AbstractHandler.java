@@ -14,7 +14,9 @@
  */
 package com.amazonaws.services.s3.model.transform;
 
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.helpers.DefaultHandler;
@@ -27,6 +29,8 @@ abstract class AbstractHandler extends DefaultHandler {
 
     private final StringBuilder text = new StringBuilder();
     private final LinkedList<String> context = new LinkedList<String>();
+    /** The values returned by {@link #getSharedText()}, keyed by themselves. */
+    private final Map<String, String> sharedText = new HashMap<String, String>();
 
     @Override
     public final void startElement(
@@ -66,6 +70,22 @@ abstract class AbstractHandler extends DefaultHandler {
         return text.toString();
     }
 
+    /**
+     * Returns the text of the current element, as the same String instance
+     * for every element of the document with the same text; for values
+     * repeated throughout a document, such as the owners and storage classes
+     * of a listing, so that the parsed objects share them.
+     */
+    protected final String getSharedText() {
+        String s = getText();
+        String shared = sharedText.get(s);
+        if (shared == null) {
+            sharedText.put(s, s);
+            return s;
+        }
+        return shared;
+    }
+
     protected final boolean atTopLevel() {
         return context.isEmpty();
     }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.model.transform;
+
+import static com.amazonaws.util.StringUtils.UTF8;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.amazonaws.internal.SdkFilterInputStream;
+
+/**
+ * Replaces the carriage return (\r) characters of a UTF-8 XML document with
+ * explicit XML character entities as the document is read, to prevent the SAX
+ * parser from misinterpreting 0x0D characters as 0x0A and being unable to
+ * parse the XML.
+ * <p>
+ * The 0x0D byte only ever encodes a carriage return in UTF-8, so the document
+ * is escaped without being decoded or buffered as a whole.
+ */
+final class CarriageReturnEscapingInputStream extends SdkFilterInputStream {
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte[] ESCAPED_CARRIAGE_RETURN = "&#013;".getBytes(UTF8);
+
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+    /** The number of bytes of the current escape already returned. */
+    private int escapePosition = ESCAPED_CARRIAGE_RETURN.length;
+
+    CarriageReturnEscapingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int count = read(b, 0, 1);
+        return count == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        abortIfNeeded();
+        int count = 0;
+        while (count < len) {
+            if (escapePosition < ESCAPED_CARRIAGE_RETURN.length) {
+                b[off + count++] = ESCAPED_CARRIAGE_RETURN[escapePosition++];
+            } else if (position < limit) {
+                if (buffer[position] == CARRIAGE_RETURN) {
+                    position++;
+                    escapePosition = 0;
+                    continue;
+                }
+                int end = position + 1;
+                int max = Math.min(limit, position + len - count);
+                while (end < max && buffer[end] != CARRIAGE_RETURN) {
+                    end++;
+                }
+                System.arraycopy(buffer, position, b, off + count, end - position);
+                count += end - position;
+                position = end;
+            } else if (count > 0) {
+                // Don't block for more input than available
+                break;
+            } else {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit == -1) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] b = new byte[(int) Math.min(n, buffer.length)];
+        long skipped = 0;
+        while (skipped < n) {
+            int count = read(b, 0, (int) Math.min(n - skipped, b.length));
+            if (count == -1) {
+                break;
+            }
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        abortIfNeeded();
+        return (ESCAPED_CARRIAGE_RETURN.length - escapePosition) + (limit - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+}
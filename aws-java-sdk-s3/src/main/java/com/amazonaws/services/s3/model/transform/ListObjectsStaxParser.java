@@ -0,0 +1,533 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.model.transform;
+
+import static com.amazonaws.services.s3.model.transform.XmlResponsesSaxParser.checkForEmptyString;
+import static com.amazonaws.services.s3.model.transform.XmlResponsesSaxParser.decodeIfSpecified;
+import static com.amazonaws.services.s3.model.transform.XmlResponsesSaxParser.parseInt;
+import static com.amazonaws.services.s3.model.transform.XmlResponsesSaxParser.parseLong;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.internal.Constants;
+import com.amazonaws.services.s3.internal.ServiceUtils;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.Owner;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Parses ListObjects and ListObjectsV2 response XML documents with a StAX
+ * cursor, into the same results as the {@link XmlResponsesSaxParser} handlers.
+ * <p>
+ * Given an {@link ObjectSummaryCallback}, the object summaries are handed to
+ * the callback as they are parsed instead of being collected into the result,
+ * and a single summary is reused for the whole document, so that a page of
+ * 1000 keys can be processed without allocating 1000 summaries.
+ */
+public class ListObjectsStaxParser {
+    private static final Log log = LogFactory.getLog(ListObjectsStaxParser.class);
+
+    /** Shared factory for creating XML stream readers */
+    private static final XMLInputFactory xmlInputFactory = newXmlInputFactory();
+
+    /**
+     * Receives the object summaries of a listing as they are parsed.
+     */
+    public interface ObjectSummaryCallback {
+        /**
+         * Called with each object summary of the listing, in order. The
+         * summary and its owner are reused for the next summary once this
+         * returns, so anything kept must be copied out of them.
+         */
+        void objectSummary(S3ObjectSummary summary);
+    }
+
+    private final boolean shouldSDKDecodeResponse;
+
+    /**
+     * @param shouldSDKDecodeResponse
+     *            whether the keys and prefixes of the listing are URL encoded,
+     *            and are to be decoded
+     */
+    public ListObjectsStaxParser(boolean shouldSDKDecodeResponse) {
+        this.shouldSDKDecodeResponse = shouldSDKDecodeResponse;
+    }
+
+    /**
+     * Parses a ListObjects response XML document, with its object summaries.
+     */
+    public ObjectListing parseListObjectsResponse(InputStream inputStream) throws IOException {
+        return parseListObjectsResponse(inputStream, null);
+    }
+
+    /**
+     * Parses a ListObjects response XML document, handing its object
+     * summaries to the given callback, if any, rather than adding them to the
+     * listing.
+     */
+    public ObjectListing parseListObjectsResponse(InputStream inputStream, ObjectSummaryCallback callback)
+            throws IOException {
+        ListObjectsBuilder builder = new ListObjectsBuilder();
+        parse(inputStream, builder, callback);
+        return builder.objectListing;
+    }
+
+    /**
+     * Parses a ListObjectsV2 response XML document, with its object summaries.
+     */
+    public ListObjectsV2Result parseListObjectsV2Response(InputStream inputStream) throws IOException {
+        return parseListObjectsV2Response(inputStream, null);
+    }
+
+    /**
+     * Parses a ListObjectsV2 response XML document, handing its object
+     * summaries to the given callback, if any, rather than adding them to the
+     * result.
+     */
+    public ListObjectsV2Result parseListObjectsV2Response(InputStream inputStream, ObjectSummaryCallback callback)
+            throws IOException {
+        ListObjectsV2Builder builder = new ListObjectsV2Builder();
+        parse(inputStream, builder, callback);
+        return builder.result;
+    }
+
+    private void parse(InputStream inputStream, ListingBuilder builder, ObjectSummaryCallback callback)
+            throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Parsing XML response document with parser: " + builder.getClass());
+        }
+        XMLStreamReader reader = null;
+        try {
+            // Carriage returns would otherwise be read as line feeds
+            InputStream escaped = new CarriageReturnEscapingInputStream(inputStream);
+            synchronized (xmlInputFactory) {
+                reader = xmlInputFactory.createXMLStreamReader(escaped, Constants.DEFAULT_ENCODING);
+            }
+            new Parse(reader, builder, callback).listing();
+        } catch (XMLStreamException e) {
+            if (e.getNestedException() instanceof IOException) {
+                throw (IOException) e.getNestedException();
+            }
+            throw parseFailure(inputStream, builder, e);
+        } catch (CallbackException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            throw parseFailure(inputStream, builder, e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    log.debug("Unable to close the XML stream reader", e);
+                }
+            }
+        }
+    }
+
+    private static AmazonClientException parseFailure(InputStream inputStream, ListingBuilder builder,
+            Exception e) {
+        try {
+            inputStream.close();
+        } catch (IOException e2) {
+            if (log.isErrorEnabled()) {
+                log.error("Unable to close response InputStream up after XML parse failure", e2);
+            }
+        }
+        return new AmazonClientException("Failed to parse XML document with parser "
+                + builder.getClass(), e);
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // The text of each element is read as one event
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * The parse of a single document.
+     */
+    private final class Parse {
+        private final XMLStreamReader reader;
+        private final ListingBuilder builder;
+        private final ObjectSummaryCallback callback;
+        /** The values of {@link #readSharedText()}, keyed by themselves. */
+        private final Map<String, String> sharedText = new HashMap<String, String>();
+        /** The summary and owner reused for every summary handed to the callback. */
+        private final S3ObjectSummary recycledSummary = new S3ObjectSummary();
+        private final Owner recycledOwner = new Owner();
+        private String lastKey;
+        private String lastCommonPrefix;
+
+        private Parse(XMLStreamReader reader, ListingBuilder builder, ObjectSummaryCallback callback) {
+            this.reader = reader;
+            this.builder = builder;
+            this.callback = callback;
+        }
+
+        /**
+         * Parses the document, from its start to the end of its root element.
+         */
+        private void listing() throws XMLStreamException {
+            reader.nextTag();
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (name.equals("Contents")) {
+                    contents();
+                } else if (name.equals("CommonPrefixes")) {
+                    commonPrefixes();
+                } else if (name.equals("Name")) {
+                    builder.setBucketName(readText());
+                    if (log.isDebugEnabled()) {
+                        log.debug("Examining listing for bucket: " + builder.getBucketName());
+                    }
+                } else if (name.equals("IsTruncated")) {
+                    String isTruncatedStr = StringUtils.lowerCase(readText());
+                    if (isTruncatedStr.startsWith("false")) {
+                        builder.setTruncated(false);
+                    } else if (isTruncatedStr.startsWith("true")) {
+                        builder.setTruncated(true);
+                    } else {
+                        throw new IllegalStateException(
+                                "Invalid value for IsTruncated field: " + isTruncatedStr);
+                    }
+                } else {
+                    builder.setField(name, readText());
+                }
+            }
+            builder.ended(lastKey, lastCommonPrefix);
+        }
+
+        private void contents() throws XMLStreamException {
+            S3ObjectSummary summary;
+            if (callback == null) {
+                summary = new S3ObjectSummary();
+            } else {
+                summary = recycledSummary;
+                summary.setKey(null);
+                summary.setETag(null);
+                summary.setSize(0);
+                summary.setLastModified(null);
+                summary.setStorageClass(null);
+                summary.setOwner(null);
+            }
+            summary.setBucketName(builder.getBucketName());
+
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (name.equals("Key")) {
+                    summary.setKey(decodeIfSpecified(readText(), shouldSDKDecodeResponse));
+                } else if (name.equals("LastModified")) {
+                    summary.setLastModified(ServiceUtils.parseIso8601Date(readText()));
+                } else if (name.equals("ETag")) {
+                    summary.setETag(ServiceUtils.removeQuotes(readText()));
+                } else if (name.equals("Size")) {
+                    summary.setSize(parseLong(readText()));
+                } else if (name.equals("StorageClass")) {
+                    summary.setStorageClass(readSharedText());
+                } else if (name.equals("Owner")) {
+                    summary.setOwner(owner());
+                } else {
+                    readText();
+                }
+            }
+
+            lastKey = summary.getKey();
+            if (callback == null) {
+                builder.addObjectSummary(summary);
+            } else {
+                try {
+                    callback.objectSummary(summary);
+                } catch (RuntimeException e) {
+                    throw new CallbackException(e);
+                }
+            }
+        }
+
+        private Owner owner() throws XMLStreamException {
+            Owner owner;
+            if (callback == null) {
+                owner = new Owner();
+            } else {
+                owner = recycledOwner;
+                owner.setId(null);
+                owner.setDisplayName(null);
+            }
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (name.equals("ID")) {
+                    owner.setId(readSharedText());
+                } else if (name.equals("DisplayName")) {
+                    owner.setDisplayName(readSharedText());
+                } else {
+                    readText();
+                }
+            }
+            return owner;
+        }
+
+        private void commonPrefixes() throws XMLStreamException {
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (reader.getLocalName().equals("Prefix")) {
+                    lastCommonPrefix = decodeIfSpecified(readText(), shouldSDKDecodeResponse);
+                    builder.addCommonPrefix(lastCommonPrefix);
+                } else {
+                    readText();
+                }
+            }
+        }
+
+        /**
+         * Reads the text of the current element, up to its end, skipping the
+         * elements it contains.
+         */
+        private String readText() throws XMLStreamException {
+            String text = "";
+            StringBuilder sb = null;
+            int depth = 1;
+            while (depth > 0) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (depth == 1) {
+                        if (text.length() == 0) {
+                            text = reader.getText();
+                        } else {
+                            if (sb == null) {
+                                sb = new StringBuilder(text);
+                            }
+                            sb.append(reader.getText());
+                        }
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+            return sb == null ? text : sb.toString();
+        }
+
+        /**
+         * Reads the text of the current element as the same String instance
+         * for every element of the document with the same text.
+         */
+        private String readSharedText() throws XMLStreamException {
+            String s = readText();
+            String shared = sharedText.get(s);
+            if (shared == null) {
+                sharedText.put(s, s);
+                return s;
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * Builds the result of a listing from the elements of its document.
+     */
+    private abstract static class ListingBuilder {
+        abstract String getBucketName();
+
+        abstract void setBucketName(String bucketName);
+
+        abstract void setTruncated(boolean isTruncated);
+
+        /**
+         * Sets the field of the result the given element of the listing holds,
+         * if any.
+         */
+        abstract void setField(String name, String text);
+
+        abstract void addObjectSummary(S3ObjectSummary summary);
+
+        abstract void addCommonPrefix(String prefix);
+
+        /**
+         * Completes the result, once the document has been parsed.
+         */
+        abstract void ended(String lastKey, String lastCommonPrefix);
+    }
+
+    private final class ListObjectsBuilder extends ListingBuilder {
+        private final ObjectListing objectListing = new ObjectListing();
+
+        @Override
+        String getBucketName() {
+            return objectListing.getBucketName();
+        }
+
+        @Override
+        void setBucketName(String bucketName) {
+            objectListing.setBucketName(bucketName);
+        }
+
+        @Override
+        void setTruncated(boolean isTruncated) {
+            objectListing.setTruncated(isTruncated);
+        }
+
+        @Override
+        void setField(String name, String text) {
+            if (name.equals("Prefix")) {
+                objectListing.setPrefix(decodeIfSpecified(checkForEmptyString(text), shouldSDKDecodeResponse));
+            } else if (name.equals("Marker")) {
+                objectListing.setMarker(decodeIfSpecified(checkForEmptyString(text), shouldSDKDecodeResponse));
+            } else if (name.equals("NextMarker")) {
+                objectListing.setNextMarker(decodeIfSpecified(text, shouldSDKDecodeResponse));
+            } else if (name.equals("MaxKeys")) {
+                objectListing.setMaxKeys(parseInt(text));
+            } else if (name.equals("Delimiter")) {
+                objectListing.setDelimiter(decodeIfSpecified(checkForEmptyString(text), shouldSDKDecodeResponse));
+            } else if (name.equals("EncodingType")) {
+                objectListing.setEncodingType(shouldSDKDecodeResponse ? null : checkForEmptyString(text));
+            }
+        }
+
+        @Override
+        void addObjectSummary(S3ObjectSummary summary) {
+            objectListing.getObjectSummaries().add(summary);
+        }
+
+        @Override
+        void addCommonPrefix(String prefix) {
+            objectListing.getCommonPrefixes().add(prefix);
+        }
+
+        @Override
+        void ended(String lastKey, String lastCommonPrefix) {
+            /*
+             * S3 only includes the NextMarker XML element if the request
+             * specified a delimiter, but for consistency we'd like to always
+             * give easy access to the next marker if we're returning a list
+             * of results that's truncated.
+             */
+            if (objectListing.isTruncated() && objectListing.getNextMarker() == null) {
+                String nextMarker = lastKey != null ? lastKey : lastCommonPrefix;
+                if (nextMarker == null) {
+                    log.error("S3 response indicates truncated results, "
+                            + "but contains no object summaries or common prefixes.");
+                }
+                objectListing.setNextMarker(nextMarker);
+            }
+        }
+    }
+
+    private final class ListObjectsV2Builder extends ListingBuilder {
+        private final ListObjectsV2Result result = new ListObjectsV2Result();
+
+        @Override
+        String getBucketName() {
+            return result.getBucketName();
+        }
+
+        @Override
+        void setBucketName(String bucketName) {
+            result.setBucketName(bucketName);
+        }
+
+        @Override
+        void setTruncated(boolean isTruncated) {
+            result.setTruncated(isTruncated);
+        }
+
+        @Override
+        void setField(String name, String text) {
+            if (name.equals("Prefix")) {
+                result.setPrefix(decodeIfSpecified(checkForEmptyString(text), shouldSDKDecodeResponse));
+            } else if (name.equals("MaxKeys")) {
+                result.setMaxKeys(parseInt(text));
+            } else if (name.equals("NextContinuationToken")) {
+                result.setNextContinuationToken(text);
+            } else if (name.equals("ContinuationToken")) {
+                result.setContinuationToken(text);
+            } else if (name.equals("StartAfter")) {
+                result.setStartAfter(decodeIfSpecified(text, shouldSDKDecodeResponse));
+            } else if (name.equals("KeyCount")) {
+                result.setKeyCount(parseInt(text));
+            } else if (name.equals("Delimiter")) {
+                result.setDelimiter(decodeIfSpecified(checkForEmptyString(text), shouldSDKDecodeResponse));
+            } else if (name.equals("EncodingType")) {
+                result.setEncodingType(checkForEmptyString(text));
+            }
+        }
+
+        @Override
+        void addObjectSummary(S3ObjectSummary summary) {
+            result.getObjectSummaries().add(summary);
+        }
+
+        @Override
+        void addCommonPrefix(String prefix) {
+            result.getCommonPrefixes().add(prefix);
+        }
+
+        @Override
+        void ended(String lastKey, String lastCommonPrefix) {
+            /*
+             * S3 only includes the NextContinuationToken XML element if the
+             * request specified a delimiter, but for consistency we'd like to
+             * always give easy access to the next token if we're returning a
+             * list of results that's truncated.
+             */
+            if (result.isTruncated() && result.getNextContinuationToken() == null) {
+                if (lastKey == null) {
+                    log.error("S3 response indicates truncated results, "
+                            + "but contains no object summaries.");
+                }
+                result.setNextContinuationToken(lastKey);
+            }
+        }
+    }
+
+    /**
+     * Carries an exception thrown by the callback out of the parse unchanged.
+     */
+    private static final class CallbackException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private CallbackException(RuntimeException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized RuntimeException getCause() {
+            return (RuntimeException) super.getCause();
+        }
+    }
+}
@@ -64,8 +64,7 @@ public class Unmarshallers {
         }
 
         public ObjectListing unmarshall(InputStream in) throws Exception {
-            return new XmlResponsesSaxParser()
-                    .parseListBucketObjectsResponse(in, shouldSDKDecodeResponse).getObjectListing();
+            return new ListObjectsStaxParser(shouldSDKDecodeResponse).parseListObjectsResponse(in);
         }
     }
 
@@ -82,8 +81,7 @@ public class Unmarshallers {
         }
 
         public ListObjectsV2Result unmarshall(InputStream in) throws Exception {
-            return new XmlResponsesSaxParser()
-                    .parseListObjectsV2Response(in, shouldSDKDecodeResponse).getResult();
+            return new ListObjectsStaxParser(shouldSDKDecodeResponse).parseListObjectsV2Response(in);
         }
     }
 
@@ -15,17 +15,21 @@
 package com.amazonaws.services.s3.transfer;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.net.SocketException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.SSLProtocolException;
 
@@ -35,9 +39,11 @@ import org.apache.commons.logging.LogFactory;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.internal.Constants;
 import com.amazonaws.services.s3.internal.FileLocks;
 import com.amazonaws.services.s3.internal.ServiceUtils;
 import com.amazonaws.services.s3.internal.ServiceUtils.RetryableS3DownloadTask;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.transfer.Transfer.TransferState;
@@ -52,6 +58,11 @@ import com.amazonaws.util.IOUtils;
 final class DownloadCallable implements Callable<File> {
     private static final Log LOG = LogFactory.getLog(DownloadCallable.class);
 
+    /** Ranged downloads size their requests to take about this long. */
+    private static final long TARGET_RANGED_REQUEST_NANOS = TimeUnit.SECONDS.toNanos(4);
+    /** Upper bound of the number of ranges a ranged download requests at once. */
+    private static final long MAX_RANGES_PER_REQUEST = 16;
+
     private final AmazonS3 s3;
     private final CountDownLatch latch;
     private final GetObjectRequest req;
@@ -63,9 +74,16 @@ final class DownloadCallable implements Callable<File> {
     private final ScheduledExecutorService timedExecutor;
     /** The thread pool in which parts are downloaded downloaded. */
     private final ExecutorService executor;
-    private final List<Future<File>> futureFiles;
+    private final List<Future<PartRange>> futures;
+    /** The parts submitted by {@link #downloadInParallel(int)}, in the order of {@link #futures}. */
+    private final List<PartRange> partRanges;
     private final boolean isDownloadParallel;
     private Integer lastFullyMergedPartNumber;
+    /** Bit {@code n - 1} is set once part {@code n} has been written into the destination file. */
+    private long[] completedPartBitmap;
+    /** Size of the ranges of a ranged download; null if the object is downloaded by parts. */
+    private final Long rangedDownloadPartSize;
+    private final int maxRangedDownloadConcurrency;
     private final boolean resumeOnRetry;
 
     private long expectedFileLength;
@@ -76,7 +94,9 @@ final class DownloadCallable implements Callable<File> {
             long expectedFileLength, long timeout,
             ScheduledExecutorService timedExecutor,
             ExecutorService executor,
-            Integer lastFullyDownloadedPartNumber, boolean isDownloadParallel, boolean resumeOnRetry)
+            Integer lastFullyDownloadedPartNumber, long[] completedPartBitmap,
+            boolean isDownloadParallel, Long rangedDownloadPartSize, int maxRangedDownloadConcurrency,
+            boolean resumeOnRetry)
     {
         if (s3 == null || latch == null || req == null || dstfile == null || download == null)
             throw new IllegalArgumentException();
@@ -91,9 +111,13 @@ final class DownloadCallable implements Callable<File> {
         this.timeout = timeout;
         this.timedExecutor = timedExecutor;
         this.executor = executor;
-        this.futureFiles = new ArrayList<Future<File>>();
+        this.futures = new ArrayList<Future<PartRange>>();
+        this.partRanges = new ArrayList<PartRange>();
         this.lastFullyMergedPartNumber = lastFullyDownloadedPartNumber;
+        this.completedPartBitmap = completedPartBitmap == null ? null : completedPartBitmap.clone();
         this.isDownloadParallel = isDownloadParallel;
+        this.rangedDownloadPartSize = rangedDownloadPartSize;
+        this.maxRangedDownloadConcurrency = maxRangedDownloadConcurrency;
         this.resumeOnRetry = resumeOnRetry;
     }
 
@@ -128,7 +152,7 @@ final class DownloadCallable implements Callable<File> {
             ServiceUtils.createParentDirectoryIfNecessary(dstfile);
 
             if (isDownloadParallel) {
-                downloadInParallel(ServiceUtils.getPartCount(req, s3));
+                downloadInParallel(isRangedDownload() ? getRangedPartCount() : ServiceUtils.getPartCount(req, s3));
                 download.setState(TransferState.Completed);
             } else {
                 S3Object s3Object = retryableDownloadS3ObjectToFile(dstfile,
@@ -138,7 +162,7 @@ final class DownloadCallable implements Callable<File> {
             return dstfile;
         } catch (Throwable t) {
             // Cancel all the futures
-            for (Future<File> f : futureFiles) {
+            for (Future<PartRange> f : futures) {
                 f.cancel(true);
             }
             // Downloads aren't allowed to move from canceled to failed
@@ -167,82 +191,345 @@ final class DownloadCallable implements Callable<File> {
     }
 
     /**
-     * Downloads each part of the object into a seperate file synchronously and
-     * combines all the files into a single file.
+     * Downloads the parts of the object in parallel, each part being written
+     * directly into its position in the destination file. Parts recorded as
+     * complete by a paused download are skipped.
+     * <p>
+     * The parts are either the parts the object was uploaded in, all
+     * downloaded at once, or ranges of {@link #rangedDownloadPartSize} bytes.
+     * Ranges are downloaded by at most {@link #maxRangedDownloadConcurrency}
+     * concurrent requests, each covering as many consecutive ranges as the
+     * throughput of the previous requests allows to download in about
+     * {@link #TARGET_RANGED_REQUEST_NANOS}.
      */
     private void downloadInParallel(int partCount) throws Exception {
-        if (lastFullyMergedPartNumber == null) {
-            lastFullyMergedPartNumber = 0;
+        initCompletedParts(partCount);
+        // Make the restored state available right away, in case the download is paused again
+        // before any new part completes
+        download.updatePersistableTransfer(lastFullyMergedPartNumber, completedPartBitmap);
+
+        if (!FileLocks.lock(dstfile)) {
+            throw new FileLockException("Fail to lock " + dstfile);
+        }
+        try {
+            RandomAccessFile raf = new RandomAccessFile(dstfile, "rw");
+            try {
+                prepareDestinationFile(raf, partCount);
+            } finally {
+                IOUtils.closeQuietly(raf, LOG);
+            }
+
+            CompletionService<PartRange> completionService = new ExecutorCompletionService<PartRange>(executor);
+            int maxInFlight = isRangedDownload() ? Math.max(1, maxRangedDownloadConcurrency) : Integer.MAX_VALUE;
+            int partsPerRequest = 1;
+            int nextPart = 1;
+            int inFlight = 0;
+            int firstPart;
+            for (;;) {
+                while (inFlight < maxInFlight && (firstPart = nextIncompletePart(nextPart, partCount)) > 0) {
+                    int lastPart = firstPart;
+                    int maxLastPart = Math.min(partCount, firstPart + partsPerRequest - 1);
+                    while (lastPart < maxLastPart && !isPartCompleted(lastPart + 1)) {
+                        lastPart++;
+                    }
+                    PartRange partRange = new PartRange(firstPart, lastPart);
+                    partRanges.add(partRange);
+                    futures.add(completionService.submit(partRange));
+                    inFlight++;
+                    nextPart = lastPart + 1;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+                PartRange completed = completionService.take().get();
+                inFlight--;
+                for (int i = completed.firstPart; i <= completed.lastPart; i++) {
+                    markPartCompleted(i);
+                }
+                download.updatePersistableTransfer(lastFullyMergedPartNumber, completedPartBitmap);
+                if (isRangedDownload()) {
+                    partsPerRequest = partsPerRequest(completed, partCount - nextPart + 1);
+                }
+            }
+        } finally {
+            // No part may still write into the file once it is unlocked
+            cancelAndAwaitParts();
+            FileLocks.unlock(dstfile);
+        }
+    }
+
+    /**
+     * Cancels the parts that are still running, and waits until none of them
+     * touches the destination file anymore. A cancelled future doesn't wait
+     * for its task to stop, so each part records whether it started and when
+     * it finished.
+     */
+    private void cancelAndAwaitParts() {
+        for (Future<PartRange> f : futures) {
+            f.cancel(true);
+        }
+        boolean interrupted = false;
+        for (PartRange partRange : partRanges) {
+            if (!partRange.claimed.compareAndSet(false, true)) {
+                for (;;) {
+                    try {
+                        partRange.finished.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
         }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        for (int i = lastFullyMergedPartNumber + 1; i <= partCount; i++) {
-            GetObjectRequest getPartRequest = new GetObjectRequest(req.getBucketName(), req.getKey(),
-                    req.getVersionId()).withUnmodifiedSinceConstraint(req.getUnmodifiedSinceConstraint())
-                            .withModifiedSinceConstraint(req.getModifiedSinceConstraint())
-                            .withResponseHeaders(req.getResponseHeaders()).withSSECustomerKey(req.getSSECustomerKey())
-                            .withGeneralProgressListener(req.getGeneralProgressListener());
+    private boolean isRangedDownload() {
+        return rangedDownloadPartSize != null;
+    }
 
-            getPartRequest.setMatchingETagConstraints(req.getMatchingETagConstraints());
-            getPartRequest.setNonmatchingETagConstraints(req.getNonmatchingETagConstraints());
-            getPartRequest.setRequesterPays(req.isRequesterPays());
+    /**
+     * Returns the number of parts of a ranged download. A download resumed
+     * from a persisted state keeps the part size it was started with, which
+     * may not be valid anymore.
+     */
+    private int getRangedPartCount() {
+        long objectLength = download.getObjectMetadata().getContentLength();
+        if (rangedDownloadPartSize <= 0) {
+            throw new AmazonClientException("Invalid ranged download part size: " + rangedDownloadPartSize);
+        }
+        long partCount = (objectLength + rangedDownloadPartSize - 1) / rangedDownloadPartSize;
+        if (partCount > Constants.MAXIMUM_UPLOAD_PARTS) {
+            throw new AmazonClientException("A ranged download part size of " + rangedDownloadPartSize
+                    + " bytes splits an object of " + objectLength + " bytes into " + partCount
+                    + " ranges, more than the maximum of " + Constants.MAXIMUM_UPLOAD_PARTS);
+        }
+        return (int) partCount;
+    }
 
-            futureFiles.add(
-                    executor.submit(new DownloadPartCallable(s3, getPartRequest.withPartNumber(i), dstfile)));
+    /**
+     * Returns the first part from the given one that is not complete, or -1.
+     */
+    private int nextIncompletePart(int fromPart, int partCount) {
+        for (int i = fromPart; i <= partCount; i++) {
+            if (!isPartCompleted(i)) {
+                return i;
+            }
         }
+        return -1;
+    }
+
+    /**
+     * Returns how many ranges the next request of a ranged download should
+     * cover: enough to keep the connection busy for about
+     * {@link #TARGET_RANGED_REQUEST_NANOS} at the throughput of the last
+     * request, but no more than the remaining ranges spread over all
+     * connections, so that the download does not end on a single request.
+     */
+    private int partsPerRequest(PartRange completed, int remainingParts) {
+        long bytes = getPartEnd(completed.lastPart) - getPartStart(completed.firstPart) + 1;
+        double bytesPerNano = (double) bytes / Math.max(1, completed.elapsedNanos);
+        long parts = (long) (bytesPerNano * TARGET_RANGED_REQUEST_NANOS / rangedDownloadPartSize);
+        int fairShare = (remainingParts + maxRangedDownloadConcurrency - 1) / Math.max(1, maxRangedDownloadConcurrency);
+        return (int) Math.max(1, Math.min(Math.min(parts, MAX_RANGES_PER_REQUEST), fairShare));
+    }
+
+    private long getPartStart(int partNumber) {
+        return (partNumber - 1) * rangedDownloadPartSize;
+    }
 
-        combineFiles();
+    private long getPartEnd(int partNumber) {
+        return Math.min(partNumber * rangedDownloadPartSize, download.getObjectMetadata().getContentLength()) - 1;
     }
 
     /**
-     * Merges all the individual part Files into dstFile
+     * Downloads consecutive parts with one request, and records how long it
+     * took.
      */
-    private void combineFiles() throws Exception {
-        truncateDestinationFileIfNecessary();
+    private final class PartRange implements Callable<PartRange> {
+        private final int firstPart;
+        private final int lastPart;
+        /** Set by whichever comes first of the part starting, or the download being cleaned up. */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private long elapsedNanos;
 
-        for (Future<File> f : futureFiles) {
-            File partFile = f.get();
-            ServiceUtils.appendFile(partFile, dstfile);
-            download.updatePersistableTransfer(++lastFullyMergedPartNumber);
+        private PartRange(int firstPart, int lastPart) {
+            this.firstPart = firstPart;
+            this.lastPart = lastPart;
+        }
+
+        @Override
+        public PartRange call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new AmazonClientException("Download of part " + firstPart + " was cancelled");
+            }
             try {
-                if (!partFile.delete()) {
-                    LOG.warn("The file " + partFile.getAbsolutePath() + " could not be deleted.");
-                }
-            } catch (SecurityException exception) {
-                LOG.warn("SecurityException denied delete access to file " + partFile.getAbsolutePath());
+                GetObjectRequest request = isRangedDownload()
+                        ? createGetRangeRequest(getPartStart(firstPart), getPartEnd(lastPart))
+                        : createGetPartRequest(firstPart);
+                long start = System.nanoTime();
+                new DownloadPartCallable(s3, request, dstfile).call();
+                elapsedNanos = System.nanoTime() - start;
+                return this;
+            } finally {
+                finished.countDown();
             }
         }
     }
 
+    private GetObjectRequest createGetRangeRequest(long start, long end) {
+        GetObjectRequest getRangeRequest = createGetObjectRequest();
+        getRangeRequest.setRange(start, end);
+        // Ranges of different versions of the object must not end up in the same file
+        String eTag = download.getObjectMetadata().getETag();
+        if (eTag != null && !getRangeRequest.getMatchingETagConstraints().contains(eTag)) {
+            getRangeRequest.withMatchingETagConstraint(eTag);
+        }
+        return getRangeRequest;
+    }
+
+    private GetObjectRequest createGetPartRequest(int partNumber) {
+        return createGetObjectRequest().withPartNumber(partNumber);
+    }
+
     /**
-     * If only partial part object is merged into the dstFile(due to pause
-     * operation), adjust the file length so that the part starts writing from
-     * the correct position.
+     * Returns a request for part of the object, with the same constraints as
+     * the original request.
      */
-    private void truncateDestinationFileIfNecessary() {
-        RandomAccessFile raf = null;
-        if (!FileLocks.lock(dstfile)) {
-            throw new FileLockException("Fail to lock " + dstfile);
+    private GetObjectRequest createGetObjectRequest() {
+        GetObjectRequest getPartRequest = new GetObjectRequest(req.getBucketName(), req.getKey(),
+                req.getVersionId()).withUnmodifiedSinceConstraint(req.getUnmodifiedSinceConstraint())
+                        .withModifiedSinceConstraint(req.getModifiedSinceConstraint())
+                        .withResponseHeaders(req.getResponseHeaders()).withSSECustomerKey(req.getSSECustomerKey())
+                        .withGeneralProgressListener(req.getGeneralProgressListener());
+
+        // Copied, since range requests add their own constraint
+        if (req.getMatchingETagConstraints() != null) {
+            getPartRequest.setMatchingETagConstraints(new ArrayList<String>(req.getMatchingETagConstraints()));
         }
+        getPartRequest.setNonmatchingETagConstraints(req.getNonmatchingETagConstraints());
+        getPartRequest.setRequesterPays(req.isRequesterPays());
+        return getPartRequest;
+    }
 
-        try {
-            raf = new RandomAccessFile(dstfile, "rw");
-            if (lastFullyMergedPartNumber == 0) {
-                raf.setLength(0);
-            } else {
-                long lastByte = ServiceUtils.getLastByteInPart(s3, req, lastFullyMergedPartNumber);
-                if (dstfile.length() < lastByte) {
-                    throw new AmazonClientException(
-                            "File " + dstfile.getAbsolutePath() + " has been modified since last pause.");
+    /**
+     * Restores the completed parts of a paused download. Downloads paused
+     * before the bitmap was recorded had merged parts 1 to
+     * lastFullyMergedPartNumber, in order, at the start of the file.
+     */
+    private void initCompletedParts(int partCount) {
+        int length = (partCount + 63) / 64;
+        if (completedPartBitmap == null) {
+            completedPartBitmap = new long[length];
+            int lastMerged = lastFullyMergedPartNumber == null ? 0 : lastFullyMergedPartNumber;
+            for (int i = 1; i <= Math.min(lastMerged, partCount); i++) {
+                markPartCompleted(i);
+            }
+        } else if (completedPartBitmap.length < length) {
+            completedPartBitmap = Arrays.copyOf(completedPartBitmap, length);
+        }
+        lastFullyMergedPartNumber = 0;
+        while (lastFullyMergedPartNumber < partCount && isPartCompleted(lastFullyMergedPartNumber + 1)) {
+            lastFullyMergedPartNumber++;
+        }
+    }
+
+    private boolean isPartCompleted(int partNumber) {
+        int bit = partNumber - 1;
+        return (bit >>> 6) < completedPartBitmap.length
+                && (completedPartBitmap[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private void markPartCompleted(int partNumber) {
+        int bit = partNumber - 1;
+        completedPartBitmap[bit >>> 6] |= 1L << bit;
+        if (lastFullyMergedPartNumber != null) {
+            while (isPartCompleted(lastFullyMergedPartNumber + 1)) {
+                lastFullyMergedPartNumber++;
+            }
+        }
+    }
+
+    /**
+     * Sizes the destination file to the length of the object so that parts
+     * can be written at their position. The content of completed parts is
+     * kept and counted as transferred; any other content is discarded.
+     */
+    private void prepareDestinationFile(RandomAccessFile raf, int partCount) throws IOException {
+        if (!hasCompletedParts(partCount)) {
+            raf.setLength(0);
+        } else {
+            long completedBytes = 0;
+            long lastByte = -1;
+            long uploadedPartSize = isRangedDownload() ? -1 : getUploadedPartSize(partCount);
+            if (lastFullyMergedPartNumber > 0) {
+                lastByte = getCompletedPartRange(lastFullyMergedPartNumber, uploadedPartSize)[1];
+                completedBytes = lastByte + 1;
+            }
+            for (int i = lastFullyMergedPartNumber + 2; i <= partCount; i++) {
+                if (isPartCompleted(i)) {
+                    long[] range = getCompletedPartRange(i, uploadedPartSize);
+                    completedBytes += range[1] - range[0] + 1;
+                    lastByte = Math.max(lastByte, range[1]);
                 }
-                raf.setLength(lastByte + 1);
-                download.getProgress().updateProgress(lastByte + 1);
             }
-        } catch (Exception e) {
-            throw new AmazonClientException("Unable to append part file to dstfile " + e.getMessage(), e);
-        } finally {
-            IOUtils.closeQuietly(raf, LOG);
-            FileLocks.unlock(dstfile);
+            if (raf.length() <= lastByte) {
+                throw new AmazonClientException(
+                        "File " + dstfile.getAbsolutePath() + " has been modified since last pause.");
+            }
+            download.getProgress().updateProgress(completedBytes);
+        }
+        raf.setLength(download.getObjectMetadata().getContentLength());
+    }
+
+    private boolean hasCompletedParts(int partCount) {
+        for (int i = 1; i <= partCount; i++) {
+            if (isPartCompleted(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the size of the parts of an object downloaded by parts, from a
+     * single request for the range of its first part, if all its parts but the
+     * last one have that size, as they have when uploaded by
+     * {@link TransferManager}; -1 otherwise.
+     */
+    private long getUploadedPartSize(int partCount) {
+        long objectLength = download.getObjectMetadata().getContentLength();
+        long partSize = ServiceUtils.getLastByteInPart(s3, req, 1) + 1;
+        return partSize * (partCount - 1) < objectLength && objectLength <= partSize * partCount
+                ? partSize : -1;
+    }
+
+    /**
+     * Returns the first and last bytes of a completed part, without any
+     * request when the parts have a known size. The bytes of a part are
+     * only used to count the progress and check the destination file; parts
+     * are always written at the position of the range they are returned with.
+     */
+    private long[] getCompletedPartRange(int partNumber, long uploadedPartSize) {
+        if (isRangedDownload()) {
+            return new long[] {getPartStart(partNumber), getPartEnd(partNumber)};
+        } else if (uploadedPartSize > 0) {
+            long start = (partNumber - 1) * uploadedPartSize;
+            return new long[] {start,
+                    Math.min(start + uploadedPartSize, download.getObjectMetadata().getContentLength()) - 1};
         }
+        return getPartRange(partNumber);
+    }
+
+    private long[] getPartRange(int partNumber) {
+        Long[] range = s3.getObjectMetadata(new GetObjectMetadataRequest(req.getBucketName(), req.getKey(),
+                req.getVersionId())
+                .withSSECustomerKey(req.getSSECustomerKey())
+                .withPartNumber(partNumber)).getContentRange();
+        return new long[] {range[0], range[1]};
     }
 
     /**
@@ -31,6 +31,14 @@ final class MultipleFileTransferStateChangeListener implements TransferStateChan
         this.multipleFileTransfer = multipleFileTransfer;
     }
 
+    /**
+     * Creates a listener for a transfer whose monitor is not done until all of
+     * its sub-transfers have been queued, so there is nothing to wait for.
+     */
+    public MultipleFileTransferStateChangeListener(MultipleFileTransfer<?> multipleFileTransfer) {
+        this(new CountDownLatch(0), multipleFileTransfer);
+    }
+
     @Override
     public void transferStateChanged(Transfer upload, TransferState state) {
         // There's a race here: we can't start monitoring the state of
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import java.util.Collection;
+
+/**
+ * Multiple object copy of all the objects under a key prefix.
+ */
+public interface MultipleObjectCopy extends Transfer {
+
+    /**
+     * Returns the name of the bucket from which objects are copied.
+     */
+    public String getSourceBucketName();
+
+    /**
+     * Returns the key prefix of the objects being copied.
+     */
+    public String getSourceKeyPrefix();
+
+    /**
+     * Returns the name of the bucket to which objects are copied.
+     */
+    public String getDestinationBucketName();
+
+    /**
+     * Returns the key prefix that replaces the source key prefix in the keys
+     * of the copies.
+     */
+    public String getDestinationKeyPrefix();
+
+    /**
+     * Returns a collection of the sub transfers associated with the multiple
+     * object copy that haven't completed, which grows while the objects are
+     * listed.
+     */
+    public Collection<? extends Copy> getSubTransfers();
+
+    /**
+     * Stops listing objects, and cancels the copies that have not completed.
+     */
+    public void abort();
+}
@@ -15,6 +15,7 @@
 package com.amazonaws.services.s3.transfer;
 
 import com.amazonaws.services.s3.model.ResponseHeaderOverrides;
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -69,6 +70,21 @@ public final class PersistableDownload extends PersistableTransfer {
     @JsonProperty
     private final Integer lastFullyDownloadedPartNumber;
 
+    /**
+     * The parts that have been fully written into the downloaded file, as a
+     * bitmap in which bit {@code n - 1} is set if part {@code n} is complete.
+     */
+    @JsonProperty
+    private final long[] completedPartBitmap;
+
+    /**
+     * For objects downloaded with concurrent ranged requests, the size of the
+     * ranges the object was split into; the parts of the bitmap are these
+     * ranges. Null if the object was downloaded by its upload parts.
+     */
+    @JsonProperty
+    private final Long rangedDownloadPartSize;
+
     /**
      * Last Modified/created time on Amazon S3 for this object.
      */
@@ -80,6 +96,21 @@ public final class PersistableDownload extends PersistableTransfer {
         this(null, null, null, null, null, false, null, null, 0L);
     }
 
+    public PersistableDownload(
+            String bucketName,
+            String key,
+            String versionId,
+            long[] range,
+            ResponseHeaderOverrides responseHeaders,
+            boolean isRequesterPays,
+            String file,
+            Integer lastFullyDownloadedPartNumber,
+            long lastModifiedTime) {
+        this(bucketName, key, versionId, range, responseHeaders, isRequesterPays, file,
+                lastFullyDownloadedPartNumber, lastModifiedTime, null, null);
+    }
+
+    @JsonCreator
     public PersistableDownload(
             @JsonProperty(value = "bucketName") String bucketName,
             @JsonProperty(value = "key") String key,
@@ -89,7 +120,9 @@ public final class PersistableDownload extends PersistableTransfer {
             @JsonProperty(value = "isRequesterPays") boolean isRequesterPays,
             @JsonProperty(value = "file") String file,
             @JsonProperty(value = "lastFullyDownloadedPartNumber") Integer lastFullyDownloadedPartNumber,
-            @JsonProperty(value = "lastModifiedTime") long lastModifiedTime) {
+            @JsonProperty(value = "lastModifiedTime") long lastModifiedTime,
+            @JsonProperty(value = "completedPartBitmap") long[] completedPartBitmap,
+            @JsonProperty(value = "rangedDownloadPartSize") Long rangedDownloadPartSize) {
         this.bucketName = bucketName;
         this.key = key;
         this.versionId = versionId;
@@ -99,6 +132,8 @@ public final class PersistableDownload extends PersistableTransfer {
         this.file = file;
         this.lastFullyDownloadedPartNumber = lastFullyDownloadedPartNumber;
         this.lastModifiedTime = lastModifiedTime;
+        this.completedPartBitmap = completedPartBitmap == null ? null : completedPartBitmap.clone();
+        this.rangedDownloadPartSize = rangedDownloadPartSize;
     }
 
     /**
@@ -162,6 +197,22 @@ public final class PersistableDownload extends PersistableTransfer {
         return lastFullyDownloadedPartNumber;
     }
 
+    /**
+     * Returns the bitmap of the parts that were successfully written into the
+     * downloaded file, or null if it was not recorded.
+     */
+    long[] getCompletedPartBitmap() {
+        return completedPartBitmap == null ? null : completedPartBitmap.clone();
+    }
+
+    /**
+     * Returns the size of the ranges of a ranged download, or null if the
+     * object was downloaded by its upload parts.
+     */
+    Long getRangedDownloadPartSize() {
+        return rangedDownloadPartSize;
+    }
+
     /**
      * Returns the last modified/created time of the object represented by
      * the bucketName and key.
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.internal.AbstractTransfer;
+import com.amazonaws.services.s3.transfer.internal.MultipleFileTransfer;
+import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
+
+/**
+ * Starts the sub-transfers of a multiple file transfer while the files to
+ * transfer are still being listed, instead of listing them all first.
+ * <p>
+ * The listing is split into partitions, such as virtual subdirectories, that
+ * are listed concurrently, by at most a given number of threads of a pool
+ * shared by all multiple file transfers. Listing threads block while
+ * sub-transfers are pending, so they can't be threads of the pool of the
+ * TransferManager that runs the sub-transfers. Each listed item starts
+ * transferring right away, on the thread pool of the TransferManager. Listing blocks while the maximum number of sub-transfers are
+ * pending, so only a bounded amount of listed work is held at any time.
+ * Completed sub-transfers are removed from the sub-transfers of the multiple
+ * file transfer, whose progress already counts their bytes, so that only the
+ * pending and unsuccessful ones are held.
+ * <p>
+ * The number of sub-transfers that may be pending is halved, down to one, when
+ * a sub-transfer is reported {@link #throttled(TransferStateChangeListener)
+ * throttled}, at most once per round of sub-transfers, and grows back by one
+ * with each sub-transfer that completes without having been throttled.
+ * <p>
+ * This future completes, with the number of sub-transfers started, once every
+ * partition has been listed; it is the future the monitor of the multiple file
+ * transfer waits for before its sub-transfers. An error listing the first
+ * page is thrown by {@link #start(Object)}. If listing fails later, the
+ * sub-transfers started so far are aborted and the transfer fails. Canceling
+ * this future stops the listing.
+ *
+ * @param <P>
+ *            The type of the partitions of the listing
+ * @param <I>
+ *            The type of the items listed
+ * @param <T>
+ *            The type of the sub-transfers
+ */
+abstract class SubTransferProducer<P, I, T extends AbstractTransfer> implements Future<Integer> {
+    private static final Log log = LogFactory.getLog(SubTransferProducer.class);
+
+    /** Idle listing threads terminate after a minute. */
+    private static final ExecutorService LISTING_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger(1);
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r);
+                    thread.setName("s3-transfer-manager-lister-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final MultipleFileTransfer<?> multipleFileTransfer;
+    private final Collection<T> subTransfers;
+    private final TransferStateChangeListener stateChangeListener;
+    private final Semaphore pendingSubTransfers;
+    private final int maxPendingSubTransfers;
+    private final int listingConcurrency;
+    private final Queue<P> partitions = new ConcurrentLinkedQueue<P>();
+    private final AtomicInteger activeListers = new AtomicInteger();
+    /** The threads listing a partition, interrupted if the listing stops. */
+    private final Set<Thread> listingThreads = new HashSet<Thread>();
+
+    /** The number of partitions submitted but not completely listed. */
+    private final AtomicInteger outstandingPartitions = new AtomicInteger();
+    private final AtomicInteger startedSubTransfers = new AtomicInteger();
+
+    /** Counted down once the first page has been listed, or the listing is done. */
+    private final CountDownLatch firstPageListed = new CountDownLatch(1);
+    /** Counted down once the listing is done. */
+    private final CountDownLatch completion = new CountDownLatch(1);
+    private Integer result;
+    private Throwable exception;
+    private boolean cancelled;
+    /** Whether the listing failed before its first page was listed. */
+    private boolean failedOnFirstPage;
+
+    /** Guards the limit on pending sub-transfers, lowered while they are throttled. */
+    private final Object limitLock = new Object();
+    private int pendingLimit;
+    /** The slots to take back as they are freed, since the limit was lowered. */
+    private int withheldSlots;
+    private int slotSequence;
+    /** The sub-transfers started before the last decrease of the limit don't decrease it again. */
+    private int firstSlotAfterDecrease;
+
+    SubTransferProducer(MultipleFileTransfer<?> multipleFileTransfer, Collection<T> subTransfers,
+            int maxPendingSubTransfers, int listingConcurrency) {
+        this.multipleFileTransfer = multipleFileTransfer;
+        this.subTransfers = subTransfers;
+        this.stateChangeListener = new MultipleFileTransferStateChangeListener(multipleFileTransfer);
+        this.maxPendingSubTransfers = Math.max(1, maxPendingSubTransfers);
+        this.pendingSubTransfers = new Semaphore(this.maxPendingSubTransfers);
+        this.pendingLimit = this.maxPendingSubTransfers;
+        this.listingConcurrency = Math.max(1, listingConcurrency);
+    }
+
+    /**
+     * Starts listing from the given partition, and returns once its first page
+     * has been listed.
+     *
+     * @throws AmazonClientException
+     *             If the first page couldn't be listed, for example because
+     *             the bucket doesn't exist or access to it is denied. The
+     *             multiple file transfer has failed.
+     */
+    void start(P root) {
+        addPartition(root);
+        try {
+            firstPageListed.await();
+        } catch ( InterruptedException e ) {
+            cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException("Interrupted while listing", e);
+        }
+        Throwable t;
+        synchronized (this) {
+            t = failedOnFirstPage ? exception : null;
+        }
+        if ( t instanceof RuntimeException ) {
+            throw (RuntimeException) t;
+        } else if ( t instanceof Error ) {
+            throw (Error) t;
+        } else if ( t != null ) {
+            throw new AmazonClientException("Unable to list " + root, t);
+        }
+    }
+
+    /**
+     * Lists the given partition, calling {@link #addPartition(Object)} for the
+     * partitions found in it, {@link #addItem(Object)} for its items and
+     * {@link #pageListed()} once each page of it has been retrieved.
+     */
+    abstract void list(P partition) throws InterruptedException;
+
+    /**
+     * Starts the sub-transfer of the given item, which must notify the given
+     * listener of its state changes.
+     */
+    abstract T startSubTransfer(I item, TransferStateChangeListener stateChangeListener);
+
+    /**
+     * Aborts a sub-transfer because the listing failed or was canceled.
+     */
+    abstract void abortSubTransfer(T subTransfer);
+
+    /**
+     * Lists the given partition concurrently with the others.
+     */
+    final void addPartition(P partition) {
+        outstandingPartitions.incrementAndGet();
+        partitions.add(partition);
+        startListers();
+    }
+
+    /**
+     * Starts listers for the queued partitions, up to the listing concurrency.
+     */
+    private void startListers() {
+        for (;;) {
+            int active = activeListers.get();
+            if ( active >= listingConcurrency || partitions.isEmpty() ) {
+                return;
+            }
+            if ( activeListers.compareAndSet(active, active + 1) ) {
+                LISTING_EXECUTOR.execute(new Lister());
+            }
+        }
+    }
+
+    /**
+     * Lists queued partitions until there are none left.
+     */
+    private final class Lister implements Runnable {
+        @Override
+        public void run() {
+            for (;;) {
+                P partition = partitions.poll();
+                if ( partition == null ) {
+                    activeListers.decrementAndGet();
+                    // A partition queued after the poll and before the decrement may have found
+                    // every lister active
+                    startListers();
+                    return;
+                }
+                if ( isDone() ) {
+                    continue;
+                }
+                try {
+                    beginListing();
+                    try {
+                        list(partition);
+                    } finally {
+                        endListing();
+                    }
+                } catch ( Throwable t ) {
+                    // Ignored if interrupted because the listing was canceled
+                    complete(null, t, false);
+                    continue;
+                }
+                if ( outstandingPartitions.decrementAndGet() == 0 ) {
+                    complete(startedSubTransfers.get(), null, false);
+                }
+            }
+        }
+
+        private void beginListing() throws InterruptedException {
+            synchronized (listingThreads) {
+                if ( isDone() ) {
+                    throw new InterruptedException();
+                }
+                listingThreads.add(Thread.currentThread());
+            }
+        }
+
+        private void endListing() {
+            synchronized (listingThreads) {
+                listingThreads.remove(Thread.currentThread());
+                // Don't leave an interrupt meant for this listing to the next task of the shared pool
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Notes that a page of a partition has been retrieved, so that
+     * {@link #start(Object)} can return.
+     */
+    final void pageListed() {
+        firstPageListed.countDown();
+    }
+
+    /**
+     * Starts the sub-transfer of the given item, once fewer than the maximum
+     * number of sub-transfers are pending.
+     */
+    final void addItem(I item) throws InterruptedException {
+        pendingSubTransfers.acquire();
+        PendingSubTransferListener listener;
+        synchronized (limitLock) {
+            listener = new PendingSubTransferListener(slotSequence++);
+        }
+        T subTransfer;
+        try {
+            subTransfer = startSubTransfer(item, listener);
+        } catch ( RuntimeException e ) {
+            listener.release(false);
+            throw e;
+        }
+        subTransfers.add(subTransfer);
+        startedSubTransfers.incrementAndGet();
+        // It may have completed, and not been released, before it was added
+        if ( subTransfer.getState() == TransferState.Completed ) {
+            subTransfers.remove(subTransfer);
+        }
+        // done() may have aborted the sub-transfers before this one was added
+        if ( isStopped() ) {
+            abortSubTransfer(subTransfer);
+        }
+    }
+
+    /**
+     * Halves the number of sub-transfers that may be pending, down to one,
+     * because the service throttled the sub-transfer notifying the given
+     * listener, unless it started before the last decrease.
+     */
+    final void throttled(TransferStateChangeListener subTransferListener) {
+        PendingSubTransferListener listener = (PendingSubTransferListener) subTransferListener;
+        int lowered;
+        synchronized (limitLock) {
+            listener.throttled = true;
+            if ( listener.sequence < firstSlotAfterDecrease ) {
+                return;
+            }
+            lowered = Math.max(1, pendingLimit / 2);
+            withheldSlots += pendingLimit - lowered;
+            pendingLimit = lowered;
+            firstSlotAfterDecrease = slotSequence;
+        }
+        if ( log.isDebugEnabled() ) {
+            log.debug("Throttled; reduced the number of pending sub-transfers of "
+                    + multipleFileTransfer.getDescription() + " to " + lowered);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return complete(null, null, true);
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return completion.getCount() == 0;
+    }
+
+    @Override
+    public Integer get() throws InterruptedException, ExecutionException {
+        completion.await();
+        return getResult();
+    }
+
+    @Override
+    public Integer get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if ( !completion.await(timeout, unit) ) {
+            throw new TimeoutException();
+        }
+        return getResult();
+    }
+
+    private synchronized Integer getResult() throws ExecutionException {
+        if ( cancelled ) {
+            throw new CancellationException();
+        } else if ( exception != null ) {
+            throw new ExecutionException(exception);
+        }
+        return result;
+    }
+
+    /** Whether the listing was canceled or failed. */
+    private synchronized boolean isStopped() {
+        return cancelled || exception != null;
+    }
+
+    /**
+     * Completes the listing with the given outcome, unless it is already done.
+     */
+    private boolean complete(Integer result, Throwable exception, boolean cancelled) {
+        synchronized (this) {
+            if ( isDone() ) {
+                return false;
+            }
+            this.result = result;
+            this.exception = exception;
+            this.cancelled = cancelled;
+            this.failedOnFirstPage = exception != null && firstPageListed.getCount() > 0;
+            completion.countDown();
+        }
+        firstPageListed.countDown();
+        done();
+        return true;
+    }
+
+    private void done() {
+        boolean failed;
+        synchronized (this) {
+            failed = exception != null;
+        }
+        if ( isCancelled() || failed ) {
+            synchronized (listingThreads) {
+                for ( Thread thread : listingThreads ) {
+                    thread.interrupt();
+                }
+            }
+        }
+        if ( failed ) {
+            synchronized (multipleFileTransfer) {
+                if ( !multipleFileTransfer.isDone() )
+                    multipleFileTransfer.setState(TransferState.Failed);
+            }
+            /*
+             * Sub-transfers notify the state change listener while holding
+             * their own lock, so they are aborted without holding ours.
+             */
+            for ( T subTransfer : subTransfers ) {
+                abortSubTransfer(subTransfer);
+            }
+            return;
+        }
+        synchronized (multipleFileTransfer) {
+            if ( multipleFileTransfer.isDone() )
+                return;
+
+            if ( multipleFileTransfer.getMonitor().isDone() ) {
+                /*
+                 * The last sub-transfer finished before the listing did, so it
+                 * is up to us to report the final state.
+                 */
+                if ( isCancelled() && startedSubTransfers.get() == 0 ) {
+                    multipleFileTransfer.setState(TransferState.Canceled);
+                } else {
+                    multipleFileTransfer.collateFinalState();
+                }
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of a sub-transfer once it reaches a terminal state, and
+     * releases it if it completed, then forwards its state changes to the
+     * multiple file transfer.
+     */
+    private final class PendingSubTransferListener implements TransferStateChangeListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final int sequence;
+        /** Whether the sub-transfer was throttled; guarded by the limit lock. */
+        private boolean throttled;
+
+        private PendingSubTransferListener(int sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void transferStateChanged(Transfer transfer, TransferState state) {
+            if ( state == TransferState.Completed ) {
+                // Failed and canceled sub-transfers are kept to report the final state
+                subTransfers.remove(transfer);
+            }
+            if ( state == TransferState.Completed || state == TransferState.Failed
+                    || state == TransferState.Canceled ) {
+                release(state == TransferState.Completed);
+            }
+            stateChangeListener.transferStateChanged(transfer, state);
+        }
+
+        /**
+         * Frees the slot of the sub-transfer, unless the limit was lowered
+         * since, and adds one if it completed without being throttled.
+         */
+        void release(boolean completed) {
+            if ( !released.compareAndSet(false, true) ) {
+                return;
+            }
+            synchronized (limitLock) {
+                if ( withheldSlots > 0 ) {
+                    withheldSlots--;
+                    return;
+                }
+                if ( completed && !throttled && pendingLimit < maxPendingSubTransfers ) {
+                    pendingLimit++;
+                    pendingSubTransfers.release();
+                }
+            }
+            pendingSubTransfers.release();
+        }
+    }
+}
@@ -22,8 +22,11 @@ import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.event.ProgressEvent;
+import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.event.ProgressListener;
 import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.event.SyncProgressListener;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.internal.FileLocks;
@@ -34,10 +37,10 @@ import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
-import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.MultipartUpload;
 import com.amazonaws.services.s3.model.MultipartUploadListing;
-import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
@@ -46,11 +49,14 @@ import com.amazonaws.services.s3.transfer.exception.FileLockException;
 import com.amazonaws.services.s3.transfer.internal.CopyCallable;
 import com.amazonaws.services.s3.transfer.internal.CopyImpl;
 import com.amazonaws.services.s3.transfer.internal.CopyMonitor;
+import com.amazonaws.services.s3.transfer.internal.DeletePrefixMonitor;
 import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
 import com.amazonaws.services.s3.transfer.internal.DownloadMonitor;
 import com.amazonaws.services.s3.transfer.internal.MultipleFileDownloadImpl;
 import com.amazonaws.services.s3.transfer.internal.MultipleFileTransferMonitor;
 import com.amazonaws.services.s3.transfer.internal.MultipleFileUploadImpl;
+import com.amazonaws.services.s3.transfer.internal.MultipleObjectCopyImpl;
+import com.amazonaws.services.s3.transfer.internal.MultipleObjectDeleteImpl;
 import com.amazonaws.services.s3.transfer.internal.S3ProgressListener;
 import com.amazonaws.services.s3.transfer.internal.S3ProgressListenerChain;
 import com.amazonaws.services.s3.transfer.internal.TransferManagerUtils;
@@ -65,12 +71,13 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -79,6 +86,7 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.amazonaws.event.SDKProgressPublisher.publishRequestBytesTransferred;
 import static com.amazonaws.services.s3.internal.ServiceUtils.APPEND_MODE;
 import static com.amazonaws.services.s3.internal.ServiceUtils.OVERWRITE_MODE;
 
@@ -355,6 +363,9 @@ public class TransferManager {
      * contents in memory and upload the options as a traditional, single part
      * upload. Because the entire stream contents must be buffered in memory,
      * this can be very expensive, and should be avoided whenever possible.
+     * If {@link TransferManagerConfiguration#getMaxStreamUploadBuffers()} is
+     * set, the stream is instead uploaded in concurrent parts read into a
+     * bounded number of buffers.
      * </p>
      * <p>
      * Use the returned <code>Upload</code> object to query the progress of the
@@ -955,7 +966,7 @@ public class TransferManager {
                              final File file, final S3ProgressListener progressListener,
                              final long timeoutMillis, final boolean resumeOnRetry) {
         return doDownload(getObjectRequest, file, null, progressListener,
-                OVERWRITE_MODE, timeoutMillis, null, 0L, resumeOnRetry);
+                OVERWRITE_MODE, timeoutMillis, null, null, null, 0L, resumeOnRetry);
     }
 
     /**
@@ -973,7 +984,7 @@ public class TransferManager {
             final long lastModifiedTimeRecordedDuringPause)
     {
         return doDownload(getObjectRequest, file, stateListener, s3progressListener,
-                resumeExistingDownload, timeoutMillis, lastFullyDownloadedPart,
+                resumeExistingDownload, timeoutMillis, lastFullyDownloadedPart, null, null,
                 lastModifiedTimeRecordedDuringPause, false);
     }
 
@@ -989,6 +1000,8 @@ public class TransferManager {
             final boolean resumeExistingDownload,
             final long timeoutMillis,
             final Integer lastFullyDownloadedPart,
+            final long[] completedPartBitmap,
+            final Long resumedRangedDownloadPartSize,
             final long lastModifiedTimeRecordedDuringPause,
             final boolean resumeOnRetry)
     {
@@ -1035,13 +1048,27 @@ public class TransferManager {
         }
 
         final long origStartingByte = startingByte;
-        final boolean isDownloadParallel =
+        boolean isDownloadParallel =
                 TransferManagerUtils.isDownloadParallelizable(s3, getObjectRequest, ServiceUtils.getPartCount(getObjectRequest, s3))
                         && !configuration.isDisableParallelDownloads();
 
+        // Objects that have no parts can still be split into ranges. A resumed ranged download
+        // keeps the ranges it was started with, since they define its completed part bitmap.
+        Long rangedDownloadPartSize = resumedRangedDownloadPartSize;
+        if (rangedDownloadPartSize == null && !isDownloadParallel
+                && TransferManagerUtils.isDownloadRangeSplittable(s3, getObjectRequest,
+                        objectMetadata.getContentLength(), configuration)) {
+            rangedDownloadPartSize = TransferManagerUtils.calculateRangedDownloadPartSize(
+                    objectMetadata.getContentLength(), configuration);
+        }
+        if (rangedDownloadPartSize != null) {
+            isDownloadParallel = true;
+        }
+
         // We still pass the unfiltered listener chain into DownloadImpl
         final DownloadImpl download = new DownloadImpl(description, transferProgress, listenerChain, null,
                 stateListener, getObjectRequest, file, objectMetadata, isDownloadParallel);
+        download.setRangedDownloadPartSize(rangedDownloadPartSize);
 
         long totalBytesToDownload = lastByte - startingByte + 1;
         transferProgress.setTotalBytesToTransfer(totalBytesToDownload);
@@ -1102,7 +1129,8 @@ public class TransferManager {
             new DownloadCallable(s3, latch,
                 getObjectRequest, resumeExistingDownload,
                 download, file, origStartingByte, fileLength, timeoutMillis, timedThreadPool,
-                executorService, lastFullyDownloadedPart, isDownloadParallel, resumeOnRetry));
+                executorService, lastFullyDownloadedPart, completedPartBitmap, isDownloadParallel,
+                rangedDownloadPartSize, configuration.getMaxRangedDownloadConcurrency(), resumeOnRetry));
         download.setMonitor(new DownloadMonitor(download, future));
         latch.countDown();
         return download;
@@ -1128,6 +1156,15 @@ public class TransferManager {
      * http://docs.aws.amazon.com/AmazonS3/latest/dev/UsingAWSSDK.html#
      * specify-signature-version
      * </p>
+     * <p>
+     * Objects start downloading while the virtual directory is still being
+     * listed, so this method returns once the first page of the listing has
+     * been retrieved. An error retrieving it, such as a missing bucket or
+     * denied access, is thrown by this method. A later error while listing
+     * fails the returned transfer, and is thrown by
+     * {@link Transfer#waitForCompletion()}. Completed downloads are not kept
+     * by the returned transfer.
+     * </p>
      *
      * @param bucketName
      *            The bucket containing the virtual directory
@@ -1143,100 +1180,108 @@ public class TransferManager {
      *            download, the <code>TransferManager</code> will resume the
      *            download from the current end of the file on disk.
      */
-    public MultipleFileDownload downloadDirectory(String bucketName, String keyPrefix, File destinationDirectory,
-            boolean resumeOnRetry) {
+    public MultipleFileDownload downloadDirectory(final String bucketName, String keyPrefix,
+            final File destinationDirectory, final boolean resumeOnRetry) {
         if ( keyPrefix == null )
             keyPrefix = "";
-        List<S3ObjectSummary> objectSummaries = new LinkedList<S3ObjectSummary>();
-        Stack<String> commonPrefixes = new Stack<String>();
-        commonPrefixes.add(keyPrefix);
-        long totalSize = 0;
-        // Recurse all virtual subdirectories to get a list of object summaries.
-        // This is a depth-first search.
-        do {
-            String prefix = commonPrefixes.pop();
-            ObjectListing listObjectsResponse = null;
-
-            do {
-                if ( listObjectsResponse == null ) {
-                    ListObjectsRequest listObjectsRequest = new ListObjectsRequest().withBucketName(bucketName)
-                            .withDelimiter(DEFAULT_DELIMITER).withPrefix(prefix);
-                    listObjectsResponse = s3.listObjects(listObjectsRequest);
-                } else {
-                    listObjectsResponse = s3.listNextBatchOfObjects(listObjectsResponse);
-                }
-
-                for ( S3ObjectSummary s : listObjectsResponse.getObjectSummaries() ) {
-                    // Skip any files that are also virtual directories, since
-                    // we can't save both a directory and a file of the same
-                    // name.
-                    if ( !s.getKey().equals(prefix)
-                            && !listObjectsResponse.getCommonPrefixes().contains(s.getKey() + DEFAULT_DELIMITER) ) {
-                        objectSummaries.add(s);
-                        totalSize += s.getSize();
-                    } else {
-                        log.debug("Skipping download for object " + s.getKey()
-                                + " since it is also a virtual directory");
-                    }
-                }
-
-                commonPrefixes.addAll(listObjectsResponse.getCommonPrefixes());
-            } while ( listObjectsResponse.isTruncated() );
-        } while ( !commonPrefixes.isEmpty() );
 
         /* This is the hook for adding additional progress listeners */
         ProgressListenerChain additionalListeners = new ProgressListenerChain();
 
-        TransferProgress transferProgress = new TransferProgress();
-        transferProgress.setTotalBytesToTransfer(totalSize);
+        final TransferProgress transferProgress = new TransferProgress();
+        // Grows as objects are listed
+        transferProgress.setTotalBytesToTransfer(0);
         /*
          * Bind additional progress listeners to this
          * MultipleFileTransferProgressUpdatingListener to receive
          * ByteTransferred events from each single-file download implementation.
          */
-        ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
+        final ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
                 transferProgress, additionalListeners);
 
-        List<DownloadImpl> downloads = new ArrayList<DownloadImpl>();
+        Collection<DownloadImpl> downloads = new ConcurrentLinkedQueue<DownloadImpl>();
 
         String description = "Downloading from " + bucketName + "/" + keyPrefix;
         final MultipleFileDownloadImpl multipleFileDownload = new MultipleFileDownloadImpl(description, transferProgress,
                 additionalListeners, keyPrefix, bucketName, downloads);
-        multipleFileDownload.setMonitor(new MultipleFileTransferMonitor(multipleFileDownload, downloads));
 
-        final CountDownLatch latch = new CountDownLatch(1);
-        MultipleFileTransferStateChangeListener transferListener =
-                new MultipleFileTransferStateChangeListener(latch, multipleFileDownload);
-
-        for ( S3ObjectSummary summary : objectSummaries ) {
-            // TODO: non-standard delimiters
-            File f = new File(destinationDirectory, summary.getKey());
-            File parentFile = f.getParentFile();
-            if ( !parentFile.exists() && !parentFile.mkdirs() ) {
-                throw new RuntimeException("Couldn't create parent directories for " + f.getAbsolutePath());
+        /*
+         * Each virtual subdirectory is listed concurrently with the others,
+         * and each object starts downloading as soon as it is listed.
+         */
+        SubTransferProducer<String, S3ObjectSummary, DownloadImpl> producer =
+                new SubTransferProducer<String, S3ObjectSummary, DownloadImpl>(multipleFileDownload, downloads,
+                        configuration.getMaxPendingDirectoryTransfers(),
+                        configuration.getDirectoryListingConcurrency()) {
+            @Override
+            void list(String prefix) throws InterruptedException {
+                ListObjectsV2Request listObjectsRequest = new ListObjectsV2Request().withBucketName(bucketName)
+                        .withDelimiter(DEFAULT_DELIMITER).withPrefix(prefix);
+                ListObjectsV2Result listObjectsResponse;
+                do {
+                    listObjectsResponse = s3.listObjectsV2(listObjectsRequest);
+                    pageListed();
+
+                    for ( String commonPrefix : listObjectsResponse.getCommonPrefixes() ) {
+                        addPartition(commonPrefix);
+                    }
+
+                    for ( S3ObjectSummary s : listObjectsResponse.getObjectSummaries() ) {
+                        // Skip any files that are also virtual directories, since
+                        // we can't save both a directory and a file of the same
+                        // name.
+                        if ( !s.getKey().equals(prefix)
+                                && !listObjectsResponse.getCommonPrefixes().contains(s.getKey() + DEFAULT_DELIMITER) ) {
+                            addItem(s);
+                        } else {
+                            log.debug("Skipping download for object " + s.getKey()
+                                    + " since it is also a virtual directory");
+                        }
+                    }
+
+                    listObjectsRequest.setContinuationToken(listObjectsResponse.getNextContinuationToken());
+                } while ( listObjectsResponse.isTruncated() );
             }
 
-            // All the single-file downloads share the same
-            // MultipleFileTransferProgressUpdatingListener and
-            // MultipleFileTransferStateChangeListener
-            GetObjectRequest req = new GetObjectRequest(summary.getBucketName(), summary.getKey())
-                    .<GetObjectRequest>withGeneralProgressListener(
-                                            listener);
-            downloads.add((DownloadImpl) doDownload(
-                            req,
-                            f,
-                            transferListener, null, false, 0,
-                            null, 0L, resumeOnRetry));
-        }
+            @Override
+            DownloadImpl startSubTransfer(S3ObjectSummary summary, TransferStateChangeListener transferListener) {
+                // TODO: non-standard delimiters
+                File f = new File(destinationDirectory, summary.getKey());
+                File parentFile = f.getParentFile();
+                // Subdirectories listed concurrently may share parents
+                if ( !parentFile.mkdirs() && !parentFile.isDirectory() ) {
+                    throw new RuntimeException("Couldn't create parent directories for " + f.getAbsolutePath());
+                }
 
-        if ( downloads.isEmpty() ) {
-            multipleFileDownload.setState(TransferState.Completed);
-            return multipleFileDownload;
-        }
+                synchronized (transferProgress) {
+                    transferProgress.setTotalBytesToTransfer(
+                            transferProgress.getTotalBytesToTransfer() + summary.getSize());
+                }
 
-        // Notify all state changes waiting for the downloads to all be queued
-        // to wake up and continue.
-        latch.countDown();
+                // All the single-file downloads share the same
+                // MultipleFileTransferProgressUpdatingListener and
+                // MultipleFileTransferStateChangeListener
+                GetObjectRequest req = new GetObjectRequest(bucketName, summary.getKey())
+                        .<GetObjectRequest>withGeneralProgressListener(
+                                                listener);
+                return (DownloadImpl) doDownload(
+                                req,
+                                f,
+                                transferListener, null, false, 0,
+                                null, null, null, 0L, resumeOnRetry);
+            }
+
+            @Override
+            void abortSubTransfer(DownloadImpl download) {
+                try {
+                    download.abort();
+                } catch ( IOException e ) {
+                    log.debug("Unable to abort download of " + download.getKey(), e);
+                }
+            }
+        };
+        multipleFileDownload.setMonitor(new MultipleFileTransferMonitor(multipleFileDownload, downloads, producer));
+        producer.start(keyPrefix);
         return multipleFileDownload;
     }
 
@@ -1255,6 +1300,15 @@ public class TransferManager {
      * http://docs.aws.amazon.com/AmazonS3/latest/dev/UsingAWSSDK.html#
      * specify-signature-version
      * </p>
+     * <p>
+     * Files start uploading while the directory is still being listed, so
+     * this method returns before the listing is complete. An error while
+     * listing is not thrown by this method; it fails the returned transfer,
+     * and is thrown by {@link Transfer#waitForCompletion()}. Completed uploads
+     * are not kept by the returned transfer, so
+     * {@link MultipleFileUpload#getSubTransfers()} only returns those that
+     * haven't completed.
+     * </p>
      *
      * @param bucketName
      *            The name of the bucket to upload objects to.
@@ -1288,6 +1342,15 @@ public class TransferManager {
      * http://docs.aws.amazon.com/AmazonS3/latest/dev/UsingAWSSDK.html#
      * specify-signature-version
      * </p>
+     * <p>
+     * Files start uploading while the directory is still being listed, so
+     * this method returns before the listing is complete. An error while
+     * listing is not thrown by this method; it fails the returned transfer,
+     * and is thrown by {@link Transfer#waitForCompletion()}. Completed uploads
+     * are not kept by the returned transfer, so
+     * {@link MultipleFileUpload#getSubTransfers()} only returns those that
+     * haven't completed.
+     * </p>
      *
      * @param bucketName
      *            The name of the bucket to upload objects to.
@@ -1305,15 +1368,73 @@ public class TransferManager {
      * 			  A callback of type <code>ObjectMetadataProvider</code> which
      *            is used to provide metadata for each file being uploaded.
      */
-    public MultipleFileUpload uploadDirectory(String bucketName, String virtualDirectoryKeyPrefix, File directory, boolean includeSubdirectories, ObjectMetadataProvider metadataProvider) {
+    public MultipleFileUpload uploadDirectory(final String bucketName, String virtualDirectoryKeyPrefix, File directory,
+            final boolean includeSubdirectories, final ObjectMetadataProvider metadataProvider) {
         if ( directory == null || !directory.exists() || !directory.isDirectory() ) {
             throw new IllegalArgumentException("Must provide a directory to upload");
         }
 
-        List<File> files = new LinkedList<File>();
-        listFiles(directory, files, includeSubdirectories);
+        final String keyPrefix = toVirtualDirectoryKeyPrefix(virtualDirectoryKeyPrefix);
 
-        return uploadFileList(bucketName, virtualDirectoryKeyPrefix, directory, files, metadataProvider);
+        /* This is the hook for adding additional progress listeners */
+        ProgressListenerChain additionalListeners = new ProgressListenerChain();
+        final TransferProgress progress = new TransferProgress();
+        // Grows as files are listed
+        progress.setTotalBytesToTransfer(0);
+        /*
+         * Bind additional progress listeners to this
+         * MultipleFileTransferProgressUpdatingListener to receive
+         * ByteTransferred events from each single-file upload implementation.
+         */
+        final ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
+                progress, additionalListeners);
+
+        Collection<UploadImpl> uploads = new ConcurrentLinkedQueue<UploadImpl>();
+        MultipleFileUploadImpl multipleFileUpload = new MultipleFileUploadImpl("Uploading etc", progress, additionalListeners, keyPrefix, bucketName, uploads);
+
+        final int startingPosition = getRelativePathStart(directory);
+        /*
+         * Each file starts uploading as soon as it is listed. Directories are
+         * listed one at a time, so that the metadata provider is never called
+         * concurrently.
+         */
+        SubTransferProducer<File, File, UploadImpl> producer =
+                new SubTransferProducer<File, File, UploadImpl>(multipleFileUpload, uploads,
+                        configuration.getMaxPendingDirectoryTransfers(), 1) {
+            @Override
+            void list(File dir) throws InterruptedException {
+                File[] found = dir.listFiles();
+                pageListed();
+                if ( found != null ) {
+                    for ( File f : found ) {
+                        if ( f.isDirectory() ) {
+                            if ( includeSubdirectories ) {
+                                addPartition(f);
+                            }
+                        } else if ( f.isFile() ) {
+                            addItem(f);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            UploadImpl startSubTransfer(File f, TransferStateChangeListener transferListener) {
+                synchronized (progress) {
+                    progress.setTotalBytesToTransfer(progress.getTotalBytesToTransfer() + f.length());
+                }
+                return uploadFileInDirectory(bucketName, keyPrefix, startingPosition, f,
+                        metadataProvider, listener, transferListener);
+            }
+
+            @Override
+            void abortSubTransfer(UploadImpl upload) {
+                upload.abort();
+            }
+        };
+        multipleFileUpload.setMonitor(new MultipleFileTransferMonitor(multipleFileUpload, uploads, producer));
+        producer.start(directory);
+        return multipleFileUpload;
     }
 
     /**
@@ -1391,11 +1512,7 @@ public class TransferManager {
             throw new IllegalArgumentException("Must provide a common base directory for uploaded files");
         }
 
-        if (virtualDirectoryKeyPrefix == null || virtualDirectoryKeyPrefix.length() == 0) {
-            virtualDirectoryKeyPrefix = "";
-        } else if ( !virtualDirectoryKeyPrefix.endsWith("/") ) {
-            virtualDirectoryKeyPrefix = virtualDirectoryKeyPrefix + "/";
-        }
+        virtualDirectoryKeyPrefix = toVirtualDirectoryKeyPrefix(virtualDirectoryKeyPrefix);
 
         /* This is the hook for adding additional progress listeners */
         ProgressListenerChain additionalListeners = new ProgressListenerChain();
@@ -1417,45 +1534,15 @@ public class TransferManager {
         if (files == null || files.isEmpty()) {
             multipleFileUpload.setState(TransferState.Completed);
         } else {
-            /*
-             * If the absolute path for the common/base directory does NOT end
-             * in a separator (which is the case for anything but root
-             * directories), then we know there's still a separator between the
-             * base directory and the rest of the file's path, so we increment
-             * the starting position by one.
-             */
-            int startingPosition = directory.getAbsolutePath().length();
-            if (!(directory.getAbsolutePath().endsWith(File.separator)))
-                startingPosition++;
+            int startingPosition = getRelativePathStart(directory);
 
             long totalSize = 0;
             for (File f : files) {
                 // Check, if file, since only files can be uploaded.
                 if (f.isFile()) {
                     totalSize += f.length();
-
-                    String key = f.getAbsolutePath()
-                            .substring(startingPosition)
-                            .replaceAll("\\\\", "/");
-
-                    ObjectMetadata metadata = new ObjectMetadata();
-
-                    // Invoke the callback if it's present.
-                    // The callback allows the user to customize the metadata
-                    // for each file being uploaded.
-                    if (metadataProvider != null) {
-                        metadataProvider.provideObjectMetadata(f, metadata);
-                    }
-
-                    // All the single-file uploads share the same
-                    // MultipleFileTransferProgressUpdatingListener and
-                    // MultipleFileTransferStateChangeListener
-                    uploads.add((UploadImpl) doUpload(
-                            new PutObjectRequest(bucketName,
-                                    virtualDirectoryKeyPrefix + key, f)
-                                    .withMetadata(metadata)
-                                    .<PutObjectRequest> withGeneralProgressListener(
-                                            listener), transferListener, null, null));
+                    uploads.add(uploadFileInDirectory(bucketName, virtualDirectoryKeyPrefix,
+                            startingPosition, f, metadataProvider, listener, transferListener));
                 }
             }
             progress.setTotalBytesToTransfer(totalSize);
@@ -1468,22 +1555,65 @@ public class TransferManager {
     }
 
     /**
-     * Lists files in the directory given and adds them to the result list
-     * passed in, optionally adding subdirectories recursively.
+     * Returns the key prefix of a virtual directory: empty for the root of
+     * the bucket, and ending with a delimiter otherwise.
      */
-    private void listFiles(File dir, List<File> results, boolean includeSubDirectories) {
-        File[] found = dir.listFiles();
-        if ( found != null ) {
-            for ( File f : found ) {
-                if (f.isDirectory()) {
-                    if (includeSubDirectories) {
-                        listFiles(f, results, includeSubDirectories);
-                    }
-                } else {
-                    results.add(f);
-                }
-            }
+    private static String toVirtualDirectoryKeyPrefix(String virtualDirectoryKeyPrefix) {
+        if (virtualDirectoryKeyPrefix == null || virtualDirectoryKeyPrefix.length() == 0) {
+            return "";
+        } else if ( !virtualDirectoryKeyPrefix.endsWith("/") ) {
+            return virtualDirectoryKeyPrefix + "/";
         }
+        return virtualDirectoryKeyPrefix;
+    }
+
+    /**
+     * Returns the position in the absolute path of the files under the given
+     * directory where their path relative to it starts.
+     */
+    private static int getRelativePathStart(File directory) {
+        /*
+         * If the absolute path for the common/base directory does NOT end
+         * in a separator (which is the case for anything but root
+         * directories), then we know there's still a separator between the
+         * base directory and the rest of the file's path, so we increment
+         * the starting position by one.
+         */
+        int startingPosition = directory.getAbsolutePath().length();
+        if (!(directory.getAbsolutePath().endsWith(File.separator)))
+            startingPosition++;
+        return startingPosition;
+    }
+
+    /**
+     * Uploads a file of a directory upload to the key given by its path
+     * relative to the directory.
+     */
+    private UploadImpl uploadFileInDirectory(String bucketName, String virtualDirectoryKeyPrefix,
+            int startingPosition, File f, ObjectMetadataProvider metadataProvider,
+            ProgressListener listener, TransferStateChangeListener transferListener) {
+        String key = f.getAbsolutePath()
+                .substring(startingPosition)
+                .replaceAll("\\\\", "/");
+
+        ObjectMetadata metadata = new ObjectMetadata();
+
+        // Invoke the callback if it's present.
+        // The callback allows the user to customize the metadata
+        // for each file being uploaded.
+        if (metadataProvider != null) {
+            metadataProvider.provideObjectMetadata(f, metadata);
+        }
+
+        // All the single-file uploads share the same
+        // MultipleFileTransferProgressUpdatingListener and
+        // MultipleFileTransferStateChangeListener
+        return (UploadImpl) doUpload(
+                new PutObjectRequest(bucketName,
+                        virtualDirectoryKeyPrefix + key, f)
+                        .withMetadata(metadata)
+                        .<PutObjectRequest> withGeneralProgressListener(
+                                listener), transferListener, null, null);
     }
 
     /**
@@ -1768,6 +1898,16 @@ public class TransferManager {
                      final TransferStateChangeListener stateChangeListener) throws
                                                                             AmazonServiceException,
                                                                             AmazonClientException {
+        return doCopy(copyObjectRequest, srcS3, stateChangeListener, null);
+    }
+
+    /**
+     * Schedules a copy, with the given metadata of the source object if known,
+     * or else retrieves it.
+     */
+    private CopyImpl doCopy(final CopyObjectRequest copyObjectRequest, final AmazonS3 srcS3,
+                            final TransferStateChangeListener stateChangeListener,
+                            ObjectMetadata metadata) {
 
         appendSingleObjectUserAgent(copyObjectRequest);
 
@@ -1791,7 +1931,9 @@ public class TransferManager {
                 copyObjectRequest.getSourceBucketName(), copyObjectRequest.getSourceKey())
                 .withSSECustomerKey(copyObjectRequest.getSourceSSECustomerKey());
 
-        ObjectMetadata metadata = srcS3.getObjectMetadata(getObjectMetadataRequest);
+        if (metadata == null) {
+            metadata = srcS3.getObjectMetadata(getObjectMetadataRequest);
+        }
 
         TransferProgress transferProgress = new TransferProgress();
         transferProgress.setTotalBytesToTransfer(metadata.getContentLength());
@@ -1809,6 +1951,210 @@ public class TransferManager {
         return copy;
     }
 
+    /**
+     * Copies all the objects under a key prefix to another key prefix, in the
+     * same or another bucket, within Amazon S3. The key of each copy is the key
+     * of its source object with the source prefix replaced by the destination
+     * prefix. This method is non-blocking and returns immediately (i.e. before
+     * the copy has finished).
+     * <p>
+     * As in {@link #downloadDirectory(String, String, File)}, each virtual
+     * subdirectory is listed concurrently with the others, and each object
+     * starts copying as soon as it is listed, with at most
+     * {@link TransferManagerConfiguration#getMaxPendingDirectoryTransfers()}
+     * copies pending at a time. Objects too small to be copied in parts are
+     * copied without first retrieving their metadata, since the listing gives
+     * their size. The progress of the transfer is updated as each object is
+     * copied. This method returns once the first page of the listing has been
+     * retrieved, and throws any error retrieving it, such as a missing bucket
+     * or denied access. Completed copies are not kept by the returned
+     * transfer, so {@link MultipleObjectCopy#getSubTransfers()} only returns
+     * those that haven't completed.
+     * </p>
+     * <p>
+     * Fewer copies are kept pending while Amazon S3 throttles them: the number
+     * of pending copies is halved, down to one, when the Amazon S3 client
+     * retries a copy request, as it does when Amazon S3 answers 503 Slow Down,
+     * and grows back by one with each copy that completes without a retry.
+     * </p>
+     * <p>
+     * The source and destination buckets must both be accessible with the
+     * Amazon S3 client of this <code>TransferManager</code>. Objects are copied
+     * as in {@link #copy(String, String, String, String)}, and S3 will
+     * overwrite any existing objects with the same keys.
+     * </p>
+     *
+     * @param sourceBucketName
+     *            The name of the bucket to copy the objects from.
+     * @param sourceKeyPrefix
+     *            The key prefix of the objects to copy, or null for the entire
+     *            bucket.
+     * @param destinationBucketName
+     *            The name of the bucket to copy the objects to.
+     * @param destinationKeyPrefix
+     *            The key prefix that replaces the source key prefix in the keys
+     *            of the copies, or null for none.
+     *
+     * @return A new <code>MultipleObjectCopy</code> object to use to check the
+     *         state of the copy, and to abort it.
+     *
+     * @throws IllegalArgumentException
+     *             If the destination key prefix is within the source key
+     *             prefix in the same bucket, since the copies would be listed
+     *             and copied again.
+     */
+    public MultipleObjectCopy copyPrefix(final String sourceBucketName, String sourceKeyPrefix,
+            final String destinationBucketName, String destinationKeyPrefix) {
+        assertParameterNotNull(sourceBucketName,
+                "The source bucket name must be specified when a copy request is initiated.");
+        assertParameterNotNull(destinationBucketName,
+                "The destination bucket name must be specified when a copy request is initiated.");
+        final String sourcePrefix = sourceKeyPrefix == null ? "" : sourceKeyPrefix;
+        final String destinationPrefix = destinationKeyPrefix == null ? "" : destinationKeyPrefix;
+        if ( sourceBucketName.equals(destinationBucketName) && destinationPrefix.startsWith(sourcePrefix) ) {
+            throw new IllegalArgumentException("The destination key prefix " + destinationPrefix
+                    + " must not be within the source key prefix " + sourcePrefix + " in the same bucket");
+        }
+
+        /* This is the hook for adding additional progress listeners */
+        ProgressListenerChain additionalListeners = new ProgressListenerChain();
+
+        final TransferProgress transferProgress = new TransferProgress();
+        // Grows as objects are listed
+        transferProgress.setTotalBytesToTransfer(0);
+        final ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
+                transferProgress, additionalListeners);
+
+        Collection<CopyImpl> copies = new ConcurrentLinkedQueue<CopyImpl>();
+
+        String description = "Copying objects from " + sourceBucketName + "/" + sourcePrefix
+                + " to " + destinationBucketName + "/" + destinationPrefix;
+        final MultipleObjectCopyImpl multipleObjectCopy = new MultipleObjectCopyImpl(description,
+                transferProgress, additionalListeners, sourceBucketName, sourcePrefix,
+                destinationBucketName, destinationPrefix, copies);
+
+        SubTransferProducer<String, S3ObjectSummary, CopyImpl> producer =
+                new SubTransferProducer<String, S3ObjectSummary, CopyImpl>(multipleObjectCopy, copies,
+                        configuration.getMaxPendingDirectoryTransfers(),
+                        configuration.getDirectoryListingConcurrency()) {
+            @Override
+            void list(String prefix) throws InterruptedException {
+                ListObjectsV2Request listObjectsRequest = new ListObjectsV2Request()
+                        .withBucketName(sourceBucketName).withDelimiter(DEFAULT_DELIMITER).withPrefix(prefix);
+                ListObjectsV2Result listObjectsResponse;
+                do {
+                    listObjectsResponse = s3.listObjectsV2(listObjectsRequest);
+                    pageListed();
+
+                    for ( String commonPrefix : listObjectsResponse.getCommonPrefixes() ) {
+                        addPartition(commonPrefix);
+                    }
+                    for ( S3ObjectSummary s : listObjectsResponse.getObjectSummaries() ) {
+                        addItem(s);
+                    }
+
+                    listObjectsRequest.setContinuationToken(listObjectsResponse.getNextContinuationToken());
+                } while ( listObjectsResponse.isTruncated() );
+            }
+
+            @Override
+            CopyImpl startSubTransfer(final S3ObjectSummary summary,
+                    final TransferStateChangeListener transferListener) {
+                synchronized (transferProgress) {
+                    transferProgress.setTotalBytesToTransfer(
+                            transferProgress.getTotalBytesToTransfer() + summary.getSize());
+                }
+
+                CopyObjectRequest req = new CopyObjectRequest(sourceBucketName, summary.getKey(),
+                        destinationBucketName,
+                        destinationPrefix + summary.getKey().substring(sourcePrefix.length()));
+                // The listed size is all that a copy in one request needs
+                ObjectMetadata metadata = null;
+                if ( summary.getSize() <= configuration.getMultipartCopyThreshold() ) {
+                    metadata = new ObjectMetadata();
+                    metadata.setContentLength(summary.getSize());
+                }
+                // The parts of a multipart copy share the listener of the copy
+                req.setGeneralProgressListener(new SyncProgressListener() {
+                    @Override
+                    public void progressChanged(ProgressEvent progressEvent) {
+                        if ( progressEvent.getEventType() == ProgressEventType.CLIENT_REQUEST_RETRY_EVENT ) {
+                            throttled(transferListener);
+                        }
+                    }
+                });
+                // Copies report no bytes as they go, so an object counts once copied
+                return doCopy(req, s3, new TransferStateChangeListener() {
+                    @Override
+                    public void transferStateChanged(Transfer transfer, TransferState state) {
+                        if ( state == TransferState.Completed ) {
+                            publishRequestBytesTransferred(listener, summary.getSize());
+                        }
+                        transferListener.transferStateChanged(transfer, state);
+                    }
+                }, metadata);
+            }
+
+            @Override
+            void abortSubTransfer(CopyImpl copy) {
+                copy.cancel();
+            }
+        };
+        multipleObjectCopy.setMonitor(new MultipleFileTransferMonitor(multipleObjectCopy, copies, producer));
+        producer.start(sourcePrefix);
+        return multipleObjectCopy;
+    }
+
+    /**
+     * Deletes all the objects under a key prefix. This method is non-blocking
+     * and returns immediately (i.e. before the deletion has finished).
+     * <p>
+     * The objects are listed a page at a time, and each page is deleted with a
+     * single multi-object delete request while the next one is listed. Up to
+     * {@link TransferManagerConfiguration#getMaxPrefixDeleteConcurrency()}
+     * requests are kept in flight, fewer while Amazon S3 throttles them; the
+     * objects that couldn't be deleted because of throttling are attempted
+     * again. The progress of the transfer is measured in bytes of the objects
+     * deleted. If some objects still couldn't be deleted once all have been
+     * attempted, the transfer fails with a
+     * {@link com.amazonaws.services.s3.model.MultiObjectDeleteException}
+     * listing them.
+     * </p>
+     * <p>
+     * In a versioning-enabled bucket, deleting an object only adds a delete
+     * marker, and its versions are kept.
+     * </p>
+     *
+     * @param bucketName
+     *            The name of the bucket to delete the objects from.
+     * @param keyPrefix
+     *            The key prefix of the objects to delete, or null for the
+     *            entire bucket.
+     *
+     * @return A new <code>MultipleObjectDelete</code> object to use to check
+     *         the state of the deletion, and to abort it.
+     */
+    public MultipleObjectDelete deletePrefix(String bucketName, String keyPrefix) {
+        assertParameterNotNull(bucketName,
+                "The bucket name must be specified when a delete request is initiated.");
+        if ( keyPrefix == null )
+            keyPrefix = "";
+
+        TransferProgress transferProgress = new TransferProgress();
+        // Grows as objects are listed
+        transferProgress.setTotalBytesToTransfer(0);
+        ProgressListenerChain listenerChain = new ProgressListenerChain(
+                new TransferProgressUpdatingListener(transferProgress));
+
+        String description = "Deleting objects from " + bucketName + "/" + keyPrefix;
+        MultipleObjectDeleteImpl multipleObjectDelete = new MultipleObjectDeleteImpl(description,
+                transferProgress, listenerChain, bucketName, keyPrefix);
+        multipleObjectDelete.setMonitor(DeletePrefixMonitor.create(s3, multipleObjectDelete,
+                executorService, bucketName, keyPrefix,
+                configuration.getMaxPrefixDeleteConcurrency(), listenerChain));
+        return multipleObjectDelete;
+    }
+
     /**
      * Resumes an upload operation. This upload operation uses the same
      * configuration {@link TransferManagerConfiguration} as the original
@@ -1874,7 +2220,9 @@ public class TransferManager {
         return doDownload(request, new File(persistableDownload.getFile()), null, null,
                 APPEND_MODE, 0,
                 persistableDownload.getLastFullyDownloadedPartNumber(),
-                persistableDownload.getlastModifiedTime());
+                persistableDownload.getCompletedPartBitmap(),
+                persistableDownload.getRangedDownloadPartSize(),
+                persistableDownload.getlastModifiedTime(), false);
     }
 
     /**
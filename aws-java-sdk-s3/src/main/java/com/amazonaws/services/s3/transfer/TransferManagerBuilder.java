@@ -54,6 +54,24 @@ public final class TransferManagerBuilder {
 
     private Long multipartCopyPartSize;
 
+    private Long rangedDownloadThreshold;
+
+    private Long rangedDownloadPartSize;
+
+    private Integer maxRangedDownloadConcurrency;
+
+    private Integer maxPendingDirectoryTransfers;
+
+    private Integer directoryListingConcurrency;
+
+    private Integer maxStreamUploadBuffers;
+
+    private Integer maxAdaptivePartConcurrency;
+
+    private Integer maxPrefixDeleteConcurrency;
+
+    private Boolean concurrentEncryptedPartUploadsEnabled;
+
     /**
      * @return Create new instance of builder with all defaults set.
      */
@@ -322,6 +340,283 @@ public final class TransferManagerBuilder {
         return this;
     }
 
+    /**
+     * @return The ranged download threshold currently configured in the builder.
+     */
+    public final Long getRangedDownloadThreshold() {
+        return rangedDownloadThreshold;
+    }
+
+    /**
+     * Sets the size threshold, in bytes, for when to download objects that were not uploaded in
+     * multiple parts with concurrent ranged requests. Objects over this size are split into ranges
+     * that are downloaded concurrently. By default, ranged downloads are disabled.
+     *
+     * @param rangedDownloadThreshold Threshold in which ranged downloads will be performed.
+     */
+    public final void setRangedDownloadThreshold(Long rangedDownloadThreshold) {
+        this.rangedDownloadThreshold = rangedDownloadThreshold;
+    }
+
+    /**
+     * Sets the size threshold, in bytes, for when to download objects that were not uploaded in
+     * multiple parts with concurrent ranged requests. Objects over this size are split into ranges
+     * that are downloaded concurrently. By default, ranged downloads are disabled.
+     *
+     * @param rangedDownloadThreshold Threshold in which ranged downloads will be performed.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withRangedDownloadThreshold(Long rangedDownloadThreshold) {
+        setRangedDownloadThreshold(rangedDownloadThreshold);
+        return this;
+    }
+
+    /**
+     * @return The ranged download part size currently configured in the builder.
+     */
+    public final Long getRangedDownloadPartSize() {
+        return rangedDownloadPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of the ranges an object is split into for ranged downloads. Each
+     * request downloads one or more consecutive ranges, depending on the observed throughput.
+     *
+     * @param rangedDownloadPartSize Size of the ranges of ranged downloads.
+     */
+    public final void setRangedDownloadPartSize(Long rangedDownloadPartSize) {
+        this.rangedDownloadPartSize = rangedDownloadPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of the ranges an object is split into for ranged downloads. Each
+     * request downloads one or more consecutive ranges, depending on the observed throughput.
+     *
+     * @param rangedDownloadPartSize Size of the ranges of ranged downloads.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withRangedDownloadPartSize(Long rangedDownloadPartSize) {
+        setRangedDownloadPartSize(rangedDownloadPartSize);
+        return this;
+    }
+
+    /**
+     * @return The maximum ranged download concurrency currently configured in the builder.
+     */
+    public final Integer getMaxRangedDownloadConcurrency() {
+        return maxRangedDownloadConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of requests a ranged download issues concurrently.
+     *
+     * @param maxRangedDownloadConcurrency Maximum concurrency of ranged downloads.
+     */
+    public final void setMaxRangedDownloadConcurrency(Integer maxRangedDownloadConcurrency) {
+        this.maxRangedDownloadConcurrency = maxRangedDownloadConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of requests a ranged download issues concurrently.
+     *
+     * @param maxRangedDownloadConcurrency Maximum concurrency of ranged downloads.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withMaxRangedDownloadConcurrency(
+            Integer maxRangedDownloadConcurrency) {
+        setMaxRangedDownloadConcurrency(maxRangedDownloadConcurrency);
+        return this;
+    }
+
+    /**
+     * @return The maximum number of pending files of a directory transfer currently configured in
+     * the builder.
+     */
+    public final Integer getMaxPendingDirectoryTransfers() {
+        return maxPendingDirectoryTransfers;
+    }
+
+    /**
+     * Sets the maximum number of files of a directory download or upload that have been listed but
+     * not finished transferring. Listing pauses while this many files are pending.
+     *
+     * @param maxPendingDirectoryTransfers Maximum number of pending files of a directory transfer.
+     */
+    public final void setMaxPendingDirectoryTransfers(Integer maxPendingDirectoryTransfers) {
+        this.maxPendingDirectoryTransfers = maxPendingDirectoryTransfers;
+    }
+
+    /**
+     * Sets the maximum number of files of a directory download or upload that have been listed but
+     * not finished transferring. Listing pauses while this many files are pending.
+     *
+     * @param maxPendingDirectoryTransfers Maximum number of pending files of a directory transfer.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withMaxPendingDirectoryTransfers(
+            Integer maxPendingDirectoryTransfers) {
+        setMaxPendingDirectoryTransfers(maxPendingDirectoryTransfers);
+        return this;
+    }
+
+    /**
+     * @return The directory listing concurrency currently configured in the builder.
+     */
+    public final Integer getDirectoryListingConcurrency() {
+        return directoryListingConcurrency;
+    }
+
+    /**
+     * Sets the number of virtual subdirectories a directory download lists concurrently.
+     *
+     * @param directoryListingConcurrency Listing concurrency of directory downloads.
+     */
+    public final void setDirectoryListingConcurrency(Integer directoryListingConcurrency) {
+        this.directoryListingConcurrency = directoryListingConcurrency;
+    }
+
+    /**
+     * Sets the number of virtual subdirectories a directory download lists concurrently.
+     *
+     * @param directoryListingConcurrency Listing concurrency of directory downloads.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withDirectoryListingConcurrency(
+            Integer directoryListingConcurrency) {
+        setDirectoryListingConcurrency(directoryListingConcurrency);
+        return this;
+    }
+
+    /**
+     * @return The maximum number of buffers of an upload from a stream currently configured in the
+     * builder.
+     */
+    public final Integer getMaxStreamUploadBuffers() {
+        return maxStreamUploadBuffers;
+    }
+
+    /**
+     * Sets the maximum number of part-sized buffers an upload from a stream of unknown length reads
+     * into. If positive, such streams are uploaded in concurrent parts with at most this many parts
+     * held in memory. By default, they are buffered entirely and uploaded with a single request.
+     *
+     * @param maxStreamUploadBuffers Maximum number of buffers of an upload from a stream.
+     */
+    public final void setMaxStreamUploadBuffers(Integer maxStreamUploadBuffers) {
+        this.maxStreamUploadBuffers = maxStreamUploadBuffers;
+    }
+
+    /**
+     * Sets the maximum number of part-sized buffers an upload from a stream of unknown length reads
+     * into. If positive, such streams are uploaded in concurrent parts with at most this many parts
+     * held in memory. By default, they are buffered entirely and uploaded with a single request.
+     *
+     * @param maxStreamUploadBuffers Maximum number of buffers of an upload from a stream.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withMaxStreamUploadBuffers(Integer maxStreamUploadBuffers) {
+        setMaxStreamUploadBuffers(maxStreamUploadBuffers);
+        return this;
+    }
+
+    /**
+     * @return The maximum number of parts in flight of an adaptive multipart upload or copy
+     * currently configured in the builder.
+     */
+    public final Integer getMaxAdaptivePartConcurrency() {
+        return maxAdaptivePartConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of parts an adaptive multipart upload or copy keeps in flight. If
+     * positive, file uploads and copies processed in parts tune their part size and number of parts
+     * in flight from the measured throughput of their parts. By default, they are not adaptive.
+     *
+     * @param maxAdaptivePartConcurrency Maximum number of parts in flight of an adaptive transfer.
+     */
+    public final void setMaxAdaptivePartConcurrency(Integer maxAdaptivePartConcurrency) {
+        this.maxAdaptivePartConcurrency = maxAdaptivePartConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of parts an adaptive multipart upload or copy keeps in flight. If
+     * positive, file uploads and copies processed in parts tune their part size and number of parts
+     * in flight from the measured throughput of their parts. By default, they are not adaptive.
+     *
+     * @param maxAdaptivePartConcurrency Maximum number of parts in flight of an adaptive transfer.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withMaxAdaptivePartConcurrency(
+            Integer maxAdaptivePartConcurrency) {
+        setMaxAdaptivePartConcurrency(maxAdaptivePartConcurrency);
+        return this;
+    }
+
+    /**
+     * @return The maximum number of DeleteObjects requests in flight of a prefix deletion currently
+     * configured in the builder.
+     */
+    public final Integer getMaxPrefixDeleteConcurrency() {
+        return maxPrefixDeleteConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of DeleteObjects requests a deletion of the objects under a key prefix
+     * keeps in flight. Fewer are kept in flight while Amazon S3 throttles the requests.
+     *
+     * @param maxPrefixDeleteConcurrency Maximum number of requests in flight of a prefix deletion.
+     */
+    public final void setMaxPrefixDeleteConcurrency(Integer maxPrefixDeleteConcurrency) {
+        this.maxPrefixDeleteConcurrency = maxPrefixDeleteConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of DeleteObjects requests a deletion of the objects under a key prefix
+     * keeps in flight. Fewer are kept in flight while Amazon S3 throttles the requests.
+     *
+     * @param maxPrefixDeleteConcurrency Maximum number of requests in flight of a prefix deletion.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withMaxPrefixDeleteConcurrency(
+            Integer maxPrefixDeleteConcurrency) {
+        setMaxPrefixDeleteConcurrency(maxPrefixDeleteConcurrency);
+        return this;
+    }
+
+    /**
+     * @return Whether the parts of encrypted file uploads are uploaded concurrently, as currently
+     * configured in the builder.
+     */
+    public final Boolean isConcurrentEncryptedPartUploadsEnabled() {
+        return concurrentEncryptedPartUploadsEnabled;
+    }
+
+    /**
+     * Sets whether the parts of file uploads through an encryption client in an authenticated
+     * encryption mode are uploaded concurrently. By default, they are uploaded one at a time.
+     *
+     * @param concurrentEncryptedPartUploadsEnabled True to upload the parts of encrypted file
+     *                                              uploads concurrently.
+     */
+    public final void setConcurrentEncryptedPartUploadsEnabled(
+            Boolean concurrentEncryptedPartUploadsEnabled) {
+        this.concurrentEncryptedPartUploadsEnabled = concurrentEncryptedPartUploadsEnabled;
+    }
+
+    /**
+     * Sets whether the parts of file uploads through an encryption client in an authenticated
+     * encryption mode are uploaded concurrently. By default, they are uploaded one at a time.
+     *
+     * @param concurrentEncryptedPartUploadsEnabled True to upload the parts of encrypted file
+     *                                              uploads concurrently.
+     * @return This object for method chaining.
+     */
+    public final TransferManagerBuilder withConcurrentEncryptedPartUploadsEnabled(
+            Boolean concurrentEncryptedPartUploadsEnabled) {
+        setConcurrentEncryptedPartUploadsEnabled(concurrentEncryptedPartUploadsEnabled);
+        return this;
+    }
+
     private TransferManagerConfiguration resolveConfiguration() {
         TransferManagerConfiguration configuration = new TransferManagerConfiguration();
         if (this.minimumUploadPartSize != null) {
@@ -336,6 +631,33 @@ public final class TransferManagerBuilder {
         if (this.multipartUploadThreshold != null) {
             configuration.setMultipartUploadThreshold(multipartUploadThreshold);
         }
+        if (this.rangedDownloadThreshold != null) {
+            configuration.setRangedDownloadThreshold(rangedDownloadThreshold);
+        }
+        if (this.rangedDownloadPartSize != null) {
+            configuration.setRangedDownloadPartSize(rangedDownloadPartSize);
+        }
+        if (this.maxRangedDownloadConcurrency != null) {
+            configuration.setMaxRangedDownloadConcurrency(maxRangedDownloadConcurrency);
+        }
+        if (this.maxPendingDirectoryTransfers != null) {
+            configuration.setMaxPendingDirectoryTransfers(maxPendingDirectoryTransfers);
+        }
+        if (this.directoryListingConcurrency != null) {
+            configuration.setDirectoryListingConcurrency(directoryListingConcurrency);
+        }
+        if (this.maxStreamUploadBuffers != null) {
+            configuration.setMaxStreamUploadBuffers(maxStreamUploadBuffers);
+        }
+        if (this.maxAdaptivePartConcurrency != null) {
+            configuration.setMaxAdaptivePartConcurrency(maxAdaptivePartConcurrency);
+        }
+        if (this.maxPrefixDeleteConcurrency != null) {
+            configuration.setMaxPrefixDeleteConcurrency(maxPrefixDeleteConcurrency);
+        }
+        if (this.concurrentEncryptedPartUploadsEnabled != null) {
+            configuration.setConcurrentEncryptedPartUploadsEnabled(concurrentEncryptedPartUploadsEnabled);
+        }
         return configuration;
     }
 
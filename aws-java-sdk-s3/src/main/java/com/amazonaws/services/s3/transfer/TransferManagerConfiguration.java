@@ -45,6 +45,38 @@ public class TransferManagerConfiguration {
     @SdkTestInternalApi
     static final long DEFAULT_MINIMUM_COPY_PART_SIZE = 100 * MB;
 
+    /** Default size threshold for when to download objects with concurrent ranged requests. */
+    @SdkTestInternalApi
+    static final long DEFAULT_RANGED_DOWNLOAD_THRESHOLD = Long.MAX_VALUE;
+
+    /** Default size of the ranges an object is split into for ranged downloads. */
+    @SdkTestInternalApi
+    static final long DEFAULT_RANGED_DOWNLOAD_PART_SIZE = 16 * MB;
+
+    /** Default maximum number of concurrent requests of a ranged download. */
+    @SdkTestInternalApi
+    static final int DEFAULT_MAX_RANGED_DOWNLOAD_CONCURRENCY = 8;
+
+    /** Default maximum number of unfinished files of a directory transfer. */
+    @SdkTestInternalApi
+    static final int DEFAULT_MAX_PENDING_DIRECTORY_TRANSFERS = 1000;
+
+    /** Default number of key prefixes listed concurrently by a directory download. */
+    @SdkTestInternalApi
+    static final int DEFAULT_DIRECTORY_LISTING_CONCURRENCY = 4;
+
+    /** Default maximum number of buffers of an upload from a stream of unknown length. */
+    @SdkTestInternalApi
+    static final int DEFAULT_MAX_STREAM_UPLOAD_BUFFERS = 0;
+
+    /** Default maximum number of parts in flight of an adaptive multipart upload or copy. */
+    @SdkTestInternalApi
+    static final int DEFAULT_MAX_ADAPTIVE_PART_CONCURRENCY = 0;
+
+    /** Default maximum number of DeleteObjects requests in flight of a prefix deletion. */
+    @SdkTestInternalApi
+    static final int DEFAULT_MAX_PREFIX_DELETE_CONCURRENCY = 8;
+
     /**
      * The minimum part size for upload parts. Decreasing the minimum part size
      * will cause multipart uploads to be split into a larger number of smaller
@@ -91,9 +123,8 @@ public class TransferManagerConfiguration {
      * in parallel. Setting this option to true will disable parallel downloads.
      * </p>
      * <p>
-     * During parallel downloads, each part is downloaded to a temporary file, gets merged
-     * into the final destination file and will be deleted. These temporary files uses disk space temporarily.
-     * Disable parallel downloads if your system do not have enough space to store these files during download.
+     * During parallel downloads, each part is written directly into its position in the
+     * destination file, which is sized to the length of the object when the download starts.
      * </p>
      * <p>
      * Disabling parallel downloads might reduce performance for large files.
@@ -101,6 +132,62 @@ public class TransferManagerConfiguration {
      */
     private boolean disableParallelDownloads = false;
 
+    /**
+     * The size threshold, in bytes, for when to download objects that were
+     * not uploaded in multiple parts with concurrent ranged requests. By
+     * default, ranged downloads are disabled.
+     */
+    private long rangedDownloadThreshold = DEFAULT_RANGED_DOWNLOAD_THRESHOLD;
+
+    /**
+     * The size in bytes of the ranges an object is split into for ranged
+     * downloads. Each request downloads one or more consecutive ranges.
+     */
+    private long rangedDownloadPartSize = DEFAULT_RANGED_DOWNLOAD_PART_SIZE;
+
+    /**
+     * The maximum number of requests a ranged download issues concurrently.
+     */
+    private int maxRangedDownloadConcurrency = DEFAULT_MAX_RANGED_DOWNLOAD_CONCURRENCY;
+
+    /**
+     * The maximum number of files of a directory transfer that have been
+     * listed but not finished transferring.
+     */
+    private int maxPendingDirectoryTransfers = DEFAULT_MAX_PENDING_DIRECTORY_TRANSFERS;
+
+    /**
+     * The number of virtual subdirectories a directory download lists
+     * concurrently.
+     */
+    private int directoryListingConcurrency = DEFAULT_DIRECTORY_LISTING_CONCURRENCY;
+
+    /**
+     * The maximum number of part-sized buffers an upload from a stream of
+     * unknown length reads into. By default, such streams are uploaded with a
+     * single request.
+     */
+    private int maxStreamUploadBuffers = DEFAULT_MAX_STREAM_UPLOAD_BUFFERS;
+
+    /**
+     * The maximum number of parts an adaptive multipart upload or copy keeps
+     * in flight. By default, multipart uploads and copies are not adaptive.
+     */
+    private int maxAdaptivePartConcurrency = DEFAULT_MAX_ADAPTIVE_PART_CONCURRENCY;
+
+    /**
+     * The maximum number of DeleteObjects requests a deletion of the objects
+     * under a key prefix keeps in flight.
+     */
+    private int maxPrefixDeleteConcurrency = DEFAULT_MAX_PREFIX_DELETE_CONCURRENCY;
+
+    /**
+     * Whether the parts of file uploads through an encryption client in an
+     * authenticated encryption mode are uploaded concurrently. By default,
+     * they are uploaded one at a time.
+     */
+    private boolean concurrentEncryptedPartUploadsEnabled = false;
+
     /**
      * Returns the minimum part size for upload parts.
      * Decreasing the minimum part size causes
@@ -257,9 +344,8 @@ public class TransferManagerConfiguration {
      * in parallel. Setting this option to true will disable parallel downloads.
      * </p>
      * <p>
-     * During parallel downloads, each part is downloaded to a temporary file, gets merged
-     * into the final destination file and will be deleted. These temporary files uses disk space temporarily.
-     * Disable parallel downloads if your system do not have enough space to store these files during download.
+     * During parallel downloads, each part is written directly into its position in the
+     * destination file, which is sized to the length of the object when the download starts.
      * </p>
      * <p>
      * Disabling parallel downloads might reduce performance for large files.
@@ -279,9 +365,8 @@ public class TransferManagerConfiguration {
      * in parallel. Setting this option to true will disable parallel downloads.
      * </p>
      * <p>
-     * During parallel downloads, each part is downloaded to a temporary file, gets merged
-     * into the final destination file and will be deleted. These temporary files uses disk space temporarily.
-     * Disable parallel downloads if your system do not have enough space to store these files during download.
+     * During parallel downloads, each part is written directly into its position in the
+     * destination file, which is sized to the length of the object when the download starts.
      * </p>
      * <p>
      * Disabling parallel downloads might reduce performance for large files.
@@ -292,4 +377,283 @@ public class TransferManagerConfiguration {
     public void setDisableParallelDownloads(boolean disableParallelDownloads) {
         this.disableParallelDownloads = disableParallelDownloads;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the size threshold, in bytes, for when to download objects with
+     * concurrent ranged requests.
+     * <p>
+     * TransferManager downloads objects that were uploaded in multiple parts
+     * in parallel, one request per part. Objects that were uploaded with a
+     * single request, or copied, have no parts; if they are larger than this
+     * threshold, they are split into ranges of
+     * {@link #getRangedDownloadPartSize()} bytes that are downloaded
+     * concurrently. By default, ranged downloads are disabled.
+     * </p>
+     *
+     * @return The size threshold for ranged downloads.
+     */
+    public long getRangedDownloadThreshold() {
+        return rangedDownloadThreshold;
+    }
+
+    /**
+     * Sets the size threshold, in bytes, for when to download objects with
+     * concurrent ranged requests. See {@link #getRangedDownloadThreshold()}.
+     *
+     * @param rangedDownloadThreshold
+     *            The size threshold for ranged downloads.
+     */
+    public void setRangedDownloadThreshold(long rangedDownloadThreshold) {
+        this.rangedDownloadThreshold = rangedDownloadThreshold;
+    }
+
+    /**
+     * Returns the size in bytes of the ranges an object is split into for
+     * ranged downloads. Each request downloads one or more consecutive
+     * ranges, depending on the throughput observed on previous requests, and
+     * a paused download resumes from the ranges that were complete.
+     *
+     * @return The size of the ranges of ranged downloads.
+     */
+    public long getRangedDownloadPartSize() {
+        return rangedDownloadPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of the ranges an object is split into for ranged
+     * downloads. See {@link #getRangedDownloadPartSize()}.
+     *
+     * @param rangedDownloadPartSize
+     *            The size of the ranges of ranged downloads.
+     * @throws IllegalArgumentException
+     *             If the size is not positive.
+     */
+    public void setRangedDownloadPartSize(long rangedDownloadPartSize) {
+        if (rangedDownloadPartSize <= 0) {
+            throw new IllegalArgumentException("The ranged download part size must be positive: "
+                    + rangedDownloadPartSize);
+        }
+        this.rangedDownloadPartSize = rangedDownloadPartSize;
+    }
+
+    /**
+     * Returns the maximum number of requests a ranged download issues
+     * concurrently. Requests also share the thread pool of the
+     * TransferManager with other transfers.
+     *
+     * @return The maximum concurrency of ranged downloads.
+     */
+    public int getMaxRangedDownloadConcurrency() {
+        return maxRangedDownloadConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of requests a ranged download issues
+     * concurrently.
+     *
+     * @param maxRangedDownloadConcurrency
+     *            The maximum concurrency of ranged downloads.
+     * @throws IllegalArgumentException
+     *             If the concurrency is not positive.
+     */
+    public void setMaxRangedDownloadConcurrency(int maxRangedDownloadConcurrency) {
+        if (maxRangedDownloadConcurrency <= 0) {
+            throw new IllegalArgumentException("The maximum ranged download concurrency must be positive: "
+                    + maxRangedDownloadConcurrency);
+        }
+        this.maxRangedDownloadConcurrency = maxRangedDownloadConcurrency;
+    }
+
+    /**
+     * Returns the maximum number of files of a directory download or upload
+     * that have been listed but not finished transferring.
+     * <p>
+     * Directory transfers start transferring files as soon as they are
+     * listed, while the rest of the directory is still being listed. Listing
+     * pauses while this many files are pending, which bounds the memory held
+     * by a directory transfer regardless of the number of files.
+     * </p>
+     *
+     * @return The maximum number of pending files of a directory transfer.
+     */
+    public int getMaxPendingDirectoryTransfers() {
+        return maxPendingDirectoryTransfers;
+    }
+
+    /**
+     * Sets the maximum number of files of a directory download or upload
+     * that have been listed but not finished transferring. See
+     * {@link #getMaxPendingDirectoryTransfers()}.
+     *
+     * @param maxPendingDirectoryTransfers
+     *            The maximum number of pending files of a directory transfer.
+     */
+    public void setMaxPendingDirectoryTransfers(int maxPendingDirectoryTransfers) {
+        this.maxPendingDirectoryTransfers = maxPendingDirectoryTransfers;
+    }
+
+    /**
+     * Returns the number of virtual subdirectories a directory download lists
+     * concurrently. Each of them is listed on a dedicated thread.
+     *
+     * @return The listing concurrency of directory downloads.
+     */
+    public int getDirectoryListingConcurrency() {
+        return directoryListingConcurrency;
+    }
+
+    /**
+     * Sets the number of virtual subdirectories a directory download lists
+     * concurrently.
+     *
+     * @param directoryListingConcurrency
+     *            The listing concurrency of directory downloads.
+     */
+    public void setDirectoryListingConcurrency(int directoryListingConcurrency) {
+        this.directoryListingConcurrency = directoryListingConcurrency;
+    }
+
+    /**
+     * Returns the maximum number of part-sized buffers an upload from a
+     * stream of unknown length reads into.
+     * <p>
+     * If positive, a stream whose content length is not specified is read
+     * into buffers of {@link #getMinimumUploadPartSize()} bytes that are
+     * uploaded concurrently as the parts of a multipart upload. Reading waits
+     * for a part to finish uploading when all the buffers are in use, so such
+     * an upload never holds more than this many parts in memory, and never
+     * spools to disk. A stream shorter than one part is uploaded with a single
+     * request. Streams are limited to 10,000 parts, so the part size doubles
+     * every 1,000 parts, and buffers are reallocated at the new size; with the
+     * default minimum part size, streams of up to about 4.8 TB can be uploaded.
+     * </p>
+     * <p>
+     * If zero, which is the default, a stream of unknown length is buffered
+     * entirely in memory and uploaded with a single request. Uploads through
+     * an encryption client always behave this way.
+     * </p>
+     *
+     * @return The maximum number of buffers of an upload from a stream.
+     */
+    public int getMaxStreamUploadBuffers() {
+        return maxStreamUploadBuffers;
+    }
+
+    /**
+     * Sets the maximum number of part-sized buffers an upload from a stream
+     * of unknown length reads into. See {@link #getMaxStreamUploadBuffers()}.
+     *
+     * @param maxStreamUploadBuffers
+     *            The maximum number of buffers of an upload from a stream.
+     */
+    public void setMaxStreamUploadBuffers(int maxStreamUploadBuffers) {
+        this.maxStreamUploadBuffers = maxStreamUploadBuffers;
+    }
+
+    /**
+     * Returns the maximum number of parts an adaptive multipart upload or
+     * copy keeps in flight.
+     * <p>
+     * If positive, file uploads and copies that are processed in parts tune
+     * their part size and their number of parts in flight as their parts
+     * complete, instead of submitting parts of a fixed size all at once to
+     * the thread pool. The number of parts in flight starts at two, and
+     * doubles up to this maximum while doing so raises the throughput. Parts
+     * are sized to take a few seconds each at the measured throughput, but
+     * are never smaller than {@link #getMinimumUploadPartSize()} or
+     * {@link #getMultipartCopyPartSize()}, and always fit the object in 10,000
+     * parts. The chosen parameters are published in the
+     * {@link TransferProgress} of the transfer.
+     * </p>
+     * <p>
+     * Adaptive uploads can't be paused, since a resumed upload must use the
+     * same part size throughout. Uploads through an encryption client, and
+     * resumed uploads, are never adaptive.
+     * </p>
+     * <p>
+     * If zero, which is the default, multipart uploads and copies are not
+     * adaptive.
+     * </p>
+     *
+     * @return The maximum number of parts in flight of an adaptive transfer.
+     */
+    public int getMaxAdaptivePartConcurrency() {
+        return maxAdaptivePartConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of parts an adaptive multipart upload or copy
+     * keeps in flight. See {@link #getMaxAdaptivePartConcurrency()}.
+     *
+     * @param maxAdaptivePartConcurrency
+     *            The maximum number of parts in flight of an adaptive
+     *            transfer.
+     */
+    public void setMaxAdaptivePartConcurrency(int maxAdaptivePartConcurrency) {
+        this.maxAdaptivePartConcurrency = maxAdaptivePartConcurrency;
+    }
+
+    /**
+     * Returns the maximum number of DeleteObjects requests a deletion of the
+     * objects under a key prefix keeps in flight, each deleting up to 1,000
+     * objects.
+     * <p>
+     * The number of requests in flight starts at this maximum. It is halved
+     * whenever Amazon S3 throttles a request, and grows back by one with each
+     * request that isn't throttled.
+     * </p>
+     *
+     * @return The maximum number of requests in flight of a prefix deletion.
+     */
+    public int getMaxPrefixDeleteConcurrency() {
+        return maxPrefixDeleteConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of DeleteObjects requests a deletion of the
+     * objects under a key prefix keeps in flight. See
+     * {@link #getMaxPrefixDeleteConcurrency()}.
+     *
+     * @param maxPrefixDeleteConcurrency
+     *            The maximum number of requests in flight of a prefix
+     *            deletion.
+     */
+    public void setMaxPrefixDeleteConcurrency(int maxPrefixDeleteConcurrency) {
+        this.maxPrefixDeleteConcurrency = maxPrefixDeleteConcurrency;
+    }
+
+    /**
+     * Returns whether the parts of file uploads through an
+     * {@link com.amazonaws.services.s3.AmazonS3EncryptionClient} in an
+     * authenticated encryption mode are uploaded concurrently.
+     * <p>
+     * If enabled, each part is encrypted separately, while the tag of the
+     * whole object is combined from the parts. The last part is uploaded once
+     * all the others have been. Uploads through an encryption client in
+     * another mode, and uploads from a stream, are still uploaded one part at
+     * a time.
+     * </p>
+     * <p>
+     * Disabled by default.
+     * </p>
+     *
+     * @return True if the parts of encrypted file uploads are uploaded
+     *         concurrently.
+     */
+    public boolean isConcurrentEncryptedPartUploadsEnabled() {
+        return concurrentEncryptedPartUploadsEnabled;
+    }
+
+    /**
+     * Sets whether the parts of file uploads through an encryption client in
+     * an authenticated encryption mode are uploaded concurrently. See
+     * {@link #isConcurrentEncryptedPartUploadsEnabled()}.
+     *
+     * @param concurrentEncryptedPartUploadsEnabled
+     *            True to upload the parts of encrypted file uploads
+     *            concurrently.
+     */
+    public void setConcurrentEncryptedPartUploadsEnabled(boolean concurrentEncryptedPartUploadsEnabled) {
+        this.concurrentEncryptedPartUploadsEnabled = concurrentEncryptedPartUploadsEnabled;
+    }
+}
@@ -25,6 +25,8 @@ public final class TransferProgress {
     private static final Log log = LogFactory.getLog(TransferProgress.class);
     private volatile long bytesTransferred = 0;
     private volatile long totalBytesToTransfer = -1;
+    private volatile long partSize = -1;
+    private volatile int partConcurrency = -1;
 
     /**
      * @deprecated Replaced by {@link #getBytesTransferred()}
@@ -94,4 +96,39 @@ public final class TransferProgress {
     public void setTotalBytesToTransfer(long totalBytesToTransfer) {
         this.totalBytesToTransfer = totalBytesToTransfer;
     }
+
+    /**
+     * Returns the size in bytes of the parts the associated multipart upload
+     * or copy is currently transferring, or -1 if the transfer is not
+     * processed in parts. The part size of an adaptive transfer changes as
+     * the throughput of its parts is measured.
+     *
+     * @return The current part size of the associated transfer, or -1.
+     *
+     * @see TransferManagerConfiguration#getMaxAdaptivePartConcurrency()
+     */
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(long partSize) {
+        this.partSize = partSize;
+    }
+
+    /**
+     * Returns the number of parts the associated adaptive multipart upload or
+     * copy currently keeps in flight, or -1 if the transfer is not adaptive.
+     *
+     * @return The current number of parts in flight of the associated
+     *         transfer, or -1.
+     *
+     * @see TransferManagerConfiguration#getMaxAdaptivePartConcurrency()
+     */
+    public int getPartConcurrency() {
+        return partConcurrency;
+    }
+
+    public void setPartConcurrency(int partConcurrency) {
+        this.partConcurrency = partConcurrency;
+    }
 }
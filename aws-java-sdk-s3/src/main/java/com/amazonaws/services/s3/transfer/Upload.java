@@ -58,7 +58,9 @@ public interface Upload extends Transfer {
      * Upload cannot be paused in the following cases.
      * <ul>
      * 	<li>The data source is an input stream.</li>
-     *  <li>Client side encryption is used.</li>
+     *  <li>Client side encryption is used, even if the parts are uploaded
+     *  concurrently, since the encryption context of the upload is only held
+     *  by the client.</li>
      *  <li>Server Side Encryption with customer provided key is used.</li>
      *  <li>Size of the file being uploaded is less than the {@link TransferManagerConfiguration#getMultipartUploadThreshold()}.</li>
      * </ul>
@@ -80,7 +82,9 @@ public interface Upload extends Transfer {
      * Upload cannot be paused in the following cases.
      * <ul>
      * 	<li>The data source is an input stream.</li>
-     *  <li>Client side encryption is used.</li>
+     *  <li>Client side encryption is used, even if the parts are uploaded
+     *  concurrently, since the encryption context of the upload is only held
+     *  by the client.</li>
      *  <li>Server Side Encryption with customer provided key is used.</li>
      *  <li>Size of the file being uploaded is less than the {@link TransferManagerConfiguration#getMultipartUploadThreshold()}.</li>
      * </ul>
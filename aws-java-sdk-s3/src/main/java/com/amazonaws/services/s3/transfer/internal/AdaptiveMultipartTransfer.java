@@ -0,0 +1,307 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static com.amazonaws.services.s3.internal.Constants.GB;
+import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.annotation.NotThreadSafe;
+
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+
+/**
+ * Uploads or copies the parts of a multipart upload on a thread pool, tuning
+ * the part size and the number of parts in flight from the measured
+ * throughput of the parts as they complete.
+ * <p>
+ * The number of parts in flight starts at two and doubles, up to the
+ * configured maximum, as long as each doubling raises the aggregate throughput
+ * by at least {@link #MIN_THROUGHPUT_GAIN}; otherwise it falls back to the
+ * best number measured and stays there. From then on, each part is sized to
+ * take about {@link #TARGET_PART_NANOS} at the throughput of the recent parts,
+ * but no larger than the remaining bytes spread over the parts in flight, so
+ * that the transfer doesn't end on a single part. Parts are never smaller than the
+ * minimum part size, nor than the size that fits the remaining bytes in the
+ * remaining parts of the 10,000 allowed.
+ * <p>
+ * The chosen part size and number of parts in flight are published in the
+ * {@link TransferProgress} of the transfer.
+ */
+@NotThreadSafe
+final class AdaptiveMultipartTransfer {
+    private static final Log log = LogFactory.getLog(AdaptiveMultipartTransfer.class);
+
+    /** Parts are sized to take about this long. */
+    static final long TARGET_PART_NANOS = TimeUnit.SECONDS.toNanos(4);
+    /** The maximum size of a part, as allowed by Amazon S3. */
+    static final long MAXIMUM_PART_SIZE = 5 * GB;
+    /** The number of parts in flight a transfer starts with. */
+    private static final int INITIAL_CONCURRENCY = 2;
+    /** The least increase of throughput for which more parts are put in flight. */
+    private static final double MIN_THROUGHPUT_GAIN = 1.1;
+    /** The number of parts per part in flight over which the throughput is measured. */
+    private static final int ROUND_LENGTH = 2;
+
+    private final long minPartSize;
+    private final int maxConcurrency;
+    private final TransferProgress transferProgress;
+
+    private long remainingBytes;
+    private long partSize;
+    private int partCount;
+    private int concurrency;
+
+    /** The moving average of the throughput of a single part, in bytes per nanosecond. */
+    private double partThroughput;
+    /** Whether the number of parts in flight may still be increased. */
+    private boolean isProbing = true;
+    private double bestThroughput;
+    private int bestConcurrency;
+
+    /**
+     * The current round of measurement, which is {@link #ROUND_LENGTH} times
+     * as many parts as are in flight, and is not measured right after the
+     * number of parts in flight changes.
+     */
+    private boolean isRoundMeasured = true;
+    private long roundStartNanos;
+    private long roundBytes;
+    private int roundParts;
+
+    /**
+     * Creates the next part of the transfer.
+     */
+    interface PartFactory {
+        /**
+         * Returns the callable that uploads or copies the next part, which has
+         * the given size, and returns its ETag.
+         */
+        Callable<PartETag> newPart(long partSize);
+    }
+
+    /**
+     * @param contentLength
+     *            the number of bytes to upload or copy
+     * @param initialPartSize
+     *            the size of the parts until the throughput is measured
+     * @param minPartSize
+     *            the minimum size of a part
+     * @param maxConcurrency
+     *            the maximum number of parts in flight
+     * @param transferProgress
+     *            the progress of the transfer, which the chosen parameters are
+     *            published in
+     */
+    AdaptiveMultipartTransfer(long contentLength, long initialPartSize,
+            long minPartSize, int maxConcurrency, TransferProgress transferProgress) {
+        this.remainingBytes = contentLength;
+        this.partSize = initialPartSize;
+        this.minPartSize = minPartSize;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.concurrency = Math.min(INITIAL_CONCURRENCY, this.maxConcurrency);
+        this.bestConcurrency = concurrency;
+        this.transferProgress = transferProgress;
+    }
+
+    /**
+     * Transfers all the parts on the given thread pool, and returns their
+     * ETags. If no thread of the pool has picked up any part while waiting
+     * for one to complete, a part is transferred in the current thread, so
+     * that transfers waiting on their parts can't starve the pool.
+     */
+    List<PartETag> transferParts(ExecutorService threadPool, PartFactory partFactory)
+            throws Exception {
+        final BlockingQueue<Part> completedParts = new LinkedBlockingQueue<Part>();
+        final List<Part> partsInFlight = new ArrayList<Part>();
+        final List<PartETag> partETags = new ArrayList<PartETag>();
+        transferProgress.setPartConcurrency(concurrency);
+        roundStartNanos = System.nanoTime();
+        try {
+            for (;;) {
+                while (partsInFlight.size() < concurrency && remainingBytes > 0) {
+                    if (threadPool.isShutdown()) throw new CancellationException("TransferManager has been shutdown");
+                    long size = nextPartSize();
+                    Part part = new Part(partFactory.newPart(size), size, completedParts);
+                    partsInFlight.add(part);
+                    threadPool.execute(part);
+                }
+                if (partsInFlight.isEmpty()) {
+                    return partETags;
+                }
+                Part completed = completedParts.poll();
+                if (completed == null) {
+                    for (Part part : partsInFlight) {
+                        part.run();
+                        if (!completedParts.isEmpty()) break;
+                    }
+                    completed = completedParts.take();
+                }
+                partsInFlight.remove(completed);
+                partETags.add(completed.getPartETag());
+                partCompleted(completed.size, completed.timedPart.elapsedNanos);
+            }
+        } catch (Exception e) {
+            for (Part part : partsInFlight) {
+                part.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the size of the next part, and accounts for it.
+     */
+    private long nextPartSize() {
+        // Small parts keep the rounds short while the number of parts in flight is probed
+        long size = isProbing ? partSize : (long) (partThroughput * TARGET_PART_NANOS);
+        size = Math.min(size, (remainingBytes + concurrency - 1) / concurrency);
+        size = Math.min(size, MAXIMUM_PART_SIZE);
+        size = Math.max(size, minPartSize);
+        int remainingParts = Math.max(1, MAXIMUM_UPLOAD_PARTS - partCount);
+        size = Math.max(size, (remainingBytes + remainingParts - 1) / remainingParts);
+        size = Math.min(size, remainingBytes);
+
+        // The last part only takes what is left
+        if (size < remainingBytes || partCount == 0) {
+            if (size != partSize && log.isDebugEnabled())
+                log.debug("Adjusted the part size to " + size + " bytes");
+            partSize = size;
+            transferProgress.setPartSize(size);
+        }
+        remainingBytes -= size;
+        partCount++;
+        return size;
+    }
+
+    /**
+     * Records the throughput of a completed part, and adjusts the number of
+     * parts in flight at the end of each round of measurement.
+     */
+    private void partCompleted(long size, long elapsedNanos) {
+        double throughput = (double) size / Math.max(1, elapsedNanos);
+        partThroughput = partThroughput == 0 ? throughput : (partThroughput + throughput) / 2;
+
+        roundBytes += size;
+        if (++roundParts < ROUND_LENGTH * concurrency) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (isProbing && isRoundMeasured) {
+            double roundThroughput = (double) roundBytes / Math.max(1, now - roundStartNanos);
+            if (log.isDebugEnabled())
+                log.debug("Measured " + (long) (roundThroughput * TimeUnit.SECONDS.toNanos(1))
+                        + " bytes/s with " + concurrency + " parts in flight");
+            if (roundThroughput >= bestThroughput * MIN_THROUGHPUT_GAIN) {
+                bestThroughput = roundThroughput;
+                bestConcurrency = concurrency;
+                if (concurrency < maxConcurrency) {
+                    setConcurrency(Math.min(maxConcurrency, concurrency * 2));
+                } else {
+                    isProbing = false;
+                }
+            } else {
+                isProbing = false;
+                setConcurrency(bestConcurrency);
+            }
+        } else {
+            isRoundMeasured = true;
+        }
+        roundStartNanos = now;
+        roundBytes = 0;
+        roundParts = 0;
+    }
+
+    private void setConcurrency(int concurrency) {
+        if (concurrency != this.concurrency) {
+            this.concurrency = concurrency;
+            // The next round starts with the parts put in flight at the old concurrency
+            isRoundMeasured = false;
+            transferProgress.setPartConcurrency(concurrency);
+            if (log.isDebugEnabled())
+                log.debug("Adjusted the number of parts in flight to " + concurrency);
+        }
+    }
+
+    /**
+     * Transfers a part and records how long it took.
+     */
+    private static final class TimedPart implements Callable<PartETag> {
+        private final Callable<PartETag> callable;
+        private volatile long elapsedNanos;
+
+        private TimedPart(Callable<PartETag> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public PartETag call() throws Exception {
+            long start = System.nanoTime();
+            PartETag partETag = callable.call();
+            elapsedNanos = System.nanoTime() - start;
+            return partETag;
+        }
+    }
+
+    /**
+     * A part in flight, which queues itself once complete.
+     */
+    private static final class Part extends FutureTask<PartETag> {
+        private final TimedPart timedPart;
+        private final long size;
+        private final BlockingQueue<Part> completedParts;
+
+        private Part(Callable<PartETag> callable, long size, BlockingQueue<Part> completedParts) {
+            this(new TimedPart(callable), size, completedParts);
+        }
+
+        private Part(TimedPart timedPart, long size, BlockingQueue<Part> completedParts) {
+            super(timedPart);
+            this.timedPart = timedPart;
+            this.size = size;
+            this.completedParts = completedParts;
+        }
+
+        @Override
+        protected void done() {
+            completedParts.add(this);
+        }
+
+        private PartETag getPartETag() throws Exception {
+            try {
+                return get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -33,6 +33,8 @@ import com.amazonaws.event.ProgressListenerChain;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.Headers;
 import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.CopyObjectResult;
 import com.amazonaws.services.s3.model.CopyPartRequest;
@@ -128,8 +130,7 @@ public class CopyCallable implements Callable<CopyResult> {
         copy.setState(TransferState.InProgress);
         if (isMultipartCopy()) {
             publishProgress(listenerChain, ProgressEventType.TRANSFER_STARTED_EVENT);
-            copyInParts();
-            return null;
+            return copyInParts();
         } else {
             return copyInOneChunk();
         }
@@ -162,10 +163,12 @@ public class CopyCallable implements Callable<CopyResult> {
      * the part to be copied is specified in the request as a byte range
      * (first-last)
      *
+     * @return The result of an adaptive copy, or null if the copy parts have
+     *         been submitted to the thread pool.
      * @throws Exception
      *             Any Exception that occurs while carrying out the request.
      */
-    private void copyInParts() throws Exception {
+    private CopyResult copyInParts() throws Exception {
         final String bucketName = copyObjectRequest.getDestinationBucketName();
         final String key = copyObjectRequest.getDestinationKey();
 
@@ -177,7 +180,12 @@ public class CopyCallable implements Callable<CopyResult> {
             CopyPartRequestFactory requestFactory = new CopyPartRequestFactory(
                     copyObjectRequest, multipartUploadId, optimalPartSize,
                     metadata.getContentLength());
+            if (configuration.getMaxAdaptivePartConcurrency() > 0) {
+                return copyPartsAdaptively(requestFactory, optimalPartSize);
+            }
+            copy.getProgress().setPartSize(optimalPartSize);
             copyPartsInParallel(requestFactory);
+            return null;
         } catch (Exception e) {
             publishProgress(listenerChain, ProgressEventType.TRANSFER_FAILED_EVENT);
             try {
@@ -218,6 +226,46 @@ public class CopyCallable implements Callable<CopyResult> {
         }
     }
 
+    /**
+     * Copies the parts on our thread pool, tuning the part size and the number
+     * of parts in flight as they complete, then completes the copy and returns
+     * the result.
+     *
+     * @see AdaptiveMultipartTransfer
+     */
+    private CopyResult copyPartsAdaptively(final CopyPartRequestFactory requestFactory,
+            long optimalPartSize) throws Exception {
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(
+                metadata.getContentLength(), optimalPartSize,
+                configuration.getMultipartCopyPartSize(),
+                configuration.getMaxAdaptivePartConcurrency(), copy.getProgress());
+        List<PartETag> partETags = transfer.transferParts(threadPool,
+                new AdaptiveMultipartTransfer.PartFactory() {
+                    @Override
+                    public Callable<PartETag> newPart(long partSize) {
+                        return new CopyPartCallable(s3,
+                                requestFactory.getNextCopyPartRequest(partSize));
+                    }
+                });
+
+        CompleteMultipartUploadRequest req = new CompleteMultipartUploadRequest(
+                copyObjectRequest.getDestinationBucketName(),
+                copyObjectRequest.getDestinationKey(), multipartUploadId, partETags)
+                .withGeneralProgressListener(copyObjectRequest.getGeneralProgressListener())
+                .withRequestMetricCollector(copyObjectRequest.getRequestMetricCollector())
+                ;
+        CompleteMultipartUploadResult res = s3.completeMultipartUpload(req);
+
+        CopyResult copyResult = new CopyResult();
+        copyResult.setSourceBucketName(copyObjectRequest.getSourceBucketName());
+        copyResult.setSourceKey(copyObjectRequest.getSourceKey());
+        copyResult.setDestinationBucketName(res.getBucketName());
+        copyResult.setDestinationKey(res.getKey());
+        copyResult.setETag(res.getETag());
+        copyResult.setVersionId(res.getVersionId());
+        return copyResult;
+    }
+
     /**
      * Initiates a multipart upload and returns the upload id
      */
@@ -68,4 +68,20 @@ public class CopyImpl extends AbstractTransfer implements Copy {
             return null;
         }
     }
+
+    /**
+     * Cancels this copy unless it is already done. A multipart copy that is
+     * canceled while in progress may leave parts behind, which
+     * {@link com.amazonaws.services.s3.transfer.TransferManager#abortMultipartUploads}
+     * cleans up.
+     */
+    public void cancel() {
+        monitor.getFuture().cancel(true);
+        synchronized (this) {
+            if (isDone())
+                return;
+            state = TransferState.Canceled;
+        }
+        notifyStateChangeListeners(TransferState.Canceled);
+    }
 }
@@ -59,7 +59,17 @@ public class CopyPartRequestFactory {
      * @return Returns a new copy part request
      */
     public synchronized CopyPartRequest getNextCopyPartRequest() {
-        final long partSize = Math.min(optimalPartSize, remainingBytes);
+        return getNextCopyPartRequest(optimalPartSize);
+    }
+
+    /**
+     * Constructs the copy part request of the given size, or of the remaining
+     * bytes if fewer, and returns it.
+     *
+     * @return Returns a new copy part request
+     */
+    public synchronized CopyPartRequest getNextCopyPartRequest(long size) {
+        final long partSize = Math.min(size, remainingBytes);
 
         CopyPartRequest req = new CopyPartRequest()
             .withSourceBucketName(origReq.getSourceBucketName())
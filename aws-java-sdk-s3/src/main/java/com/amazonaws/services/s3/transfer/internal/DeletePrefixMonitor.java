@@ -0,0 +1,414 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
+import static com.amazonaws.event.SDKProgressPublisher.publishRequestBytesTransferred;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.event.ProgressEventType;
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.DeleteObjectsResult.DeletedObject;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+
+/**
+ * Deletes all the objects under a key prefix, a page of the listing at a time
+ * with a DeleteObjects request, on the thread pool of the TransferManager.
+ * The next page is listed while the previous pages are being deleted.
+ * <p>
+ * The number of requests in flight starts at the configured maximum. It is
+ * halved, down to one, when Amazon S3 throttles a request, at most once per
+ * round of requests, and grows back by one with each request that isn't
+ * throttled. The objects that couldn't be deleted because of throttling or an
+ * internal error are deleted again by a later request, up to
+ * {@link #MAX_ATTEMPTS} times in all, once a delay given by the SDK default
+ * back-off strategy has elapsed: exponential in the number of attempts, with
+ * jitter, so that retries don't hit Amazon S3 again all at once. The other
+ * errors fail the deletion once all the objects have been attempted.
+ */
+public class DeletePrefixMonitor implements Callable<Long>, TransferMonitor {
+    private static final Log log = LogFactory.getLog(DeletePrefixMonitor.class);
+
+    /** The maximum number of times the deletion of an object is attempted. */
+    static final int MAX_ATTEMPTS = 4;
+    /** The maximum number of objects a DeleteObjects request may delete. */
+    static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    private static final String SLOW_DOWN = "SlowDown";
+    private static final String INTERNAL_ERROR = "InternalError";
+
+    private final AmazonS3 s3;
+    private final ExecutorService threadPool;
+    private final MultipleObjectDeleteImpl transfer;
+    private final int maxConcurrency;
+    private final ProgressListenerChain listener;
+    private final ListObjectsV2Request listObjectsRequest;
+
+    private Future<Long> future;
+
+    private final BlockingQueue<Batch> completedBatches = new LinkedBlockingQueue<Batch>();
+    private final List<Batch> batchesInFlight = new ArrayList<Batch>();
+    /** The batches listed or retried, but not yet submitted. */
+    private final LinkedList<Batch> pendingBatches = new LinkedList<Batch>();
+    private final List<DeleteError> errors = new ArrayList<DeleteError>();
+    private boolean isListed;
+    private int concurrency;
+    private int submittedBatches;
+    /** The batches submitted before the last decrease of concurrency don't decrease it again. */
+    private int firstBatchAfterDecrease;
+    private long deletedObjectCount;
+
+    /**
+     * Constructs a new monitor for the deletion of the objects under the given
+     * prefix, and immediately submits it to the given thread pool.
+     *
+     * @param s3
+     *            The client to list and delete the objects with.
+     * @param transfer
+     *            The deletion being monitored.
+     * @param threadPool
+     *            The {@link ExecutorService} to which the DeleteObjects
+     *            requests are submitted.
+     * @param bucketName
+     *            The bucket from which to delete the objects.
+     * @param keyPrefix
+     *            The key prefix of the objects to delete.
+     * @param maxConcurrency
+     *            The maximum number of DeleteObjects requests in flight.
+     * @param progressListenerChain
+     *            The listener to publish the progress of the deletion to.
+     */
+    public static DeletePrefixMonitor create(AmazonS3 s3, MultipleObjectDeleteImpl transfer,
+            ExecutorService threadPool, String bucketName, String keyPrefix, int maxConcurrency,
+            ProgressListenerChain progressListenerChain) {
+        DeletePrefixMonitor monitor = new DeletePrefixMonitor(s3, transfer, threadPool,
+                bucketName, keyPrefix, maxConcurrency, progressListenerChain);
+        monitor.setFuture(threadPool.submit(monitor));
+        return monitor;
+    }
+
+    private DeletePrefixMonitor(AmazonS3 s3, MultipleObjectDeleteImpl transfer,
+            ExecutorService threadPool, String bucketName, String keyPrefix, int maxConcurrency,
+            ProgressListenerChain progressListenerChain) {
+        this.s3 = s3;
+        this.transfer = transfer;
+        this.threadPool = threadPool;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.concurrency = this.maxConcurrency;
+        this.listener = progressListenerChain;
+        this.listObjectsRequest = new ListObjectsV2Request().withBucketName(bucketName)
+                .withPrefix(keyPrefix).withMaxKeys(MAX_KEYS_PER_REQUEST);
+    }
+
+    @Override
+    public synchronized Future<Long> getFuture() {
+        return future;
+    }
+
+    private synchronized void setFuture(Future<Long> future) {
+        this.future = future;
+    }
+
+    @Override
+    public boolean isDone() {
+        return getFuture().isDone();
+    }
+
+    @Override
+    public Long call() throws Exception {
+        transfer.setState(TransferState.InProgress);
+        publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+        try {
+            for (;;) {
+                while (batchesInFlight.size() < concurrency) {
+                    Batch batch = nextReadyBatch();
+                    if (batch == null) {
+                        if (isListed)
+                            break;
+                        listNextPage();
+                        continue;
+                    }
+                    if (threadPool.isShutdown())
+                        throw new CancellationException("TransferManager has been shutdown");
+                    batch.sequence = submittedBatches++;
+                    batchesInFlight.add(batch);
+                    threadPool.execute(batch);
+                }
+                if (batchesInFlight.isEmpty()) {
+                    if (pendingBatches.isEmpty())
+                        break;
+                    // Only retries waiting for their back-off are left
+                    TimeUnit.NANOSECONDS.sleep(nanosUntilReady());
+                    continue;
+                }
+                Batch completed = nextCompletedBatch();
+                if (completed != null)
+                    batchCompleted(completed);
+            }
+            if (!errors.isEmpty())
+                throw new MultiObjectDeleteException(errors, Collections.<DeletedObject>emptyList());
+            if (transfer.setFinalState(TransferState.Completed))
+                publishProgress(listener, ProgressEventType.TRANSFER_COMPLETED_EVENT);
+            return deletedObjectCount;
+        } catch (Exception e) {
+            for (Batch batch : batchesInFlight) {
+                batch.cancel(true);
+            }
+            if (e instanceof CancellationException || e instanceof InterruptedException) {
+                if (transfer.setFinalState(TransferState.Canceled))
+                    publishProgress(listener, ProgressEventType.TRANSFER_CANCELED_EVENT);
+                throw new AmazonClientException("Delete canceled", e);
+            }
+            if (transfer.setFinalState(TransferState.Failed))
+                publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
+            throw e;
+        }
+    }
+
+    /**
+     * Lists the next page of objects, as a batch to delete.
+     */
+    private void listNextPage() {
+        ListObjectsV2Result result = s3.listObjectsV2(listObjectsRequest);
+        listObjectsRequest.setContinuationToken(result.getNextContinuationToken());
+        isListed = !result.isTruncated();
+
+        List<S3ObjectSummary> summaries = result.getObjectSummaries();
+        if (summaries.isEmpty())
+            return;
+        long bytes = 0;
+        for (S3ObjectSummary summary : summaries) {
+            bytes += summary.getSize();
+        }
+        TransferProgress transferProgress = transfer.getProgress();
+        synchronized (transferProgress) {
+            transferProgress.setTotalBytesToTransfer(transferProgress.getTotalBytesToTransfer() + bytes);
+        }
+        pendingBatches.add(new Batch(summaries, 1, 0));
+    }
+
+    /**
+     * Removes and returns the first pending batch whose back-off has elapsed,
+     * or null if there is none.
+     */
+    private Batch nextReadyBatch() {
+        long now = System.nanoTime();
+        for (Iterator<Batch> it = pendingBatches.iterator(); it.hasNext();) {
+            Batch batch = it.next();
+            if (batch.readyAt - now <= 0) {
+                it.remove();
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the time until the back-off of the first pending batch to be
+     * ready elapses, in nanoseconds.
+     */
+    private long nanosUntilReady() {
+        long now = System.nanoTime();
+        long nanos = Long.MAX_VALUE;
+        for (Batch batch : pendingBatches) {
+            nanos = Math.min(nanos, Math.max(0, batch.readyAt - now));
+        }
+        return nanos;
+    }
+
+    /**
+     * Returns the next batch to complete. If no thread of the pool has picked
+     * up any batch in the meantime, a batch is deleted in the current thread,
+     * so that the deletion can't starve on a busy pool. Returns null if a
+     * pending batch can be submitted first, once its back-off has elapsed.
+     */
+    private Batch nextCompletedBatch() throws InterruptedException {
+        Batch completed = completedBatches.poll();
+        if (completed == null) {
+            for (Batch batch : batchesInFlight) {
+                batch.run();
+                if (!completedBatches.isEmpty())
+                    break;
+            }
+            // Pending batches left with room to submit them are waiting for their back-off
+            completed = batchesInFlight.size() < concurrency && !pendingBatches.isEmpty()
+                    ? completedBatches.poll(nanosUntilReady(), TimeUnit.NANOSECONDS)
+                    : completedBatches.take();
+        }
+        return completed;
+    }
+
+    /**
+     * Accounts for the objects of the given batch that were deleted, and
+     * retries those that may be deleted by trying again.
+     */
+    private void batchCompleted(Batch batch) throws Exception {
+        batchesInFlight.remove(batch);
+        List<DeleteError> batchErrors = Collections.emptyList();
+        try {
+            batch.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MultiObjectDeleteException) {
+                batchErrors = ((MultiObjectDeleteException) cause).getErrors();
+            } else if (cause instanceof AmazonServiceException
+                    && isThrottling((AmazonServiceException) cause)
+                    && batch.attempt < MAX_ATTEMPTS) {
+                throttled(batch);
+                retry(batch, batch.summaries, (AmazonServiceException) cause);
+                return;
+            } else if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else {
+                throw e;
+            }
+        }
+
+        Map<String, DeleteError> errorsByKey = new HashMap<String, DeleteError>();
+        for (DeleteError error : batchErrors) {
+            errorsByKey.put(error.getKey(), error);
+        }
+        boolean isThrottled = false;
+        DeleteError retriedError = null;
+        List<S3ObjectSummary> retried = new ArrayList<S3ObjectSummary>();
+        long deletedBytes = 0;
+        int deletedCount = 0;
+        for (S3ObjectSummary summary : batch.summaries) {
+            DeleteError error = errorsByKey.get(summary.getKey());
+            if (error == null) {
+                deletedBytes += summary.getSize();
+                deletedCount++;
+            } else if (SLOW_DOWN.equals(error.getCode()) || INTERNAL_ERROR.equals(error.getCode())) {
+                isThrottled |= SLOW_DOWN.equals(error.getCode());
+                if (batch.attempt < MAX_ATTEMPTS) {
+                    retried.add(summary);
+                    if (retriedError == null || SLOW_DOWN.equals(error.getCode()))
+                        retriedError = error;
+                } else {
+                    errors.add(error);
+                }
+            } else {
+                errors.add(error);
+            }
+        }
+        if (!retried.isEmpty()) {
+            AmazonServiceException cause = new AmazonServiceException(retriedError.getMessage());
+            cause.setErrorCode(retriedError.getCode());
+            cause.setStatusCode(SLOW_DOWN.equals(retriedError.getCode()) ? 503 : 500);
+            retry(batch, retried, cause);
+        }
+        if (isThrottled) {
+            throttled(batch);
+        } else if (concurrency < maxConcurrency) {
+            concurrency++;
+        }
+
+        deletedObjectCount += deletedCount;
+        transfer.objectsDeleted(deletedCount);
+        publishRequestBytesTransferred(listener, deletedBytes);
+    }
+
+    /**
+     * Queues the given objects of a batch to be deleted again once the back-off
+     * for the given error has elapsed.
+     */
+    private void retry(Batch batch, List<S3ObjectSummary> summaries, AmazonServiceException cause) {
+        long delay = PredefinedRetryPolicies.DEFAULT_BACKOFF_STRATEGY
+                .delayBeforeNextRetry(null, cause, batch.attempt - 1);
+        if (log.isDebugEnabled())
+            log.debug("Retrying the deletion of " + summaries.size() + " objects in " + delay + " ms ("
+                    + cause.getErrorCode() + ")");
+        pendingBatches.add(new Batch(summaries, batch.attempt + 1, delay));
+    }
+
+    private void throttled(Batch batch) {
+        if (batch.sequence < firstBatchAfterDecrease)
+            return;
+        concurrency = Math.max(1, concurrency / 2);
+        firstBatchAfterDecrease = submittedBatches;
+        if (log.isDebugEnabled())
+            log.debug("Throttled; reduced the number of DeleteObjects requests in flight to " + concurrency);
+    }
+
+    private static boolean isThrottling(AmazonServiceException e) {
+        return RetryUtils.isThrottlingException(e) || e.getStatusCode() == 503;
+    }
+
+    /**
+     * A DeleteObjects request in flight, which queues itself once complete.
+     */
+    private final class Batch extends FutureTask<Object> {
+        private final List<S3ObjectSummary> summaries;
+        /** The number of times the deletion of these objects has been attempted, including this one. */
+        private final int attempt;
+        /** The {@link System#nanoTime()} once the back-off of this batch has elapsed. */
+        private final long readyAt;
+        private int sequence;
+
+        private Batch(final List<S3ObjectSummary> summaries, int attempt, long delayMillis) {
+            super(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    List<KeyVersion> keys = new ArrayList<KeyVersion>(summaries.size());
+                    for (S3ObjectSummary summary : summaries) {
+                        keys.add(new KeyVersion(summary.getKey()));
+                    }
+                    return s3.deleteObjects(new DeleteObjectsRequest(listObjectsRequest.getBucketName())
+                            .withKeys(keys).withQuiet(true));
+                }
+            });
+            this.summaries = summaries;
+            this.attempt = attempt;
+            this.readyAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+
+        @Override
+        protected void done() {
+            completedBatches.add(this);
+        }
+    }
+}
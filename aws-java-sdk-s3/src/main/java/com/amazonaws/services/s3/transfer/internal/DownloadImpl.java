@@ -41,6 +41,16 @@ public class DownloadImpl extends AbstractTransfer implements Download {
      */
     private Integer lastFullyDownloadedPartNumber;
 
+    /**
+     * Bitmap of the parts that have been successfully written into the downloaded file.
+     */
+    private long[] completedPartBitmap;
+
+    /**
+     * Size of the ranges of a ranged download; null if the object is downloaded by parts.
+     */
+    private Long rangedDownloadPartSize;
+
     private final GetObjectRequest getObjectRequest;
     private final File file;
     private final ObjectMetadata objectMetadata;
@@ -106,8 +116,20 @@ public class DownloadImpl extends AbstractTransfer implements Download {
      */
     @SdkInternalApi
     public void updatePersistableTransfer(Integer lastFullyDownloadedPartNumber) {
+        updatePersistableTransfer(lastFullyDownloadedPartNumber, null);
+    }
+
+    /**
+     * Only for internal use.
+     * For parallel downloads, updates the persistableTransfer each time a
+     * part is successfully written into the download file, in any order.
+     * Then notify the listeners that new persistableTransfer is available.
+     */
+    @SdkInternalApi
+    public void updatePersistableTransfer(Integer lastFullyDownloadedPartNumber, long[] completedPartBitmap) {
         synchronized (this) {
             this.lastFullyDownloadedPartNumber = lastFullyDownloadedPartNumber;
+            this.completedPartBitmap = completedPartBitmap == null ? null : completedPartBitmap.clone();
         }
 
         persistableDownload = captureDownloadState(getObjectRequest, file);
@@ -123,6 +145,35 @@ public class DownloadImpl extends AbstractTransfer implements Download {
         return lastFullyDownloadedPartNumber;
     }
 
+    /**
+     * For parallel downloads, returns the bitmap of the parts that were
+     * successfully written into the download file, in which bit {@code n - 1}
+     * is set if part {@code n} is complete.
+     * Returns null for serial downloads.
+     */
+    public synchronized long[] getCompletedPartBitmap() {
+        return completedPartBitmap == null ? null : completedPartBitmap.clone();
+    }
+
+    /**
+     * Only for internal use.
+     * Sets the size of the ranges the object is split into, if it is
+     * downloaded with concurrent ranged requests.
+     */
+    @SdkInternalApi
+    public synchronized void setRangedDownloadPartSize(Long rangedDownloadPartSize) {
+        this.rangedDownloadPartSize = rangedDownloadPartSize;
+    }
+
+    /**
+     * For ranged downloads, returns the size of the ranges the object is
+     * split into; the completed part bitmap refers to these ranges.
+     * Returns null otherwise.
+     */
+    public synchronized Long getRangedDownloadPartSize() {
+        return rangedDownloadPartSize;
+    }
+
     /**
      * Cancels this download.
      *
@@ -190,7 +241,8 @@ public class DownloadImpl extends AbstractTransfer implements Download {
                     getObjectRequest.getVersionId(), getObjectRequest.getRange(),
                     getObjectRequest.getResponseHeaders(), getObjectRequest.isRequesterPays(),
                     file.getAbsolutePath(), getLastFullyDownloadedPartNumber(),
-                    getObjectMetadata().getLastModified().getTime());
+                    getObjectMetadata().getLastModified().getTime(), getCompletedPartBitmap(),
+                    getRangedDownloadPartSize());
         }
         return null;
     }
@@ -15,50 +15,167 @@
 package com.amazonaws.services.s3.transfer.internal;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.concurrent.Callable;
 
+import javax.net.ssl.SSLProtocolException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AbortedException;
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.GetObjectRequest;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.util.IOUtils;
 
 /**
- * Helper class to get a part from s3,
- * write the part data to a temporary file and
- * return the temporary file.
+ * Helper class to get a part, or a range, from s3 and write the data
+ * directly into its position in the destination file.
+ * Returns the part number once the whole part has been written, or null
+ * for a range request.
+ * <p>
+ * Like {@link AmazonS3#getObject(GetObjectRequest, File)}, a part whose
+ * content can't be written, or doesn't have the length given by its
+ * Content-Range, is downloaded again once. A range is requested up to
+ * {@link #MAX_RANGE_ATTEMPTS} times, each attempt resuming from the last byte
+ * written by the previous one, so that a transient failure doesn't fail the
+ * whole download.
  */
-public class DownloadPartCallable implements Callable<File> {
+public class DownloadPartCallable implements Callable<Integer> {
     private static final Log LOG = LogFactory.getLog(DownloadPartCallable.class);
-    private static final String TEMP_FILE_MIDDLE_NAME = ".part.";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PART_ATTEMPTS = 2;
+    private static final int MAX_RANGE_ATTEMPTS = 3;
 
     private final AmazonS3 s3;
     private final GetObjectRequest getPartRequest;
     private final File destinationFile;
-    private final String destinationFilePath;
-    private File partFile;
+    /** The position in the destination file of the next byte of the part to write. */
+    private long nextPosition = -1;
 
+    /**
+     * @param destinationFile
+     *            The destination file, shared by all parts. The file must
+     *            already be large enough to hold the whole object.
+     */
     public DownloadPartCallable(AmazonS3 s3, GetObjectRequest getPartRequest, File destinationFile) {
         this.s3 = s3;
         this.getPartRequest = getPartRequest;
         this.destinationFile = destinationFile;
-        this.destinationFilePath = destinationFile.getAbsolutePath();
     }
 
-    public File call() throws Exception {
-        partFile = File.createTempFile(destinationFile.getName(),
-                TEMP_FILE_MIDDLE_NAME + getPartRequest.getPartNumber().toString(),
-                new File(destinationFilePath.substring(0, destinationFilePath.lastIndexOf(File.separator))));
-        try {
-            partFile.deleteOnExit();
-        } catch (SecurityException exception) {
-            LOG.warn("SecurityException denied delete access to file " + partFile.getAbsolutePath());
+    public Integer call() throws Exception {
+        final long[] range = getPartRequest.getRange();
+        final int maxAttempts = range == null ? MAX_PART_ATTEMPTS : MAX_RANGE_ATTEMPTS;
+        for (int attempt = 1; ; attempt++) {
+            S3Object s3Object;
+            try {
+                s3Object = s3.getObject(getPartRequest);
+            } catch (AmazonClientException ace) {
+                // Parts fail with the request, as they did through getObject(GetObjectRequest, File)
+                if (range == null || !isRetryable(ace, attempt, maxAttempts)) {
+                    throw ace;
+                }
+                LOG.info("Retry the download of " + describePart() + " of object " + getPartRequest.getKey()
+                        + " (bucket " + getPartRequest.getBucketName() + ")", ace);
+                continue;
+            }
+            // Not retried: the object doesn't satisfy the constraints of the request anymore
+            if (s3Object == null) {
+                throw new AmazonClientException(
+                        "There is no object in S3 satisfying this request. The getObject method returned null");
+            }
+            try {
+                writePart(s3Object);
+                return getPartRequest.getPartNumber();
+            } catch (AmazonClientException ace) {
+                if (!isRetryable(ace, attempt, maxAttempts)) {
+                    throw ace;
+                }
+                if (range != null && nextPosition > range[0]) {
+                    getPartRequest.setRange(nextPosition, range[1]);
+                }
+                LOG.info("Retry the download of " + describePart() + " of object " + s3Object.getKey()
+                        + " (bucket " + s3Object.getBucketName() + ")", ace);
+            }
         }
+    }
 
-        if (s3.getObject(getPartRequest, partFile) == null) {
+    /**
+     * Returns true if another attempt should be made after the given failure.
+     */
+    private boolean isRetryable(AmazonClientException ace, int attempt, int maxAttempts) {
+        if (attempt >= maxAttempts || !ace.isRetryable() || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        if (ace instanceof AmazonServiceException) {
+            // Client errors, such as a failed precondition, would fail again
+            return ((AmazonServiceException) ace).getStatusCode() >= 500;
+        }
+        // Same as ServiceUtils#retryableDownloadS3ObjectToFile: socket errors other than
+        // a connection reset are most likely caused by the download being aborted
+        final Throwable cause = ace.getCause();
+        return !(cause instanceof SocketException && !"Connection reset".equals(cause.getMessage()))
+                && !(cause instanceof SSLProtocolException);
+    }
+
+    /**
+     * Writes the content of the part at its position in the destination
+     * file, through a channel of its own, so that interrupting another part
+     * doesn't close it.
+     */
+    private void writePart(S3Object s3Object) {
+        boolean success = false;
+        RandomAccessFile raf = null;
+        try {
+            Long[] contentRange = s3Object.getObjectMetadata().getContentRange();
+            if (contentRange == null) {
+                throw new AmazonClientException("Unable to determine the position of "
+                        + describePart() + ": the response has no Content-Range header");
+            }
+            raf = new RandomAccessFile(destinationFile, "rw");
+            FileChannel destinationChannel = raf.getChannel();
+            nextPosition = contentRange[0];
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
+            while ((bytesRead = s3Object.getObjectContent().read(buffer)) > -1) {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, bytesRead);
+                while (bytes.hasRemaining()) {
+                    nextPosition += destinationChannel.write(bytes, nextPosition);
+                }
+            }
+            if (nextPosition != contentRange[1] + 1) {
+                throw new AmazonClientException("Unable to verify integrity of " + describePart()
+                        + ": expected bytes " + contentRange[0] + "-" + contentRange[1]
+                        + " but received up to byte " + (nextPosition - 1));
+            }
+            success = true;
+        } catch (IOException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new AbortedException(e);
+            }
             throw new AmazonClientException(
-                    "There is no object in S3 satisfying this request. The getObject method returned null");
+                    "Unable to store " + describePart() + " to disk: " + e.getMessage(), e);
+        } finally {
+            IOUtils.closeQuietly(raf, LOG);
+            if (success) {
+                IOUtils.closeQuietly(s3Object, LOG);
+            } else {
+                s3Object.getObjectContent().abort();
+            }
         }
-        return partFile;
+    }
+
+    private String describePart() {
+        return getPartRequest.getPartNumber() != null
+                ? "part " + getPartRequest.getPartNumber()
+                : "range " + getPartRequest.getRange()[0] + "-" + getPartRequest.getRange()[1];
     }
 }
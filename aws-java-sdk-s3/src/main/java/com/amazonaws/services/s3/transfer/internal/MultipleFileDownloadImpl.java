@@ -71,7 +71,7 @@ public class MultipleFileDownloadImpl extends MultipleFileTransfer<Download> imp
     @Override
     public void waitForCompletion()
             throws AmazonClientException, AmazonServiceException, InterruptedException {
-        if (subTransfers.isEmpty())
+        if (subTransfers.isEmpty() && getMonitor().isDone() && getState() != TransferState.Failed)
             return;
         super.waitForCompletion();
     }
@@ -80,6 +80,9 @@ public class MultipleFileDownloadImpl extends MultipleFileTransfer<Download> imp
      * Aborts all outstanding downloads.
      */
     public void abort() throws IOException {
+        /* Stop queueing downloads if the directory is still being listed. */
+        getMonitor().getFuture().cancel(true);
+
         /*
          * The abort() method of DownloadImpl would attempt to notify its
          * TransferStateChangeListener BEFORE it releases its intrinsic lock.
@@ -26,11 +26,24 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
 
     private final Collection<? extends AbstractTransfer> subTransfers;
     private final AbstractTransfer transfer;
+    private final Future<?> subTransfersQueued;
     private final Future<?> future;
 
     public MultipleFileTransferMonitor(AbstractTransfer transfer, Collection<? extends AbstractTransfer> subTransfers) {
+        this(transfer, subTransfers, null);
+    }
+
+    /**
+     * Creates a monitor for a transfer whose sub-transfers are still being
+     * added to the given collection. The transfer is not done before the given
+     * future, which completes once all of them have been added, with a
+     * non-null result, or fails if they couldn't be.
+     */
+    public MultipleFileTransferMonitor(AbstractTransfer transfer, Collection<? extends AbstractTransfer> subTransfers,
+            Future<?> subTransfersQueued) {
         this.subTransfers = subTransfers;
         this.transfer = transfer;
+        this.subTransfersQueued = subTransfersQueued;
 
         /*
          * The future object is not publicly exposed, so we only need to worry
@@ -41,12 +54,18 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
 
             @Override
             public boolean cancel(boolean mayInterruptIfRunning) {
+                if ( MultipleFileTransferMonitor.this.subTransfersQueued != null ) {
+                    MultipleFileTransferMonitor.this.subTransfersQueued.cancel(mayInterruptIfRunning);
+                }
                 return true;
             }
 
             @Override
             public Object get() throws InterruptedException, ExecutionException {
                 Object result = null;
+                if ( MultipleFileTransferMonitor.this.subTransfersQueued != null ) {
+                    result = MultipleFileTransferMonitor.this.subTransfersQueued.get();
+                }
                 for ( AbstractTransfer download : MultipleFileTransferMonitor.this.subTransfers ) {
                     result = download.getMonitor().getFuture().get();
                 }
@@ -57,6 +76,9 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
             public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
                     TimeoutException {
                 Object result = null;
+                if ( MultipleFileTransferMonitor.this.subTransfersQueued != null ) {
+                    result = MultipleFileTransferMonitor.this.subTransfersQueued.get(timeout, unit);
+                }
                 for ( AbstractTransfer subTransfer : MultipleFileTransferMonitor.this.subTransfers ) {
                     result = subTransfer.getMonitor().getFuture().get(timeout, unit);
                 }
@@ -82,6 +104,8 @@ public class MultipleFileTransferMonitor implements TransferMonitor {
 
     @Override
     public synchronized boolean isDone() {
+        if ( subTransfersQueued != null && !subTransfersQueued.isDone() )
+            return false;
         for ( Transfer subTransfer : subTransfers ) {
             if ( !subTransfer.isDone() )
                 return false;
@@ -72,7 +72,7 @@ public class MultipleFileUploadImpl extends MultipleFileTransfer<Upload> impleme
     @Override
     public void waitForCompletion()
             throws AmazonClientException, AmazonServiceException, InterruptedException {
-        if (subTransfers.isEmpty())
+        if (subTransfers.isEmpty() && getMonitor().isDone() && getState() != TransferState.Failed)
             return;
         super.waitForCompletion();
     }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.transfer.Copy;
+import com.amazonaws.services.s3.transfer.MultipleObjectCopy;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+
+/**
+ * Multiple object copy of all the objects under a key prefix.
+ */
+public class MultipleObjectCopyImpl extends MultipleFileTransfer<CopyImpl> implements MultipleObjectCopy {
+
+    private final String sourceBucketName;
+    private final String sourceKeyPrefix;
+    private final String destinationBucketName;
+    private final String destinationKeyPrefix;
+
+    public MultipleObjectCopyImpl(String description, TransferProgress transferProgress,
+            ProgressListenerChain progressListenerChain, String sourceBucketName, String sourceKeyPrefix,
+            String destinationBucketName, String destinationKeyPrefix, Collection<CopyImpl> copies) {
+        super(description, transferProgress, progressListenerChain, copies);
+        this.sourceBucketName = sourceBucketName;
+        this.sourceKeyPrefix = sourceKeyPrefix;
+        this.destinationBucketName = destinationBucketName;
+        this.destinationKeyPrefix = destinationKeyPrefix;
+    }
+
+    @Override
+    public String getSourceBucketName() {
+        return sourceBucketName;
+    }
+
+    @Override
+    public String getSourceKeyPrefix() {
+        return sourceKeyPrefix;
+    }
+
+    @Override
+    public String getDestinationBucketName() {
+        return destinationBucketName;
+    }
+
+    @Override
+    public String getDestinationKeyPrefix() {
+        return destinationKeyPrefix;
+    }
+
+    /**
+     * Waits for this transfer to complete. This is a blocking call; the current
+     * thread is suspended until this transfer completes.
+     *
+     * @throws AmazonClientException
+     *             If any errors were encountered in the client while making the
+     *             request or handling the response.
+     * @throws AmazonServiceException
+     *             If any errors occurred in Amazon S3 while processing the
+     *             request.
+     * @throws InterruptedException
+     *             If this thread is interrupted while waiting for the transfer
+     *             to complete.
+     */
+    @Override
+    public void waitForCompletion()
+            throws AmazonClientException, AmazonServiceException, InterruptedException {
+        if (subTransfers.isEmpty() && getMonitor().isDone() && getState() != TransferState.Failed)
+            return;
+        super.waitForCompletion();
+    }
+
+    @Override
+    public Collection<? extends Copy> getSubTransfers() {
+        return Collections.unmodifiableCollection(subTransfers);
+    }
+
+    /**
+     * Stops the listing, and cancels all outstanding copies.
+     */
+    @Override
+    public void abort() {
+        getMonitor().getFuture().cancel(true);
+        for (CopyImpl copy : subTransfers) {
+            copy.cancel();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.transfer.MultipleObjectDelete;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+
+/**
+ * Deletion of all the objects under a key prefix.
+ */
+public class MultipleObjectDeleteImpl extends AbstractTransfer implements MultipleObjectDelete {
+
+    private final String bucketName;
+    private final String keyPrefix;
+    private final AtomicLong deletedObjectCount = new AtomicLong();
+
+    public MultipleObjectDeleteImpl(String description, TransferProgress transferProgress,
+            ProgressListenerChain progressListenerChain, String bucketName, String keyPrefix) {
+        super(description, transferProgress, progressListenerChain);
+        this.bucketName = bucketName;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    @Override
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    @Override
+    public long getDeletedObjectCount() {
+        return deletedObjectCount.get();
+    }
+
+    void objectsDeleted(int count) {
+        deletedObjectCount.addAndGet(count);
+    }
+
+    /**
+     * Stops listing and deleting objects. The DeleteObjects requests already
+     * sent may still complete.
+     */
+    @Override
+    public void abort() {
+        monitor.getFuture().cancel(true);
+        setFinalState(TransferState.Canceled);
+    }
+
+    /**
+     * Sets the final state of this deletion unless it is already done, and
+     * returns whether it was set.
+     */
+    boolean setFinalState(TransferState state) {
+        synchronized (this) {
+            if (isDone())
+                return false;
+            this.state = state;
+        }
+        notifyStateChangeListeners(state);
+        return true;
+    }
+}
@@ -23,7 +23,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Encryption;
+import com.amazonaws.services.s3.AmazonS3EncryptionClient;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.EncryptedInitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.transfer.PauseStatus;
@@ -61,10 +63,13 @@ public class TransferManagerUtils {
      * @param putObjectRequest
      *            The request to check.
      * @param isUsingEncryption
-     *            True if the upload is an encrypted upload, otherwise false.
+     *            True if the upload is an encrypted upload whose parts must be
+     *            uploaded serially, otherwise false.
      *
      * @return True if this request can use parallel part uploads for faster
      *         uploads.
+     *
+     * @see #isConcurrentPartUploadSupported(AmazonS3)
      */
     public static boolean isUploadParallelizable(final PutObjectRequest putObjectRequest, final boolean isUsingEncryption) {
         // Each uploaded part in an encrypted upload depends on the encryption context
@@ -75,6 +80,22 @@ public class TransferManagerUtils {
         return (getRequestFile(putObjectRequest) != null);
     }
 
+    /**
+     * Returns true if the parts of the encrypted multipart uploads made with
+     * the specified client can be uploaded concurrently, once requested with
+     * {@link EncryptedInitiateMultipartUploadRequest#setConcurrentPartUploads(boolean)},
+     * with the exception of the last part, which must be uploaded after all the others. That is the
+     * case of the {@link AmazonS3EncryptionClient} in the authenticated
+     * encryption modes.
+     *
+     * @param s3
+     *            The Amazon s3 client.
+     */
+    public static boolean isConcurrentPartUploadSupported(AmazonS3 s3) {
+        return s3 instanceof AmazonS3EncryptionClient
+                && ((AmazonS3EncryptionClient) s3).isConcurrentPartUploadSupported();
+    }
+
     /**
      * Returns the size of the data in this request, otherwise -1 if the content
      * length is unknown.
@@ -98,6 +119,20 @@ public class TransferManagerUtils {
         return -1;
     }
 
+    /**
+     * Returns true if the specified upload request reads a stream of unknown
+     * length that should be uploaded in parts read into a bounded pool of
+     * buffers.
+     */
+    public static boolean shouldBufferStreamUpload(PutObjectRequest putObjectRequest,
+            TransferManagerConfiguration configuration, boolean isUsingEncryption) {
+        return configuration.getMaxStreamUploadBuffers() > 0
+                && !isUsingEncryption
+                && getRequestFile(putObjectRequest) == null
+                && putObjectRequest.getInputStream() != null
+                && getContentLength(putObjectRequest) < 0;
+    }
+
     /**
      * Returns the optimal part size, in bytes, for each individual part upload
      * in a multipart upload.
@@ -118,6 +153,26 @@ public class TransferManagerUtils {
         return (long)Math.max(optimalPartSize, configuration.getMinimumUploadPartSize());
     }
 
+    /**
+     * Returns the size, in bytes, of the ranges of a ranged download: the
+     * configured size, raised if needed so that the object fits in
+     * {@link com.amazonaws.services.s3.internal.Constants#MAXIMUM_UPLOAD_PARTS}
+     * ranges.
+     *
+     * @param contentLength
+     *            The length of the object.
+     * @param configuration
+     *            Configuration values to use when calculating size.
+     *
+     * @return The size, in bytes, of the ranges of a ranged download.
+     */
+    public static long calculateRangedDownloadPartSize(long contentLength, TransferManagerConfiguration configuration) {
+        double optimalPartSize = (double)contentLength / (double)MAXIMUM_UPLOAD_PARTS;
+        // round up so we don't push the download over the maximum number of ranges
+        optimalPartSize = Math.ceil(optimalPartSize);
+        return (long)Math.max(optimalPartSize, configuration.getRangedDownloadPartSize());
+    }
+
     /**
      * Returns true if the the specified request should be processed as a
      * multipart upload (instead of a single part upload).
@@ -210,4 +265,33 @@ public class TransferManagerUtils {
         }
         return true;
     }
+
+    /**
+     * Returns true if the specified download request, for an object that was
+     * not uploaded in multiple parts, can be split into ranges that are
+     * downloaded concurrently.
+     *
+     * @param s3
+     *            The Amazon s3 client.
+     * @param getObjectRequest
+     *            The request to check.
+     * @param contentLength
+     *            The length of the object.
+     * @param configuration
+     *            The configuration of the TransferManager.
+     *
+     * @return True if this request can use concurrent ranged downloads.
+     */
+    public static boolean isDownloadRangeSplittable(final AmazonS3 s3, final GetObjectRequest getObjectRequest,
+            long contentLength, TransferManagerConfiguration configuration) {
+        ValidationUtils.assertNotNull(s3, "S3 client");
+        ValidationUtils.assertNotNull(getObjectRequest, "GetObjectRequest");
+
+        if (s3 instanceof AmazonS3Encryption || getObjectRequest.getRange() != null
+                || getObjectRequest.getPartNumber() != null || configuration.isDisableParallelDownloads()) {
+            return false;
+        }
+        return contentLength > configuration.getRangedDownloadThreshold()
+                && contentLength > configuration.getRangedDownloadPartSize();
+    }
 }
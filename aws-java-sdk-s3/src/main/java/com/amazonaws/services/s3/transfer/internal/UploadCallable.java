@@ -15,20 +15,31 @@
 package com.amazonaws.services.s3.transfer.internal;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
+import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.event.ProgressListenerChain;
 import com.amazonaws.services.s3.AmazonS3;
@@ -61,6 +72,10 @@ public class UploadCallable implements Callable<UploadResult> {
     private final UploadImpl upload;
 
     private static final Log log = LogFactory.getLog(UploadCallable.class);
+    /** The number of parts of a stream upload after which its part size doubles. */
+    private static final int STREAM_PARTS_PER_PART_SIZE = 1000;
+    /** The largest part of a stream upload, as the largest array size. */
+    private static final long MAX_STREAM_PART_SIZE = Integer.MAX_VALUE - 8;
     private final TransferManagerConfiguration configuration;
     private final List<Future<PartETag>> futures = new ArrayList<Future<PartETag>>();
     private final ProgressListenerChain listener;
@@ -74,6 +89,9 @@ public class UploadCallable implements Callable<UploadResult> {
 
     private PersistableUpload persistableUpload;
 
+    /** Set once a stream of unknown length turned out to need more than one part. */
+    private volatile boolean isStreamUploadedInParts;
+
     public UploadCallable(TransferManager transferManager,
             ExecutorService threadPool, UploadImpl upload,
             PutObjectRequest origReq,
@@ -111,7 +129,8 @@ public class UploadCallable implements Callable<UploadResult> {
      * @return True if this UploadCallable is processing a multipart upload.
      */
     public boolean isMultipartUpload() {
-        return TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration);
+        return isStreamUploadedInParts
+                || TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration);
     }
 
     public UploadResult call() throws Exception {
@@ -119,6 +138,9 @@ public class UploadCallable implements Callable<UploadResult> {
         if ( isMultipartUpload() ) {
             publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
             return uploadInParts();
+        } else if ( TransferManagerUtils.shouldBufferStreamUpload(origReq, configuration,
+                s3 instanceof AmazonS3Encryption) ) {
+            return uploadStreamInBufferedParts();
         } else {
             return uploadInOneChunk();
         }
@@ -171,21 +193,38 @@ public class UploadCallable implements Callable<UploadResult> {
      */
     private UploadResult uploadInParts() throws Exception {
         boolean isUsingEncryption = s3 instanceof AmazonS3Encryption;
+        boolean isUsingConcurrentEncryption = isUsingEncryption
+                && configuration.isConcurrentEncryptedPartUploadsEnabled()
+                && TransferManagerUtils.isConcurrentPartUploadSupported(s3)
+                && TransferManagerUtils.isUploadParallelizable(origReq, false);
         long optimalPartSize = getOptimalPartSize(isUsingEncryption);
+        // The parts of a resumed upload must keep the size they were uploaded with
+        boolean isAdaptive = configuration.getMaxAdaptivePartConcurrency() > 0
+                && !isUsingEncryption && multipartUploadId == null;
 
         try {
             if (multipartUploadId == null) {
                 multipartUploadId = initiateMultipartUpload(origReq,
-                        isUsingEncryption);
+                        isUsingEncryption, isUsingConcurrentEncryption);
             }
 
             UploadPartRequestFactory requestFactory = new UploadPartRequestFactory(origReq, multipartUploadId, optimalPartSize);
 
-            if (TransferManagerUtils.isUploadParallelizable(origReq, isUsingEncryption)) {
-                captureUploadStateIfPossible();
-                uploadPartsInParallel(requestFactory, multipartUploadId);
+            if (TransferManagerUtils.isUploadParallelizable(origReq,
+                    isUsingEncryption && !isUsingConcurrentEncryption)) {
+                if (isAdaptive) {
+                    return uploadPartsAdaptively(requestFactory, optimalPartSize);
+                }
+                transferProgress.setPartSize(optimalPartSize);
+                // The encryption context of an upload can't outlive the client,
+                // so encrypted uploads can't be paused and resumed
+                if (!isUsingEncryption) {
+                    captureUploadStateIfPossible();
+                }
+                uploadPartsInParallel(requestFactory, multipartUploadId, isUsingEncryption);
                 return null;
             } else {
+                transferProgress.setPartSize(optimalPartSize);
                 return uploadPartsInSeries(requestFactory);
             }
         } catch (Exception e) {
@@ -201,6 +240,192 @@ public class UploadCallable implements Callable<UploadResult> {
         }
     }
 
+    /**
+     * Uploads a stream of unknown length by reading it into part-sized buffers
+     * that are uploaded concurrently on our thread pool. Once the maximum
+     * number of buffers are in use, reading waits for the oldest part to be
+     * uploaded and reuses its buffer. A stream that fits in a single buffer is
+     * uploaded in one chunk.
+     * <p>
+     * Since the length of the stream is unknown, the part size starts at the
+     * minimum upload part size and doubles every
+     * {@link #STREAM_PARTS_PER_PART_SIZE} parts. With the default minimum
+     * part size of 5 MB, a stream of up to about 4.8 TB, nearly the maximum
+     * size of an object, fits in the maximum number of parts.
+     */
+    private UploadResult uploadStreamInBufferedParts() throws Exception {
+        int partSize = streamPartSize(1);
+        final int maxBuffers = configuration.getMaxStreamUploadBuffers();
+        final InputStream input = origReq.getInputStream();
+        final Deque<BufferedPart> partsInFlight = new ArrayDeque<BufferedPart>();
+
+        try {
+            byte[] buffer = new byte[partSize];
+            int bufferCount = 1;
+            int length = readFully(input, buffer);
+            if (length < partSize) {
+                transferProgress.setTotalBytesToTransfer(length);
+                origReq.getMetadata().setContentLength(length);
+                origReq.setInputStream(new ByteArrayInputStream(buffer, 0, length));
+                return uploadInOneChunk();
+            }
+
+            isStreamUploadedInParts = true;
+            transferProgress.setPartSize(partSize);
+            publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+            multipartUploadId = initiateMultipartUpload(origReq, false, false);
+
+            final List<PartETag> partETags = new ArrayList<PartETag>();
+            long totalLength = 0;
+            int partNumber = 1;
+            while (length > 0) {
+                if (threadPool.isShutdown()) throw new CancellationException("TransferManager has been shutdown");
+                if (partNumber > MAXIMUM_UPLOAD_PARTS) {
+                    throw new AmazonClientException("Unable to upload a stream longer than "
+                            + totalLength + " bytes in " + MAXIMUM_UPLOAD_PARTS + " parts");
+                }
+                BufferedPart part = new BufferedPart(buffer,
+                        new UploadPartCallable(s3, newUploadPartRequest(partNumber++, buffer, length)));
+                partsInFlight.addLast(part);
+                threadPool.execute(part.task);
+                totalLength += length;
+
+                if (partSize != streamPartSize(partNumber)) {
+                    partSize = streamPartSize(partNumber);
+                    transferProgress.setPartSize(partSize);
+                }
+                if (bufferCount < maxBuffers) {
+                    buffer = new byte[partSize];
+                    bufferCount++;
+                } else {
+                    // Back pressure: the oldest part must be uploaded before its buffer is reused
+                    BufferedPart oldest = partsInFlight.removeFirst();
+                    partETags.add(oldest.await(threadPool));
+                    // Buffers smaller than the current part size are dropped
+                    buffer = oldest.buffer.length == partSize ? oldest.buffer : new byte[partSize];
+                }
+                length = readFully(input, buffer);
+            }
+            transferProgress.setTotalBytesToTransfer(totalLength);
+            while (!partsInFlight.isEmpty()) {
+                partETags.add(partsInFlight.removeFirst().await(threadPool));
+            }
+
+            return completeMultipartUpload(partETags);
+        } catch (Exception e) {
+            for (BufferedPart part : partsInFlight) {
+                part.cancel(threadPool);
+            }
+            partsInFlight.clear();
+            publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
+            performAbortMultipartUpload();
+            throw e;
+        } finally {
+            try { input.close(); } catch (Exception e) {
+                log.warn("Unable to cleanly close input stream: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the given part of a stream upload: the minimum
+     * upload part size, doubled for every {@link #STREAM_PARTS_PER_PART_SIZE}
+     * parts before it, and capped at the largest array size.
+     */
+    private int streamPartSize(int partNumber) {
+        long partSize = configuration.getMinimumUploadPartSize();
+        for (int parts = STREAM_PARTS_PER_PART_SIZE; parts < partNumber && partSize < MAX_STREAM_PART_SIZE;
+                parts += STREAM_PARTS_PER_PART_SIZE) {
+            partSize *= 2;
+        }
+        return (int) Math.min(partSize, MAX_STREAM_PART_SIZE);
+    }
+
+    /**
+     * Reads from the stream until the buffer is full or the stream ends, and
+     * returns the number of bytes read.
+     */
+    private static int readFully(InputStream input, byte[] buffer) throws IOException {
+        int length = 0;
+        int read;
+        while (length < buffer.length
+                && (read = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+        }
+        return length;
+    }
+
+    private UploadPartRequest newUploadPartRequest(int partNumber, byte[] buffer, int length) {
+        UploadPartRequest req = new UploadPartRequest()
+            .withBucketName(origReq.getBucketName())
+            .withKey(origReq.getKey())
+            .withUploadId(multipartUploadId)
+            .withInputStream(new ByteArrayInputStream(buffer, 0, length))
+            .withPartNumber(partNumber)
+            .withPartSize(length);
+        TransferManager.appendMultipartUserAgent(req);
+
+        if (origReq.getSSECustomerKey() != null) req.setSSECustomerKey(origReq.getSSECustomerKey());
+
+        req.withGeneralProgressListener(origReq.getGeneralProgressListener())
+           .withRequestMetricCollector(origReq.getRequestMetricCollector())
+           ;
+        return req;
+    }
+
+    /**
+     * A part of a stream upload, and the buffer it is uploaded from.
+     */
+    private static final class BufferedPart {
+        private final byte[] buffer;
+        private final FutureTask<PartETag> task;
+
+        private BufferedPart(byte[] buffer, UploadPartCallable callable) {
+            this.buffer = buffer;
+            this.task = new FutureTask<PartETag>(callable);
+        }
+
+        /**
+         * Cancels the upload of the part, and frees its buffer.
+         */
+        private void cancel(ExecutorService threadPool) {
+            task.cancel(true);
+            dequeue(threadPool);
+        }
+
+        /**
+         * Waits for the part to be uploaded. If no thread of the pool has
+         * picked it up yet, it is uploaded in the current thread, so that
+         * uploads waiting on their parts can't starve the pool.
+         */
+        private PartETag await(ExecutorService threadPool) throws Exception {
+            if (!task.isDone()) {
+                task.run();
+                dequeue(threadPool);
+            }
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Takes the part off the queue of the pool if it is still there, so
+         * that the queue doesn't hold onto its buffer until a thread of the
+         * pool gets to it.
+         */
+        private void dequeue(ExecutorService threadPool) {
+            if (threadPool instanceof ThreadPoolExecutor) {
+                ((ThreadPoolExecutor) threadPool).remove(task);
+            }
+        }
+    }
+
     /**
      * Performs an
      * {@link AmazonS3#abortMultipartUpload(AbortMultipartUploadRequest)}
@@ -255,6 +480,38 @@ public class UploadCallable implements Callable<UploadResult> {
             partETags.add(s3.uploadPart(uploadPartRequest).getPartETag());
         }
 
+        return completeMultipartUpload(partETags);
+    }
+
+    /**
+     * Uploads the parts of a file on our thread pool, tuning the part size
+     * and the number of parts in flight as they complete, then completes the
+     * upload and returns the result.
+     *
+     * @see AdaptiveMultipartTransfer
+     */
+    private UploadResult uploadPartsAdaptively(final UploadPartRequestFactory requestFactory,
+            long optimalPartSize) throws Exception {
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(
+                TransferManagerUtils.getContentLength(origReq), optimalPartSize,
+                configuration.getMinimumUploadPartSize(),
+                configuration.getMaxAdaptivePartConcurrency(), transferProgress);
+        List<PartETag> partETags = transfer.transferParts(threadPool,
+                new AdaptiveMultipartTransfer.PartFactory() {
+                    @Override
+                    public Callable<PartETag> newPart(long partSize) {
+                        return new UploadPartCallable(s3,
+                                requestFactory.getNextUploadPartRequest(partSize));
+                    }
+                });
+        return completeMultipartUpload(partETags);
+    }
+
+    /**
+     * Completes the multipart upload with the given parts and returns the
+     * result.
+     */
+    private UploadResult completeMultipartUpload(List<PartETag> partETags) {
         CompleteMultipartUploadRequest req =
             new CompleteMultipartUploadRequest(
                 origReq.getBucketName(), origReq.getKey(), multipartUploadId,
@@ -276,7 +533,8 @@ public class UploadCallable implements Callable<UploadResult> {
      * Submits a callable for each part to upload to our thread pool and records its corresponding Future.
      */
     private void uploadPartsInParallel(UploadPartRequestFactory requestFactory,
-            String uploadId) {
+            String uploadId, boolean isUsingEncryption) {
+        LastPartTrigger lastPartTrigger = isUsingEncryption ? new LastPartTrigger(threadPool) : null;
 
         Map<Integer,PartSummary> partNumbers = identifyExistingPartsForResume(uploadId);
 
@@ -290,7 +548,106 @@ public class UploadCallable implements Callable<UploadResult> {
                 transferProgress.updateProgress(summary.getSize());
                 continue;
             }
-            futures.add(threadPool.submit(new UploadPartCallable(s3, request)));
+            if (isUsingEncryption && request.isLastPart()) {
+                // The last encrypted part carries the tag of all the parts
+                futures.add(lastPartTrigger.newLastPart(new UploadPartCallable(s3, request)));
+            } else if (isUsingEncryption) {
+                FutureTask<PartETag> part = lastPartTrigger.newOtherPart(new UploadPartCallable(s3, request));
+                futures.add(part);
+                threadPool.execute(part);
+            } else {
+                futures.add(threadPool.submit(new UploadPartCallable(s3, request)));
+            }
+        }
+        if (isUsingEncryption) {
+            lastPartTrigger.allPartsSubmitted();
+        }
+    }
+
+    /**
+     * Submits the last part of an encrypted upload once all the other parts
+     * have completed, from the thread of whichever completes last, so that no
+     * thread of the pool is left waiting for the other parts.
+     */
+    private static final class LastPartTrigger {
+        private final ExecutorService threadPool;
+        private final List<Future<PartETag>> otherParts = new ArrayList<Future<PartETag>>();
+        /** The other parts not completed yet, plus one until all parts have been submitted. */
+        private final AtomicInteger pendingParts = new AtomicInteger(1);
+        private volatile FutureTask<PartETag> lastPart;
+
+        private LastPartTrigger(ExecutorService threadPool) {
+            this.threadPool = threadPool;
+        }
+
+        /**
+         * Returns the task of a part other than the last, to execute on the
+         * thread pool.
+         */
+        private FutureTask<PartETag> newOtherPart(Callable<PartETag> uploadPart) {
+            FutureTask<PartETag> part = new FutureTask<PartETag>(uploadPart) {
+                @Override
+                protected void done() {
+                    partCompleted();
+                }
+            };
+            otherParts.add(part);
+            pendingParts.incrementAndGet();
+            return part;
+        }
+
+        /**
+         * Returns the task of the last part, which is submitted once all the
+         * other parts have completed.
+         */
+        private FutureTask<PartETag> newLastPart(UploadPartCallable uploadPart) {
+            lastPart = new FutureTask<PartETag>(new UploadLastPartCallable(uploadPart, otherParts));
+            return lastPart;
+        }
+
+        private void allPartsSubmitted() {
+            partCompleted();
+        }
+
+        private void partCompleted() {
+            final FutureTask<PartETag> lastPart = this.lastPart;
+            if (pendingParts.decrementAndGet() > 0 || lastPart == null || lastPart.isDone()) {
+                return;
+            }
+            try {
+                threadPool.execute(lastPart);
+            } catch (RejectedExecutionException e) {
+                lastPart.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Uploads the last part of an encrypted upload, unless one of the other
+     * parts, which have all completed by then, failed.
+     */
+    private static final class UploadLastPartCallable implements Callable<PartETag> {
+        private final UploadPartCallable uploadPart;
+        private final List<Future<PartETag>> otherParts;
+
+        private UploadLastPartCallable(UploadPartCallable uploadPart,
+                List<Future<PartETag>> otherParts) {
+            this.uploadPart = uploadPart;
+            this.otherParts = otherParts;
+        }
+
+        @Override
+        public PartETag call() throws Exception {
+            for (Future<PartETag> otherPart : otherParts) {
+                try {
+                    otherPart.get();
+                } catch (ExecutionException e) {
+                    throw new AmazonClientException(
+                            "Unable to upload the last part, since another part failed to upload : "
+                                    + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return uploadPart.call();
         }
     }
 
@@ -320,16 +677,29 @@ public class UploadCallable implements Callable<UploadResult> {
     /**
      * Initiates a multipart upload and returns the upload id
      * @param isUsingEncryption
+     * @param isUsingConcurrentEncryption
+     *            True if the parts of the encrypted upload are to be uploaded
+     *            concurrently, as configured. A request other than an
+     *            {@link EncryptedPutObjectRequest} then has no materials
+     *            description to pass through, and is encrypted as an
+     *            encrypted request without one: with the materials of the
+     *            client, unless its materials provider has some for no
+     *            description.
      */
-    private String initiateMultipartUpload(PutObjectRequest origReq, boolean isUsingEncryption) {
+    private String initiateMultipartUpload(PutObjectRequest origReq, boolean isUsingEncryption,
+            boolean isUsingConcurrentEncryption) {
 
         InitiateMultipartUploadRequest req = null;
-        if (isUsingEncryption && origReq instanceof EncryptedPutObjectRequest) {
+        if (isUsingEncryption && (origReq instanceof EncryptedPutObjectRequest || isUsingConcurrentEncryption)) {
             req = new EncryptedInitiateMultipartUploadRequest(
                     origReq.getBucketName(), origReq.getKey()).withCannedACL(
                     origReq.getCannedAcl()).withObjectMetadata(origReq.getMetadata());
+            if (origReq instanceof EncryptedPutObjectRequest) {
+                ((EncryptedInitiateMultipartUploadRequest) req)
+                        .setMaterialsDescription(((EncryptedPutObjectRequest) origReq).getMaterialsDescription());
+            }
             ((EncryptedInitiateMultipartUploadRequest) req)
-                    .setMaterialsDescription(((EncryptedPutObjectRequest) origReq).getMaterialsDescription());
+                    .setConcurrentPartUploads(isUsingConcurrentEncryption);
         } else {
             req = new InitiateMultipartUploadRequest(origReq.getBucketName(), origReq.getKey())
                 .withCannedACL(origReq.getCannedAcl())
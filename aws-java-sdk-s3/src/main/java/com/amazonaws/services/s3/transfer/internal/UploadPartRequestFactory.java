@@ -74,7 +74,15 @@ public class UploadPartRequestFactory {
     }
 
     public synchronized UploadPartRequest getNextUploadPartRequest() {
-        long partSize = Math.min(optimalPartSize, remainingBytes);
+        return getNextUploadPartRequest(optimalPartSize);
+    }
+
+    /**
+     * Returns the request to upload the next part with the given size, or
+     * with the remaining bytes if fewer.
+     */
+    public synchronized UploadPartRequest getNextUploadPartRequest(long size) {
+        long partSize = Math.min(size, remainingBytes);
         boolean isLastPart = (remainingBytes - partSize <= 0);
 
         UploadPartRequest req = null;
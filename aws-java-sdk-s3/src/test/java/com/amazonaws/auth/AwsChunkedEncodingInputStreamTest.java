@@ -0,0 +1,186 @@
+/*
+ * Copyright 2013-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.auth;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Tests that {@link AwsChunkedEncodingInputStream}, which reuses its chunk
+ * buffers for every chunk, encodes and signs every chunk as the aws-chunked
+ * encoding specifies, however it is read.
+ */
+public class AwsChunkedEncodingInputStreamTest {
+
+    private static final int CHUNK_SIZE = 128 * 1024;
+    private static final byte[] SIGNING_KEY = "signing key".getBytes(StringUtils.UTF8);
+    private static final String DATE_TIME = "20161018T000000Z";
+    private static final String KEY_PATH = "20161018/us-east-1/s3/aws4_request";
+    private static final String HEADER_SIGNATURE =
+            "4f232c4386841ef735655705268965c44a0e4690baa4adea153f7db9fa80a0a9";
+
+    @Test
+    public void testEmptyPayload() throws Exception {
+        assertEncoded(new byte[0], 1024);
+    }
+
+    @Test
+    public void testPayloadShorterThanChunk() throws Exception {
+        assertEncoded(payload(1000), 1024);
+    }
+
+    @Test
+    public void testPayloadOfWholeChunks() throws Exception {
+        assertEncoded(payload(2 * CHUNK_SIZE), 8192);
+    }
+
+    @Test
+    public void testPayloadEndingWithPartialChunk() throws Exception {
+        byte[] payload = payload(3 * CHUNK_SIZE + 12345);
+        assertEncoded(payload, 1);
+        assertEncoded(payload, 1000);
+        assertEncoded(payload, 3 * CHUNK_SIZE);
+    }
+
+    @Test
+    public void testResetOfMarkSupportedStream() throws Exception {
+        byte[] payload = payload(2 * CHUNK_SIZE + 100);
+        AwsChunkedEncodingInputStream in = newStream(new ByteArrayInputStream(payload));
+        in.mark(Integer.MAX_VALUE);
+        readFully(in, 777);
+        in.reset();
+        assertArrayEquals(expectedEncoding(payload), readFully(in, 777));
+    }
+
+    @Test
+    public void testResetFromDecodedStreamBuffer() throws Exception {
+        // Within the default buffer size of 256 KB
+        byte[] payload = payload(CHUNK_SIZE + 100);
+        AwsChunkedEncodingInputStream in = newStream(new MarkNotSupportedInputStream(
+                new ByteArrayInputStream(payload)));
+        in.mark(Integer.MAX_VALUE);
+        // Resets part way through, and after the whole stream was read
+        byte[] buffer = new byte[CHUNK_SIZE / 2];
+        assertEquals(buffer.length, in.read(buffer));
+        in.reset();
+        assertArrayEquals(expectedEncoding(payload), readFully(in, 4096));
+        in.reset();
+        assertArrayEquals(expectedEncoding(payload), readFully(in, 333));
+    }
+
+    @Test
+    public void testRetryWrapsPreviousStream() throws Exception {
+        byte[] payload = payload(CHUNK_SIZE + 1);
+        AwsChunkedEncodingInputStream first = newStream(new MarkNotSupportedInputStream(
+                new ByteArrayInputStream(payload)));
+        first.mark(Integer.MAX_VALUE);
+        readFully(first, 4096);
+        first.reset();
+        // As the signer does when the request is retried
+        AwsChunkedEncodingInputStream retry = newStream(first);
+        assertArrayEquals(expectedEncoding(payload), readFully(retry, 4096));
+    }
+
+    private static void assertEncoded(byte[] payload, int readSize) throws Exception {
+        byte[] encoded = readFully(newStream(new ByteArrayInputStream(payload)), readSize);
+        assertEquals(AwsChunkedEncodingInputStream.calculateStreamContentLength(payload.length),
+                encoded.length);
+        assertArrayEquals(expectedEncoding(payload), encoded);
+    }
+
+    private static AwsChunkedEncodingInputStream newStream(InputStream in) {
+        return new AwsChunkedEncodingInputStream(in, SIGNING_KEY, DATE_TIME, KEY_PATH,
+                HEADER_SIGNATURE, new AWS4Signer());
+    }
+
+    /**
+     * Encodes the given payload as the aws-chunked encoding specifies, with a
+     * newly allocated buffer for every chunk.
+     */
+    private static byte[] expectedEncoding(byte[] payload) throws Exception {
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        Mac hmac = Mac.getInstance("HmacSHA256");
+        hmac.init(new SecretKeySpec(SIGNING_KEY, "HmacSHA256"));
+        String emptySha256 = BinaryUtils.toHex(sha256.digest(new byte[0]));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String priorSignature = HEADER_SIGNATURE;
+        int offset = 0;
+        while (true) {
+            int size = Math.min(CHUNK_SIZE, payload.length - offset);
+            byte[] chunk = new byte[size];
+            System.arraycopy(payload, offset, chunk, 0, size);
+            String stringToSign = "AWS4-HMAC-SHA256-PAYLOAD\n" + DATE_TIME + "\n" + KEY_PATH + "\n"
+                    + priorSignature + "\n" + emptySha256 + "\n"
+                    + BinaryUtils.toHex(sha256.digest(chunk));
+            String signature = BinaryUtils.toHex(hmac.doFinal(stringToSign.getBytes(StringUtils.UTF8)));
+            out.write((Integer.toHexString(size) + ";chunk-signature=" + signature + "\r\n")
+                    .getBytes(StringUtils.UTF8));
+            out.write(chunk);
+            out.write("\r\n".getBytes(StringUtils.UTF8));
+            priorSignature = signature;
+            offset += size;
+            if (size == 0)
+                return out.toByteArray();
+        }
+    }
+
+    private static byte[] readFully(InputStream in, int readSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[readSize];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] payload(int length) {
+        byte[] payload = new byte[length];
+        new Random(length).nextBytes(payload);
+        return payload;
+    }
+
+    /**
+     * Has the chunked stream buffer the decoded stream itself for mark and
+     * reset.
+     */
+    private static final class MarkNotSupportedInputStream extends FilterInputStream {
+        MarkNotSupportedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
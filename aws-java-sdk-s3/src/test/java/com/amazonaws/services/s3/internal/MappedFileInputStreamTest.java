@@ -0,0 +1,217 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Tests {@link MappedFileInputStream} over regions mapped in windows much
+ * smaller than the region, so that reads, skips and resets cross windows.
+ */
+public class MappedFileInputStreamTest {
+
+    private static final int FILE_LENGTH = 100;
+    private static final int WINDOW_SIZE = 7;
+
+    private final byte[] content = new byte[FILE_LENGTH];
+    private File file;
+    private MappedFileInputStream in;
+
+    @Before
+    public void setUp() throws IOException {
+        new Random(FILE_LENGTH).nextBytes(content);
+        file = File.createTempFile("mapped", ".bin");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testReadsRegionAcrossWindows() throws IOException {
+        in = new MappedFileInputStream(file, 5, 50, WINDOW_SIZE);
+        assertEquals(50, in.available());
+        // Reads of a single byte and of more than a window
+        assertEquals(content[5] & 0xFF, in.read());
+        byte[] b = new byte[20];
+        assertEquals(WINDOW_SIZE - 1, in.read(b, 0, b.length));
+        assertArrayEquals(Arrays.copyOfRange(content, 6, 5 + WINDOW_SIZE), Arrays.copyOf(b, WINDOW_SIZE - 1));
+        assertArrayEquals(Arrays.copyOfRange(content, 5 + WINDOW_SIZE, 55), readFully(in));
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(b, 0, b.length));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testResetToMarkInEarlierWindow() throws IOException {
+        in = new MappedFileInputStream(file, 3, 60, WINDOW_SIZE);
+        in.skip(4);
+        in.mark(0);
+        // Past the window of the mark
+        assertArrayEquals(Arrays.copyOfRange(content, 7, 7 + 3 * WINDOW_SIZE), readFully(in, 3 * WINDOW_SIZE));
+        in.reset();
+        assertArrayEquals(Arrays.copyOfRange(content, 7, 63), readFully(in));
+        // A reset repositions the stream as often as needed
+        in.reset();
+        assertEquals(content[7] & 0xFF, in.read());
+    }
+
+    @Test
+    public void testResetToMarkInWindowNeverMapped() throws IOException {
+        in = new MappedFileInputStream(file, 0, FILE_LENGTH, WINDOW_SIZE);
+        assertEquals(content[0] & 0xFF, in.read());
+        // Skipping doesn't map the windows in between
+        in.skip(49);
+        in.mark(0);
+        in.skip(30);
+        assertEquals(content[80] & 0xFF, in.read());
+        in.reset();
+        assertArrayEquals(Arrays.copyOfRange(content, 50, 60), readFully(in, 10));
+    }
+
+    @Test
+    public void testResetWithoutMarkGoesBackToStartOfRegion() throws IOException {
+        in = new MappedFileInputStream(file, 10, 30, WINDOW_SIZE);
+        readFully(in, 20);
+        in.reset();
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 40), readFully(in));
+    }
+
+    @Test
+    public void testSkipsAcrossWindows() throws IOException {
+        in = new MappedFileInputStream(file, 10, 50, WINDOW_SIZE);
+        assertEquals(0, in.skip(0));
+        assertEquals(0, in.skip(-5));
+        // Into the middle of a later window, then onto the first byte of the next one
+        assertEquals(2 * WINDOW_SIZE + 3, in.skip(2 * WINDOW_SIZE + 3));
+        assertEquals(content[10 + 2 * WINDOW_SIZE + 3] & 0xFF, in.read());
+        assertEquals(WINDOW_SIZE - 4, in.skip(WINDOW_SIZE - 4));
+        assertEquals(content[10 + 3 * WINDOW_SIZE] & 0xFF, in.read());
+        // Skips stop at the end of the region
+        long remaining = 50 - 3 * WINDOW_SIZE - 1;
+        assertEquals(remaining, in.skip(1000));
+        assertEquals(0, in.skip(1));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testRegionEndsAtEndOfFile() throws IOException {
+        in = new MappedFileInputStream(file, 90, 50, WINDOW_SIZE);
+        assertEquals(10, in.available());
+        assertArrayEquals(Arrays.copyOfRange(content, 90, 100), readFully(in));
+        in.close();
+
+        in = new MappedFileInputStream(file, 200, 50, WINDOW_SIZE);
+        assertEquals(0, in.available());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testTruncatedFileFailsNextWindow() throws IOException {
+        in = new MappedFileInputStream(file, 0, FILE_LENGTH, WINDOW_SIZE);
+        assertEquals(content[0] & 0xFF, in.read());
+        truncate(50);
+        // The rest of the current window is still readable
+        readFully(in, WINDOW_SIZE - 1);
+        in.skip(40);
+        try {
+            in.read();
+            fail("Expected the read to fail");
+        } catch (AmazonClientException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("truncated"));
+        }
+    }
+
+    @Test
+    public void testTruncatedFileFailsReadOfMappedWindow() throws IOException {
+        // A window of several pages, all mapped before the file is truncated
+        byte[] large = new byte[64 * 1024];
+        new Random(large.length).nextBytes(large);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(large);
+        } finally {
+            out.close();
+        }
+        in = new MappedFileInputStream(file, 0, large.length, large.length);
+        assertEquals(large[0] & 0xFF, in.read());
+        truncate(0);
+        try {
+            readFully(in);
+            fail("Expected the read to fail");
+        } catch (AmazonClientException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("truncated"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeOffsetIsRejected() throws IOException {
+        new MappedFileInputStream(file, -1, 10);
+    }
+
+    private void truncate(long length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        return readFully(in, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads up to the given number of bytes, in reads of a few bytes.
+     */
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] b = new byte[5];
+        int read;
+        while (out.size() < length && (read = in.read(b, 0, Math.min(b.length, length - out.size()))) != -1) {
+            out.write(b, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import static com.amazonaws.util.BinaryUtils.fromHex;
+import static com.amazonaws.util.BinaryUtils.toHex;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link GHash} against the AES/GCM test vectors of the GCM
+ * specification, which NIST SP 800-38D refers to, and the parts encrypted by
+ * {@link GCMPartCipherLite} against the AES/GCM cipher of the JCE.
+ */
+public class GHashTest {
+
+    private static final String PLAINTEXT =
+            "d9313225f88406e5a55909c5aff5269a86a7a9531534f7da2e4c303d8a318a72"
+          + "1c3c0c95956809532fcf0e2449a6b525b16aedf5aa0de657ba637b391aafd255";
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testCase1() throws Exception {
+        assertTag("00000000000000000000000000000000", "000000000000000000000000",
+                "", "58e2fccefa7e3061367f1d57a4e7455a");
+    }
+
+    @Test
+    public void testCase2() throws Exception {
+        assertTag("00000000000000000000000000000000", "000000000000000000000000",
+                "0388dace60b6a392f328c2b971b2fe78", "ab6e47d42cec13bdf53a67b21257bddf");
+    }
+
+    @Test
+    public void testCase3() throws Exception {
+        assertTag("feffe9928665731c6d6a8f9467308308", "cafebabefacedbaddecaf888",
+                "42831ec2217774244b7221b784d0d49ce3aa212f2c02a4e035c17e2329aca12e"
+              + "21d514b25466931c7d8f6a5aac84aa051ba30b396a0aac973d58e091473f5985",
+                "4d5c2af327cd64a62cf35abd2ba6fab4");
+    }
+
+    @Test
+    public void testCase15() throws Exception {
+        assertTag("feffe9928665731c6d6a8f9467308308feffe9928665731c6d6a8f9467308308",
+                "cafebabefacedbaddecaf888",
+                "522dc1f099567d07f47f37a32a84427d643a8cdcbfe5c0c97598a2bd2555d1aa"
+              + "8cb08e48590dbb3da7b08b1056828838c5f61e6393ba7a0abcc9f662898015ad",
+                "b094dac5d93471bdec1a502270e3cc6c");
+    }
+
+    /**
+     * The ciphertexts of the test vectors are those of the plaintext
+     * {@link #PLAINTEXT}, or its first block, under their key and IV.
+     */
+    @Test
+    public void testVectorsMatchJce() throws Exception {
+        byte[] plaintext = fromHex(PLAINTEXT);
+        assertEquals("42831ec2217774244b7221b784d0d49ce3aa212f2c02a4e035c17e2329aca12e"
+                   + "21d514b25466931c7d8f6a5aac84aa051ba30b396a0aac973d58e091473f5985"
+                   + "4d5c2af327cd64a62cf35abd2ba6fab4",
+                toHex(jceEncrypt(key("feffe9928665731c6d6a8f9467308308"),
+                        fromHex("cafebabefacedbaddecaf888"), plaintext)));
+    }
+
+    @Test
+    public void testAppendedHashesMatchWholeHash() {
+        byte[] hashSubkey = randomBytes(16);
+        byte[] ciphertext = randomBytes(16 * 37 + 5);
+        GHash whole = new GHash(hashSubkey);
+        whole.update(ciphertext, 0, ciphertext.length);
+
+        GHash appended = new GHash(hashSubkey);
+        appended.update(ciphertext, 0, 16 * 11);
+        GHash next = new GHash(hashSubkey);
+        // in uneven pieces, to go through the incomplete block
+        next.update(ciphertext, 16 * 11, 7);
+        next.update(ciphertext, 16 * 11 + 7, 16 * 20 - 7);
+        appended.append(next, 20);
+        appended.update(ciphertext, 16 * 31, ciphertext.length - 16 * 31);
+
+        assertEquals(toHex(whole.digest(ciphertext.length)),
+                toHex(appended.digest(ciphertext.length)));
+    }
+
+    /**
+     * Encrypts an object in parts, out of order, as
+     * {@link MultipartUploadGcmContext} does, and compares the ciphertext and
+     * tag with those of the JCE.
+     */
+    @Test
+    public void testPartsMatchJce() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            SecretKey key = new SecretKeySpec(randomBytes(i % 2 == 0 ? 16 : 32), "AES");
+            byte[] iv = randomBytes(12);
+            int partSize = 16 * (1 + random.nextInt(64));
+            int partCount = 1 + random.nextInt(5);
+            byte[] plaintext = randomBytes(partSize * (partCount - 1) + random.nextInt(2 * partSize));
+            byte[] expected = jceEncrypt(key, iv, plaintext);
+
+            // Through the JCE provider, rather than the Bouncy Castle one the scheme asks for
+            Cipher jce = Cipher.getInstance("AES/GCM/NoPadding");
+            jce.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+            CipherLite gcm = new CipherLite(jce, ContentCryptoScheme.AES_GCM, key, Cipher.ENCRYPT_MODE);
+            Cipher aes = Cipher.getInstance("AES/ECB/NoPadding");
+            aes.init(Cipher.ENCRYPT_MODE, key);
+            GHash emptyHash = new GHash(aes.doFinal(new byte[16]));
+            byte[] j0 = Arrays.copyOf(iv, 16);
+            j0[15] = 1;
+            byte[] tagMask = aes.doFinal(j0);
+
+            byte[][] parts = new byte[partCount][];
+            GHash[] hashes = new GHash[partCount];
+            for (int part = partCount - 2; part >= 0; part--) {
+                GCMPartCipherLite cipherLite = new GCMPartCipherLite(gcm,
+                        (long) part * partSize, emptyHash.copy(), null);
+                parts[part] = encrypt(cipherLite, plaintext, part * partSize, partSize);
+                hashes[part] = cipherLite.getHash();
+            }
+            GHash hash = emptyHash.copy();
+            for (int part = 0; part < partCount - 1; part++) {
+                hash.append(hashes[part], partSize / 16);
+            }
+            int lastOffset = (partCount - 1) * partSize;
+            parts[partCount - 1] = encrypt(new GCMPartCipherLite(gcm, lastOffset, hash, tagMask),
+                    plaintext, lastOffset, plaintext.length - lastOffset);
+
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            for (byte[] part : parts) {
+                actual.write(part);
+            }
+            assertEquals(toHex(expected), toHex(actual.toByteArray()));
+        }
+    }
+
+    private static void assertTag(String key, String iv, String ciphertext, String tag)
+            throws Exception {
+        Cipher aes = Cipher.getInstance("AES/ECB/NoPadding");
+        aes.init(Cipher.ENCRYPT_MODE, key(key));
+        GHash hash = new GHash(aes.doFinal(new byte[16]));
+        byte[] c = fromHex(ciphertext);
+        hash.update(c, 0, c.length);
+        byte[] j0 = Arrays.copyOf(fromHex(iv), 16);
+        j0[15] = 1;
+        byte[] actual = hash.digest(c.length);
+        byte[] mask = aes.doFinal(j0);
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] ^= mask[i];
+        }
+        assertEquals(tag, toHex(actual));
+    }
+
+    private static byte[] encrypt(CipherLite cipherLite, byte[] plaintext, int offset, int length)
+            throws Exception {
+        // in two calls, to go through the incomplete block
+        int half = length / 2;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] first = cipherLite.update(plaintext, offset, half);
+        if (first != null) {
+            out.write(first);
+        }
+        out.write(cipherLite.doFinal(plaintext, offset + half, length - half));
+        return out.toByteArray();
+    }
+
+    private static byte[] jceEncrypt(SecretKey key, byte[] iv, byte[] plaintext) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        return cipher.doFinal(plaintext);
+    }
+
+    private static SecretKey key(String hex) {
+        return new SecretKeySpec(fromHex(hex), "AES");
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * Tests the checks {@link MultipartUploadGcmContext} makes before a part is
+ * encrypted.
+ */
+public class MultipartUploadGcmContextTest {
+
+    private MultipartUploadGcmContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = newContext(12);
+    }
+
+    @Test(expected = AmazonClientException.class)
+    public void testIvOtherThan12BytesIsRejected() throws Exception {
+        newContext(16);
+    }
+
+    @Test
+    public void testPartsOfDifferentSizesInSeries() {
+        context.newPartCipherLite(part(1, 64, false));
+        context.newPartCipherLite(part(2, 32, false));
+        context.newPartCipherLite(part(3, 48, false));
+    }
+
+    @Test(expected = AmazonClientException.class)
+    public void testPartOfDifferentSizeAfterLaterPartIsRejected() {
+        context.newPartCipherLite(part(2, 64, false));
+        context.newPartCipherLite(part(1, 32, false));
+    }
+
+    @Test(expected = AmazonClientException.class)
+    public void testPartOfDifferentSizeBeforeEarlierPartIsRejected() {
+        context.newPartCipherLite(part(1, 64, false));
+        context.newPartCipherLite(part(3, 32, false));
+    }
+
+    @Test
+    public void testPartsOfSameSizeOutOfOrder() {
+        context.newPartCipherLite(part(3, 64, false));
+        context.newPartCipherLite(part(1, 64, false));
+        context.newPartCipherLite(part(2, 64, false));
+    }
+
+    @Test(expected = AmazonClientException.class)
+    public void testLastPartBeforeOtherPartsIsRejected() {
+        context.newPartCipherLite(part(1, 64, false));
+        context.newPartCipherLite(part(2, 10, true));
+    }
+
+    @Test(expected = AmazonClientException.class)
+    public void testFileShorterThanPartIsRejected() throws Exception {
+        File file = File.createTempFile("part", ".bin");
+        file.deleteOnExit();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(100);
+        } finally {
+            raf.close();
+        }
+        context.newPartCipherLite(part(2, 64, false).withFile(file).withFileOffset(64));
+    }
+
+    private static UploadPartRequest part(int partNumber, long partSize, boolean isLastPart) {
+        return new UploadPartRequest().withPartNumber(partNumber)
+                .withPartSize(partSize).withLastPart(isLastPart);
+    }
+
+    private static MultipartUploadGcmContext newContext(int ivLength) throws Exception {
+        SecretKey key = new SecretKeySpec(new byte[16], "AES");
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, new byte[ivLength]));
+        CipherLite cipherLite = new CipherLite(cipher, ContentCryptoScheme.AES_GCM, key,
+                Cipher.ENCRYPT_MODE);
+        return new MultipartUploadGcmContext("bucket", "key", new ContentCryptoMaterial(
+                Collections.<String, String>emptyMap(), new byte[0], null, cipherLite));
+    }
+}
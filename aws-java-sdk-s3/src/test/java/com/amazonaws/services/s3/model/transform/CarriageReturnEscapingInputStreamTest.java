@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.model.transform;
+
+import static com.amazonaws.util.StringUtils.UTF8;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests that {@link CarriageReturnEscapingInputStream} escapes every carriage
+ * return, wherever it falls in the reads of the stream and of its source.
+ */
+public class CarriageReturnEscapingInputStreamTest {
+
+    /** The size of the buffer the stream reads its source into. */
+    private static final int BUFFER_SIZE = 8192;
+
+    @Test
+    public void testEscapesCarriageReturns() throws IOException {
+        assertEscaped("<Key>a\r\nb\r</Key>", 1024, Integer.MAX_VALUE);
+        assertEscaped("\r", 1024, Integer.MAX_VALUE);
+        assertEscaped("\r\r\r", 1024, Integer.MAX_VALUE);
+        assertEscaped("", 1024, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testEscapeSpansReadsOfStream() throws IOException {
+        String document = "<Key>a\rb\r\rc</Key>";
+        // Every escape is split across reads of one to five bytes
+        for (int readSize = 1; readSize <= 5; readSize++) {
+            assertEscaped(document, readSize, Integer.MAX_VALUE);
+        }
+        assertEquals(escape(document), new String(readBytewise(
+                new CarriageReturnEscapingInputStream(source(document, Integer.MAX_VALUE))), UTF8));
+    }
+
+    @Test
+    public void testCarriageReturnAtBufferBoundary() throws IOException {
+        for (int position = BUFFER_SIZE - 2; position <= BUFFER_SIZE + 1; position++) {
+            char[] chars = new char[2 * BUFFER_SIZE];
+            Arrays.fill(chars, 'x');
+            chars[position] = '\r';
+            String document = new String(chars);
+            assertEscaped(document, 1024, Integer.MAX_VALUE);
+            assertEscaped(document, BUFFER_SIZE, Integer.MAX_VALUE);
+            assertEscaped(document, 3 * BUFFER_SIZE, Integer.MAX_VALUE);
+        }
+    }
+
+    @Test
+    public void testCarriageReturnAtEndOfSourceRead() throws IOException {
+        // The source returns a few bytes at a time, ending some reads on a carriage return
+        String document = "ab\rcd\r\ref\r";
+        for (int chunkSize = 1; chunkSize <= 4; chunkSize++) {
+            assertEscaped(document, 1024, chunkSize);
+            assertEscaped(document, 2, chunkSize);
+        }
+    }
+
+    @Test
+    public void testMultiByteCharactersAreKept() throws IOException {
+        // Two, three and four byte characters, next to carriage returns
+        String document = "<Key>été\r日本\r𝄞\r</Key>";
+        for (int readSize = 1; readSize <= 7; readSize++) {
+            for (int chunkSize = 1; chunkSize <= 5; chunkSize++) {
+                assertEscaped(document, readSize, chunkSize);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiByteCharacterAcrossBufferBoundary() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < BUFFER_SIZE - 1) {
+            sb.append('x');
+        }
+        // A three byte character straddles the end of the buffer, then a carriage return
+        sb.append("日\r本");
+        assertEscaped(sb.toString(), 1000, Integer.MAX_VALUE);
+        assertEscaped(sb.toString(), BUFFER_SIZE, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testSkipCountsEscapedBytes() throws IOException {
+        InputStream in = new CarriageReturnEscapingInputStream(source("a\rb", Integer.MAX_VALUE));
+        assertEquals(3, in.skip(3));
+        assertEquals("013;b", new String(readBytewise(in), UTF8));
+    }
+
+    private static void assertEscaped(String document, int readSize, int chunkSize) throws IOException {
+        InputStream in = new CarriageReturnEscapingInputStream(source(document, chunkSize));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] b = new byte[readSize];
+        int read;
+        while ((read = in.read(b, 0, b.length)) != -1) {
+            out.write(b, 0, read);
+        }
+        assertEquals("Read " + readSize + " bytes at a time from " + chunkSize + " byte chunks",
+                escape(document), new String(out.toByteArray(), UTF8));
+    }
+
+    private static byte[] readBytewise(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            out.write(b);
+        }
+        return out.toByteArray();
+    }
+
+    private static String escape(String document) {
+        return document.replace("\r", "&#013;");
+    }
+
+    /**
+     * Returns the UTF-8 bytes of the document, at most the given number of
+     * bytes per read.
+     */
+    private static InputStream source(String document, final int chunkSize) {
+        return new ByteArrayInputStream(document.getBytes(UTF8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunkSize));
+            }
+        };
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.model.transform;
+
+import static com.amazonaws.util.StringUtils.UTF8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.transform.ListObjectsStaxParser.ObjectSummaryCallback;
+
+/**
+ * Tests that {@link ListObjectsStaxParser} parses listings as the
+ * {@link XmlResponsesSaxParser} handlers do, and hands their summaries to a
+ * callback.
+ */
+public class ListObjectsStaxParserTest {
+
+    private static final String LIST_OBJECTS =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">\n"
+            + "  <Name>bucket</Name>\n"
+            + "  <Prefix>logs/</Prefix>\n"
+            + "  <Marker></Marker>\n"
+            + "  <MaxKeys>1000</MaxKeys>\n"
+            + "  <Delimiter>/</Delimiter>\n"
+            + "  <IsTruncated>true</IsTruncated>\n"
+            + "  <Contents>\n"
+            + "    <Key>logs/a&amp;b\r\n.txt</Key>\n"
+            + "    <LastModified>2016-10-12T17:50:30.000Z</LastModified>\n"
+            + "    <ETag>&quot;fba9dede5f27731c9771645a39863328&quot;</ETag>\n"
+            + "    <Size>434234</Size>\n"
+            + "    <StorageClass>STANDARD</StorageClass>\n"
+            + "    <Owner><ID>owner-id</ID><DisplayName>owner</DisplayName></Owner>\n"
+            + "  </Contents>\n"
+            + "  <Contents>\n"
+            + "    <Key>logs/été 日本</Key>\n"
+            + "    <LastModified>2016-10-12T17:50:31Z</LastModified>\n"
+            + "    <ETag>\"5b2\"</ETag>\n"
+            + "    <Size>0</Size>\n"
+            + "    <StorageClass>STANDARD</StorageClass>\n"
+            + "    <Unknown><Nested>ignored</Nested></Unknown>\n"
+            + "  </Contents>\n"
+            + "  <CommonPrefixes><Prefix>logs/2016/</Prefix></CommonPrefixes>\n"
+            + "  <CommonPrefixes><Prefix><![CDATA[logs/<cdata>/]]></Prefix></CommonPrefixes>\n"
+            + "</ListBucketResult>";
+
+    private static final String LIST_OBJECTS_V2 =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">\n"
+            + "  <Name>bucket</Name>\n"
+            + "  <Prefix>logs%2F</Prefix>\n"
+            + "  <KeyCount>2</KeyCount>\n"
+            + "  <MaxKeys>2</MaxKeys>\n"
+            + "  <EncodingType>url</EncodingType>\n"
+            + "  <ContinuationToken>token</ContinuationToken>\n"
+            + "  <StartAfter>logs%2F0</StartAfter>\n"
+            + "  <IsTruncated>true</IsTruncated>\n"
+            + "  <Contents><Key>logs%2Fa+b</Key><Size>1</Size><StorageClass>STANDARD</StorageClass></Contents>\n"
+            + "  <Contents><Key>logs%2Fc%0D</Key><Size>2</Size><StorageClass>STANDARD_IA</StorageClass></Contents>\n"
+            + "</ListBucketResult>";
+
+    @Test
+    public void testListObjectsIsParsedAsBySaxParser() throws Exception {
+        for (boolean decode : new boolean[] {false, true}) {
+            ObjectListing expected = new XmlResponsesSaxParser()
+                    .parseListBucketObjectsResponse(stream(LIST_OBJECTS), decode).getObjectListing();
+            ObjectListing actual = new ListObjectsStaxParser(decode).parseListObjectsResponse(stream(LIST_OBJECTS));
+            assertListingEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testListObjectsFields() throws Exception {
+        ObjectListing listing = new ListObjectsStaxParser(false).parseListObjectsResponse(stream(LIST_OBJECTS));
+
+        assertEquals("bucket", listing.getBucketName());
+        assertEquals("logs/", listing.getPrefix());
+        assertNull(listing.getMarker());
+        assertEquals(1000, listing.getMaxKeys());
+        assertTrue(listing.isTruncated());
+        // The carriage return of the key is kept
+        assertEquals("logs/a&b\r\n.txt", listing.getObjectSummaries().get(0).getKey());
+        assertEquals("fba9dede5f27731c9771645a39863328", listing.getObjectSummaries().get(0).getETag());
+        assertEquals("owner", listing.getObjectSummaries().get(0).getOwner().getDisplayName());
+        assertEquals("logs/été 日本", listing.getObjectSummaries().get(1).getKey());
+        assertEquals(Arrays.asList("logs/2016/", "logs/<cdata>/"), listing.getCommonPrefixes());
+        // Without a NextMarker, the last key is the next marker
+        assertEquals("logs/été 日本", listing.getNextMarker());
+        // Values repeated throughout the document are shared
+        assertSame(listing.getObjectSummaries().get(0).getStorageClass(),
+                listing.getObjectSummaries().get(1).getStorageClass());
+    }
+
+    @Test
+    public void testListObjectsV2IsParsedAsBySaxParser() throws Exception {
+        for (boolean decode : new boolean[] {false, true}) {
+            ListObjectsV2Result expected = new XmlResponsesSaxParser()
+                    .parseListObjectsV2Response(stream(LIST_OBJECTS_V2), decode).getResult();
+            ListObjectsV2Result actual = new ListObjectsStaxParser(decode)
+                    .parseListObjectsV2Response(stream(LIST_OBJECTS_V2));
+
+            assertEquals(expected.getBucketName(), actual.getBucketName());
+            assertEquals(expected.getPrefix(), actual.getPrefix());
+            assertEquals(expected.getKeyCount(), actual.getKeyCount());
+            assertEquals(expected.getMaxKeys(), actual.getMaxKeys());
+            assertEquals(expected.getEncodingType(), actual.getEncodingType());
+            assertEquals(expected.getContinuationToken(), actual.getContinuationToken());
+            assertEquals(expected.getNextContinuationToken(), actual.getNextContinuationToken());
+            assertEquals(expected.getStartAfter(), actual.getStartAfter());
+            assertEquals(expected.isTruncated(), actual.isTruncated());
+            assertSummariesEqual(expected.getObjectSummaries(), actual.getObjectSummaries());
+        }
+        ListObjectsV2Result decoded = new ListObjectsStaxParser(true)
+                .parseListObjectsV2Response(stream(LIST_OBJECTS_V2));
+        assertEquals("logs/", decoded.getPrefix());
+        assertEquals("logs/c\r", decoded.getObjectSummaries().get(1).getKey());
+        assertEquals("logs/c\r", decoded.getNextContinuationToken());
+    }
+
+    @Test
+    public void testCallbackReceivesRecycledSummaries() throws Exception {
+        final List<S3ObjectSummary> received = new ArrayList<S3ObjectSummary>();
+        final List<String> keys = new ArrayList<String>();
+        final List<String> owners = new ArrayList<String>();
+        ObjectListing listing = new ListObjectsStaxParser(false).parseListObjectsResponse(stream(LIST_OBJECTS),
+                new ObjectSummaryCallback() {
+                    @Override
+                    public void objectSummary(S3ObjectSummary summary) {
+                        received.add(summary);
+                        keys.add(summary.getKey());
+                        owners.add(summary.getOwner() == null ? null : summary.getOwner().getId());
+                    }
+                });
+
+        assertEquals(Arrays.asList("logs/a&b\r\n.txt", "logs/été 日本"), keys);
+        // The owner of the first summary isn't left on the second
+        assertEquals(Arrays.asList("owner-id", null), owners);
+        assertSame(received.get(0), received.get(1));
+        assertEquals("bucket", received.get(0).getBucketName());
+        // The summaries are only handed to the callback
+        assertTrue(listing.getObjectSummaries().isEmpty());
+        assertEquals(Arrays.asList("logs/2016/", "logs/<cdata>/"), listing.getCommonPrefixes());
+    }
+
+    @Test
+    public void testTruncatedListingWithoutNextTokenUsesLastKeyOfCallback() throws Exception {
+        ListObjectsV2Result result = new ListObjectsStaxParser(false).parseListObjectsV2Response(
+                stream(LIST_OBJECTS_V2), new ObjectSummaryCallback() {
+                    @Override
+                    public void objectSummary(S3ObjectSummary summary) {
+                    }
+                });
+        assertEquals("logs%2Fc%0D", result.getNextContinuationToken());
+    }
+
+    @Test
+    public void testCallbackExceptionIsThrownUnchanged() throws Exception {
+        final IllegalStateException error = new IllegalStateException("stop");
+        try {
+            new ListObjectsStaxParser(false).parseListObjectsResponse(stream(LIST_OBJECTS),
+                    new ObjectSummaryCallback() {
+                        @Override
+                        public void objectSummary(S3ObjectSummary summary) {
+                            throw error;
+                        }
+                    });
+            fail("Expected the callback's exception");
+        } catch (IllegalStateException e) {
+            assertSame(error, e);
+        }
+    }
+
+    @Test
+    public void testMalformedDocumentIsRejected() throws Exception {
+        assertRejected(LIST_OBJECTS.substring(0, LIST_OBJECTS.length() / 2));
+        assertRejected(LIST_OBJECTS.replace("<IsTruncated>true", "<IsTruncated>maybe"));
+        assertRejected("");
+    }
+
+    private static void assertRejected(String document) throws Exception {
+        try {
+            new ListObjectsStaxParser(false).parseListObjectsResponse(stream(document));
+            fail("Expected the document to be rejected");
+        } catch (AmazonClientException expected) {
+        }
+    }
+
+    private static void assertListingEquals(ObjectListing expected, ObjectListing actual) {
+        assertEquals(expected.getBucketName(), actual.getBucketName());
+        assertEquals(expected.getPrefix(), actual.getPrefix());
+        assertEquals(expected.getMarker(), actual.getMarker());
+        assertEquals(expected.getNextMarker(), actual.getNextMarker());
+        assertEquals(expected.getMaxKeys(), actual.getMaxKeys());
+        assertEquals(expected.getDelimiter(), actual.getDelimiter());
+        assertEquals(expected.getEncodingType(), actual.getEncodingType());
+        assertEquals(expected.isTruncated(), actual.isTruncated());
+        assertEquals(expected.getCommonPrefixes(), actual.getCommonPrefixes());
+        assertSummariesEqual(expected.getObjectSummaries(), actual.getObjectSummaries());
+    }
+
+    private static void assertSummariesEqual(List<S3ObjectSummary> expected, List<S3ObjectSummary> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            S3ObjectSummary e = expected.get(i);
+            S3ObjectSummary a = actual.get(i);
+            assertEquals(e.getBucketName(), a.getBucketName());
+            assertEquals(e.getKey(), a.getKey());
+            assertEquals(e.getETag(), a.getETag());
+            assertEquals(e.getSize(), a.getSize());
+            assertEquals(e.getLastModified(), a.getLastModified());
+            assertEquals(e.getStorageClass(), a.getStorageClass());
+            if (e.getOwner() == null) {
+                assertNull(a.getOwner());
+            } else {
+                assertEquals(e.getOwner().getId(), a.getOwner().getId());
+                assertEquals(e.getOwner().getDisplayName(), a.getOwner().getDisplayName());
+            }
+        }
+    }
+
+    private static InputStream stream(String document) {
+        return new ByteArrayInputStream(document.getBytes(UTF8));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+
+/**
+ * Tests {@link TransferManager#copyPrefix(String, String, String, String)}
+ * against a stubbed Amazon S3 client, which keeps the objects in memory.
+ */
+public class CopyPrefixTest {
+
+    private StubS3 s3;
+    private TransferManager tm;
+
+    @Before
+    public void setUp() {
+        s3 = new StubS3();
+        s3.putObject("source", "logs/a", 10);
+        s3.putObject("source", "logs/2016/b", 20);
+        s3.putObject("source", "logs/2016/10/c", 30);
+        s3.putObject("source", "other/d", 40);
+        tm = new TransferManager(s3);
+    }
+
+    @After
+    public void tearDown() {
+        tm.shutdownNow(false);
+    }
+
+    @Test
+    public void testCopiesEveryObjectUnderPrefix() throws Exception {
+        MultipleObjectCopy copy = tm.copyPrefix("source", "logs/", "destination", "archive/");
+        copy.waitForCompletion();
+
+        assertEquals(TransferState.Completed, copy.getState());
+        assertEquals(new TreeSet<String>(Arrays.asList("destination/archive/2016/10/c",
+                "destination/archive/2016/b", "destination/archive/a")), s3.keys("destination/"));
+        assertEquals(60, copy.getProgress().getTotalBytesToTransfer());
+        assertEquals(60, copy.getProgress().getBytesTransferred());
+        // Completed copies are released
+        assertTrue(copy.getSubTransfers().isEmpty());
+    }
+
+    @Test
+    public void testCopiesToAnotherPrefixOfTheSameBucket() throws Exception {
+        MultipleObjectCopy copy = tm.copyPrefix("source", "logs/", "source", "logs-archive/");
+        copy.waitForCompletion();
+
+        assertEquals(new TreeSet<String>(Arrays.asList("source/logs-archive/2016/10/c",
+                "source/logs-archive/2016/b", "source/logs-archive/a")), s3.keys("source/logs-"));
+        assertEquals(3, s3.copies);
+    }
+
+    @Test
+    public void testDestinationWithinSourceIsRejected() {
+        assertRejected("source", "logs/", "source", "logs/archive/");
+        assertRejected("source", "logs/", "source", "logs/");
+        assertRejected("source", null, "source", "archive/");
+        assertEquals(0, s3.copies);
+    }
+
+    @Test
+    public void testDestinationWithinSourceOfAnotherBucketIsAllowed() throws Exception {
+        tm.copyPrefix("source", "logs/", "destination", "logs/archive/").waitForCompletion();
+        assertEquals(3, s3.copies);
+    }
+
+    @Test
+    public void testListingErrorIsThrown() {
+        AmazonServiceException error = new AmazonServiceException("The specified bucket does not exist");
+        error.setErrorCode("NoSuchBucket");
+        error.setStatusCode(404);
+        s3.listingError = error;
+        try {
+            tm.copyPrefix("source", "logs/", "destination", "archive/");
+            fail("Expected the listing error");
+        } catch ( AmazonServiceException e ) {
+            assertSame(error, e);
+        }
+    }
+
+    private void assertRejected(String sourceBucketName, String sourceKeyPrefix,
+            String destinationBucketName, String destinationKeyPrefix) {
+        try {
+            tm.copyPrefix(sourceBucketName, sourceKeyPrefix, destinationBucketName, destinationKeyPrefix);
+            fail("Expected the copy from " + sourceKeyPrefix + " to " + destinationKeyPrefix + " to be rejected");
+        } catch ( IllegalArgumentException expected ) {
+        }
+    }
+
+    /**
+     * Lists and copies objects kept in memory, by bucket name and key.
+     */
+    private static final class StubS3 extends AbstractAmazonS3 {
+        private final SortedMap<String, Long> objects = new TreeMap<String, Long>();
+        private int copies;
+        private volatile AmazonServiceException listingError;
+
+        synchronized void putObject(String bucketName, String key, long size) {
+            objects.put(bucketName + "/" + key, size);
+        }
+
+        synchronized SortedSet<String> keys(String prefix) {
+            return new TreeSet<String>(objects.subMap(prefix, prefix + Character.MAX_VALUE).keySet());
+        }
+
+        @Override
+        public synchronized ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+            if ( listingError != null )
+                throw listingError;
+            ListObjectsV2Result result = new ListObjectsV2Result();
+            String prefix = request.getBucketName() + "/" + request.getPrefix();
+            SortedSet<String> commonPrefixes = new TreeSet<String>();
+            for ( String path : keys(prefix) ) {
+                String key = path.substring(request.getBucketName().length() + 1);
+                int delimiter = key.indexOf(request.getDelimiter(), request.getPrefix().length());
+                if ( delimiter >= 0 ) {
+                    commonPrefixes.add(key.substring(0, delimiter + 1));
+                } else {
+                    S3ObjectSummary summary = new S3ObjectSummary();
+                    summary.setBucketName(request.getBucketName());
+                    summary.setKey(key);
+                    summary.setSize(objects.get(path));
+                    result.getObjectSummaries().add(summary);
+                }
+            }
+            result.getCommonPrefixes().addAll(commonPrefixes);
+            return result;
+        }
+
+        @Override
+        public synchronized CopyObjectResult copyObject(CopyObjectRequest request) {
+            Long size = objects.get(request.getSourceBucketName() + "/" + request.getSourceKey());
+            if ( size == null )
+                throw new AmazonServiceException("The specified key does not exist");
+            putObject(request.getDestinationBucketName(), request.getDestinationKey(), size);
+            copies++;
+            CopyObjectResult result = new CopyObjectResult();
+            result.setETag("etag");
+            return result;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
+
+/**
+ * Tests the downloads of an object by parts, and by ranges, that write every
+ * part directly into the destination file, against a stubbed Amazon S3
+ * client; along with the resumption of such downloads from the parts they
+ * completed.
+ */
+public class ParallelDownloadTest {
+
+    private static final int OBJECT_LENGTH = 10500;
+    private static final Date LAST_MODIFIED = new Date(1476748800000L);
+
+    private final byte[] object = new byte[OBJECT_LENGTH];
+    private StubS3 s3;
+    private TransferManager tm;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        new Random(42).nextBytes(object);
+        s3 = new StubS3();
+        tm = new TransferManager(s3);
+        file = File.createTempFile("ParallelDownloadTest", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        tm.shutdownNow(false);
+        file.delete();
+    }
+
+    @Test
+    public void testObjectIsDownloadedByParts() throws Exception {
+        s3.partSize = 3000;
+        Download download = tm.download(new GetObjectRequest("bucket", "key"), file);
+        download.waitForCompletion();
+
+        assertEquals(TransferState.Completed, download.getState());
+        assertArrayEquals(object, readFile());
+        assertEquals(new TreeSet<Integer>(Arrays.asList(1, 2, 3, 4)), s3.partsRequested());
+        assertArrayEquals(new long[] {0xF}, ((DownloadImpl) download).getCompletedPartBitmap());
+    }
+
+    @Test
+    public void testObjectWithoutPartsIsDownloadedByRanges() throws Exception {
+        tm.setConfiguration(rangedDownloadConfiguration(1000));
+        Download download = tm.download(new GetObjectRequest("bucket", "key"), file);
+        download.waitForCompletion();
+
+        assertEquals(TransferState.Completed, download.getState());
+        assertArrayEquals(object, readFile());
+        assertEquals(Long.valueOf(1000), ((DownloadImpl) download).getRangedDownloadPartSize());
+        assertArrayEquals(new long[] {(1L << 11) - 1}, ((DownloadImpl) download).getCompletedPartBitmap());
+
+        // The ranges cover the object exactly, the last one ending with the object
+        List<long[]> ranges = s3.rangesRequested();
+        long next = 0;
+        for (long[] range : ranges) {
+            assertEquals(next, range[0]);
+            assertTrue(range[1] >= range[0]);
+            next = range[1] + 1;
+        }
+        assertEquals(OBJECT_LENGTH, next);
+        // Every range is pinned to the version of the object the download started with
+        for (GetObjectRequest request : s3.getObjectRequests) {
+            assertEquals(Collections.singletonList(StubS3.ETAG), request.getMatchingETagConstraints());
+        }
+    }
+
+    @Test
+    public void testRangedDownloadFailsIfObjectChanges() throws Exception {
+        tm.setConfiguration(rangedDownloadConfiguration(1000));
+        s3.eTagAfterFirstRange = "changed";
+        Download download = tm.download(new GetObjectRequest("bucket", "key"), file);
+        try {
+            download.waitForCompletion();
+            fail("Expected the download to fail");
+        } catch (AmazonClientException expected) {
+        }
+        assertEquals(TransferState.Failed, download.getState());
+    }
+
+    @Test
+    public void testSmallObjectIsNotDownloadedByRanges() throws Exception {
+        tm.setConfiguration(rangedDownloadConfiguration(OBJECT_LENGTH));
+        tm.download(new GetObjectRequest("bucket", "key"), file).waitForCompletion();
+
+        assertArrayEquals(object, readFile());
+        assertEquals(1, s3.getObjectRequests.size());
+        assertTrue(s3.getObjectRequests.get(0).getMatchingETagConstraints().isEmpty());
+    }
+
+    @Test
+    public void testResumedDownloadSkipsCompletedParts() throws Exception {
+        s3.partSize = 3000;
+        // Parts 1 and 3 were written before the download was paused
+        writeFile(0, 3000);
+        writeFile(6000, 9000);
+        PersistableDownload paused = new PersistableDownload("bucket", "key", null, null, null, false,
+                file.getAbsolutePath(), 1, LAST_MODIFIED.getTime(), new long[] {0x5}, null);
+
+        Download download = tm.resumeDownload(paused);
+        download.waitForCompletion();
+
+        assertArrayEquals(object, readFile());
+        assertEquals(new TreeSet<Integer>(Arrays.asList(2, 4)), s3.partsRequested());
+        // The completed parts count as transferred; the stub doesn't report the progress of the others
+        assertEquals(6000, download.getProgress().getBytesTransferred());
+        assertArrayEquals(new long[] {0xF}, ((DownloadImpl) download).getCompletedPartBitmap());
+    }
+
+    @Test
+    public void testResumedRangedDownloadKeepsItsPartSize() throws Exception {
+        // The configuration changed since the download was paused
+        tm.setConfiguration(rangedDownloadConfiguration(4000));
+        writeFile(0, 2000);
+        writeFile(4000, 5000);
+        PersistableDownload paused = new PersistableDownload("bucket", "key", null, null, null, false,
+                file.getAbsolutePath(), 2, LAST_MODIFIED.getTime(), new long[] {0x13}, 1000L);
+
+        Download download = tm.resumeDownload(paused);
+        download.waitForCompletion();
+
+        assertArrayEquals(object, readFile());
+        for (long[] range : s3.rangesRequested()) {
+            assertTrue(range[0] % 1000 == 0);
+            assertTrue((range[1] + 1) % 1000 == 0 || range[1] == OBJECT_LENGTH - 1);
+            assertTrue(range[1] < 4000 || range[0] >= 5000);
+            assertTrue(range[0] >= 2000);
+        }
+        assertEquals(3000, download.getProgress().getBytesTransferred());
+    }
+
+    @Test
+    public void testResumeFailsIfCompletedPartsAreMissingFromFile() throws Exception {
+        s3.partSize = 3000;
+        writeFile(0, 3000);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(5000);
+        } finally {
+            raf.close();
+        }
+        PersistableDownload paused = new PersistableDownload("bucket", "key", null, null, null, false,
+                file.getAbsolutePath(), 1, LAST_MODIFIED.getTime(), new long[] {0x5}, null);
+
+        Download download = tm.resumeDownload(paused);
+        try {
+            download.waitForCompletion();
+            fail("Expected the resumed download to fail");
+        } catch (AmazonClientException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("modified since last pause"));
+        }
+    }
+
+    private static TransferManagerConfiguration rangedDownloadConfiguration(long partSize) {
+        TransferManagerConfiguration configuration = new TransferManagerConfiguration();
+        configuration.setRangedDownloadThreshold(0);
+        configuration.setRangedDownloadPartSize(partSize);
+        configuration.setMaxRangedDownloadConcurrency(3);
+        return configuration;
+    }
+
+    private void writeFile(int from, int to) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(from);
+            raf.write(object, from, to - from);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private byte[] readFile() throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            raf.readFully(content);
+        } finally {
+            raf.close();
+        }
+        return content;
+    }
+
+    /**
+     * Returns the object, uploaded in parts of {@link #partSize} bytes if set,
+     * as Amazon S3 does.
+     */
+    private class StubS3 extends AbstractAmazonS3 {
+        static final String ETAG = "etag";
+
+        final List<GetObjectRequest> getObjectRequests = Collections.synchronizedList(
+                new ArrayList<GetObjectRequest>());
+        volatile int partSize;
+        volatile String eTagAfterFirstRange;
+        private volatile String eTag = ETAG;
+
+        SortedSet<Integer> partsRequested() {
+            SortedSet<Integer> parts = new TreeSet<Integer>();
+            synchronized (getObjectRequests) {
+                for (GetObjectRequest request : getObjectRequests) {
+                    parts.add(request.getPartNumber());
+                }
+            }
+            return parts;
+        }
+
+        List<long[]> rangesRequested() {
+            List<long[]> ranges = new ArrayList<long[]>();
+            synchronized (getObjectRequests) {
+                for (GetObjectRequest request : getObjectRequests) {
+                    ranges.add(request.getRange());
+                }
+            }
+            Collections.sort(ranges, new Comparator<long[]>() {
+                @Override
+                public int compare(long[] a, long[] b) {
+                    return a[0] < b[0] ? -1 : a[0] == b[0] ? 0 : 1;
+                }
+            });
+            return ranges;
+        }
+
+        @Override
+        public ObjectMetadata getObjectMetadata(GetObjectMetadataRequest request) {
+            ObjectMetadata metadata = metadata();
+            Integer partNumber = request.getPartNumber();
+            if (partNumber != null && partSize > 0) {
+                metadata.setHeader(Headers.S3_PARTS_COUNT, (OBJECT_LENGTH + partSize - 1) / partSize);
+                setPart(metadata, partNumber);
+            } else {
+                metadata.setContentLength(OBJECT_LENGTH);
+            }
+            return metadata;
+        }
+
+        @Override
+        public S3Object getObject(GetObjectRequest request) {
+            // The range is copied, since a range request may be retried from another byte
+            getObjectRequests.add(copyOf(request));
+            List<String> matchingETags = request.getMatchingETagConstraints();
+            if (!matchingETags.isEmpty() && !matchingETags.contains(eTag)) {
+                // The client returns null when a constraint isn't met
+                return null;
+            }
+            ObjectMetadata metadata = metadata();
+            long[] range;
+            if (request.getPartNumber() != null) {
+                range = setPart(metadata, request.getPartNumber());
+            } else {
+                range = request.getRange() == null ? new long[] {0, OBJECT_LENGTH - 1} : request.getRange();
+                range[1] = Math.min(range[1], OBJECT_LENGTH - 1);
+                metadata.setHeader(Headers.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + OBJECT_LENGTH);
+                metadata.setContentLength(range[1] - range[0] + 1);
+                if (eTagAfterFirstRange != null) {
+                    eTag = eTagAfterFirstRange;
+                }
+            }
+            S3Object s3Object = new S3Object();
+            s3Object.setBucketName(request.getBucketName());
+            s3Object.setKey(request.getKey());
+            s3Object.setObjectMetadata(metadata);
+            s3Object.setObjectContent(new S3ObjectInputStream(new ByteArrayInputStream(
+                    Arrays.copyOfRange(object, (int) range[0], (int) range[1] + 1)), null));
+            return s3Object;
+        }
+
+        private ObjectMetadata metadata() {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setHeader(Headers.ETAG, eTag);
+            metadata.setLastModified(LAST_MODIFIED);
+            return metadata;
+        }
+
+        private long[] setPart(ObjectMetadata metadata, int partNumber) {
+            long first = (partNumber - 1L) * partSize;
+            long last = Math.min(first + partSize, OBJECT_LENGTH) - 1;
+            metadata.setHeader(Headers.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + OBJECT_LENGTH);
+            metadata.setContentLength(last - first + 1);
+            return new long[] {first, last};
+        }
+
+        private GetObjectRequest copyOf(GetObjectRequest request) {
+            GetObjectRequest copy = new GetObjectRequest(request.getBucketName(), request.getKey())
+                    .withPartNumber(request.getPartNumber());
+            if (request.getRange() != null) {
+                copy.setRange(request.getRange()[0], request.getRange()[1]);
+            }
+            copy.setMatchingETagConstraints(new ArrayList<String>(request.getMatchingETagConstraints()));
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+
+/**
+ * Tests the upload of streams of unknown length in part-sized buffers against
+ * a stubbed Amazon S3 client, which keeps the parts it receives in memory.
+ */
+public class StreamUploadTest {
+
+    private static final int PART_SIZE = 10;
+
+    private final StubS3 s3 = new StubS3();
+    private ExecutorService threadPool;
+    private TransferManager tm;
+
+    @After
+    public void tearDown() {
+        tm.shutdownNow(false);
+    }
+
+    @Test
+    public void testStreamEndingOnPartBoundary() throws Exception {
+        setUp(PART_SIZE, 3, 4);
+        byte[] content = content(3 * PART_SIZE);
+        Upload upload = upload(new CountingInputStream(content));
+        upload.waitForCompletion();
+
+        assertEquals(TransferState.Completed, upload.getState());
+        // No empty part after the last full one
+        assertEquals(Arrays.asList(PART_SIZE, PART_SIZE, PART_SIZE), s3.partSizes());
+        assertArrayEquals(content, s3.completedContent());
+        assertEquals(3 * PART_SIZE, upload.getProgress().getTotalBytesToTransfer());
+    }
+
+    @Test
+    public void testStreamOfOnePartIsUploadedInParts() throws Exception {
+        setUp(PART_SIZE, 3, 4);
+        byte[] content = content(PART_SIZE);
+        upload(new CountingInputStream(content)).waitForCompletion();
+
+        assertEquals(Collections.singletonList(PART_SIZE), s3.partSizes());
+        assertArrayEquals(content, s3.completedContent());
+        assertNull(s3.putObjectContent);
+    }
+
+    @Test
+    public void testStreamShorterThanOnePartIsUploadedInOneRequest() throws Exception {
+        setUp(PART_SIZE, 3, 4);
+        byte[] content = content(PART_SIZE - 1);
+        upload(new CountingInputStream(content)).waitForCompletion();
+
+        assertArrayEquals(content, s3.putObjectContent);
+        assertEquals(PART_SIZE - 1, s3.putObjectContentLength);
+        assertNull(s3.uploadId);
+    }
+
+    @Test
+    public void testEmptyStreamIsUploadedInOneRequest() throws Exception {
+        setUp(PART_SIZE, 3, 4);
+        CountingInputStream input = new CountingInputStream(new byte[0]);
+        Upload upload = upload(input);
+        upload.waitForCompletion();
+
+        assertEquals(TransferState.Completed, upload.getState());
+        assertArrayEquals(new byte[0], s3.putObjectContent);
+        assertEquals(0, s3.putObjectContentLength);
+        assertNull(s3.uploadId);
+        assertEquals(0, upload.getProgress().getTotalBytesToTransfer());
+        assertTrue(input.isClosed);
+    }
+
+    @Test
+    public void testPartSizeDoublesEveryThousandParts() throws Exception {
+        setUp(1, 4, 4);
+        // 1000 parts of one byte, 1000 parts of two bytes, then a part of four bytes and a last one of one
+        byte[] content = content(1000 + 2000 + 5);
+        upload(new CountingInputStream(content)).waitForCompletion();
+
+        SortedMap<Integer, Integer> partSizes = s3.parts();
+        assertEquals(2002, partSizes.size());
+        assertEquals(Integer.valueOf(1), partSizes.get(1000));
+        assertEquals(Integer.valueOf(2), partSizes.get(1001));
+        assertEquals(Integer.valueOf(2), partSizes.get(2000));
+        assertEquals(Integer.valueOf(4), partSizes.get(2001));
+        assertEquals(Integer.valueOf(1), partSizes.get(2002));
+        assertArrayEquals(content, s3.completedContent());
+    }
+
+    @Test
+    public void testFailedPartCancelsPartsInFlightAndFreesTheirBuffers() throws Exception {
+        // The only thread of the pool runs the upload, so that parts are only
+        // uploaded by the upload itself, as it waits for them
+        setUp(PART_SIZE, 3, 1);
+        AmazonServiceException error = new AmazonServiceException("Internal Error");
+        error.setStatusCode(500);
+        s3.failedPartNumber = 2;
+        s3.partError = error;
+        CountingInputStream input = new CountingInputStream(content(10 * PART_SIZE));
+        Upload upload = upload(input);
+        try {
+            upload.waitForCompletion();
+            fail("Expected the upload to fail");
+        } catch (AmazonServiceException e) {
+            assertSame(error, e);
+        }
+
+        assertEquals(TransferState.Failed, upload.getState());
+        // Reading stopped at the part that waited for the failed one
+        assertEquals(4 * PART_SIZE, input.bytesRead);
+        assertEquals(Collections.singletonList(PART_SIZE), s3.partSizes());
+        // The parts in flight were taken off the queue, and their buffers freed,
+        // before the only thread of the pool was done with the upload
+        assertEquals(Integer.valueOf(0), s3.queuedTasksOnAbort);
+        assertNull(s3.completedParts);
+        assertTrue(input.isClosed);
+    }
+
+    private void setUp(long minimumUploadPartSize, int maxStreamUploadBuffers, int threads) {
+        threadPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        tm = new TransferManager(s3, threadPool);
+        TransferManagerConfiguration configuration = new TransferManagerConfiguration();
+        configuration.setMinimumUploadPartSize(minimumUploadPartSize);
+        configuration.setMaxStreamUploadBuffers(maxStreamUploadBuffers);
+        tm.setConfiguration(configuration);
+    }
+
+    private Upload upload(InputStream input) {
+        return tm.upload(new PutObjectRequest("bucket", "key", input, new ObjectMetadata()));
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] readFully(InputStream input) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        try {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A stream that counts the bytes read from it, and whether it was closed.
+     */
+    private static final class CountingInputStream extends ByteArrayInputStream {
+        private volatile int bytesRead;
+        private volatile boolean isClosed;
+
+        CountingInputStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read() {
+            int b = super.read();
+            if (b != -1) {
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                bytesRead += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            isClosed = true;
+            super.close();
+        }
+    }
+
+    /**
+     * Keeps the parts of a multipart upload and the content of a single
+     * request upload in memory, failing the part the test says.
+     */
+    private final class StubS3 extends AbstractAmazonS3 {
+        private final SortedMap<Integer, byte[]> parts = new TreeMap<Integer, byte[]>();
+        private volatile String uploadId;
+        private volatile int failedPartNumber;
+        private volatile AmazonServiceException partError;
+        private volatile List<PartETag> completedParts;
+        /** The tasks queued in the thread pool when the upload was aborted. */
+        private volatile Integer queuedTasksOnAbort;
+        private volatile byte[] putObjectContent;
+        private volatile long putObjectContentLength = -1;
+
+        synchronized SortedMap<Integer, Integer> parts() {
+            SortedMap<Integer, Integer> sizes = new TreeMap<Integer, Integer>();
+            for (Map.Entry<Integer, byte[]> part : parts.entrySet()) {
+                sizes.put(part.getKey(), part.getValue().length);
+            }
+            return sizes;
+        }
+
+        synchronized List<Integer> partSizes() {
+            return new ArrayList<Integer>(parts().values());
+        }
+
+        /**
+         * Returns the content of the completed upload, from its parts in the
+         * order they were completed.
+         */
+        synchronized byte[] completedContent() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int partNumber = 0;
+            for (PartETag partETag : completedParts) {
+                assertEquals(++partNumber, partETag.getPartNumber());
+                assertEquals("etag-" + partNumber, partETag.getETag());
+                byte[] part = parts.get(partNumber);
+                out.write(part, 0, part.length);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+            assertNull(uploadId);
+            uploadId = "upload-id";
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setBucketName(request.getBucketName());
+            result.setKey(request.getKey());
+            result.setUploadId(uploadId);
+            return result;
+        }
+
+        @Override
+        public UploadPartResult uploadPart(UploadPartRequest request) {
+            assertEquals(uploadId, request.getUploadId());
+            byte[] content = readFully(request.getInputStream());
+            assertEquals(request.getPartSize(), content.length);
+            if (request.getPartNumber() == failedPartNumber) {
+                throw partError;
+            }
+            synchronized (this) {
+                assertFalse(parts.containsKey(request.getPartNumber()));
+                parts.put(request.getPartNumber(), content);
+            }
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag-" + request.getPartNumber());
+            return result;
+        }
+
+        @Override
+        public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            assertEquals(uploadId, request.getUploadId());
+            completedParts = request.getPartETags();
+            CompleteMultipartUploadResult result = new CompleteMultipartUploadResult();
+            result.setBucketName(request.getBucketName());
+            result.setKey(request.getKey());
+            result.setETag("etag");
+            return result;
+        }
+
+        @Override
+        public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+            assertEquals(uploadId, request.getUploadId());
+            queuedTasksOnAbort = ((ThreadPoolExecutor) threadPool).getQueue().size();
+        }
+
+        @Override
+        public PutObjectResult putObject(PutObjectRequest request) {
+            putObjectContentLength = request.getMetadata().getContentLength();
+            putObjectContent = readFully(request.getInputStream());
+            PutObjectResult result = new PutObjectResult();
+            result.setETag("etag");
+            return result;
+        }
+    }
+}
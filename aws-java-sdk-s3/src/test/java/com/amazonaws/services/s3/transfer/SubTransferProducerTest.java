@@ -0,0 +1,332 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.internal.CopyImpl;
+import com.amazonaws.services.s3.transfer.internal.MultipleFileTransferMonitor;
+import com.amazonaws.services.s3.transfer.internal.MultipleObjectCopyImpl;
+import com.amazonaws.services.s3.transfer.internal.TransferMonitor;
+import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
+import com.amazonaws.services.s3.transfer.model.CopyResult;
+
+/**
+ * Tests the listing of a multiple file transfer concurrently with its
+ * sub-transfers, with sub-transfers that complete when the test says so.
+ */
+public class SubTransferProducerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private Collection<CopyImpl> copies;
+    private MultipleObjectCopyImpl transfer;
+    /** The sub-transfers started, including the completed ones. */
+    private List<FakeCopy> started;
+
+    @Before
+    public void setUp() {
+        copies = new ConcurrentLinkedQueue<CopyImpl>();
+        started = Collections.synchronizedList(new ArrayList<FakeCopy>());
+        transfer = new MultipleObjectCopyImpl("test", new TransferProgress(), new ProgressListenerChain(),
+                "source", "", "destination", "", copies);
+    }
+
+    @Test
+    public void testCompletedSubTransfersAreReleased() throws Exception {
+        Producer producer = new Producer(10) {
+            @Override
+            void list(String partition) throws InterruptedException {
+                pageListed();
+                if ( partition.isEmpty() ) {
+                    addPartition("dir/");
+                }
+                addItem(partition + "a");
+                addItem(partition + "b");
+            }
+        };
+        start(producer);
+
+        assertEquals(Integer.valueOf(4), producer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(4, copies.size());
+        for ( FakeCopy copy : started ) {
+            copy.complete();
+        }
+        assertTrue(copies.isEmpty());
+        transfer.waitForCompletion();
+        assertEquals(TransferState.Completed, transfer.getState());
+    }
+
+    @Test
+    public void testFailedSubTransfersAreKept() throws Exception {
+        Producer producer = new Producer(10) {
+            @Override
+            void list(String partition) throws InterruptedException {
+                pageListed();
+                addItem("a");
+                addItem("b");
+            }
+        };
+        start(producer);
+        producer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        AmazonServiceException error = new AmazonServiceException("Access Denied");
+        started.get(0).fail(error);
+        started.get(1).complete();
+        assertEquals(Collections.singletonList(started.get(0)), new ArrayList<CopyImpl>(copies));
+        assertEquals(TransferState.Failed, transfer.getState());
+        assertSame(error, transfer.waitForException());
+    }
+
+    @Test
+    public void testErrorOnFirstPageIsThrownByStart() {
+        final AmazonServiceException error = new AmazonServiceException("NoSuchBucket");
+        Producer producer = new Producer(10) {
+            @Override
+            void list(String partition) {
+                throw error;
+            }
+        };
+        try {
+            start(producer);
+            fail("Expected the listing error");
+        } catch ( AmazonServiceException e ) {
+            assertSame(error, e);
+        }
+        assertEquals(TransferState.Failed, transfer.getState());
+    }
+
+    @Test
+    public void testLaterListingErrorFailsTransferAndAbortsSubTransfers() throws Exception {
+        final AmazonServiceException error = new AmazonServiceException("Internal Error");
+        Producer producer = new Producer(10) {
+            @Override
+            void list(String partition) throws InterruptedException {
+                pageListed();
+                addItem("a");
+                throw error;
+            }
+        };
+        start(producer);
+
+        try {
+            producer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("Expected the listing error");
+        } catch ( ExecutionException e ) {
+            assertSame(error, e.getCause());
+        }
+        assertEquals(TransferState.Canceled, started.get(0).getState());
+        assertEquals(TransferState.Failed, transfer.getState());
+        assertSame(error, transfer.waitForException());
+    }
+
+    @Test
+    public void testCancelStopsListingBlockedOnPendingSubTransfers() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        Producer producer = new Producer(1) {
+            @Override
+            void list(String partition) throws InterruptedException {
+                pageListed();
+                addItem("a");
+                blocked.countDown();
+                // Blocks, since the first copy is still pending
+                addItem("b");
+            }
+        };
+        start(producer);
+        assertTrue(blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(producer.cancel(true));
+        assertTrue(producer.isCancelled());
+        assertEquals(1, started.size());
+        started.get(0).complete();
+        assertEquals(TransferState.Completed, transfer.getState());
+    }
+
+    @Test
+    public void testCancelWithoutSubTransfersCancelsTransfer() throws Exception {
+        final CountDownLatch listing = new CountDownLatch(1);
+        Producer producer = new Producer(1) {
+            @Override
+            void list(String partition) throws InterruptedException {
+                pageListed();
+                listing.countDown();
+                new CountDownLatch(1).await();
+            }
+        };
+        start(producer);
+        assertTrue(listing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        producer.cancel(true);
+        assertEquals(TransferState.Canceled, transfer.getState());
+    }
+
+    @Test
+    public void testSubTransferStartedAfterCancelIsAborted() throws Exception {
+        final Producer producer = new Producer(10) {
+            @Override
+            void list(String partition) throws InterruptedException {
+                pageListed();
+                addItem("a");
+            }
+
+            @Override
+            CopyImpl startSubTransfer(String item, TransferStateChangeListener listener) {
+                // The transfer is aborted while this sub-transfer starts
+                cancel(true);
+                return super.startSubTransfer(item, listener);
+            }
+        };
+        start(producer);
+
+        assertTrue(producer.isCancelled());
+        awaitStarted(1);
+        for ( int i = 0; !started.get(0).isDone(); i++ ) {
+            assertTrue(i < TIMEOUT_SECONDS * 100);
+            Thread.sleep(10);
+        }
+        assertEquals(TransferState.Canceled, started.get(0).getState());
+        assertEquals(TransferState.Canceled, transfer.getState());
+    }
+
+    @Test
+    public void testThrottlingHalvesPendingSubTransfers() throws Exception {
+        final Producer producer = new Producer(4) {
+            @Override
+            void list(String partition) throws InterruptedException {
+                pageListed();
+                for ( int i = 0; i < 20; i++ ) {
+                    addItem("key" + i);
+                }
+            }
+        };
+        start(producer);
+        awaitStarted(4);
+
+        // Down to two pending copies: the slots of the next two to complete are taken back
+        producer.throttled(started.get(0).listener);
+        // A copy started before the decrease doesn't decrease it again
+        producer.throttled(started.get(1).listener);
+        started.get(0).complete();
+        started.get(1).complete();
+        Thread.sleep(100);
+        assertEquals(4, started.size());
+
+        // A copy completed without throttling frees its slot, and adds one
+        started.get(2).complete();
+        awaitStarted(6);
+        Thread.sleep(100);
+        assertEquals(6, started.size());
+        producer.cancel(true);
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        for ( int i = 0; started.size() < count; i++ ) {
+            assertTrue(i < TIMEOUT_SECONDS * 100);
+            Thread.sleep(10);
+        }
+    }
+
+    private void start(Producer producer) {
+        transfer.setMonitor(new MultipleFileTransferMonitor(transfer, copies, producer));
+        producer.start("");
+    }
+
+    /**
+     * Lists as the test says, and starts a fake copy for each item.
+     */
+    private abstract class Producer extends SubTransferProducer<String, String, CopyImpl> {
+
+        Producer(int maxPendingSubTransfers) {
+            super(transfer, copies, maxPendingSubTransfers, 2);
+        }
+
+        @Override
+        CopyImpl startSubTransfer(String item, TransferStateChangeListener listener) {
+            FakeCopy copy = new FakeCopy(item, listener);
+            started.add(copy);
+            return copy;
+        }
+
+        @Override
+        void abortSubTransfer(CopyImpl copy) {
+            copy.cancel();
+        }
+    }
+
+    /**
+     * A copy that completes or fails when the test says so.
+     */
+    private static final class FakeCopy extends CopyImpl {
+        private final TransferStateChangeListener listener;
+        private Exception error;
+        private final FutureTask<CopyResult> future = new FutureTask<CopyResult>(new Callable<CopyResult>() {
+            @Override
+            public CopyResult call() throws Exception {
+                if ( error != null )
+                    throw error;
+                return new CopyResult();
+            }
+        });
+
+        FakeCopy(String key, TransferStateChangeListener listener) {
+            super("Copying " + key, new TransferProgress(), new ProgressListenerChain(), listener);
+            this.listener = listener;
+            setMonitor(new TransferMonitor() {
+                @Override
+                public Future<?> getFuture() {
+                    return future;
+                }
+
+                @Override
+                public boolean isDone() {
+                    return future.isDone();
+                }
+            });
+        }
+
+        void complete() {
+            future.run();
+            setState(TransferState.Completed);
+        }
+
+        void fail(Exception error) {
+            this.error = error;
+            future.run();
+            setState(TransferState.Failed);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2011-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+
+/**
+ * Tests the part sizes {@link AdaptiveMultipartTransfer} chooses, and how it
+ * waits for its parts, with parts that complete at once.
+ */
+public class AdaptiveMultipartTransferTest {
+
+    private final TransferProgress transferProgress = new TransferProgress();
+    private ExecutorService threadPool;
+    private Parts parts;
+
+    @Before
+    public void setUp() {
+        threadPool = Executors.newFixedThreadPool(4);
+        parts = new Parts();
+    }
+
+    @After
+    public void tearDown() {
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testPartsAreTransferredInOrder() throws Exception {
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(1000, 100, 100, 4, transferProgress);
+        List<PartETag> partETags = transfer.transferParts(threadPool, parts);
+
+        assertEquals(parts.sizes.size(), partETags.size());
+        assertEquals(1000, sum(parts.sizes));
+        Collections.sort(partETags, new PartNumberComparator());
+        for (int i = 0; i < partETags.size(); i++) {
+            assertEquals(i + 1, partETags.get(i).getPartNumber());
+            assertEquals("etag-" + (i + 1), partETags.get(i).getETag());
+        }
+    }
+
+    @Test
+    public void testLastPartOnlyTakesRemainingBytes() throws Exception {
+        // The number of parts in flight is settled after a round of two parts,
+        // and the next part is large enough to take the rest
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(250, 100, 100, 1, transferProgress);
+        transfer.transferParts(threadPool, parts);
+
+        assertEquals(Arrays.asList(100L, 100L, 50L), parts.sizes);
+        // The part size published is the one of the parts before the last
+        assertEquals(100, transferProgress.getPartSize());
+        assertEquals(1, transferProgress.getPartConcurrency());
+    }
+
+    @Test
+    public void testPartsAreSpreadOverPartsInFlightNearEnd() throws Exception {
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(1000, 1000, 1, 2, transferProgress);
+        transfer.transferParts(threadPool, parts);
+
+        // The first part doesn't take everything, so that both parts in flight have some
+        assertEquals(Long.valueOf(500), parts.sizes.get(0));
+        assertEquals(1000, sum(parts.sizes));
+    }
+
+    @Test
+    public void testPartsNeverExceedMaximumPartCount() throws Exception {
+        // Parts of the minimum size would need three times as many parts as allowed
+        long contentLength = 3L * MAXIMUM_UPLOAD_PARTS + 7;
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(contentLength, 1, 1, 1, transferProgress);
+        List<PartETag> partETags = transfer.transferParts(new QueuingExecutorService(), parts);
+
+        // The parts measured while probing are larger than asked for, so that
+        // the rest fits in the remaining parts
+        assertEquals(Long.valueOf(4), parts.sizes.get(0));
+        assertEquals(Long.valueOf(4), parts.sizes.get(1));
+        assertTrue(partETags.size() + " parts", partETags.size() <= MAXIMUM_UPLOAD_PARTS);
+        assertEquals(contentLength, sum(parts.sizes));
+        for (long size : parts.sizes) {
+            assertTrue(size > 0);
+        }
+    }
+
+    @Test
+    public void testPartsAreRunInCurrentThreadWhenPoolDoesNotPickThemUp() throws Exception {
+        QueuingExecutorService queuingPool = new QueuingExecutorService();
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(1000, 100, 100, 4, transferProgress);
+        List<PartETag> partETags = transfer.transferParts(queuingPool, parts);
+
+        assertEquals(1000, sum(parts.sizes));
+        assertEquals(parts.sizes.size(), partETags.size());
+        assertEquals(partETags.size(), queuingPool.queued.size());
+        assertEquals(Collections.singleton(Thread.currentThread()), parts.threads());
+    }
+
+    @Test
+    public void testFailedPartFailsTransferAndCancelsPartsInFlight() throws Exception {
+        final AmazonServiceException error = new AmazonServiceException("Internal Error");
+        QueuingExecutorService queuingPool = new QueuingExecutorService();
+        Parts failingParts = new Parts() {
+            @Override
+            PartETag transfer(int partNumber) {
+                if (partNumber == 1) {
+                    throw error;
+                }
+                return super.transfer(partNumber);
+            }
+        };
+        AdaptiveMultipartTransfer transfer = new AdaptiveMultipartTransfer(1000, 100, 100, 4, transferProgress);
+        try {
+            transfer.transferParts(queuingPool, failingParts);
+            fail("Expected the transfer to fail");
+        } catch (AmazonServiceException e) {
+            assertSame(error, e);
+        }
+        // The first part failed when run inline, and the second was cancelled
+        assertEquals(2, queuingPool.queued.size());
+        assertTrue(((Future<?>) queuingPool.queued.get(1)).isCancelled());
+    }
+
+    private static long sum(List<Long> sizes) {
+        long sum = 0;
+        for (long size : sizes) {
+            sum += size;
+        }
+        return sum;
+    }
+
+    /**
+     * Creates parts that complete at once, recording their sizes and the
+     * threads they ran on.
+     */
+    private static class Parts implements AdaptiveMultipartTransfer.PartFactory {
+        final List<Long> sizes = new ArrayList<Long>();
+        private final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        @Override
+        public Callable<PartETag> newPart(long partSize) {
+            sizes.add(partSize);
+            final int partNumber = sizes.size();
+            return new Callable<PartETag>() {
+                @Override
+                public PartETag call() {
+                    threads.add(Thread.currentThread());
+                    return transfer(partNumber);
+                }
+            };
+        }
+
+        PartETag transfer(int partNumber) {
+            return new PartETag(partNumber, "etag-" + partNumber);
+        }
+
+        Set<Thread> threads() {
+            synchronized (threads) {
+                return new HashSet<Thread>(threads);
+            }
+        }
+    }
+
+    /**
+     * A thread pool that never gets to the tasks it is given.
+     */
+    private static final class QueuingExecutorService extends AbstractExecutorService {
+        private final List<Runnable> queued = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            queued.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return queued;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+
+    private static final class PartNumberComparator implements Comparator<PartETag> {
+        @Override
+        public int compare(PartETag a, PartETag b) {
+            return a.getPartNumber() - b.getPartNumber();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2010-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.DeleteObjectsResult.DeletedObject;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+
+/**
+ * Tests the deletion of the objects under a prefix against a stubbed Amazon S3
+ * client, which keeps the objects in memory.
+ */
+public class DeletePrefixMonitorTest {
+
+    private static final String BUCKET = "bucket";
+    private static final long OBJECT_SIZE = 10;
+
+    private ExecutorService threadPool;
+
+    @Before
+    public void setUp() {
+        threadPool = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testDeletesEveryPageInBatches() throws Exception {
+        StubS3 s3 = new StubS3();
+        s3.putObjects("logs/", 2500);
+        s3.putObjects("other/", 1);
+
+        MultipleObjectDeleteImpl delete = deletePrefix(s3, "logs/", 2);
+        delete.waitForCompletion();
+
+        assertEquals(TransferState.Completed, delete.getState());
+        assertEquals(Collections.singleton("other/0"), s3.objects.keySet());
+        assertEquals(2500, delete.getDeletedObjectCount());
+        assertEquals(2500 * OBJECT_SIZE, delete.getProgress().getBytesTransferred());
+        assertEquals(2500 * OBJECT_SIZE, delete.getProgress().getTotalBytesToTransfer());
+        List<Integer> batchSizes = new ArrayList<Integer>();
+        for ( Attempt attempt : s3.attempts ) {
+            batchSizes.add(attempt.keys.size());
+        }
+        Collections.sort(batchSizes);
+        assertEquals(Arrays.asList(500, 1000, 1000), batchSizes);
+    }
+
+    @Test
+    public void testEmptyPrefixCompletes() throws Exception {
+        StubS3 s3 = new StubS3();
+        s3.putObjects("other/", 1);
+
+        MultipleObjectDeleteImpl delete = deletePrefix(s3, "logs/", 2);
+        delete.waitForCompletion();
+
+        assertEquals(TransferState.Completed, delete.getState());
+        assertEquals(0, delete.getDeletedObjectCount());
+        assertTrue(s3.attempts.isEmpty());
+    }
+
+    @Test
+    public void testThrottledObjectsAreDeletedAgainAfterBackOff() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            String errorCode(String key, int attempt) {
+                return attempt == 1 && key.endsWith("7") ? "SlowDown" : null;
+            }
+        };
+        s3.putObjects("logs/", 20);
+
+        MultipleObjectDeleteImpl delete = deletePrefix(s3, "logs/", 1);
+        delete.waitForCompletion();
+
+        assertEquals(TransferState.Completed, delete.getState());
+        assertTrue(s3.objects.isEmpty());
+        assertEquals(20, delete.getDeletedObjectCount());
+        assertEquals(2, s3.attempts.size());
+        assertEquals(Arrays.asList("logs/17", "logs/7"), s3.attempts.get(1).keys);
+        // The equal jitter of throttling waits at least half the 500 ms base delay
+        long delayMillis = (s3.attempts.get(1).nanoTime - s3.attempts.get(0).nanoTime) / 1000000;
+        assertTrue("Retried after " + delayMillis + " ms", delayMillis >= 250);
+    }
+
+    @Test
+    public void testFailedRequestIsSentAgain() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            public DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+                if ( attempts.isEmpty() ) {
+                    recordAttempt(request);
+                    AmazonServiceException e = new AmazonServiceException("Service Unavailable");
+                    e.setStatusCode(503);
+                    throw e;
+                }
+                return super.deleteObjects(request);
+            }
+        };
+        s3.putObjects("logs/", 5);
+
+        MultipleObjectDeleteImpl delete = deletePrefix(s3, "logs/", 1);
+        delete.waitForCompletion();
+
+        assertEquals(TransferState.Completed, delete.getState());
+        assertTrue(s3.objects.isEmpty());
+        assertEquals(2, s3.attempts.size());
+        assertEquals(s3.attempts.get(0).keys, s3.attempts.get(1).keys);
+    }
+
+    @Test
+    public void testObjectsStillFailingAfterMaxAttemptsFailDeletion() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            String errorCode(String key, int attempt) {
+                return key.equals("logs/3") ? "InternalError" : null;
+            }
+        };
+        s3.putObjects("logs/", 5);
+
+        MultipleObjectDeleteImpl delete = deletePrefix(s3, "logs/", 1);
+        try {
+            delete.waitForCompletion();
+            fail("Expected the deletion to fail");
+        } catch ( MultiObjectDeleteException e ) {
+            assertEquals(1, e.getErrors().size());
+            assertEquals("logs/3", e.getErrors().get(0).getKey());
+        }
+
+        assertEquals(TransferState.Failed, delete.getState());
+        assertEquals(Collections.singleton("logs/3"), s3.objects.keySet());
+        assertEquals(4, delete.getDeletedObjectCount());
+        assertEquals(DeletePrefixMonitor.MAX_ATTEMPTS, s3.attempts.size());
+    }
+
+    @Test
+    public void testOtherErrorsAreNotRetried() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            String errorCode(String key, int attempt) {
+                return key.equals("logs/3") ? "AccessDenied" : null;
+            }
+        };
+        s3.putObjects("logs/", 5);
+
+        MultipleObjectDeleteImpl delete = deletePrefix(s3, "logs/", 1);
+        try {
+            delete.waitForCompletion();
+            fail("Expected the deletion to fail");
+        } catch ( MultiObjectDeleteException e ) {
+            assertEquals("AccessDenied", e.getErrors().get(0).getCode());
+        }
+        assertEquals(1, s3.attempts.size());
+    }
+
+    private MultipleObjectDeleteImpl deletePrefix(StubS3 s3, String keyPrefix, int maxConcurrency) {
+        TransferProgress transferProgress = new TransferProgress();
+        transferProgress.setTotalBytesToTransfer(0);
+        ProgressListenerChain listenerChain = new ProgressListenerChain(
+                new TransferProgressUpdatingListener(transferProgress));
+        MultipleObjectDeleteImpl delete = new MultipleObjectDeleteImpl("test", transferProgress,
+                listenerChain, BUCKET, keyPrefix);
+        delete.setMonitor(DeletePrefixMonitor.create(s3, delete, threadPool, BUCKET, keyPrefix,
+                maxConcurrency, listenerChain));
+        return delete;
+    }
+
+    /**
+     * A DeleteObjects request received by the stub.
+     */
+    private static final class Attempt {
+        private final List<String> keys;
+        private final long nanoTime = System.nanoTime();
+
+        private Attempt(List<String> keys) {
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * Lists and deletes objects kept in memory, failing the deletion of the
+     * objects the test says.
+     */
+    private static class StubS3 extends AbstractAmazonS3 {
+        final SortedMap<String, Long> objects = Collections.synchronizedSortedMap(new TreeMap<String, Long>());
+        final List<Attempt> attempts = Collections.synchronizedList(new ArrayList<Attempt>());
+
+        void putObjects(String keyPrefix, int count) {
+            for ( int i = 0; i < count; i++ ) {
+                objects.put(keyPrefix + i, OBJECT_SIZE);
+            }
+        }
+
+        /**
+         * Returns the error code to fail the deletion of the given object with
+         * in the given DeleteObjects request, counted from one, or null to
+         * delete it.
+         */
+        String errorCode(String key, int attempt) {
+            return null;
+        }
+
+        int recordAttempt(DeleteObjectsRequest request) {
+            List<String> keys = new ArrayList<String>();
+            for ( KeyVersion key : request.getKeys() ) {
+                keys.add(key.getKey());
+            }
+            Collections.sort(keys);
+            synchronized (attempts) {
+                attempts.add(new Attempt(keys));
+                return attempts.size();
+            }
+        }
+
+        @Override
+        public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+            ListObjectsV2Result result = new ListObjectsV2Result();
+            String after = request.getContinuationToken();
+            synchronized (objects) {
+                for ( String key : objects.keySet() ) {
+                    if ( !key.startsWith(request.getPrefix()) || (after != null && key.compareTo(after) <= 0) ) {
+                        continue;
+                    }
+                    if ( result.getObjectSummaries().size() == request.getMaxKeys() ) {
+                        result.setTruncated(true);
+                        break;
+                    }
+                    S3ObjectSummary summary = new S3ObjectSummary();
+                    summary.setBucketName(request.getBucketName());
+                    summary.setKey(key);
+                    summary.setSize(objects.get(key));
+                    result.getObjectSummaries().add(summary);
+                    result.setNextContinuationToken(key);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+            int attempt = recordAttempt(request);
+            List<DeleteError> errors = new ArrayList<DeleteError>();
+            List<DeletedObject> deleted = new ArrayList<DeletedObject>();
+            for ( KeyVersion keyVersion : request.getKeys() ) {
+                String code = errorCode(keyVersion.getKey(), attempt);
+                if ( code == null ) {
+                    objects.remove(keyVersion.getKey());
+                    DeletedObject deletedObject = new DeletedObject();
+                    deletedObject.setKey(keyVersion.getKey());
+                    deleted.add(deletedObject);
+                } else {
+                    DeleteError error = new DeleteError();
+                    error.setKey(keyVersion.getKey());
+                    error.setCode(code);
+                    errors.add(error);
+                }
+            }
+            if ( !errors.isEmpty() )
+                throw new MultiObjectDeleteException(errors, deleted);
+            return new DeleteObjectsResult(deleted);
+        }
+    }
+}
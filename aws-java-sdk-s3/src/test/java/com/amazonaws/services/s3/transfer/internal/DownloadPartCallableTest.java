@@ -0,0 +1,292 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+
+/**
+ * Tests that {@link DownloadPartCallable} writes parts and ranges at their
+ * position in the destination file, and how it retries them.
+ */
+public class DownloadPartCallableTest {
+
+    private static final int PART_SIZE = 100 * 1024;
+
+    private final byte[] object = new byte[3 * PART_SIZE + 1234];
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        new Random(42).nextBytes(object);
+        file = File.createTempFile("DownloadPartCallableTest", ".bin");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(object.length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testPartsWrittenConcurrentlyInAnyOrder() throws Exception {
+        final StubS3 s3 = new StubS3();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int partNumber = 4; partNumber >= 1; partNumber--) {
+                futures.add(executor.submit(new DownloadPartCallable(s3,
+                        new GetObjectRequest("bucket", "key").withPartNumber(partNumber), file)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(Integer.valueOf(4 - i), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertArrayEquals(object, readFile());
+    }
+
+    @Test
+    public void testRangeIsWrittenAtItsPositionOnly() throws Exception {
+        StubS3 s3 = new StubS3();
+        GetObjectRequest request = new GetObjectRequest("bucket", "key").withRange(PART_SIZE, 2 * PART_SIZE - 1);
+        assertNull(new DownloadPartCallable(s3, request, file).call());
+
+        byte[] expected = new byte[object.length];
+        System.arraycopy(object, PART_SIZE, expected, PART_SIZE, PART_SIZE);
+        assertArrayEquals(expected, readFile());
+    }
+
+    @Test
+    public void testRangeIsResumedFromLastByteWritten() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            InputStream content(byte[] bytes, int attempt) {
+                // The connection is reset two thirds of the way through
+                return attempt == 1 ? new FailingInputStream(bytes, bytes.length * 2 / 3) : super.content(bytes, attempt);
+            }
+        };
+        GetObjectRequest request = new GetObjectRequest("bucket", "key").withRange(0, object.length - 1);
+        new DownloadPartCallable(s3, request, file).call();
+
+        assertArrayEquals(object, readFile());
+        assertEquals(2, s3.ranges.size());
+        long resumedFrom = s3.ranges.get(1)[0];
+        assertTrue(resumedFrom > 0 && resumedFrom < object.length);
+        assertEquals(object.length - 1, s3.ranges.get(1)[1]);
+    }
+
+    @Test
+    public void testTruncatedRangeIsRequestedAgain() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            InputStream content(byte[] bytes, int attempt) {
+                return attempt == 1 ? new ByteArrayInputStream(bytes, 0, 10) : super.content(bytes, attempt);
+            }
+        };
+        GetObjectRequest request = new GetObjectRequest("bucket", "key").withRange(100, 199);
+        new DownloadPartCallable(s3, request, file).call();
+
+        assertEquals(Arrays.asList(100L, 110L), Arrays.asList(s3.ranges.get(0)[0], s3.ranges.get(1)[0]));
+        byte[] content = readFile();
+        assertArrayEquals(Arrays.copyOfRange(object, 100, 200), Arrays.copyOfRange(content, 100, 200));
+    }
+
+    @Test
+    public void testRangeFailsAfterMaxAttempts() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            InputStream content(byte[] bytes, int attempt) {
+                return new FailingInputStream(bytes, 1);
+            }
+        };
+        try {
+            new DownloadPartCallable(s3, new GetObjectRequest("bucket", "key").withRange(0, 999), file).call();
+            fail("Expected the download to fail");
+        } catch (AmazonClientException expected) {
+        }
+        assertEquals(3, s3.ranges.size());
+    }
+
+    @Test
+    public void testPartIsDownloadedAgainOnce() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            InputStream content(byte[] bytes, int attempt) {
+                return new FailingInputStream(bytes, 1);
+            }
+        };
+        try {
+            new DownloadPartCallable(s3, new GetObjectRequest("bucket", "key").withPartNumber(2), file).call();
+            fail("Expected the download to fail");
+        } catch (AmazonClientException expected) {
+        }
+        assertEquals(2, s3.attempts);
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            public S3Object getObject(GetObjectRequest request) {
+                attempts++;
+                AmazonServiceException e = new AmazonServiceException("At least one of the preconditions failed");
+                e.setStatusCode(412);
+                throw e;
+            }
+        };
+        try {
+            new DownloadPartCallable(s3, new GetObjectRequest("bucket", "key").withRange(0, 999), file).call();
+            fail("Expected the download to fail");
+        } catch (AmazonServiceException expected) {
+        }
+        assertEquals(1, s3.attempts);
+    }
+
+    @Test
+    public void testResponseWithoutContentRangeIsRejected() throws Exception {
+        StubS3 s3 = new StubS3() {
+            @Override
+            public S3Object getObject(GetObjectRequest request) {
+                S3Object s3Object = super.getObject(request);
+                s3Object.getObjectMetadata().setHeader(Headers.CONTENT_RANGE, null);
+                return s3Object;
+            }
+        };
+        try {
+            new DownloadPartCallable(s3, new GetObjectRequest("bucket", "key").withPartNumber(1), file).call();
+            fail("Expected the download to fail");
+        } catch (AmazonClientException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("Content-Range"));
+        }
+    }
+
+    private byte[] readFile() throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            raf.readFully(content);
+        } finally {
+            raf.close();
+        }
+        return content;
+    }
+
+    /**
+     * Returns parts of {@link #PART_SIZE} bytes and ranges of the object.
+     */
+    private class StubS3 extends AbstractAmazonS3 {
+        final List<long[]> ranges = Collections.synchronizedList(new ArrayList<long[]>());
+        volatile int attempts;
+
+        /**
+         * Returns the content of the response to the given attempt, counted
+         * from one.
+         */
+        InputStream content(byte[] bytes, int attempt) {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public S3Object getObject(GetObjectRequest request) {
+            int attempt = ++attempts;
+            long first;
+            long last;
+            if (request.getPartNumber() != null) {
+                first = (request.getPartNumber() - 1L) * PART_SIZE;
+                last = Math.min(first + PART_SIZE, object.length) - 1;
+            } else {
+                first = request.getRange()[0];
+                last = request.getRange()[1];
+                ranges.add(new long[] {first, last});
+            }
+            S3Object s3Object = new S3Object();
+            s3Object.setBucketName(request.getBucketName());
+            s3Object.setKey(request.getKey());
+            s3Object.getObjectMetadata().setHeader(Headers.CONTENT_RANGE,
+                    "bytes " + first + "-" + last + "/" + object.length);
+            s3Object.setObjectContent(new S3ObjectInputStream(
+                    content(Arrays.copyOfRange(object, (int) first, (int) last + 1), attempt), null));
+            return s3Object;
+        }
+    }
+
+    /**
+     * Fails with a reset connection once the given number of bytes were read.
+     */
+    private static final class FailingInputStream extends InputStream {
+        private final InputStream in;
+        private int remaining;
+
+        FailingInputStream(byte[] bytes, int failAt) {
+            this.in = new ByteArrayInputStream(bytes);
+            this.remaining = failAt;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) {
+                throw new SocketException("Connection reset");
+            }
+            int read = in.read(b, off, Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3Encryption;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.transfer.TransferManagerConfiguration;
+
+/**
+ * Tests when and how {@link TransferManagerUtils} splits the download of an
+ * object without parts into ranges.
+ */
+public class TransferManagerUtilsTest {
+
+    private static final long MB = 1024 * 1024;
+    private static final int MAXIMUM_PARTS = 10000;
+
+    private final AmazonS3 s3 = new AbstractAmazonS3() {
+    };
+    private TransferManagerConfiguration configuration;
+
+    @Before
+    public void setUp() {
+        configuration = new TransferManagerConfiguration();
+        configuration.setRangedDownloadThreshold(32 * MB);
+        configuration.setRangedDownloadPartSize(8 * MB);
+    }
+
+    @Test
+    public void testRangedDownloadsAreDisabledByDefault() {
+        assertFalse(TransferManagerUtils.isDownloadRangeSplittable(s3, request(), Long.MAX_VALUE - 1,
+                new TransferManagerConfiguration()));
+    }
+
+    @Test
+    public void testObjectAboveThresholdIsSplittable() {
+        assertTrue(TransferManagerUtils.isDownloadRangeSplittable(s3, request(), 32 * MB + 1, configuration));
+        assertFalse(TransferManagerUtils.isDownloadRangeSplittable(s3, request(), 32 * MB, configuration));
+    }
+
+    @Test
+    public void testObjectNoLargerThanOnePartIsNotSplittable() {
+        configuration.setRangedDownloadThreshold(0);
+        assertFalse(TransferManagerUtils.isDownloadRangeSplittable(s3, request(), 8 * MB, configuration));
+        assertTrue(TransferManagerUtils.isDownloadRangeSplittable(s3, request(), 8 * MB + 1, configuration));
+    }
+
+    @Test
+    public void testRequestForRangeOrPartIsNotSplittable() {
+        assertFalse(TransferManagerUtils.isDownloadRangeSplittable(s3, request().withRange(0, 64 * MB),
+                64 * MB, configuration));
+        assertFalse(TransferManagerUtils.isDownloadRangeSplittable(s3, request().withPartNumber(1),
+                64 * MB, configuration));
+    }
+
+    @Test
+    public void testDisabledParallelDownloadsAreNotSplit() {
+        configuration.setDisableParallelDownloads(true);
+        assertFalse(TransferManagerUtils.isDownloadRangeSplittable(s3, request(), 64 * MB, configuration));
+    }
+
+    @Test
+    public void testEncryptedObjectsAreNotSplit() {
+        AmazonS3 encryption = new EncryptionS3();
+        assertFalse(TransferManagerUtils.isDownloadRangeSplittable(encryption, request(), 64 * MB, configuration));
+    }
+
+    @Test
+    public void testPartSizeIsConfiguredSizeForSmallObjects() {
+        assertEquals(8 * MB, TransferManagerUtils.calculateRangedDownloadPartSize(64 * MB, configuration));
+        assertEquals(8 * MB, TransferManagerUtils.calculateRangedDownloadPartSize(
+                8 * MB * MAXIMUM_PARTS, configuration));
+    }
+
+    @Test
+    public void testPartSizeGrowsToStayWithinMaximumParts() {
+        long contentLength = 8 * MB * MAXIMUM_PARTS + 1;
+        long partSize = TransferManagerUtils.calculateRangedDownloadPartSize(contentLength, configuration);
+        assertEquals(8 * MB + 1, partSize);
+        assertTrue((contentLength + partSize - 1) / partSize <= MAXIMUM_PARTS);
+
+        // A length that doesn't divide evenly is rounded up, not down
+        contentLength = 5L * 1024 * 1024 * 1024 * 1024 - 1;
+        partSize = TransferManagerUtils.calculateRangedDownloadPartSize(contentLength, configuration);
+        assertEquals((contentLength + MAXIMUM_PARTS - 1) / MAXIMUM_PARTS, partSize);
+        assertTrue((contentLength + partSize - 1) / partSize <= MAXIMUM_PARTS);
+    }
+
+    private static GetObjectRequest request() {
+        return new GetObjectRequest("bucket", "key");
+    }
+
+    private static final class EncryptionS3 extends AbstractAmazonS3 implements AmazonS3Encryption {
+    }
+}